@@ -37,6 +37,7 @@ import com.hazelcast.instance.GroupProperties;
 import com.hazelcast.multimap.MultiMapService;
 import com.hazelcast.concurrent.atomiclong.AtomicLongService;
 import com.hazelcast.concurrent.countdownlatch.CountDownLatchService;
+import com.hazelcast.concurrent.counter.CounterService;
 import com.hazelcast.concurrent.idgen.IdGeneratorService;
 import com.hazelcast.concurrent.lock.LockServiceImpl;
 import com.hazelcast.concurrent.semaphore.SemaphoreService;
@@ -295,6 +296,11 @@ public final class HazelcastClient implements HazelcastInstance {
         return getDistributedObject(IdGeneratorService.SERVICE_NAME, name);
     }
 
+    @Override
+    public ICounter getCounter(String name) {
+        return getDistributedObject(CounterService.SERVICE_NAME, name);
+    }
+
     @Override
     public IAtomicLong getAtomicLong(String name) {
         return getDistributedObject(AtomicLongService.SERVICE_NAME, name);
@@ -410,6 +416,10 @@ public final class HazelcastClient implements HazelcastInstance {
         getLifecycleService().shutdown();
     }
 
+    void beforeShutdown() {
+        proxyManager.shutdownProxies();
+    }
+
     void doShutdown() {
         CLIENTS.remove(id);
         executionService.shutdown();
@@ -117,6 +117,10 @@ public final class HazelcastClientProxy implements HazelcastInstance {
         return getClient().getAtomicLong(name);
     }
 
+    public ICounter getCounter(String name) {
+        return getClient().getCounter(name);
+    }
+
     public ICountDownLatch getCountDownLatch(String name) {
         return getClient().getCountDownLatch(name);
     }
@@ -86,6 +86,10 @@ public final class LifecycleServiceImpl implements LifecycleService {
     }
 
     public void shutdown() {
+        if (active.get()) {
+            // proxies send what they have batched while the client is still connected
+            client.beforeShutdown();
+        }
         active.set(false);
         synchronized (lifecycleLock) {
             fireLifecycleEvent(SHUTTING_DOWN);
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client.proxy;
+
+import com.hazelcast.client.spi.ClientProxy;
+import com.hazelcast.concurrent.counter.ShardedCounter;
+import com.hazelcast.core.ICounter;
+
+/**
+ * Client side {@link ICounter}, updates are batched by the client before they are sent.
+ */
+public class ClientCounterProxy extends ClientProxy implements ICounter {
+
+    final ShardedCounter counter;
+
+    public ClientCounterProxy(String serviceName, String objectId, ShardedCounter counter) {
+        super(serviceName, objectId);
+        this.counter = counter;
+    }
+
+    public void add(long delta) {
+        counter.add(delta);
+    }
+
+    public void increment() {
+        counter.add(1);
+    }
+
+    public void decrement() {
+        counter.add(-1);
+    }
+
+    public long get() {
+        return counter.get();
+    }
+
+    public long getExact() {
+        return counter.getExact();
+    }
+
+    protected void onDestroy() {
+        counter.destroy();
+    }
+
+    protected void onShutdown() {
+        counter.flush();
+    }
+}
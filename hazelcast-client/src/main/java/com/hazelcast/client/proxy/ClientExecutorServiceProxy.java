@@ -132,6 +132,14 @@ public class ClientExecutorServiceProxy extends ClientProxy implements IExecutor
         return futureMap;
     }
 
+    public <T> List<Future<T>> submitAll(Collection<? extends Callable<T>> tasks) {
+        final List<Future<T>> futures = new ArrayList<Future<T>>(tasks.size());
+        for (Callable<T> task : tasks) {
+            futures.add(submit(task));
+        }
+        return futures;
+    }
+
     public void submit(Runnable command, ExecutionCallback callback) {
         submitToKeyOwner(command, getTaskPartitionKey(command), callback);
     }
@@ -17,11 +17,11 @@
 package com.hazelcast.client.proxy;
 
 import com.hazelcast.client.spi.ClientProxy;
+import com.hazelcast.concurrent.idgen.IdBlockAllocator;
 import com.hazelcast.core.IAtomicLong;
 import com.hazelcast.core.IdGenerator;
 
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.Executor;
 
 /**
  * @author ali 5/28/13
@@ -29,60 +29,29 @@ import java.util.concurrent.atomic.AtomicLong;
 public class ClientIdGeneratorProxy extends ClientProxy implements IdGenerator {
 
 
-    private static final int BLOCK_SIZE = 10000;
-
     final String name;
 
     final IAtomicLong atomicLong;
 
-    AtomicInteger residue;
-
-    AtomicLong local;
+    final IdBlockAllocator allocator;
 
-    public ClientIdGeneratorProxy(String serviceName, String objectId, IAtomicLong atomicLong) {
+    public ClientIdGeneratorProxy(String serviceName, String objectId, IAtomicLong atomicLong, Executor executor) {
         super(serviceName, objectId);
         this.atomicLong = atomicLong;
         this.name = objectId;
-        residue = new AtomicInteger(BLOCK_SIZE);
-        local = new AtomicLong(-1);
+        this.allocator = new IdBlockAllocator(atomicLong, executor);
     }
 
     public boolean init(long id) {
-        if (id <= 0) {
-            return false;
-        }
-        long step = (id / BLOCK_SIZE);
-
-        synchronized (this) {
-            boolean init = atomicLong.compareAndSet(0, step+1);
-            if (init){
-                local.set(step);
-                residue.set((int)(id % BLOCK_SIZE)+1);
-            }
-            return init;
-        }
-
+        return allocator.init(id);
     }
 
     public long newId() {
-        int value = residue.getAndIncrement();
-        if (value >= BLOCK_SIZE) {
-            synchronized (this) {
-                value = residue.get();
-                if (value >= BLOCK_SIZE) {
-                    local.set(atomicLong.getAndIncrement());
-                    residue.set(0);
-                }
-                return newId();
-            }
-        }
-        return local.get() * BLOCK_SIZE + value;
+        return allocator.newId();
     }
 
     protected void onDestroy() {
         atomicLong.destroy();
-        residue = null;
-        local = null;
     }
 
 }
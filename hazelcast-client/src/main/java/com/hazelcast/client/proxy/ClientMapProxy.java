@@ -17,8 +17,10 @@
 package com.hazelcast.client.proxy;
 
 import com.hazelcast.client.nearcache.ClientNearCache;
+import com.hazelcast.client.spi.ClientPartitionService;
 import com.hazelcast.client.spi.ClientProxy;
 import com.hazelcast.client.spi.EventHandler;
+import com.hazelcast.concurrent.lock.LockKeyComparator;
 import com.hazelcast.config.NearCacheConfig;
 import com.hazelcast.core.*;
 import com.hazelcast.map.*;
@@ -244,6 +246,63 @@ public final class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V
         return result;
     }
 
+    /**
+     * Locks the keys one by one, in the same order the members use for
+     * {@link IMap#lockAll(java.util.Collection)}.
+     */
+    public void lockAll(Collection<K> keys) {
+        final List<Data> sorted = toSortedLockKeys(keys);
+        final List<Data> locked = new ArrayList<Data>(sorted.size());
+        try {
+            for (Data keyData : sorted) {
+                invoke(new MapLockRequest(name, keyData, ThreadUtil.getThreadId()), keyData);
+                locked.add(keyData);
+            }
+        } catch (RuntimeException e) {
+            for (Data keyData : locked) {
+                try {
+                    invoke(new MapUnlockRequest(name, keyData, ThreadUtil.getThreadId(), false), keyData);
+                } catch (RuntimeException ignored) {
+                }
+            }
+            throw e;
+        }
+    }
+
+    public void unlockAll(Collection<K> keys) {
+        RuntimeException error = null;
+        for (Data keyData : toSortedLockKeys(keys)) {
+            try {
+                invoke(new MapUnlockRequest(name, keyData, ThreadUtil.getThreadId(), false), keyData);
+            } catch (RuntimeException e) {
+                error = e;
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private List<Data> toSortedLockKeys(Collection<K> keys) {
+        final ClientPartitionService partitionService = getContext().getPartitionService();
+        final TreeMap<Integer, Set<Data>> partitions = new TreeMap<Integer, Set<Data>>();
+        for (K key : keys) {
+            final Data keyData = toData(key);
+            final int partitionId = partitionService.getPartitionId(keyData);
+            Set<Data> partitionKeys = partitions.get(partitionId);
+            if (partitionKeys == null) {
+                partitionKeys = new TreeSet<Data>(LockKeyComparator.INSTANCE);
+                partitions.put(partitionId, partitionKeys);
+            }
+            partitionKeys.add(keyData);
+        }
+        final List<Data> sorted = new ArrayList<Data>(keys.size());
+        for (Set<Data> partitionKeys : partitions.values()) {
+            sorted.addAll(partitionKeys);
+        }
+        return sorted;
+    }
+
     public void unlock(K key) {
         final Data keyData = toData(key);
         MapUnlockRequest request = new MapUnlockRequest(name, keyData, ThreadUtil.getThreadId(), false);
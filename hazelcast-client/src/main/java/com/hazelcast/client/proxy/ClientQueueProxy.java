@@ -138,6 +138,26 @@ public final class ClientQueueProxy<E> extends ClientProxy implements IQueue<E>{
         return coll.size();
     }
 
+    public int offerAll(Collection<? extends E> items, long timeout, TimeUnit unit) throws InterruptedException {
+        OfferAllRequest request = new OfferAllRequest(name, unit.toMillis(timeout), getDataList(items));
+        Integer result = invoke(request);
+        return result;
+    }
+
+    public List<E> pollBatch(int maxElements, long timeout, TimeUnit unit) throws InterruptedException {
+        if (maxElements <= 0) {
+            throw new IllegalArgumentException("maxElements must be positive");
+        }
+        DrainRequest request = new DrainRequest(name, maxElements, unit.toMillis(timeout));
+        PortableCollection result = invoke(request);
+        Collection<Data> coll = result.getCollection();
+        List<E> items = new ArrayList<E>(coll.size());
+        for (Data data : coll) {
+            items.add((E) getContext().getSerializationService().toObject(data));
+        }
+        return items;
+    }
+
     public E remove() {
         final E res = poll();
         if (res == null) {
@@ -105,4 +105,10 @@ public abstract class ClientProxy implements DistributedObject {
     }
 
     protected abstract void onDestroy();
+
+    /**
+     * Called when the client shuts down, while it is still connected to the cluster.
+     */
+    protected void onShutdown() {
+    }
 }
@@ -20,6 +20,7 @@ import com.hazelcast.client.util.ErrorHandler;
 import com.hazelcast.core.HazelcastException;
 import com.hazelcast.core.HazelcastInstanceNotActiveException;
 import com.hazelcast.spi.Callback;
+import com.hazelcast.util.ExceptionUtil;
 
 import java.io.IOException;
 import java.util.UUID;
@@ -38,6 +39,7 @@ public final class ListenerSupport  {
     private Future<?> future;
     private volatile boolean active = true;
     private volatile ResponseStream lastStream;
+    private volatile Exception registrationError;
     private Object partitionKey;
     final CountDownLatch latch = new CountDownLatch(1);
 
@@ -84,6 +86,9 @@ public final class ListenerSupport  {
             }
         } catch (InterruptedException ignored) {
         }
+        if (registrationError != null) {
+            throw ExceptionUtil.rethrow(registrationError);
+        }
         return UUID.randomUUID().toString();
     }
 
@@ -104,8 +109,10 @@ public final class ListenerSupport  {
     private class EventResponseHandler implements ResponseHandler {
 
         public void handle(final ResponseStream stream) throws Exception {
+            boolean registered = false;
             try {
                 stream.read(); // initial ok response
+                registered = true;
                 lastStream = stream;
                 latch.countDown();
                 while (active && !Thread.currentThread().isInterrupted()) {
@@ -121,6 +128,11 @@ public final class ListenerSupport  {
                     throw e;
                 } else {
                     active = false;
+                    if (!registered) {
+                        // the request was refused, listen() reports it instead of timing out
+                        registrationError = e;
+                        latch.countDown();
+                    }
                 }
             }
 
@@ -27,6 +27,8 @@ import com.hazelcast.collection.set.SetService;
 import com.hazelcast.multimap.MultiMapService;
 import com.hazelcast.concurrent.atomiclong.AtomicLongService;
 import com.hazelcast.concurrent.countdownlatch.CountDownLatchService;
+import com.hazelcast.concurrent.counter.CounterService;
+import com.hazelcast.concurrent.counter.ShardedCounter;
 import com.hazelcast.concurrent.idgen.IdGeneratorService;
 import com.hazelcast.concurrent.lock.LockServiceImpl;
 import com.hazelcast.concurrent.semaphore.SemaphoreService;
@@ -50,6 +52,8 @@ import com.hazelcast.util.ExceptionUtil;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author mdogan 5/16/13
@@ -132,7 +136,29 @@ public final class ProxyManager {
             public ClientProxy create(String id) {
                 String name = String.valueOf(id);
                 IAtomicLong atomicLong = client.getAtomicLong(IdGeneratorService.ATOMIC_LONG_NAME + name);
-                return new ClientIdGeneratorProxy(IdGeneratorService.SERVICE_NAME, name, atomicLong);
+                return new ClientIdGeneratorProxy(IdGeneratorService.SERVICE_NAME, name, atomicLong, new Executor() {
+                    public void execute(Runnable command) {
+                        client.getClientExecutionService().execute(command);
+                    }
+                });
+            }
+        });
+
+        register(CounterService.SERVICE_NAME, new ClientProxyFactory() {
+            public ClientProxy create(String id) {
+                String name = String.valueOf(id);
+                int localShard = new Random().nextInt(CounterService.SHARD_COUNT);
+                ShardedCounter counter = new ShardedCounter(CounterService.getShards(client, name), localShard,
+                        new ShardedCounter.FlushExecutor() {
+                            public void execute(Runnable command) {
+                                client.getClientExecutionService().execute(command);
+                            }
+
+                            public void schedule(Runnable command, long delayMillis) {
+                                client.getClientExecutionService().schedule(command, delayMillis, TimeUnit.MILLISECONDS);
+                            }
+                        });
+                return new ClientCounterProxy(CounterService.SERVICE_NAME, name, counter);
             }
         });
 
@@ -203,6 +229,16 @@ public final class ProxyManager {
         listeners.clear();
     }
 
+    public void shutdownProxies() {
+        for (ClientProxy proxy : proxies.values()) {
+            try {
+                proxy.onShutdown();
+            } catch (Exception e) {
+                logger.warning("While shutting down proxy " + proxy.getName(), e);
+            }
+        }
+    }
+
     public String addDistributedObjectListener(final DistributedObjectListener listener) {
         final DistributedObjectListenerRequest request = new DistributedObjectListenerRequest();
         ClientContext context = new ClientContext(client.getSerializationService(), client.getClientClusterService(),
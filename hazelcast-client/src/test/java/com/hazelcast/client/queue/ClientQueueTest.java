@@ -53,6 +53,7 @@ public class ClientQueueTest {
         Config config = new Config();
         QueueConfig queueConfig = config.getQueueConfig(queueName);
         queueConfig.setMaxSize(6);
+        config.getQueueConfig("sharded").setShardCount(4);
         server = Hazelcast.newHazelcastInstance(config);
         hz = HazelcastClient.newHazelcastClient(null);
         q = hz.getQueue(queueName);
@@ -327,4 +328,19 @@ public class ClientQueueTest {
         assertNull(q.poll());
 
     }
+
+    @Test
+    public void testShardedQueueIsRejected() {
+        final IQueue<String> sharded = hz.getQueue("sharded");
+        try {
+            sharded.offer("item");
+            fail();
+        } catch (UnsupportedOperationException expected) {
+        }
+        try {
+            sharded.size();
+            fail();
+        } catch (UnsupportedOperationException expected) {
+        }
+    }
 }
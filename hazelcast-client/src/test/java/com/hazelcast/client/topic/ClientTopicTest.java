@@ -17,6 +17,7 @@
 package com.hazelcast.client.topic;
 
 import com.hazelcast.client.HazelcastClient;
+import com.hazelcast.config.Config;
 import com.hazelcast.core.*;
 import com.hazelcast.test.HazelcastJUnit4ClassRunner;
 import com.hazelcast.test.annotation.SerialTest;
@@ -29,6 +30,7 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * @author ali 5/24/13
@@ -45,7 +47,9 @@ public class ClientTopicTest {
 
     @BeforeClass
     public static void init(){
-        server = Hazelcast.newHazelcastInstance();
+        Config config = new Config();
+        config.getTopicConfig("reliable").setReliable(true);
+        server = Hazelcast.newHazelcastInstance(config);
         hz = HazelcastClient.newHazelcastClient(null);
         t = hz.getTopic(name);
     }
@@ -79,4 +83,22 @@ public class ClientTopicTest {
         assertTrue(latch.await(20, TimeUnit.SECONDS));
 
     }
+
+    @Test
+    public void testReliableTopicIsRejected() {
+        final ITopic reliable = hz.getTopic("reliable");
+        try {
+            reliable.publish("message");
+            fail();
+        } catch (UnsupportedOperationException expected) {
+        }
+        try {
+            reliable.addMessageListener(new MessageListener() {
+                public void onMessage(Message message) {
+                }
+            });
+            fail();
+        } catch (UnsupportedOperationException expected) {
+        }
+    }
 }
@@ -17,11 +17,13 @@
 package com.hazelcast.cluster;
 
 import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.spi.UrgentSystemOperation;
 
 /**
  * @author mdogan 7/25/12
  */
-public final class HeartbeatOperation extends AbstractClusterOperation implements JoinOperation, IdentifiedDataSerializable {
+public final class HeartbeatOperation extends AbstractClusterOperation implements JoinOperation, UrgentSystemOperation,
+        IdentifiedDataSerializable {
 
     public void run() {
         // do nothing ...
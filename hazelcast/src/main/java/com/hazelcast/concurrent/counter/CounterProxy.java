@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.concurrent.counter;
+
+import com.hazelcast.core.ICounter;
+import com.hazelcast.spi.AbstractDistributedObject;
+import com.hazelcast.spi.NodeEngine;
+
+/**
+ * Member side {@link ICounter}, the shards are atomic longs named by {@link CounterService#getShardName}.
+ */
+public class CounterProxy extends AbstractDistributedObject<CounterService> implements ICounter {
+
+    final String name;
+
+    final ShardedCounter counter;
+
+    public CounterProxy(String name, NodeEngine nodeEngine, CounterService service, ShardedCounter counter) {
+        super(nodeEngine, service);
+        this.name = name;
+        this.counter = counter;
+    }
+
+    public void add(long delta) {
+        counter.add(delta);
+    }
+
+    public void increment() {
+        counter.add(1);
+    }
+
+    public void decrement() {
+        counter.add(-1);
+    }
+
+    public long get() {
+        return counter.get();
+    }
+
+    public long getExact() {
+        return counter.getExact();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getServiceName() {
+        return CounterService.SERVICE_NAME;
+    }
+}
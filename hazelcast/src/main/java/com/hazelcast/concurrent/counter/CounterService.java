@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.concurrent.counter;
+
+import com.hazelcast.core.DistributedObject;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IAtomicLong;
+import com.hazelcast.core.LifecycleEvent;
+import com.hazelcast.core.LifecycleListener;
+import com.hazelcast.spi.ExecutionService;
+import com.hazelcast.spi.ManagedService;
+import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.spi.RemoteService;
+
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates {@link CounterProxy} instances. A counter is stored as {@link #SHARD_COUNT} atomic longs,
+ * which are spread over the partitions by their names; each member adds to the shard picked by its uuid.
+ */
+public class CounterService implements ManagedService, RemoteService {
+
+    public static final String SERVICE_NAME = "hz:impl:counterService";
+
+    public static final String ATOMIC_LONG_NAME = "hz:atomic:counter:";
+
+    public static final int SHARD_COUNT = 16;
+
+    private final ConcurrentMap<String, ShardedCounter> counters = new ConcurrentHashMap<String, ShardedCounter>();
+
+    private NodeEngine nodeEngine;
+
+    public CounterService(NodeEngine nodeEngine) {
+        this.nodeEngine = nodeEngine;
+    }
+
+    public void init(NodeEngine nodeEngine, Properties properties) {
+        this.nodeEngine = nodeEngine;
+        // the services are shut down after the member has left, so pending updates are sent before
+        nodeEngine.getHazelcastInstance().getLifecycleService().addLifecycleListener(new LifecycleListener() {
+            public void stateChanged(LifecycleEvent event) {
+                if (event.getState() == LifecycleEvent.LifecycleState.SHUTTING_DOWN) {
+                    flushAll();
+                }
+            }
+        });
+    }
+
+    public void reset() {
+    }
+
+    public void shutdown() {
+        counters.clear();
+    }
+
+    private void flushAll() {
+        for (Map.Entry<String, ShardedCounter> entry : counters.entrySet()) {
+            try {
+                entry.getValue().flush();
+            } catch (Exception e) {
+                nodeEngine.getLogger(CounterService.class).warning("Could not flush counter " + entry.getKey(), e);
+            }
+        }
+    }
+
+    public static String getShardName(String name, int shard) {
+        return ATOMIC_LONG_NAME + name + "@" + shard;
+    }
+
+    public static IAtomicLong[] getShards(HazelcastInstance instance, String name) {
+        final IAtomicLong[] shards = new IAtomicLong[SHARD_COUNT];
+        for (int i = 0; i < SHARD_COUNT; i++) {
+            shards[i] = instance.getAtomicLong(getShardName(name, i));
+        }
+        return shards;
+    }
+
+    public DistributedObject createDistributedObject(String name) {
+        final int localShard = (nodeEngine.getLocalMember().getUuid().hashCode() & Integer.MAX_VALUE) % SHARD_COUNT;
+        final ExecutionService executionService = nodeEngine.getExecutionService();
+        final ShardedCounter counter = new ShardedCounter(getShards(nodeEngine.getHazelcastInstance(), name), localShard,
+                new ShardedCounter.FlushExecutor() {
+                    public void execute(Runnable command) {
+                        executionService.execute(ExecutionService.ASYNC_EXECUTOR, command);
+                    }
+
+                    public void schedule(Runnable command, long delayMillis) {
+                        executionService.schedule(command, delayMillis, TimeUnit.MILLISECONDS);
+                    }
+                });
+        counters.put(name, counter);
+        return new CounterProxy(name, nodeEngine, this, counter);
+    }
+
+    // runs on every member, the shards are destroyed after the pending updates of each member
+    public void destroyDistributedObject(String name) {
+        final ShardedCounter counter = counters.get(name);
+        if (counter != null) {
+            try {
+                counter.destroy();
+            } finally {
+                counters.remove(name, counter);
+            }
+        }
+    }
+}
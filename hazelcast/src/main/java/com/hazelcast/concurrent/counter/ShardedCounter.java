@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.concurrent.counter;
+
+import com.hazelcast.core.IAtomicLong;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.logging.Logger;
+import com.hazelcast.util.Clock;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counter state of one proxy, shared by the member and the client proxies. Updates are
+ * collected locally and added to one shard by a single flush task at a time, so updates
+ * made while a flush is on the wire go out together with the next one.
+ * <p/>
+ * {@link #get()} adds the updates of this proxy, pending, on the wire or flushed since the
+ * shards were last read, to the shard sum. A delta moves between these counts under an odd
+ * {@link #version}, and readers retry until they have read all of them under one even version.
+ */
+public class ShardedCounter {
+
+    private static final long REFRESH_MILLIS = 1000;
+
+    private static final long RETRY_DELAY_MILLIS = 1000;
+
+    private static final ILogger logger = Logger.getLogger(ShardedCounter.class);
+
+    private final IAtomicLong[] shards;
+
+    private final IAtomicLong localShard;
+
+    private final FlushExecutor executor;
+
+    private final AtomicLong pending = new AtomicLong();
+
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    private final Object flushMutex = new Object();
+
+    private final Runnable flushTask = new Runnable() {
+        public void run() {
+            long delayMillis = 0;
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                // the delta has been kept, it is sent again after a while
+                logger.finest("Could not flush counter, retrying in " + RETRY_DELAY_MILLIS + " ms", e);
+                delayMillis = RETRY_DELAY_MILLIS;
+            } finally {
+                flushScheduled.set(false);
+            }
+            if (pending.get() != 0) {
+                try {
+                    scheduleFlush(delayMillis);
+                } catch (RuntimeException e) {
+                    logger.finest("Could not schedule counter flush", e);
+                }
+            }
+        }
+    };
+
+    private final AtomicInteger version = new AtomicInteger();
+
+    // written under the flush mutex only
+    private volatile long inFlight;
+
+    private volatile long flushed;
+
+    private volatile Total total = new Total(0, 0, 0);
+
+    private volatile boolean destroyed;
+
+    public ShardedCounter(IAtomicLong[] shards, int localShard, FlushExecutor executor) {
+        this.shards = shards;
+        this.localShard = shards[localShard];
+        this.executor = executor;
+    }
+
+    public void add(long delta) {
+        if (delta != 0) {
+            pending.addAndGet(delta);
+            scheduleFlush(0);
+        }
+    }
+
+    public long get() {
+        Total total = this.total;
+        if (Clock.currentTimeMillis() - total.updateTime > REFRESH_MILLIS) {
+            total = refresh();
+        }
+        while (true) {
+            final int v = version.get();
+            if ((v & 1) == 0) {
+                final long value = total.sum + flushed - total.flushed + inFlight + pending.get();
+                if (version.get() == v) {
+                    return value;
+                }
+            }
+            Thread.yield();
+        }
+    }
+
+    public long getExact() {
+        flush();
+        return refresh().sum;
+    }
+
+    /**
+     * Sends the pending updates and destroys the shards. A flush task still running for this
+     * counter does nothing afterwards, so it can not bring the shards back.
+     */
+    public void destroy() {
+        synchronized (flushMutex) {
+            try {
+                flush();
+            } finally {
+                destroyed = true;
+                pending.set(0);
+                for (IAtomicLong shard : shards) {
+                    shard.destroy();
+                }
+            }
+        }
+    }
+
+    private void scheduleFlush(long delayMillis) {
+        if (flushScheduled.compareAndSet(false, true)) {
+            try {
+                if (delayMillis > 0) {
+                    executor.schedule(flushTask, delayMillis);
+                } else {
+                    executor.execute(flushTask);
+                }
+            } catch (RuntimeException e) {
+                flushScheduled.set(false);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Adds the pending updates to the shard of this proxy. Called by {@link #getExact()} and
+     * when the member or the client of the proxy shuts down.
+     */
+    public void flush() {
+        synchronized (flushMutex) {
+            if (destroyed) {
+                pending.set(0);
+                return;
+            }
+            while (true) {
+                version.incrementAndGet();
+                final long delta = pending.getAndSet(0);
+                inFlight = delta;
+                version.incrementAndGet();
+                if (delta == 0) {
+                    return;
+                }
+                try {
+                    localShard.addAndGet(delta);
+                } catch (RuntimeException e) {
+                    // keep the update for the next flush
+                    version.incrementAndGet();
+                    pending.addAndGet(delta);
+                    inFlight = 0;
+                    version.incrementAndGet();
+                    throw e;
+                }
+                version.incrementAndGet();
+                flushed += delta;
+                inFlight = 0;
+                version.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Runs the flush tasks of counters, on a member or on a client.
+     */
+    public interface FlushExecutor extends Executor {
+
+        void schedule(Runnable command, long delayMillis);
+    }
+
+    // no flush may complete while the shards are read, or its delta could be counted twice
+    private Total refresh() {
+        synchronized (flushMutex) {
+            long sum = 0;
+            for (IAtomicLong shard : shards) {
+                sum += shard.get();
+            }
+            total = new Total(sum, flushed, Clock.currentTimeMillis());
+            return total;
+        }
+    }
+
+    private static class Total {
+
+        final long sum;
+
+        // updates of this proxy flushed when the shards were read
+        final long flushed;
+
+        final long updateTime;
+
+        Total(long sum, long flushed, long updateTime) {
+            this.sum = sum;
+            this.flushed = flushed;
+            this.updateTime = updateTime;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.concurrent.idgen;
+
+import com.hazelcast.core.IAtomicLong;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out ids from blocks of {@link #BLOCK_SIZE} reserved on an {@link IAtomicLong}. Ids of the
+ * current block are taken without locking; when half of the block is used the next block is
+ * reserved on the executor, so the caller only waits for the network if a whole half block is
+ * used up before that reservation returns.
+ */
+public class IdBlockAllocator {
+
+    public static final int BLOCK_SIZE = 10000;
+
+    private final IAtomicLong atomicLong;
+
+    private final Executor executor;
+
+    private final AtomicBoolean prefetching = new AtomicBoolean();
+
+    private final Runnable prefetchTask = new Runnable() {
+        public void run() {
+            try {
+                final Block block = new Block(atomicLong.getAndIncrement(), 0);
+                synchronized (IdBlockAllocator.this) {
+                    prefetched = block;
+                }
+            } finally {
+                prefetching.set(false);
+            }
+        }
+    };
+
+    private volatile Block current = new Block(-1, BLOCK_SIZE);
+
+    private Block prefetched;
+
+    public IdBlockAllocator(IAtomicLong atomicLong, Executor executor) {
+        this.atomicLong = atomicLong;
+        this.executor = executor;
+    }
+
+    public boolean init(long id) {
+        if (id <= 0) {
+            return false;
+        }
+        long step = (id / BLOCK_SIZE);
+
+        synchronized (this) {
+            boolean init = atomicLong.compareAndSet(0, step + 1);
+            if (init) {
+                current = new Block(step, (int) (id % BLOCK_SIZE) + 1);
+            }
+            return init;
+        }
+    }
+
+    public long newId() {
+        while (true) {
+            final Block block = current;
+            final int value = block.residue.getAndIncrement();
+            if (value < BLOCK_SIZE) {
+                if (value == BLOCK_SIZE / 2) {
+                    prefetch();
+                }
+                return block.base * BLOCK_SIZE + value;
+            }
+            nextBlock(block);
+        }
+    }
+
+    private void nextBlock(Block exhausted) {
+        synchronized (this) {
+            if (current != exhausted) {
+                return;
+            }
+            Block next = prefetched;
+            if (next != null) {
+                prefetched = null;
+            } else {
+                // the prefetch did not make it in time or this is the first block
+                next = new Block(atomicLong.getAndIncrement(), 0);
+            }
+            current = next;
+        }
+    }
+
+    private void prefetch() {
+        synchronized (this) {
+            if (prefetched != null) {
+                return;
+            }
+        }
+        if (prefetching.compareAndSet(false, true)) {
+            try {
+                executor.execute(prefetchTask);
+            } catch (RuntimeException e) {
+                // the next block is then reserved by the caller that exhausts the current one
+                prefetching.set(false);
+            }
+        }
+    }
+
+    private static class Block {
+
+        final long base;
+
+        final AtomicInteger residue;
+
+        Block(long base, int residue) {
+            this.base = base;
+            this.residue = new AtomicInteger(residue);
+        }
+    }
+}
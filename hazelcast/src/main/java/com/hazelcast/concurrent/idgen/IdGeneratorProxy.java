@@ -21,57 +21,29 @@ import com.hazelcast.core.IAtomicLong;
 import com.hazelcast.core.IdGenerator;
 import com.hazelcast.partition.strategy.StringPartitioningStrategy;
 
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.Executor;
 
 /**
  * @author ali 1/23/13
  */
 public class IdGeneratorProxy implements IdGenerator {
 
-    private static final int BLOCK_SIZE = 10000;
     final String name;
     final IAtomicLong atomicLong;
-    AtomicInteger residue;
-    AtomicLong local;
+    final IdBlockAllocator allocator;
 
-    public IdGeneratorProxy(IAtomicLong atomicLong, String name) {
+    public IdGeneratorProxy(IAtomicLong atomicLong, String name, Executor executor) {
         this.name = name;
         this.atomicLong = atomicLong;
-        residue = new AtomicInteger(BLOCK_SIZE);
-        local = new AtomicLong(-1);
+        this.allocator = new IdBlockAllocator(atomicLong, executor);
     }
 
     public boolean init(long id) {
-        if (id <= 0) {
-            return false;
-        }
-        long step = (id / BLOCK_SIZE);
-
-        synchronized (this) {
-            boolean init = atomicLong.compareAndSet(0, step + 1);
-            if (init) {
-                local.set(step);
-                residue.set((int) (id % BLOCK_SIZE) + 1);
-            }
-            return init;
-        }
-
+        return allocator.init(id);
     }
 
     public long newId() {
-        int value = residue.getAndIncrement();
-        if (value >= BLOCK_SIZE) {
-            synchronized (this) {
-                value = residue.get();
-                if (value >= BLOCK_SIZE) {
-                    local.set(atomicLong.getAndIncrement());
-                    residue.set(0);
-                }
-                return newId();
-            }
-        }
-        return local.get() * BLOCK_SIZE + value;
+        return allocator.newId();
     }
 
     public Object getId() {
@@ -94,8 +66,6 @@ public class IdGeneratorProxy implements IdGenerator {
 
     public void destroy() {
         atomicLong.destroy();
-        residue = null;
-        local = null;
     }
 
     @Override
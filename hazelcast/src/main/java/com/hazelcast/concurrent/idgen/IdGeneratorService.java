@@ -18,6 +18,7 @@ package com.hazelcast.concurrent.idgen;
 
 import com.hazelcast.core.DistributedObject;
 import com.hazelcast.core.IAtomicLong;
+import com.hazelcast.spi.ExecutionService;
 import com.hazelcast.spi.ManagedService;
 import com.hazelcast.spi.NodeEngine;
 import com.hazelcast.spi.RemoteService;
@@ -54,7 +55,8 @@ public class IdGeneratorService implements ManagedService, RemoteService {
     }
 
     public DistributedObject createDistributedObject(String name) {
-        return new IdGeneratorProxy(getAtomicLong(name), name);
+        return new IdGeneratorProxy(getAtomicLong(name), name,
+                nodeEngine.getExecutionService().getExecutor(ExecutionService.ASYNC_EXECUTOR));
     }
 
     public void destroyDistributedObject(String name) {
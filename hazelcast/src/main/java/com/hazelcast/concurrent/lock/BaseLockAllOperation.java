@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.concurrent.lock;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.AbstractOperation;
+import com.hazelcast.spi.ObjectNamespace;
+import com.hazelcast.spi.PartitionAwareOperation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Base of the operations working on several keys of a single partition, keys are
+ * processed in the given order.
+ */
+abstract class BaseLockAllOperation extends AbstractOperation implements PartitionAwareOperation {
+
+    protected ObjectNamespace namespace;
+
+    protected List<Data> keys;
+
+    protected int threadId;
+
+    protected transient Object response;
+
+    public BaseLockAllOperation() {
+    }
+
+    protected BaseLockAllOperation(ObjectNamespace namespace, List<Data> keys, int threadId) {
+        this.namespace = namespace;
+        this.keys = keys;
+        this.threadId = threadId;
+    }
+
+    public final Object getResponse() {
+        return response;
+    }
+
+    protected final LockStoreImpl getLockStore() {
+        final LockServiceImpl service = getService();
+        return service.getLockStore(getPartitionId(), namespace);
+    }
+
+    public final int getSyncBackupCount() {
+        return getLockStore().getBackupCount();
+    }
+
+    public final int getAsyncBackupCount() {
+        return getLockStore().getAsyncBackupCount();
+    }
+
+    @Override
+    public final String getServiceName() {
+        return LockServiceImpl.SERVICE_NAME;
+    }
+
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        super.writeInternal(out);
+        out.writeObject(namespace);
+        out.writeInt(threadId);
+        out.writeInt(keys.size());
+        for (Data key : keys) {
+            key.writeData(out);
+        }
+    }
+
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        super.readInternal(in);
+        namespace = in.readObject();
+        threadId = in.readInt();
+        final int size = in.readInt();
+        keys = new ArrayList<Data>(size);
+        for (int i = 0; i < size; i++) {
+            final Data key = new Data();
+            key.readData(in);
+            keys.add(key);
+        }
+    }
+}
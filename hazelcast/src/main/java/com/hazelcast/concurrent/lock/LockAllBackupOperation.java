@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.concurrent.lock;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.BackupOperation;
+import com.hazelcast.spi.ObjectNamespace;
+
+import java.io.IOException;
+import java.util.List;
+
+public class LockAllBackupOperation extends BaseLockAllOperation implements BackupOperation {
+
+    private String originalCallerUuid;
+
+    public LockAllBackupOperation() {
+    }
+
+    public LockAllBackupOperation(ObjectNamespace namespace, List<Data> keys, int threadId, String originalCallerUuid) {
+        super(namespace, keys, threadId);
+        this.originalCallerUuid = originalCallerUuid;
+    }
+
+    public void run() throws Exception {
+        final LockStoreImpl lockStore = getLockStore();
+        for (Data key : keys) {
+            lockStore.lock(key, originalCallerUuid, threadId);
+        }
+        response = Boolean.TRUE;
+    }
+
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        super.writeInternal(out);
+        out.writeUTF(originalCallerUuid);
+    }
+
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        super.readInternal(in);
+        originalCallerUuid = in.readUTF();
+    }
+}
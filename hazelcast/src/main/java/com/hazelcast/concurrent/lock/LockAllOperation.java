@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.concurrent.lock;
+
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.BackupAwareOperation;
+import com.hazelcast.spi.ObjectNamespace;
+import com.hazelcast.spi.Operation;
+
+import java.util.List;
+
+/**
+ * Locks the keys of a partition in order until a key locked by someone else is reached;
+ * never waits. Response is the number of keys locked, the caller waits for the next key
+ * with a regular {@link LockOperation}.
+ */
+public class LockAllOperation extends BaseLockAllOperation implements BackupAwareOperation {
+
+    private transient int locked;
+
+    public LockAllOperation() {
+    }
+
+    public LockAllOperation(ObjectNamespace namespace, List<Data> keys, int threadId) {
+        super(namespace, keys, threadId);
+    }
+
+    public void run() throws Exception {
+        final LockStoreImpl lockStore = getLockStore();
+        final String caller = getCallerUuid();
+        for (Data key : keys) {
+            if (!lockStore.lock(key, caller, threadId)) {
+                break;
+            }
+            locked++;
+        }
+        response = locked;
+    }
+
+    public Operation getBackupOperation() {
+        return new LockAllBackupOperation(namespace, keys.subList(0, locked), threadId, getCallerUuid());
+    }
+
+    public boolean shouldBackup() {
+        return locked > 0;
+    }
+}
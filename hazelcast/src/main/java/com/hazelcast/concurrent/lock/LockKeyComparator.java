@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.concurrent.lock;
+
+import com.hazelcast.nio.serialization.Data;
+
+import java.util.Comparator;
+
+/**
+ * Total order of keys in binary form, same on every member and client. Keys locked
+ * together are acquired in partition id order and in this order within a partition,
+ * so two callers locking overlapping keys never wait for each other in a cycle.
+ */
+public final class LockKeyComparator implements Comparator<Data> {
+
+    public static final LockKeyComparator INSTANCE = new LockKeyComparator();
+
+    private LockKeyComparator() {
+    }
+
+    public int compare(Data d1, Data d2) {
+        if (d1.getType() != d2.getType()) {
+            return d1.getType() < d2.getType() ? -1 : 1;
+        }
+        final byte[] b1 = d1.getBuffer();
+        final byte[] b2 = d2.getBuffer();
+        final int len1 = b1 != null ? b1.length : 0;
+        final int len2 = b2 != null ? b2.length : 0;
+        final int len = Math.min(len1, len2);
+        for (int i = 0; i < len; i++) {
+            if (b1[i] != b2[i]) {
+                return b1[i] < b2[i] ? -1 : 1;
+            }
+        }
+        return len1 - len2;
+    }
+}
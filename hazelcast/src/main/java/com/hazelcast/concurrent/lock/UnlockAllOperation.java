@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.concurrent.lock;
+
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unlocks the keys of a partition held by the caller. Response is false if any of the
+ * keys was not locked by the caller; the others are unlocked anyway.
+ */
+public class UnlockAllOperation extends BaseLockAllOperation implements BackupAwareOperation, Notifier {
+
+    private transient List<Data> unlocked;
+
+    private transient Data notifiedKey;
+
+    public UnlockAllOperation() {
+    }
+
+    public UnlockAllOperation(ObjectNamespace namespace, List<Data> keys, int threadId) {
+        super(namespace, keys, threadId);
+    }
+
+    public void run() throws Exception {
+        final LockStoreImpl lockStore = getLockStore();
+        unlocked = new ArrayList<Data>(keys.size());
+        for (Data key : keys) {
+            if (lockStore.unlock(key, getCallerUuid(), threadId)) {
+                unlocked.add(key);
+            }
+        }
+        response = unlocked.size() == keys.size();
+    }
+
+    public void afterRun() throws Exception {
+        // same as UnlockOperation, for each of the keys
+        final LockStoreImpl lockStore = getLockStore();
+        final NodeEngine nodeEngine = getNodeEngine();
+        for (Data key : unlocked) {
+            final AwaitOperation awaitResponse = lockStore.pollExpiredAwaitOp(key);
+            if (awaitResponse != null) {
+                nodeEngine.getOperationService().runOperation(awaitResponse);
+            } else {
+                notifiedKey = key;
+                nodeEngine.getWaitNotifyService().notify(this);
+            }
+        }
+        notifiedKey = null;
+    }
+
+    public boolean shouldNotify() {
+        // waiters of all keys are notified in afterRun
+        return false;
+    }
+
+    public WaitNotifyKey getNotifiedKey() {
+        final ConditionKey conditionKey = getLockStore().getSignalKey(notifiedKey);
+        return conditionKey != null ? conditionKey : new LockWaitNotifyKey(namespace, notifiedKey);
+    }
+
+    public Operation getBackupOperation() {
+        return new UnlockAllBackupOperation(namespace, unlocked, threadId, getCallerUuid());
+    }
+
+    public boolean shouldBackup() {
+        return !unlocked.isEmpty();
+    }
+}
@@ -25,6 +25,7 @@ import com.hazelcast.spi.Operation;
 import com.hazelcast.util.ExceptionUtil;
 import com.hazelcast.util.ThreadUtil;
 
+import java.util.*;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
@@ -166,6 +167,131 @@ public final class LockProxySupport {
         }
     }
 
+    /**
+     * Locks all of the keys in the order of {@link LockKeyComparator}. Remaining keys of all
+     * partitions are tried at once, one operation per partition. If a key is locked by someone
+     * else, the locks ordered after it are released and the key is waited for before trying
+     * the rest again, so no deadlock is possible among callers locking overlapping keys.
+     */
+    public void lockAll(NodeEngine nodeEngine, Collection<Data> keys) {
+        final TreeMap<Integer, List<Data>> partitions = groupByPartition(nodeEngine, keys);
+        final int threadId = ThreadUtil.getThreadId();
+        // partition id -> number of its keys locked, always a prefix of its key list
+        final Map<Integer, Integer> locked = new HashMap<Integer, Integer>(partitions.size());
+        try {
+            while (true) {
+                final Map<Integer, Future> futures = new HashMap<Integer, Future>(partitions.size());
+                for (Map.Entry<Integer, List<Data>> entry : partitions.entrySet()) {
+                    final int partitionId = entry.getKey();
+                    final List<Data> partitionKeys = entry.getValue();
+                    final int count = getCount(locked, partitionId);
+                    if (count < partitionKeys.size()) {
+                        final List<Data> rest = new ArrayList<Data>(partitionKeys.subList(count, partitionKeys.size()));
+                        futures.put(partitionId, invoke(nodeEngine, new LockAllOperation(namespace, rest, threadId), partitionId));
+                    }
+                }
+                Throwable error = null;
+                for (Map.Entry<Integer, Future> entry : futures.entrySet()) {
+                    // collect all of the responses, so that every lock taken is released on failure
+                    try {
+                        final int count = ((Number) entry.getValue().get()).intValue();
+                        locked.put(entry.getKey(), getCount(locked, entry.getKey()) + count);
+                    } catch (Throwable t) {
+                        error = t;
+                    }
+                }
+                if (error != null) {
+                    throw error;
+                }
+                Integer blocked = null;
+                for (Map.Entry<Integer, List<Data>> entry : partitions.entrySet()) {
+                    if (getCount(locked, entry.getKey()) < entry.getValue().size()) {
+                        blocked = entry.getKey();
+                        break;
+                    }
+                }
+                if (blocked == null) {
+                    return;
+                }
+                unlockAll(nodeEngine, partitions.tailMap(blocked, false), locked, threadId);
+                final int count = getCount(locked, blocked);
+                lock(nodeEngine, partitions.get(blocked).get(count));
+                locked.put(blocked, count + 1);
+            }
+        } catch (Throwable t) {
+            try {
+                unlockAll(nodeEngine, partitions, locked, threadId);
+            } catch (Throwable ignored) {
+            }
+            throw ExceptionUtil.rethrow(t);
+        }
+    }
+
+    public void unlockAll(NodeEngine nodeEngine, Collection<Data> keys) {
+        final TreeMap<Integer, List<Data>> partitions = groupByPartition(nodeEngine, keys);
+        final Map<Integer, Integer> locked = new HashMap<Integer, Integer>(partitions.size());
+        for (Map.Entry<Integer, List<Data>> entry : partitions.entrySet()) {
+            locked.put(entry.getKey(), entry.getValue().size());
+        }
+        final boolean unlocked;
+        try {
+            unlocked = unlockAll(nodeEngine, partitions, locked, ThreadUtil.getThreadId());
+        } catch (Throwable t) {
+            throw ExceptionUtil.rethrow(t);
+        }
+        if (!unlocked) {
+            throw new IllegalMonitorStateException("Current thread is not owner of all of the locks!");
+        }
+    }
+
+    // unlocks the locked prefixes of the given partitions at once and resets their counts
+    private boolean unlockAll(NodeEngine nodeEngine, Map<Integer, List<Data>> partitions,
+                              Map<Integer, Integer> locked, int threadId) throws Exception {
+        final List<Future> futures = new ArrayList<Future>(partitions.size());
+        for (Map.Entry<Integer, List<Data>> entry : partitions.entrySet()) {
+            final int partitionId = entry.getKey();
+            final int count = getCount(locked, partitionId);
+            if (count > 0) {
+                final List<Data> lockedKeys = new ArrayList<Data>(entry.getValue().subList(0, count));
+                futures.add(invoke(nodeEngine, new UnlockAllOperation(namespace, lockedKeys, threadId), partitionId));
+                locked.put(partitionId, 0);
+            }
+        }
+        boolean unlocked = true;
+        for (Future future : futures) {
+            unlocked &= (Boolean) future.get();
+        }
+        return unlocked;
+    }
+
+    private TreeMap<Integer, List<Data>> groupByPartition(NodeEngine nodeEngine, Collection<Data> keys) {
+        final TreeMap<Integer, Set<Data>> sorted = new TreeMap<Integer, Set<Data>>();
+        for (Data key : keys) {
+            final int partitionId = nodeEngine.getPartitionService().getPartitionId(key);
+            Set<Data> partitionKeys = sorted.get(partitionId);
+            if (partitionKeys == null) {
+                partitionKeys = new TreeSet<Data>(LockKeyComparator.INSTANCE);
+                sorted.put(partitionId, partitionKeys);
+            }
+            partitionKeys.add(key);
+        }
+        final TreeMap<Integer, List<Data>> partitions = new TreeMap<Integer, List<Data>>();
+        for (Map.Entry<Integer, Set<Data>> entry : sorted.entrySet()) {
+            partitions.put(entry.getKey(), new ArrayList<Data>(entry.getValue()));
+        }
+        return partitions;
+    }
+
+    private static int getCount(Map<Integer, Integer> locked, int partitionId) {
+        final Integer count = locked.get(partitionId);
+        return count != null ? count : 0;
+    }
+
+    private static Future invoke(NodeEngine nodeEngine, Operation operation, int partitionId) {
+        return nodeEngine.getOperationService().createInvocationBuilder(SERVICE_NAME, operation, partitionId)
+                .build().invoke();
+    }
+
     public ObjectNamespace getNamespace() {
         return namespace;
     }
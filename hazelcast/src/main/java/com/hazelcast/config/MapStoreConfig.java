@@ -23,11 +23,13 @@ import java.util.Properties;
  */
 public class MapStoreConfig {
     public static final int DEFAULT_WRITE_DELAY_SECONDS = 0;
+    public static final int DEFAULT_WRITE_BATCH_SIZE = 1000;
 
     private boolean enabled = true;
     private String className = null;
     private String factoryClassName = null;
     private int writeDelaySeconds = DEFAULT_WRITE_DELAY_SECONDS;
+    private int writeBatchSize = DEFAULT_WRITE_BATCH_SIZE;
     private Object implementation;
     private Object factoryImplementation;
     private Properties properties = new Properties();
@@ -44,6 +46,7 @@ public class MapStoreConfig {
         factoryClassName = config.getFactoryClassName();
         factoryImplementation = config.getFactoryImplementation();
         writeDelaySeconds = config.getWriteDelaySeconds();
+        writeBatchSize = config.getWriteBatchSize();
         properties = config.getProperties() != null ? new Properties(config.getProperties()) : null;
     }
 
@@ -111,6 +114,32 @@ public class MapStoreConfig {
         return this;
     }
 
+    /**
+     * Returns the maximum number of entries passed to a single
+     * {@link com.hazelcast.core.MapStore#storeAll(java.util.Map)} or
+     * {@link com.hazelcast.core.MapStore#deleteAll(java.util.Collection)} call in write-behind mode.
+     *
+     * @return the maximum write-behind batch size
+     */
+    public int getWriteBatchSize() {
+        return writeBatchSize;
+    }
+
+    /**
+     * Sets the maximum number of entries passed to a single storeAll/deleteAll call
+     * in write-behind mode. Dirty entries becoming due at the same time are split
+     * into batches of at most this size.
+     *
+     * @param writeBatchSize the maximum write-behind batch size, must be positive
+     */
+    public MapStoreConfig setWriteBatchSize(int writeBatchSize) {
+        if (writeBatchSize < 1) {
+            throw new IllegalArgumentException("Write batch size must be positive!");
+        }
+        this.writeBatchSize = writeBatchSize;
+        return this;
+    }
+
     /**
      * Returns if this configuration is enabled
      *
@@ -194,6 +223,7 @@ public class MapStoreConfig {
                 "className='" + className + '\'' +
                 ", enabled=" + enabled +
                 ", writeDelaySeconds=" + writeDelaySeconds +
+                ", writeBatchSize=" + writeBatchSize +
                 ", implementation=" + implementation +
                 ", properties=" + properties +
                 '}';
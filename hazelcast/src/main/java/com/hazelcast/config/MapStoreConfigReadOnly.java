@@ -23,6 +23,10 @@ public class MapStoreConfigReadOnly extends MapStoreConfig {
         throw new UnsupportedOperationException("This config is read-only");
     }
 
+    public MapStoreConfig setWriteBatchSize(int writeBatchSize) {
+        throw new UnsupportedOperationException("This config is read-only");
+    }
+
     public MapStoreConfig setEnabled(boolean enabled) {
         throw new UnsupportedOperationException("This config is read-only");
     }
@@ -25,6 +25,7 @@ public class QueueConfig {
     public final static int DEFAULT_SYNC_BACKUP_COUNT = 1;
     public final static int DEFAULT_ASYNC_BACKUP_COUNT = 0;
     public final static int DEFAULT_EMPTY_QUEUE_TTL = -1;
+    public final static int DEFAULT_SHARD_COUNT = 1;
 
     private String name;
     private List<ItemListenerConfig> listenerConfigs;
@@ -34,6 +35,7 @@ public class QueueConfig {
     private int emptyQueueTtl = DEFAULT_EMPTY_QUEUE_TTL;
     private QueueStoreConfig queueStoreConfig;
     private boolean statisticsEnabled = true;
+    private int shardCount = DEFAULT_SHARD_COUNT;
     private QueueConfigReadOnly readOnly;
 
     public QueueConfig() {
@@ -47,6 +49,7 @@ public class QueueConfig {
         this.maxSize = config.maxSize;
         this.emptyQueueTtl = config.emptyQueueTtl;
         this.statisticsEnabled = config.statisticsEnabled;
+        this.shardCount = config.shardCount;
         this.queueStoreConfig = config.queueStoreConfig != null ? new QueueStoreConfig(config.queueStoreConfig) : null;
         this.listenerConfigs = new ArrayList<ItemListenerConfig>(config.getItemListenerConfigs());
     }
@@ -119,6 +122,28 @@ public class QueueConfig {
         return this;
     }
 
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * Spreads the items of the queue over given number of partitions, each of them a queue of its own
+     * on its own partition thread. Items are ordered per shard only: offers and polls go to the shards
+     * owned by the calling member first and to the other shards when those are full or empty.
+     * Max size applies per shard. A sharded queue cannot have a queue store, is not transactional
+     * and cannot be accessed by clients.
+     *
+     * @param shardCount number of shards, 1 for a plain queue
+     * @return this queue config
+     */
+    public QueueConfig setShardCount(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count of the queue must be positive!");
+        }
+        this.shardCount = shardCount;
+        return this;
+    }
+
     /**
      * @return the name
      */
@@ -164,6 +189,7 @@ public class QueueConfig {
         sb.append(", emptyQueueTtl=").append(emptyQueueTtl);
         sb.append(", queueStoreConfig=").append(queueStoreConfig);
         sb.append(", statisticsEnabled=").append(statisticsEnabled);
+        sb.append(", shardCount=").append(shardCount);
         sb.append('}');
         return sb.toString();
     }
@@ -54,6 +54,10 @@ public class QueueConfigReadOnly extends QueueConfig {
         throw new UnsupportedOperationException("This config is read-only queue: " + getName());
     }
 
+    public QueueConfig setShardCount(int shardCount) {
+        throw new UnsupportedOperationException("This config is read-only queue: " + getName());
+    }
+
     public QueueConfig setBackupCount(int backupCount) {
         throw new UnsupportedOperationException("This config is read-only queue: " + getName());
     }
@@ -28,10 +28,15 @@ import static com.hazelcast.util.ValidationUtil.isNotNull;
 public class TopicConfig {
 
     public final static boolean DEFAULT_GLOBAL_ORDERING_ENABLED = false;
+    public final static int DEFAULT_RING_BUFFER_CAPACITY = 10000;
+    public final static int DEFAULT_BACKUP_COUNT = 1;
 
     private String name;
     private boolean globalOrderingEnabled = DEFAULT_GLOBAL_ORDERING_ENABLED;
     private boolean statisticsEnabled = true;
+    private boolean reliable;
+    private int ringBufferCapacity = DEFAULT_RING_BUFFER_CAPACITY;
+    private int backupCount = DEFAULT_BACKUP_COUNT;
     private List<ListenerConfig> listenerConfigs;
     private TopicConfigReadOnly readOnly;
 
@@ -50,6 +55,10 @@ public class TopicConfig {
         isNotNull(config,"config");
         this.name = config.name;
         this.globalOrderingEnabled = config.globalOrderingEnabled;
+        this.statisticsEnabled = config.statisticsEnabled;
+        this.reliable = config.reliable;
+        this.ringBufferCapacity = config.ringBufferCapacity;
+        this.backupCount = config.backupCount;
         this.listenerConfigs = new ArrayList<ListenerConfig>(config.getMessageListenerConfigs());
     }
 
@@ -96,6 +105,50 @@ public class TopicConfig {
         return this;
     }
 
+    public boolean isReliable() {
+        return reliable;
+    }
+
+    /**
+     * Makes the topic keep its messages in a bounded ring buffer owned by a partition, which subscribers
+     * read at their own pace instead of having the messages pushed to them as events.
+     * A reliable topic cannot be accessed by clients.
+     */
+    public TopicConfig setReliable(boolean reliable) {
+        this.reliable = reliable;
+        return this;
+    }
+
+    public int getRingBufferCapacity() {
+        return ringBufferCapacity;
+    }
+
+    /**
+     * Number of messages a reliable topic retains; a subscriber which falls further behind loses the oldest ones.
+     */
+    public TopicConfig setRingBufferCapacity(int ringBufferCapacity) {
+        if (ringBufferCapacity <= 0) {
+            throw new IllegalArgumentException("Ring buffer capacity must be positive!");
+        }
+        this.ringBufferCapacity = ringBufferCapacity;
+        return this;
+    }
+
+    public int getBackupCount() {
+        return backupCount;
+    }
+
+    /**
+     * Number of synchronous backups of the ring buffer of a reliable topic.
+     */
+    public TopicConfig setBackupCount(int backupCount) {
+        if (backupCount < 0) {
+            throw new IllegalArgumentException("Backup count cannot be negative!");
+        }
+        this.backupCount = backupCount;
+        return this;
+    }
+
     public TopicConfig addMessageListenerConfig(ListenerConfig listenerConfig) {
         getMessageListenerConfigs().add(listenerConfig);
         return this;
@@ -149,6 +202,8 @@ public class TopicConfig {
     }
 
     public String toString() {
-        return "TopicConfig [name=" + name + ", globalOrderingEnabled=" + globalOrderingEnabled + "]";
+        return "TopicConfig [name=" + name + ", globalOrderingEnabled=" + globalOrderingEnabled
+                + ", reliable=" + reliable + ", ringBufferCapacity=" + ringBufferCapacity
+                + ", backupCount=" + backupCount + "]";
     }
 }
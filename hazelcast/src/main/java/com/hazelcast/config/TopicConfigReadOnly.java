@@ -46,6 +46,18 @@ public class TopicConfigReadOnly extends TopicConfig {
         throw new UnsupportedOperationException("This config is read-only topic: " + getName());
     }
 
+    public TopicConfig setReliable(boolean reliable) {
+        throw new UnsupportedOperationException("This config is read-only topic: " + getName());
+    }
+
+    public TopicConfig setRingBufferCapacity(int ringBufferCapacity) {
+        throw new UnsupportedOperationException("This config is read-only topic: " + getName());
+    }
+
+    public TopicConfig setBackupCount(int backupCount) {
+        throw new UnsupportedOperationException("This config is read-only topic: " + getName());
+    }
+
     public TopicConfig addMessageListenerConfig(ListenerConfig listenerConfig) {
         throw new UnsupportedOperationException("This config is read-only topic: " + getName());
     }
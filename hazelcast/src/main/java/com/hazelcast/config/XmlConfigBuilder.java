@@ -692,6 +692,8 @@ public class XmlConfigBuilder extends AbstractXmlConfigHelper implements ConfigB
                 qConfig.setQueueStoreConfig(queueStoreConfig);
             } else if ("empty-queue-ttl".equals(nodeName)) {
                 qConfig.setEmptyQueueTtl(getIntegerValue("empty-queue-ttl", value, QueueConfig.DEFAULT_EMPTY_QUEUE_TTL));
+            } else if ("shard-count".equals(nodeName)) {
+                qConfig.setShardCount(getIntegerValue("shard-count", value, QueueConfig.DEFAULT_SHARD_COUNT));
             }
         }
         this.config.addQueueConfig(qConfig);
@@ -909,6 +911,9 @@ public class XmlConfigBuilder extends AbstractXmlConfigHelper implements ConfigB
             } else if ("write-delay-seconds".equals(nodeName)) {
                 mapStoreConfig.setWriteDelaySeconds(getIntegerValue("write-delay-seconds", getTextContent(n).trim(),
                         MapStoreConfig.DEFAULT_WRITE_DELAY_SECONDS));
+            } else if ("write-batch-size".equals(nodeName)) {
+                mapStoreConfig.setWriteBatchSize(getIntegerValue("write-batch-size", getTextContent(n).trim(),
+                        MapStoreConfig.DEFAULT_WRITE_BATCH_SIZE));
             } else if ("properties".equals(nodeName)) {
                 fillProperties(n, mapStoreConfig.getProperties());
             }
@@ -979,6 +984,12 @@ public class XmlConfigBuilder extends AbstractXmlConfigHelper implements ConfigB
                 }
             } else if ("statistics-enabled".equals(nodeName)) {
                 tConfig.setStatisticsEnabled(checkTrue(getTextContent(n)));
+            } else if ("reliable".equals(nodeName)) {
+                tConfig.setReliable(checkTrue(getTextContent(n)));
+            } else if ("ring-buffer-capacity".equals(nodeName)) {
+                tConfig.setRingBufferCapacity(getIntegerValue("ring-buffer-capacity", getTextContent(n), TopicConfig.DEFAULT_RING_BUFFER_CAPACITY));
+            } else if ("backup-count".equals(nodeName)) {
+                tConfig.setBackupCount(getIntegerValue("backup-count", getTextContent(n), TopicConfig.DEFAULT_BACKUP_COUNT));
             }
         }
         config.addTopicConfig(tConfig);
@@ -223,6 +223,15 @@ public interface HazelcastInstance {
      */
     IAtomicLong getAtomicLong(String name);
 
+    /**
+     * Creates cluster-wide counter. Hazelcast ICounter batches updates into several
+     * shards, for counters updated at a higher rate than one IAtomicLong can take.
+     *
+     * @param name name of the ICounter proxy
+     * @return ICounter proxy for the given name
+     */
+    ICounter getCounter(String name);
+
     /**
      * Creates cluster-wide CountDownLatch. Hazelcast ICountDownLatch is distributed
      * implementation of <tt>java.util.concurrent.CountDownLatch</tt>.
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.core;
+
+/**
+ * Cluster-wide counter for high update rates. Unlike {@link IAtomicLong} the value is split
+ * into shards on several partitions and the updates of a member are batched into its shard,
+ * so updates do not wait for a round trip and do not all hit one partition.
+ */
+public interface ICounter extends DistributedObject {
+
+    /**
+     * Returns the name of this ICounter instance.
+     *
+     * @return name of this instance
+     */
+    String getName();
+
+    /**
+     * Adds the given value to the counter. The update is applied to the cluster asynchronously,
+     * batched with other updates made through this instance.
+     *
+     * @param delta the value to add
+     */
+    void add(long delta);
+
+    /**
+     * Adds one to the counter, see {@link #add(long)}.
+     */
+    void increment();
+
+    /**
+     * Subtracts one from the counter, see {@link #add(long)}.
+     */
+    void decrement();
+
+    /**
+     * Returns an eventually consistent value of the counter. It includes the updates made
+     * through this instance, updates made elsewhere may show up with a delay of about a second.
+     *
+     * @return the current value, possibly missing recent updates of other instances
+     */
+    long get();
+
+    /**
+     * Waits for the pending updates of this instance to be applied and sums all shards.
+     * Updates that other instances have not applied yet are not included.
+     *
+     * @return the current value
+     */
+    long getExact();
+}
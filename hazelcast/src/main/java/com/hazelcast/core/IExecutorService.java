@@ -19,6 +19,7 @@ package com.hazelcast.core;
 import com.hazelcast.monitor.LocalExecutorStats;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
@@ -106,6 +107,22 @@ public interface IExecutorService extends ExecutorService, DistributedObject {
      */
     <T> Map<Member, Future<T>> submitToAllMembers(Callable<T> task);
 
+    /**
+     * Submits all of the tasks and returns Futures representing them, in the
+     * order of the tasks. Tasks are sent to members in batches;
+     * {@link PartitionAware} tasks go to the owner of their partition key, the
+     * others to the least loaded members. A member done with its own batches
+     * takes over batches not sent yet to busier members.
+     * <p/>
+     * Cancelling a returned Future keeps its task from being sent if its batch
+     * has not been sent yet; a task already sent runs to completion and its
+     * result is dropped. Running tasks are never interrupted.
+     *
+     * @param tasks tasks
+     * @return list of Futures representing pending completion of the tasks
+     */
+    <T> List<Future<T>> submitAll(Collection<? extends Callable<T>> tasks);
+
     /**
      * Submits task to a random member. Caller will be notified for the result of the task by
      * {@link ExecutionCallback#onResponse(Object)} or {@link ExecutionCallback#onFailure(Throwable)}.
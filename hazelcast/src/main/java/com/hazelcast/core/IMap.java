@@ -551,6 +551,25 @@ public interface IMap<K, V> extends ConcurrentMap<K, V>, BaseMap<K, V> {
      */
     void lock(K key);
 
+    /**
+     * Acquires the locks for all of the specified keys, as if {@link #lock(Object)}
+     * was called for each of them.
+     * <p/>
+     * Locks of keys owned by the same partition are acquired with a single operation
+     * and partitions are tried in parallel. Keys are acquired in an order that is the
+     * same for all callers, so threads locking overlapping sets of keys with this method
+     * can not deadlock. If acquiring fails, the locks taken so far are released.
+     * <p/>
+     * <p><b>Warning:</b></p>
+     * This method uses <tt>hashCode</tt> and <tt>equals</tt> of binary form of
+     * the <tt>key</tt>, not the actual implementations of <tt>hashCode</tt> and <tt>equals</tt>
+     * defined in <tt>key</tt>'s class.
+     *
+     * @param keys keys to lock.
+     * @throws NullPointerException if any of the specified keys is null
+     */
+    void lockAll(Collection<K> keys);
+
     /**
      * Acquires the lock for the specified key for the specified lease time.
      * <p>After lease time, lock will be released..
@@ -653,6 +672,22 @@ public interface IMap<K, V> extends ConcurrentMap<K, V>, BaseMap<K, V> {
      */
     void unlock(K key);
 
+    /**
+     * Releases the locks for all of the specified keys, as if {@link #unlock(Object)}
+     * was called for each of them, with one operation per partition.
+     * <p/>
+     * <p><b>Warning:</b></p>
+     * This method uses <tt>hashCode</tt> and <tt>equals</tt> of binary form of
+     * the <tt>key</tt>, not the actual implementations of <tt>hashCode</tt> and <tt>equals</tt>
+     * defined in <tt>key</tt>'s class.
+     *
+     * @param keys keys to unlock.
+     * @throws NullPointerException if any of the specified keys is null
+     * @throws IllegalMonitorStateException if the current thread does not hold any of the locks,
+     *                                      the others are released anyway
+     */
+    void unlockAll(Collection<K> keys);
+
     /**
      * Releases the lock for the specified key regardless of the lock owner.
      * It always successfully unlocks the key, never blocks
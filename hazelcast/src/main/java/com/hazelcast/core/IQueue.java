@@ -20,6 +20,7 @@ import com.hazelcast.monitor.LocalQueueStats;
 
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
 
@@ -89,6 +90,31 @@ public interface IQueue<E> extends BlockingQueue<E>, BaseQueue<E>, ICollection<E
      */
     int drainTo(Collection<? super E> c, int maxElements);
 
+    /**
+     * Inserts as many of the given items as fit into this queue with a single operation,
+     * waiting up to the specified wait time for capacity if the queue is full.
+     *
+     * @param items   items to insert, in the order they are inserted
+     * @param timeout how long to wait for capacity, a negative value waits without a time limit
+     * @param unit    unit of <tt>timeout</tt>
+     * @return the number of items inserted from the start of <tt>items</tt>,
+     *         <tt>0</tt> if the waiting time elapsed before any capacity was available
+     * @throws InterruptedException if interrupted while waiting
+     */
+    int offerAll(Collection<? extends E> items, long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * Retrieves and removes up to <tt>maxElements</tt> items from the head of this queue with
+     * a single operation, waiting up to the specified wait time for an item if the queue is empty.
+     *
+     * @param maxElements maximum number of items to remove, must be positive
+     * @param timeout     how long to wait for an item, a negative value waits without a time limit
+     * @param unit        unit of <tt>timeout</tt>
+     * @return the removed items in queue order, empty if the waiting time elapsed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    List<E> pollBatch(int maxElements, long timeout, TimeUnit unit) throws InterruptedException;
+
     /**
      * {@inheritDoc}
      */
@@ -0,0 +1,362 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.executor;
+
+import com.hazelcast.core.MemberLeftException;
+import com.hazelcast.core.PartitionAware;
+import com.hazelcast.instance.MemberImpl;
+import com.hazelcast.nio.Address;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.nio.serialization.SerializationService;
+import com.hazelcast.partition.PartitionService;
+import com.hazelcast.spi.Callback;
+import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.spi.exception.TargetNotMemberException;
+import com.hazelcast.util.executor.CompletedFuture;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Dispatches the tasks of {@link ExecutorServiceProxy#submitAll(Collection)}.
+ * <p/>
+ * Tasks are cut into batches queued per member: {@link PartitionAware} tasks to the owner of
+ * their partition, the others to the member with the least load, that is the tasks waiting
+ * in its executor as of its last batch result plus the tasks queued for it here. A member
+ * has at most {@link #MAX_BATCHES_IN_FLIGHT} batches sent at a time; when its queue is empty
+ * it steals the last batch of the member with the most queued batches. Batches of
+ * PartitionAware tasks are only stolen if their owner leaves.
+ */
+final class BatchSubmission<T> {
+
+    static final int BATCH_SIZE = 100;
+
+    static final int MAX_BATCHES_IN_FLIGHT = 2;
+
+    private final String name;
+    private final NodeEngine nodeEngine;
+    private final ConcurrentMap<Address, Long> memberLoads;
+    private final List<TaskFuture<T>> futures;
+    private final Map<Address, MemberQueue> queues = new LinkedHashMap<Address, MemberQueue>();
+
+    BatchSubmission(String name, NodeEngine nodeEngine, ConcurrentMap<Address, Long> memberLoads,
+                    Collection<? extends Callable<T>> tasks) {
+        this.name = name;
+        this.nodeEngine = nodeEngine;
+        this.memberLoads = memberLoads;
+        this.futures = new ArrayList<TaskFuture<T>>(tasks.size());
+        for (MemberImpl member : nodeEngine.getClusterService().getMemberList()) {
+            queues.put(member.getAddress(), new MemberQueue(member.getAddress()));
+        }
+        final PartitionService partitionService = nodeEngine.getPartitionService();
+        final Map<Address, Batch> pinnedBatches = new HashMap<Address, Batch>();
+        final List<Batch> sharedBatches = new ArrayList<Batch>();
+        Batch sharedBatch = null;
+        for (Callable<T> task : tasks) {
+            if (task == null) throw new NullPointerException();
+            final int index = futures.size();
+            futures.add(new TaskFuture<T>(nodeEngine.getSerializationService()));
+            MemberQueue owner = null;
+            if (task instanceof PartitionAware) {
+                final Object partitionKey = ((PartitionAware) task).getPartitionKey();
+                final Address address = partitionService.getPartitionOwner(partitionService.getPartitionId(partitionKey));
+                owner = address != null ? queues.get(address) : null;
+            }
+            if (owner != null) {
+                Batch batch = pinnedBatches.get(owner.address);
+                if (batch == null || batch.isFull()) {
+                    batch = new Batch();
+                    pinnedBatches.put(owner.address, batch);
+                    owner.pinned.add(batch);
+                }
+                batch.add(index, task);
+                owner.queuedTasks++;
+            } else {
+                if (sharedBatch == null || sharedBatch.isFull()) {
+                    sharedBatch = new Batch();
+                    sharedBatches.add(sharedBatch);
+                }
+                sharedBatch.add(index, task);
+            }
+        }
+        for (Batch batch : sharedBatches) {
+            MemberQueue leastLoaded = null;
+            for (MemberQueue queue : queues.values()) {
+                if (leastLoaded == null || queue.getLoad() < leastLoaded.getLoad()) {
+                    leastLoaded = queue;
+                }
+            }
+            leastLoaded.shared.add(batch);
+            leastLoaded.queuedTasks += batch.size();
+        }
+    }
+
+    List<Future<T>> getFutures() {
+        return new ArrayList<Future<T>>(futures);
+    }
+
+    void start() {
+        final List<Batch> toSend = new ArrayList<Batch>();
+        synchronized (this) {
+            for (MemberQueue queue : queues.values()) {
+                fill(queue, toSend);
+            }
+        }
+        send(toSend);
+    }
+
+    // takes batches for the member up to the in-flight limit, stealing if its own queue is empty
+    private void fill(MemberQueue queue, List<Batch> toSend) {
+        while (!queue.dead && queue.inFlight < MAX_BATCHES_IN_FLIGHT) {
+            Batch batch = queue.pinned.poll();
+            if (batch == null) {
+                batch = queue.shared.poll();
+            }
+            if (batch == null) {
+                batch = steal(queue);
+            }
+            if (batch == null) {
+                return;
+            }
+            queue.queuedTasks -= batch.size();
+            if (!batch.removeCancelled(futures)) {
+                continue;
+            }
+            batch.target = queue;
+            queue.inFlight++;
+            toSend.add(batch);
+        }
+    }
+
+    private Batch steal(MemberQueue thief) {
+        MemberQueue victim = null;
+        for (MemberQueue queue : queues.values()) {
+            if (queue != thief && !queue.shared.isEmpty()
+                    && (victim == null || queue.shared.size() > victim.shared.size())) {
+                victim = queue;
+            }
+        }
+        if (victim == null) {
+            return null;
+        }
+        final Batch batch = victim.shared.pollLast();
+        victim.queuedTasks -= batch.size();
+        thief.queuedTasks += batch.size();
+        return batch;
+    }
+
+    private void send(List<Batch> batches) {
+        for (final Batch batch : batches) {
+            try {
+                nodeEngine.getOperationService().createInvocationBuilder(DistributedExecutorService.SERVICE_NAME,
+                        new CallableTaskBatchOperation(name, batch.tasks), batch.target.address)
+                        .setCallback(new Callback<Object>() {
+                            public void notify(Object response) {
+                                onResponse(batch, response);
+                            }
+                        }).build().invoke();
+            } catch (Throwable t) {
+                onResponse(batch, t);
+            }
+        }
+    }
+
+    private void onResponse(Batch batch, Object response) {
+        if (response instanceof Data) {
+            response = nodeEngine.toObject(response);
+        }
+        final MemberQueue queue = batch.target;
+        // the batch never reached the member
+        final boolean notSent = response instanceof TargetNotMemberException;
+        if (response instanceof CallableTaskBatchResult) {
+            final CallableTaskBatchResult result = (CallableTaskBatchResult) response;
+            memberLoads.put(queue.address, result.getPendingTaskCount());
+            final Object[] results = result.getResults();
+            for (int i = 0; i < results.length; i++) {
+                futures.get(batch.indexes.get(i)).set(results[i]);
+            }
+        } else if (!notSent) {
+            batch.complete(futures, response);
+        }
+        final List<Batch> toSend = new ArrayList<Batch>();
+        final List<Batch> failed = new ArrayList<Batch>();
+        synchronized (this) {
+            queue.inFlight--;
+            if (response instanceof MemberLeftException || notSent) {
+                if (notSent) {
+                    queue.shared.add(batch);
+                    queue.queuedTasks += batch.size();
+                }
+                memberLeft(queue, failed);
+                for (MemberQueue q : queues.values()) {
+                    fill(q, toSend);
+                }
+            } else {
+                fill(queue, toSend);
+            }
+        }
+        for (Batch b : failed) {
+            b.complete(futures, response);
+        }
+        send(toSend);
+    }
+
+    // queued batches of a member that left are left to the others to steal, or failed if none is left;
+    // batches it had accepted already fail with MemberLeftException, as their tasks may have run
+    private void memberLeft(MemberQueue queue, List<Batch> failed) {
+        queue.dead = true;
+        memberLoads.remove(queue.address);
+        queue.shared.addAll(queue.pinned);
+        queue.pinned.clear();
+        for (MemberQueue q : queues.values()) {
+            if (!q.dead) {
+                return;
+            }
+        }
+        for (MemberQueue q : queues.values()) {
+            failed.addAll(q.shared);
+            q.shared.clear();
+        }
+    }
+
+    private final class MemberQueue {
+        final Address address;
+        final LinkedList<Batch> pinned = new LinkedList<Batch>();
+        final LinkedList<Batch> shared = new LinkedList<Batch>();
+        int queuedTasks;
+        int inFlight;
+        boolean dead;
+
+        MemberQueue(Address address) {
+            this.address = address;
+        }
+
+        long getLoad() {
+            final Long pending = memberLoads.get(address);
+            return (pending != null ? pending : 0L) + queuedTasks;
+        }
+    }
+
+    private final class Batch {
+        final List<Integer> indexes = new ArrayList<Integer>(BATCH_SIZE);
+        final List<Callable> tasks = new ArrayList<Callable>(BATCH_SIZE);
+        MemberQueue target;
+
+        void add(int index, Callable task) {
+            indexes.add(index);
+            tasks.add(task);
+        }
+
+        int size() {
+            return tasks.size();
+        }
+
+        boolean isFull() {
+            return tasks.size() >= BATCH_SIZE;
+        }
+
+        // drops the tasks whose futures were cancelled, returns false if none is left
+        boolean removeCancelled(List<TaskFuture<T>> futures) {
+            for (int i = indexes.size() - 1; i >= 0; i--) {
+                if (futures.get(indexes.get(i)).isCancelled()) {
+                    indexes.remove(i);
+                    tasks.remove(i);
+                }
+            }
+            return !tasks.isEmpty();
+        }
+
+        void complete(List<TaskFuture<T>> futures, Object response) {
+            for (Integer index : indexes) {
+                futures.get(index).set(response);
+            }
+        }
+    }
+
+    /**
+     * Future of a task of the submission. Cancelling it only keeps the task from being sent,
+     * see {@link com.hazelcast.core.IExecutorService#submitAll(Collection)}.
+     */
+    static final class TaskFuture<V> implements Future<V> {
+
+        private final SerializationService serializationService;
+        private Object value;
+        private boolean done;
+        private boolean cancelled;
+
+        TaskFuture(SerializationService serializationService) {
+            this.serializationService = serializationService;
+        }
+
+        // the result of a task cancelled after it has been sent is dropped
+        synchronized void set(Object value) {
+            if (!done) {
+                this.value = value;
+                done = true;
+                notifyAll();
+            }
+        }
+
+        public V get() throws InterruptedException, ExecutionException {
+            synchronized (this) {
+                while (!done) {
+                    wait();
+                }
+            }
+            return getValue();
+        }
+
+        public V get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            final long deadline = System.currentTimeMillis() + unit.toMillis(timeout);
+            synchronized (this) {
+                while (!done) {
+                    final long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        throw new TimeoutException();
+                    }
+                    wait(remaining);
+                }
+            }
+            return getValue();
+        }
+
+        private V getValue() throws InterruptedException, ExecutionException {
+            if (isCancelled()) {
+                throw new CancellationException();
+            }
+            return new CompletedFuture<V>(serializationService, value).get();
+        }
+
+        public synchronized boolean cancel(boolean mayInterruptIfRunning) {
+            if (done) {
+                return false;
+            }
+            cancelled = true;
+            done = true;
+            notifyAll();
+            return true;
+        }
+
+        public synchronized boolean isCancelled() {
+            return cancelled;
+        }
+
+        public synchronized boolean isDone() {
+            return done;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.executor;
+
+import com.hazelcast.core.ManagedContext;
+import com.hazelcast.core.MemberLeftException;
+import com.hazelcast.instance.HazelcastInstanceImpl;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.nio.serialization.SerializationServiceImpl;
+import com.hazelcast.spi.ExceptionAction;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.exception.TargetNotMemberException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Runs a batch of tasks on the executor of the target member, response is a
+ * {@link CallableTaskBatchResult} sent when all of the tasks are done.
+ */
+public final class CallableTaskBatchOperation extends Operation implements IdentifiedDataSerializable {
+
+    private String name;
+    private List<Callable> callables;
+
+    public CallableTaskBatchOperation() {
+    }
+
+    public CallableTaskBatchOperation(String name, List<Callable> callables) {
+        this.name = name;
+        this.callables = callables;
+    }
+
+    @Override
+    public void beforeRun() throws Exception {
+        HazelcastInstanceImpl hazelcastInstance = (HazelcastInstanceImpl) getNodeEngine().getHazelcastInstance();
+        SerializationServiceImpl serializationService = (SerializationServiceImpl) hazelcastInstance.getSerializationService();
+        ManagedContext managedContext = serializationService.getManagedContext();
+
+        for (int i = 0; i < callables.size(); i++) {
+            final Callable callable = callables.get(i);
+            if (callable instanceof RunnableAdapter) {
+                RunnableAdapter adapter = (RunnableAdapter) callable;
+                adapter.setRunnable((Runnable) managedContext.initialize(adapter.getRunnable()));
+            } else {
+                callables.set(i, (Callable) managedContext.initialize(callable));
+            }
+        }
+    }
+
+    public void run() throws Exception {
+        DistributedExecutorService service = getService();
+        service.executeBatch(name, callables, getResponseHandler());
+    }
+
+    @Override
+    public void afterRun() throws Exception {
+    }
+
+    @Override
+    public boolean returnsResponse() {
+        return false;
+    }
+
+    @Override
+    public Object getResponse() {
+        return null;
+    }
+
+    // the submission moves the batches of a member that left to the others itself
+    @Override
+    public ExceptionAction onException(Throwable throwable) {
+        if (throwable instanceof MemberLeftException || throwable instanceof TargetNotMemberException) {
+            return ExceptionAction.THROW_EXCEPTION;
+        }
+        return super.onException(throwable);
+    }
+
+    public int getFactoryId() {
+        return ExecutorDataSerializerHook.F_ID;
+    }
+
+    public int getId() {
+        return ExecutorDataSerializerHook.CALLABLE_TASK_BATCH;
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        out.writeUTF(name);
+        out.writeInt(callables.size());
+        for (Callable callable : callables) {
+            out.writeObject(callable);
+        }
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        name = in.readUTF();
+        final int size = in.readInt();
+        callables = new ArrayList<Callable>(size);
+        for (int i = 0; i < size; i++) {
+            callables.add((Callable) in.readObject());
+        }
+    }
+}
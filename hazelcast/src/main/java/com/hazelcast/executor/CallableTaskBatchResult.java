@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.executor;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+
+import java.io.IOException;
+
+/**
+ * Results of a {@link CallableTaskBatchOperation} in the order of its tasks, a failed
+ * task's result is its exception. Carries the number of tasks waiting in the executor
+ * of the member, used to route the next tasks.
+ */
+public final class CallableTaskBatchResult implements IdentifiedDataSerializable {
+
+    private Object[] results;
+    private long pendingTaskCount;
+
+    public CallableTaskBatchResult() {
+    }
+
+    public CallableTaskBatchResult(Object[] results, long pendingTaskCount) {
+        this.results = results;
+        this.pendingTaskCount = pendingTaskCount;
+    }
+
+    public Object[] getResults() {
+        return results;
+    }
+
+    public long getPendingTaskCount() {
+        return pendingTaskCount;
+    }
+
+    public int getFactoryId() {
+        return ExecutorDataSerializerHook.F_ID;
+    }
+
+    public int getId() {
+        return ExecutorDataSerializerHook.CALLABLE_TASK_BATCH_RESULT;
+    }
+
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeLong(pendingTaskCount);
+        out.writeInt(results.length);
+        for (Object result : results) {
+            out.writeObject(result);
+        }
+    }
+
+    public void readData(ObjectDataInput in) throws IOException {
+        pendingTaskCount = in.readLong();
+        results = new Object[in.readInt()];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = in.readObject();
+        }
+    }
+}
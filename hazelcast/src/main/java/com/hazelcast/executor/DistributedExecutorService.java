@@ -24,10 +24,12 @@ import com.hazelcast.util.ConcurrencyUtil;
 import com.hazelcast.util.ConstructorFunction;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author mdogan 1/18/13
@@ -79,6 +81,20 @@ public class DistributedExecutorService implements ManagedService, RemoteService
         }
     }
 
+    public void executeBatch(String name, List<Callable> callables, final ResponseHandler responseHandler) {
+        final BatchProcessor batch = new BatchProcessor(name, callables.size(), responseHandler);
+        for (int i = 0; i < callables.size(); i++) {
+            startPending(name);
+            final BatchTaskProcessor processor = new BatchTaskProcessor(batch, i, callables.get(i));
+            try {
+                executionService.execute(name, processor);
+            } catch (RejectedExecutionException e) {
+                getLogger().warning("While executing " + callables.get(i) + " on Executor[" + name + "]", e);
+                batch.setResult(i, e);
+            }
+        }
+    }
+
     public boolean cancel(String uuid, boolean interrupt) {
         final CallableProcessor processor = submittedTasks.remove(uuid);
         if (processor != null && processor.cancel(interrupt)) {
@@ -168,6 +184,62 @@ public class DistributedExecutorService implements ManagedService, RemoteService
         }
     }
 
+    /**
+     * Collects the results of a batch of tasks and responds once all of them are done,
+     * along with the number of tasks waiting in the executor.
+     */
+    private class BatchProcessor {
+        final String name;
+        final Object[] results;
+        final AtomicInteger remaining;
+        final ResponseHandler responseHandler;
+
+        private BatchProcessor(String name, int size, ResponseHandler responseHandler) {
+            this.name = name;
+            this.results = new Object[size];
+            this.remaining = new AtomicInteger(size);
+            this.responseHandler = responseHandler;
+        }
+
+        void setResult(int index, Object result) {
+            // each result is written before the decrement, so the last task sees all of them
+            results[index] = result;
+            if (remaining.decrementAndGet() == 0) {
+                final long pending = getLocalExecutorStats(name).getPendingTaskCount();
+                responseHandler.sendResponse(new CallableTaskBatchResult(results, pending));
+            }
+        }
+    }
+
+    private class BatchTaskProcessor implements Runnable {
+        final BatchProcessor batch;
+        final int index;
+        final Callable callable;
+        final long creationTime = Clock.currentTimeMillis();
+
+        private BatchTaskProcessor(BatchProcessor batch, int index, Callable callable) {
+            this.batch = batch;
+            this.index = index;
+            this.callable = callable;
+        }
+
+        public void run() {
+            final long start = Clock.currentTimeMillis();
+            startExecution(batch.name, start - creationTime);
+            Object result = null;
+            try {
+                result = callable.call();
+            } catch (Throwable t) {
+                getLogger().finest("While executing callable: " + callable, t);
+                result = t;
+            } finally {
+                finishExecution(batch.name, Clock.currentTimeMillis() - start);
+                // the batch responds only once all of its tasks have set a result
+                batch.setResult(index, result);
+            }
+        }
+    }
+
     private ILogger getLogger() {
         return nodeEngine.getLogger(DistributedExecutorService.class.getName());
     }
@@ -34,6 +34,8 @@ public class ExecutorDataSerializerHook implements DataSerializerHook {
     static final int CALLABLE_TASK = 0;
     static final int MEMBER_CALLABLE_TASK = 1;
     static final int RUNNABLE_ADAPTER = 2;
+    static final int CALLABLE_TASK_BATCH = 3;
+    static final int CALLABLE_TASK_BATCH_RESULT = 4;
 
     public static final int TARGET_CALLABLE_REQUEST = 6;
     public static final int LOCAL_TARGET_CALLABLE_REQUEST = 7;
@@ -57,6 +59,12 @@ public class ExecutorDataSerializerHook implements DataSerializerHook {
                     case RUNNABLE_ADAPTER:
                         return new RunnableAdapter();
 
+                    case CALLABLE_TASK_BATCH:
+                        return new CallableTaskBatchOperation();
+
+                    case CALLABLE_TASK_BATCH_RESULT:
+                        return new CallableTaskBatchResult();
+
                     case TARGET_CALLABLE_REQUEST:
                         return new TargetCallableRequest();
 
@@ -41,6 +41,8 @@ public class ExecutorServiceProxy extends AbstractDistributedObject<DistributedE
     private final int partitionCount;
     private final AtomicInteger consecutiveSubmits = new AtomicInteger();
     private volatile long lastSubmitTime = 0L;
+    // member -> tasks waiting in its executor as of the last batch result
+    private final ConcurrentMap<Address, Long> memberLoads = new ConcurrentHashMap<Address, Long>();
 
     public ExecutorServiceProxy(String name, NodeEngine nodeEngine, DistributedExecutorService service) {
         super(nodeEngine, service);
@@ -205,6 +207,15 @@ public class ExecutorServiceProxy extends AbstractDistributedObject<DistributedE
         return submitToMembers(task, nodeEngine.getClusterService().getMembers());
     }
 
+    public <T> List<Future<T>> submitAll(Collection<? extends Callable<T>> tasks) {
+        if (isShutdown()) {
+            throw new RejectedExecutionException(getRejectionMessage());
+        }
+        final BatchSubmission<T> submission = new BatchSubmission<T>(name, getNodeEngine(), memberLoads, tasks);
+        submission.start();
+        return submission.getFutures();
+    }
+
     public void submit(Runnable task, ExecutionCallback callback) {
         Callable<?> callable = createRunnableAdapter(task);
         submit(callable, callback);
@@ -281,11 +292,8 @@ public class ExecutorServiceProxy extends AbstractDistributedObject<DistributedE
     }
 
     public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks) throws InterruptedException {
-        final List<Future<T>> futures = new ArrayList<Future<T>>(tasks.size());
+        final List<Future<T>> futures = submitAll(tasks);
         final List<Future<T>> result = new ArrayList<Future<T>>(tasks.size());
-        for (Callable<T> task : tasks) {
-            futures.add(submit(task));
-        }
         for (Future<T> future : futures) {
             Object value;
             try {
@@ -27,13 +27,28 @@ public class GroupProperties {
     public static final String PROP_PREFER_IPv4_STACK = "hazelcast.prefer.ipv4.stack";
     public static final String PROP_IO_THREAD_COUNT = "hazelcast.io.thread.count";
     public static final String PROP_OPERATION_THREAD_COUNT = "hazelcast.operation.thread.count";
+    public static final String PROP_OPERATION_THREAD_QUEUE_CAPACITY = "hazelcast.operation.thread.queue.capacity";
+    public static final String PROP_OPERATION_THREAD_DRAIN_BATCH_SIZE = "hazelcast.operation.thread.drain.batch.size";
+    public static final String PROP_OPERATION_THREAD_IDLE_SPINS = "hazelcast.operation.thread.idle.spins";
+    public static final String PROP_OPERATION_THREAD_PRIORITY_BATCH_SIZE = "hazelcast.operation.thread.priority.batch.size";
     public static final String PROP_EVENT_THREAD_COUNT = "hazelcast.event.thread.count";
     public static final String PROP_EVENT_QUEUE_CAPACITY = "hazelcast.event.queue.capacity";
     public static final String PROP_EVENT_QUEUE_TIMEOUT_MILLIS = "hazelcast.event.queue.timeout.millis";
+    public static final String PROP_EVENT_QUEUE_FULL_POLICY = "hazelcast.event.queue.full.policy";
+    public static final String PROP_EVENT_SLOW_LISTENER_THRESHOLD_MILLIS = "hazelcast.event.slow.listener.threshold.millis";
+    public static final String PROP_EVENT_BATCH_SIZE = "hazelcast.event.batch.size";
+    public static final String PROP_EVENT_BATCH_DELAY_MILLIS = "hazelcast.event.batch.delay.millis";
+    public static final String PROP_EVENT_ACK_WINDOW = "hazelcast.event.ack.window";
     public static final String PROP_CONNECT_ALL_WAIT_SECONDS = "hazelcast.connect.all.wait.seconds";
     public static final String PROP_MEMCACHE_ENABLED = "hazelcast.memcache.enabled";
     public static final String PROP_REST_ENABLED = "hazelcast.rest.enabled";
     public static final String PROP_MAP_LOAD_CHUNK_SIZE = "hazelcast.map.load.chunk.size";
+    public static final String PROP_MAP_LOAD_MAX_PARALLEL_CHUNKS = "hazelcast.map.load.max.parallel.chunks";
+    public static final String PROP_MAP_READ_THROUGH_BATCH_SIZE = "hazelcast.map.read.through.batch.size";
+    public static final String PROP_MAP_READ_THROUGH_BATCH_WINDOW_MILLIS = "hazelcast.map.read.through.batch.window.millis";
+    public static final String PROP_MAP_WRITE_BEHIND_QUEUE_CAPACITY = "hazelcast.map.write.behind.queue.capacity";
+    public static final String PROP_MAP_WRITE_BEHIND_FLUSH_INTERVAL_MILLIS = "hazelcast.map.write.behind.flush.interval.millis";
+    public static final String PROP_MAP_WRITE_BEHIND_MAX_BACKOFF_SECONDS = "hazelcast.map.write.behind.max.backoff.seconds";
     public static final String PROP_MERGE_FIRST_RUN_DELAY_SECONDS = "hazelcast.merge.first.run.delay.seconds";
     public static final String PROP_MERGE_NEXT_RUN_DELAY_SECONDS = "hazelcast.merge.next.run.delay.seconds";
     public static final String PROP_OPERATION_CALL_TIMEOUT_MILLIS = "hazelcast.operation.call.timeout.millis";
@@ -72,6 +87,22 @@ public class GroupProperties {
     public static final String PROP_PARTITION_MIGRATION_INTERVAL = "hazelcast.partition.migration.interval";
     public static final String PROP_PARTITION_MIGRATION_TIMEOUT = "hazelcast.partition.migration.timeout";
     public static final String PROP_PARTITION_MIGRATION_ZIP_ENABLED = "hazelcast.partition.migration.zip.enabled";
+    public static final String PROP_PARTITION_MIGRATION_CHUNK_SIZE = "hazelcast.partition.migration.chunk.size";
+    public static final String PROP_PARTITION_MIGRATION_MAX_PARALLEL = "hazelcast.partition.migration.max.parallel";
+    public static final String PROP_PARTITION_MIGRATION_MAX_PER_MEMBER = "hazelcast.partition.migration.max.per.member";
+    public static final String PROP_PARTITION_MIGRATION_MAX_BANDWIDTH = "hazelcast.partition.migration.max.bandwidth";
+    public static final String PROP_PARTITION_BACKUP_LOG_SIZE = "hazelcast.partition.backup.log.size";
+    public static final String PROP_BACKUP_BATCH_ENABLED = "hazelcast.backup.batch.enabled";
+    public static final String PROP_BACKUP_BATCH_SYNC_ENABLED = "hazelcast.backup.batch.sync.enabled";
+    public static final String PROP_BACKUP_BATCH_SIZE = "hazelcast.backup.batch.size";
+    public static final String PROP_BACKUP_BATCH_DELAY_MILLIS = "hazelcast.backup.batch.delay.millis";
+    public static final String PROP_BACKPRESSURE_ENABLED = "hazelcast.backpressure.enabled";
+    public static final String PROP_BACKPRESSURE_MAX_CONCURRENT_INVOCATIONS_PER_MEMBER
+            = "hazelcast.backpressure.max.concurrent.invocations.per.member";
+    public static final String PROP_BACKPRESSURE_MAX_CONCURRENT_INVOCATIONS_PER_PARTITION
+            = "hazelcast.backpressure.max.concurrent.invocations.per.partition";
+    public static final String PROP_BACKPRESSURE_BACKOFF_TIMEOUT_MILLIS = "hazelcast.backpressure.backoff.timeout.millis";
+    public static final String PROP_BACKPRESSURE_SYNC_WINDOW = "hazelcast.backpressure.sync.window";
     public static final String PROP_PARTITION_TABLE_SEND_INTERVAL = "hazelcast.partition.table.send.interval";
     public static final String PROP_PARTITIONING_STRATEGY_CLASS = "hazelcast.partitioning.strategy.class";
     public static final String PROP_GRACEFUL_SHUTDOWN_MAX_WAIT = "hazelcast.graceful.shutdown.max.wait";
@@ -88,6 +119,14 @@ public class GroupProperties {
 
     public final GroupProperty OPERATION_THREAD_COUNT;
 
+    public final GroupProperty OPERATION_THREAD_QUEUE_CAPACITY; // lock-free part of the queue, rounded up to a power of two
+
+    public final GroupProperty OPERATION_THREAD_DRAIN_BATCH_SIZE;
+
+    public final GroupProperty OPERATION_THREAD_IDLE_SPINS; // empty polls before an idle thread yields and then parks
+
+    public final GroupProperty OPERATION_THREAD_PRIORITY_BATCH_SIZE; // urgent operations run before a batch of the others
+
     public final GroupProperty EVENT_THREAD_COUNT;
 
     public final GroupProperty HEALTH_MONITORING_LEVEL;
@@ -96,10 +135,20 @@ public class GroupProperties {
 
     public final GroupProperty IO_THREAD_COUNT;
 
-    public final GroupProperty EVENT_QUEUE_CAPACITY;
+    public final GroupProperty EVENT_QUEUE_CAPACITY; // events queued for all local listeners, and per remote subscriber
 
     public final GroupProperty EVENT_QUEUE_TIMEOUT_MILLIS;
 
+    public final GroupProperty EVENT_QUEUE_FULL_POLICY; // BLOCK (up to the queue timeout) or DROP
+
+    public final GroupProperty EVENT_SLOW_LISTENER_THRESHOLD_MILLIS;
+
+    public final GroupProperty EVENT_BATCH_SIZE; // events per subscriber
+
+    public final GroupProperty EVENT_BATCH_DELAY_MILLIS;
+
+    public final GroupProperty EVENT_ACK_WINDOW; // events a subscriber may be sent before acknowledging
+
     public final GroupProperty PREFER_IPv4_STACK;
 
     public final GroupProperty CONNECT_ALL_WAIT_SECONDS;
@@ -112,6 +161,18 @@ public class GroupProperties {
 
     public final GroupProperty MAP_LOAD_CHUNK_SIZE;
 
+    public final GroupProperty MAP_LOAD_MAX_PARALLEL_CHUNKS; // per map, per member
+
+    public final GroupProperty MAP_READ_THROUGH_BATCH_SIZE;
+
+    public final GroupProperty MAP_READ_THROUGH_BATCH_WINDOW_MILLIS;
+
+    public final GroupProperty MAP_WRITE_BEHIND_QUEUE_CAPACITY; // per map, per member
+
+    public final GroupProperty MAP_WRITE_BEHIND_FLUSH_INTERVAL_MILLIS;
+
+    public final GroupProperty MAP_WRITE_BEHIND_MAX_BACKOFF_SECONDS;
+
     public final GroupProperty MERGE_FIRST_RUN_DELAY_SECONDS;
 
     public final GroupProperty MERGE_NEXT_RUN_DELAY_SECONDS;
@@ -186,6 +247,34 @@ public class GroupProperties {
 
     public final GroupProperty PARTITION_MIGRATION_ZIP_ENABLED;
 
+    public final GroupProperty PARTITION_MIGRATION_CHUNK_SIZE; // number of kilobytes
+
+    public final GroupProperty PARTITION_MIGRATION_MAX_PARALLEL;
+
+    public final GroupProperty PARTITION_MIGRATION_MAX_PER_MEMBER; // as source or destination
+
+    public final GroupProperty PARTITION_MIGRATION_MAX_BANDWIDTH; // kilobytes per second per source member, 0 is unlimited
+
+    public final GroupProperty PARTITION_BACKUP_LOG_SIZE; // backups kept per partition replica, 0 disables delta sync
+
+    public final GroupProperty BACKUP_BATCH_ENABLED;
+
+    public final GroupProperty BACKUP_BATCH_SYNC_ENABLED;
+
+    public final GroupProperty BACKUP_BATCH_SIZE; // backups per member
+
+    public final GroupProperty BACKUP_BATCH_DELAY_MILLIS;
+
+    public final GroupProperty BACKPRESSURE_ENABLED;
+
+    public final GroupProperty BACKPRESSURE_MAX_CONCURRENT_INVOCATIONS_PER_MEMBER;
+
+    public final GroupProperty BACKPRESSURE_MAX_CONCURRENT_INVOCATIONS_PER_PARTITION;
+
+    public final GroupProperty BACKPRESSURE_BACKOFF_TIMEOUT_MILLIS; // 0 rejects without waiting
+
+    public final GroupProperty BACKPRESSURE_SYNC_WINDOW; // every n-th backup of a partition is acknowledged
+
     public final GroupProperty PARTITION_TABLE_SEND_INTERVAL;
 
     public final GroupProperty PARTITIONING_STRATEGY_CLASS;
@@ -219,13 +308,28 @@ public class GroupProperties {
         PREFER_IPv4_STACK = new GroupProperty(config, PROP_PREFER_IPv4_STACK, "true");
         IO_THREAD_COUNT = new GroupProperty(config, PROP_IO_THREAD_COUNT, "3");
         OPERATION_THREAD_COUNT = new GroupProperty(config, PROP_OPERATION_THREAD_COUNT, "-1");
+        OPERATION_THREAD_QUEUE_CAPACITY = new GroupProperty(config, PROP_OPERATION_THREAD_QUEUE_CAPACITY, "16384");
+        OPERATION_THREAD_DRAIN_BATCH_SIZE = new GroupProperty(config, PROP_OPERATION_THREAD_DRAIN_BATCH_SIZE, "64");
+        OPERATION_THREAD_IDLE_SPINS = new GroupProperty(config, PROP_OPERATION_THREAD_IDLE_SPINS, "1000");
+        OPERATION_THREAD_PRIORITY_BATCH_SIZE = new GroupProperty(config, PROP_OPERATION_THREAD_PRIORITY_BATCH_SIZE, "32");
         EVENT_THREAD_COUNT = new GroupProperty(config, PROP_EVENT_THREAD_COUNT, "5");
         EVENT_QUEUE_CAPACITY = new GroupProperty(config, PROP_EVENT_QUEUE_CAPACITY, "1000000");
         EVENT_QUEUE_TIMEOUT_MILLIS = new GroupProperty(config, PROP_EVENT_QUEUE_TIMEOUT_MILLIS, "250");
+        EVENT_QUEUE_FULL_POLICY = new GroupProperty(config, PROP_EVENT_QUEUE_FULL_POLICY, "BLOCK");
+        EVENT_SLOW_LISTENER_THRESHOLD_MILLIS = new GroupProperty(config, PROP_EVENT_SLOW_LISTENER_THRESHOLD_MILLIS, "1000");
+        EVENT_BATCH_SIZE = new GroupProperty(config, PROP_EVENT_BATCH_SIZE, "100");
+        EVENT_BATCH_DELAY_MILLIS = new GroupProperty(config, PROP_EVENT_BATCH_DELAY_MILLIS, "1");
+        EVENT_ACK_WINDOW = new GroupProperty(config, PROP_EVENT_ACK_WINDOW, "10000");
         CONNECT_ALL_WAIT_SECONDS = new GroupProperty(config, PROP_CONNECT_ALL_WAIT_SECONDS, "120");
         MEMCACHE_ENABLED = new GroupProperty(config, PROP_MEMCACHE_ENABLED, "true");
         REST_ENABLED = new GroupProperty(config, PROP_REST_ENABLED, "true");
         MAP_LOAD_CHUNK_SIZE = new GroupProperty(config, PROP_MAP_LOAD_CHUNK_SIZE, "1000");
+        MAP_LOAD_MAX_PARALLEL_CHUNKS = new GroupProperty(config, PROP_MAP_LOAD_MAX_PARALLEL_CHUNKS, "16");
+        MAP_READ_THROUGH_BATCH_SIZE = new GroupProperty(config, PROP_MAP_READ_THROUGH_BATCH_SIZE, "100");
+        MAP_READ_THROUGH_BATCH_WINDOW_MILLIS = new GroupProperty(config, PROP_MAP_READ_THROUGH_BATCH_WINDOW_MILLIS, "1");
+        MAP_WRITE_BEHIND_QUEUE_CAPACITY = new GroupProperty(config, PROP_MAP_WRITE_BEHIND_QUEUE_CAPACITY, "1000000");
+        MAP_WRITE_BEHIND_FLUSH_INTERVAL_MILLIS = new GroupProperty(config, PROP_MAP_WRITE_BEHIND_FLUSH_INTERVAL_MILLIS, "1000");
+        MAP_WRITE_BEHIND_MAX_BACKOFF_SECONDS = new GroupProperty(config, PROP_MAP_WRITE_BEHIND_MAX_BACKOFF_SECONDS, "60");
         MERGE_FIRST_RUN_DELAY_SECONDS = new GroupProperty(config, PROP_MERGE_FIRST_RUN_DELAY_SECONDS, "300");
         MERGE_NEXT_RUN_DELAY_SECONDS = new GroupProperty(config, PROP_MERGE_NEXT_RUN_DELAY_SECONDS, "120");
         OPERATION_CALL_TIMEOUT_MILLIS = new GroupProperty(config, PROP_OPERATION_CALL_TIMEOUT_MILLIS, "60000");
@@ -264,6 +368,22 @@ public class GroupProperties {
         PARTITION_MIGRATION_INTERVAL = new GroupProperty(config, PROP_PARTITION_MIGRATION_INTERVAL, "0");
         PARTITION_MIGRATION_TIMEOUT = new GroupProperty(config, PROP_PARTITION_MIGRATION_TIMEOUT, "300");
         PARTITION_MIGRATION_ZIP_ENABLED = new GroupProperty(config, PROP_PARTITION_MIGRATION_ZIP_ENABLED, "true");
+        PARTITION_MIGRATION_CHUNK_SIZE = new GroupProperty(config, PROP_PARTITION_MIGRATION_CHUNK_SIZE, "1024");
+        PARTITION_MIGRATION_MAX_PARALLEL = new GroupProperty(config, PROP_PARTITION_MIGRATION_MAX_PARALLEL, "4");
+        PARTITION_MIGRATION_MAX_PER_MEMBER = new GroupProperty(config, PROP_PARTITION_MIGRATION_MAX_PER_MEMBER, "2");
+        PARTITION_MIGRATION_MAX_BANDWIDTH = new GroupProperty(config, PROP_PARTITION_MIGRATION_MAX_BANDWIDTH, "0");
+        PARTITION_BACKUP_LOG_SIZE = new GroupProperty(config, PROP_PARTITION_BACKUP_LOG_SIZE, "100");
+        BACKUP_BATCH_ENABLED = new GroupProperty(config, PROP_BACKUP_BATCH_ENABLED, "false");
+        BACKUP_BATCH_SYNC_ENABLED = new GroupProperty(config, PROP_BACKUP_BATCH_SYNC_ENABLED, "false");
+        BACKUP_BATCH_SIZE = new GroupProperty(config, PROP_BACKUP_BATCH_SIZE, "100");
+        BACKUP_BATCH_DELAY_MILLIS = new GroupProperty(config, PROP_BACKUP_BATCH_DELAY_MILLIS, "1");
+        BACKPRESSURE_ENABLED = new GroupProperty(config, PROP_BACKPRESSURE_ENABLED, "false");
+        BACKPRESSURE_MAX_CONCURRENT_INVOCATIONS_PER_MEMBER = new GroupProperty(config,
+                PROP_BACKPRESSURE_MAX_CONCURRENT_INVOCATIONS_PER_MEMBER, "10000");
+        BACKPRESSURE_MAX_CONCURRENT_INVOCATIONS_PER_PARTITION = new GroupProperty(config,
+                PROP_BACKPRESSURE_MAX_CONCURRENT_INVOCATIONS_PER_PARTITION, "100");
+        BACKPRESSURE_BACKOFF_TIMEOUT_MILLIS = new GroupProperty(config, PROP_BACKPRESSURE_BACKOFF_TIMEOUT_MILLIS, "60000");
+        BACKPRESSURE_SYNC_WINDOW = new GroupProperty(config, PROP_BACKPRESSURE_SYNC_WINDOW, "100");
         PARTITION_TABLE_SEND_INTERVAL = new GroupProperty(config, PROP_PARTITION_TABLE_SEND_INTERVAL, "15");
         PARTITIONING_STRATEGY_CLASS = new GroupProperty(config, PROP_PARTITIONING_STRATEGY_CLASS, "");
         GRACEFUL_SHUTDOWN_MAX_WAIT = new GroupProperty(config, PROP_GRACEFUL_SHUTDOWN_MAX_WAIT, "600");
@@ -22,6 +22,7 @@ import com.hazelcast.concurrent.lock.proxy.LockProxy;
 import com.hazelcast.multimap.MultiMapService;
 import com.hazelcast.concurrent.atomiclong.AtomicLongService;
 import com.hazelcast.concurrent.countdownlatch.CountDownLatchService;
+import com.hazelcast.concurrent.counter.CounterService;
 import com.hazelcast.concurrent.idgen.IdGeneratorService;
 import com.hazelcast.concurrent.lock.LockService;
 import com.hazelcast.concurrent.semaphore.SemaphoreService;
@@ -220,6 +221,13 @@ public final class HazelcastInstanceImpl implements HazelcastInstance {
         return getDistributedObject(AtomicLongService.SERVICE_NAME, name);
     }
 
+    public ICounter getCounter(final String name) {
+        if (name == null) {
+            throw new NullPointerException("Retrieving a counter instance with a null key is not allowed!");
+        }
+        return getDistributedObject(CounterService.SERVICE_NAME, name);
+    }
+
     public ICountDownLatch getCountDownLatch(final String name) {
         if (name == null) {
             throw new NullPointerException("Retrieving a countdown-latch instance with a null key is not allowed!");
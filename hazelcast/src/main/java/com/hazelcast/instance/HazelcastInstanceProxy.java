@@ -105,6 +105,10 @@ public final class HazelcastInstanceProxy implements HazelcastInstance {
         return getOriginal().getAtomicLong(name);
     }
 
+    public ICounter getCounter(String name) {
+        return getOriginal().getCounter(name);
+    }
+
     public ICountDownLatch getCountDownLatch(String name) {
         return getOriginal().getCountDownLatch(name);
     }
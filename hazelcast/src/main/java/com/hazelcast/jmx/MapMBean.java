@@ -188,6 +188,24 @@ public class MapMBean extends HazelcastMBean<IMap> {
         return managedObject.getLocalMapStats().getMaxRemoveLatency();
     }
 
+    @ManagedAnnotation("localStoreOperationCount")
+    @ManagedDescription("number of map store write operations done by write-behind on this member")
+    public long getLocalStoreOperationCount(){
+        return managedObject.getLocalMapStats().getStoreOperationCount();
+    }
+
+    @ManagedAnnotation("localTotalStoreLatency")
+    @ManagedDescription("the total latency of map store write operations. To get the average latency, divide to number of store operations")
+    public long getLocalTotalStoreLatency(){
+        return managedObject.getLocalMapStats().getTotalStoreLatency();
+    }
+
+    @ManagedAnnotation("localMaxStoreLatency")
+    @ManagedDescription("the maximum latency of map store write operations")
+    public long getLocalMaxStoreLatency(){
+        return managedObject.getLocalMapStats().getMaxStoreLatency();
+    }
+
     @ManagedAnnotation("localEventOperationCount")
     @ManagedDescription("number of events received on this member")
     public long getLocalEventOperationCount(){
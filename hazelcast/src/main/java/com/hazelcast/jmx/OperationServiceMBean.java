@@ -49,12 +49,30 @@ public class OperationServiceMBean extends HazelcastMBean<OperationService> {
         return managedObject.getOperationExecutorQueueSize();
     }
 
+    @ManagedAnnotation("priorityOperationExecutorQueueSize")
+    @ManagedDescription("The size of the priority operation queues of the partition threads")
+    public int getPriorityOperationExecutorQueueSize(){
+        return managedObject.getPriorityOperationExecutorQueueSize();
+    }
+
     @ManagedAnnotation("runningOperationsCount")
     @ManagedDescription("the running operations count")
     public int getRunningOperationsCount(){
        return managedObject.getRunningOperationsCount();
     }
 
+    @ManagedAnnotation("invocationCount")
+    @ManagedDescription("The number of invocations in flight, when back-pressure is enabled")
+    public int getInvocationCount(){
+        return managedObject.getInvocationCount();
+    }
+
+    @ManagedAnnotation("rejectedInvocationCount")
+    @ManagedDescription("The number of invocations rejected by back-pressure")
+    public long getRejectedInvocationCount(){
+        return managedObject.getRejectedInvocationCount();
+    }
+
     @ManagedAnnotation("remoteOperationCount")
     @ManagedDescription("The number of remote operations")
     public int getRemoteOperationsCount(){
@@ -67,6 +85,18 @@ public class OperationServiceMBean extends HazelcastMBean<OperationService> {
         return managedObject.getExecutedOperationCount();
     }
 
+    @ManagedAnnotation("executedPartitionOperationCount")
+    @ManagedDescription("The number of operations executed by the partition threads, excluding the priority ones")
+    public long getExecutedPartitionOperationCount(){
+        return managedObject.getExecutedPartitionOperationCount();
+    }
+
+    @ManagedAnnotation("executedPriorityOperationCount")
+    @ManagedDescription("The number of priority operations executed by the partition threads")
+    public long getExecutedPriorityOperationCount(){
+        return managedObject.getExecutedPriorityOperationCount();
+    }
+
     @ManagedAnnotation("operationThreadCount")
     @ManagedDescription("Number of threads executing operations")
     public long getOperationThreadCount(){
@@ -62,6 +62,9 @@ public class ClusterPropsRequest implements ConsoleRequest {
         properties.put("memory.cl_maxMemory", Long.toString(runtime.maxMemory()));
         properties.put("return.hasOngoingMigration" , Boolean.toString(partitionService.hasOnGoingMigration()));
         properties.put("data.cl_migrationTasksCount", Long.toString(partitionService.getMigrationQueueSize()));
+        properties.put("data.cl_migratedBytes", Long.toString(partitionService.getMigratedBytes()));
+        properties.put("data.cl_migrationMillisPerGB", Long.toString(partitionService.getMigrationMillisPerGigabyte()));
+        properties.put("data.cl_migrationEtaMillis", Long.toString(partitionService.getMigrationEtaMillis()));
 
         dos.writeInt(properties.size());
 
@@ -25,6 +25,7 @@ import com.hazelcast.map.merge.MapMergePolicy;
 import com.hazelcast.map.operation.PutAllOperation;
 import com.hazelcast.map.record.Record;
 import com.hazelcast.map.record.RecordFactory;
+import com.hazelcast.map.writebehind.WriteBehindManager;
 import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.nio.serialization.SerializationService;
 import com.hazelcast.query.impl.IndexService;
@@ -35,8 +36,8 @@ import com.hazelcast.spi.NodeEngine;
 import com.hazelcast.spi.OperationAccessor;
 import com.hazelcast.spi.ResponseHandler;
 import com.hazelcast.spi.exception.RetryableHazelcastException;
+import com.hazelcast.util.Clock;
 import com.hazelcast.util.ExceptionUtil;
-import com.hazelcast.util.scheduler.EntryTaskScheduler;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -52,12 +53,12 @@ public class DefaultRecordStore implements RecordStore {
     private final String name;
     private final int partitionId;
     private final ConcurrentMap<Data, Record> records = new ConcurrentHashMap<Data, Record>(1000);
-    private final Set<Data> toBeRemovedKeys = new HashSet<Data>();
     private final MapContainer mapContainer;
     private final MapService mapService;
     private final LockStore lockStore;
     private final RecordFactory recordFactory;
     private final ILogger logger;
+    private final ExpirationWheel expirationWheel = new ExpirationWheel();
 
     final SizeEstimator sizeEstimator;
     final AtomicBoolean loaded = new AtomicBoolean(false);
@@ -74,46 +75,18 @@ public class DefaultRecordStore implements RecordStore {
         this.lockStore = lockService == null ? null :
                 lockService.createLockStore(partitionId, new DefaultObjectNamespace(MapService.SERVICE_NAME, name));
         this.sizeEstimator = SizeEstimators.createMapSizeEstimator();
-        final int mapLoadChunkSize = nodeEngine.getGroupProperties().MAP_LOAD_CHUNK_SIZE.getInteger();
-        final Queue<Map> chunks = new LinkedList<Map>();
-        if (nodeEngine.getThisAddress().equals(nodeEngine.getPartitionService().getPartitionOwner(partitionId))) {
-            if (mapContainer.getStore() != null && !loaded.get()) {
-                Map<Data, Object> loadedKeys = mapContainer.getInitialKeys();
-                if (loadedKeys != null && !loadedKeys.isEmpty()) {
-                    Map<Data, Object> partitionKeys = new HashMap<Data, Object>();
-                    Iterator<Map.Entry<Data, Object>> iterator = loadedKeys.entrySet().iterator();
-                    while (iterator.hasNext()) {
-                        final Map.Entry<Data, Object> entry = iterator.next();
-                        final Data data = entry.getKey();
-                        if (partitionId == nodeEngine.getPartitionService().getPartitionId(data)) {
-                            partitionKeys.put(data, entry.getValue());
-                            //split into chunks
-                            if (partitionKeys.size() >= mapLoadChunkSize) {
-                                chunks.add(partitionKeys);
-                                partitionKeys = new HashMap<Data, Object>();
-                            }
-                            iterator.remove();
-                        }
-                    }
-                    if (!partitionKeys.isEmpty()) {
-                        chunks.add(partitionKeys);
-                    }
-                    if (!chunks.isEmpty()) {
-                        try {
-                            Map<Data, Object> chunkedKeys;
-                            final AtomicInteger checkIfMapLoaded = new AtomicInteger(chunks.size());
-                            while ((chunkedKeys = chunks.poll()) != null) {
-                                nodeEngine.getExecutionService().submit("hz:map-load", new MapLoadAllTask(chunkedKeys, checkIfMapLoaded));
-                            }
-                        } catch (Throwable t) {
-                            throw ExceptionUtil.rethrow(t);
-                        }
-                    } else {
-                        loaded.set(true);
-                    }
-                } else {
-                    loaded.set(true);
+        if (nodeEngine.getThisAddress().equals(nodeEngine.getPartitionService().getPartitionOwner(partitionId))
+                && mapContainer.getStore() != null) {
+            final MapInitialLoader initialLoader = mapContainer.getInitialLoader();
+            final Queue<Map<Data, Object>> chunks = initialLoader.takeChunks(partitionId);
+            if (chunks != null && !chunks.isEmpty()) {
+                final AtomicInteger checkIfMapLoaded = new AtomicInteger(chunks.size());
+                Map<Data, Object> chunkedKeys;
+                while ((chunkedKeys = chunks.poll()) != null) {
+                    initialLoader.execute(new MapLoadAllTask(chunkedKeys, checkIfMapLoaded));
                 }
+            } else {
+                loaded.set(true);
             }
         } else {
             loaded.set(true);
@@ -140,40 +113,25 @@ public class DefaultRecordStore implements RecordStore {
 
     public void flush() {
         checkIfLoaded();
-        Set<Data> keys = new HashSet<Data>();
-        for (Record record : records.values()) {
-            keys.add(record.getKey());
-        }
-        EntryTaskScheduler writeScheduler = mapContainer.getMapStoreWriteScheduler();
-        if (writeScheduler != null) {
-            Set<Data> processedKeys = writeScheduler.flush(keys);
+        WriteBehindManager writeBehindManager = mapContainer.getWriteBehindManager();
+        if (writeBehindManager != null) {
+            Set<Data> processedKeys = writeBehindManager.flush(partitionId);
             for (Data key : processedKeys) {
-                records.get(key).onStore();
+                Record record = records.get(key);
+                if (record != null) {
+                    record.onStore();
+                }
             }
         }
-        EntryTaskScheduler deleteScheduler = mapContainer.getMapStoreDeleteScheduler();
-        if (deleteScheduler != null) {
-            deleteScheduler.flush(toBeRemovedKeys);
-            toBeRemovedKeys.clear();
-        }
     }
 
     private void flush(Data key) {
         checkIfLoaded();
-        EntryTaskScheduler writeScheduler = mapContainer.getMapStoreWriteScheduler();
-        Set<Data> keys = new HashSet<Data>(1);
-        keys.add(key);
-        if (writeScheduler != null) {
-            Set<Data> processedKeys = writeScheduler.flush(keys);
-            for (Data pkey : processedKeys) {
-                records.get(pkey).onStore();
-            }
-        }
-        EntryTaskScheduler deleteScheduler = mapContainer.getMapStoreDeleteScheduler();
-        if (deleteScheduler != null) {
-            if (toBeRemovedKeys.contains(key)) {
-                deleteScheduler.flush(keys);
-                toBeRemovedKeys.remove(key);
+        WriteBehindManager writeBehindManager = mapContainer.getWriteBehindManager();
+        if (writeBehindManager != null && writeBehindManager.flush(partitionId, key)) {
+            Record record = records.get(key);
+            if (record != null) {
+                record.onStore();
             }
         }
     }
@@ -193,6 +151,7 @@ public class DefaultRecordStore implements RecordStore {
     public void deleteRecord(Data key) {
         Record record = records.remove(key);
         if (record != null) {
+            expirationWheel.remove(key);
             record.invalidate();
         }
     }
@@ -212,13 +171,21 @@ public class DefaultRecordStore implements RecordStore {
                 indexService.removeEntryIndex(key);
             }
         }
-        cancelAssociatedSchedulers(records.keySet());
+        expirationWheel.clear();
+        WriteBehindManager writeBehindManager = mapContainer.getWriteBehindManager();
+        if (writeBehindManager != null) {
+            writeBehindManager.clear(partitionId);
+        }
         clearRecordsMap(Collections.<Data, Record>emptyMap());
         resetSizeEstimator();
 
     }
 
     private void clearRecordsMap(Map<Data, Record> excludeRecords) {
+        final ReadThroughLoader readThroughLoader = mapContainer.getReadThroughLoader();
+        if (readThroughLoader != null) {
+            readThroughLoader.invalidate(partitionId);
+        }
         InMemoryFormat inMemoryFormat = recordFactory.getStorageFormat();
         switch (inMemoryFormat) {
             case BINARY:
@@ -409,22 +376,29 @@ public class DefaultRecordStore implements RecordStore {
 
         if (store != null) {
             store.deleteAll(keysObject);
-            toBeRemovedKeys.removeAll(keysToDelete);
+            // pending writes of the deleted keys must not resurrect them
+            WriteBehindManager writeBehindManager = mapContainer.getWriteBehindManager();
+            if (writeBehindManager != null) {
+                for (Data key : keysToDelete) {
+                    writeBehindManager.remove(partitionId, key);
+                }
+            }
         }
 
         clearRecordsMap(lockedRecords);
-        cancelAllSchedulers();
+        rescheduleExpirations();
     }
 
     public void reset() {
         checkIfLoaded();
         clearRecordsMap(Collections.<Data, Record>emptyMap());
         resetSizeEstimator();
-        cancelAllSchedulers();
+        expirationWheel.clear();
     }
 
     public Object remove(Data dataKey) {
         checkIfLoaded();
+        invalidatePendingLoad(dataKey);
         Record record = records.get(dataKey);
         Object oldValue = null;
         if (record == null) {
@@ -445,11 +419,18 @@ public class DefaultRecordStore implements RecordStore {
             // reduce size
             updateSizeEstimator(-calculateRecordSize(record));
             deleteRecord(dataKey);
-            cancelAssociatedSchedulers(dataKey);
         }
         return oldValue;
     }
 
+    // a value being loaded for a get must not resurrect a removed key
+    private void invalidatePendingLoad(Data key) {
+        final ReadThroughLoader readThroughLoader = mapContainer.getReadThroughLoader();
+        if (readThroughLoader != null) {
+            readThroughLoader.invalidate(key);
+        }
+    }
+
     private void removeIndex(Data key) {
         final IndexService indexService = mapContainer.getIndexService();
         if (indexService.hasIndex()) {
@@ -469,7 +450,6 @@ public class DefaultRecordStore implements RecordStore {
             // reduce size
             updateSizeEstimator(-calculateRecordSize(record));
             removeIndex(dataKey);
-            cancelAssociatedSchedulers(dataKey);
         }
         return oldValue;
     }
@@ -489,13 +469,13 @@ public class DefaultRecordStore implements RecordStore {
             oldValue = record.getValue();
         }
         if (mapService.compare(name, testValue, oldValue)) {
+            invalidatePendingLoad(dataKey);
             mapService.interceptRemove(name, oldValue);
             removeIndex(dataKey);
             mapStoreDelete(record, dataKey);
             deleteRecord(dataKey);
             // reduce size
             updateSizeEstimator(-calculateRecordSize(record));
-            cancelAssociatedSchedulers(dataKey);
             removed = true;
         }
         return removed;
@@ -503,19 +483,24 @@ public class DefaultRecordStore implements RecordStore {
 
     public Object get(Data dataKey) {
         checkIfLoaded();
+        Object loadedValue = null;
+        if (records.get(dataKey) == null && mapContainer.getStore() != null) {
+            loadedValue = mapContainer.getStore().load(mapService.toObject(dataKey));
+        }
+        return getAfterLoad(dataKey, loadedValue, true);
+    }
+
+    public Object getAfterLoad(Data dataKey, Object loadedValue, boolean store) {
         Record record = records.get(dataKey);
         Object value = null;
         if (record == null) {
-            if (mapContainer.getStore() != null) {
-                value = mapContainer.getStore().load(mapService.toObject(dataKey));
-                if (value != null) {
-                    record = mapService.createRecord(name, dataKey, value, -1);
-                    records.put(dataKey, record);
-                    saveIndex(record);
-                    updateSizeEstimator(calculateRecordSize(record));
-                }
+            if (store && loadedValue != null) {
+                value = loadedValue;
+                record = mapService.createRecord(name, dataKey, value, -1);
+                records.put(dataKey, record);
+                saveIndex(record);
+                updateSizeEstimator(calculateRecordSize(record));
             }
-
         } else {
             accessRecord(record);
             value = record.getValue();
@@ -525,6 +510,12 @@ public class DefaultRecordStore implements RecordStore {
         return value;
     }
 
+    public Object readBackupData(Data dataKey) {
+        final Record record = records.get(dataKey);
+        final Object value = record != null ? record.getValue() : null;
+        return mapService.interceptGet(name, value);
+    }
+
     public MapEntrySet getAll(Set<Data> keySet) {
         checkIfLoaded();
         final MapEntrySet mapEntrySet = new MapEntrySet();
@@ -688,7 +679,9 @@ public class DefaultRecordStore implements RecordStore {
     private Object writeMapStore(Data dataKey, Object recordValue, Record record) {
         final MapStoreWrapper store = mapContainer.getStore();
         if (store != null) {
-            if (mapContainer.getWriteDelayMillis() <= 0) {
+            final WriteBehindManager writeBehindManager = mapContainer.getWriteBehindManager();
+            // when the write-behind queue is full we write through, slowing the caller down to the pace of the store.
+            if (writeBehindManager == null || !writeBehindManager.offer(partitionId, dataKey, recordValue)) {
                 Object objectValue = mapService.toObject(recordValue);
                 store.store(mapService.toObject(dataKey), objectValue);
                 if (record != null) {
@@ -696,8 +689,6 @@ public class DefaultRecordStore implements RecordStore {
                 }
                 // if store is not a post-processing map-store, then avoid extra de-serialization phase.
                 return store.isPostProcessingMapStore() ? objectValue : recordValue;
-            } else {
-                mapService.scheduleMapStoreWrite(name, dataKey, recordValue, mapContainer.getWriteDelayMillis());
             }
         }
         return recordValue;
@@ -868,7 +859,7 @@ public class DefaultRecordStore implements RecordStore {
         record.onAccess();
         final int maxIdleSeconds = mapContainer.getMapConfig().getMaxIdleSeconds();
         if (maxIdleSeconds > 0) {
-            mapService.scheduleIdleEviction(name, record.getKey(), TimeUnit.SECONDS.toMillis(maxIdleSeconds));
+            scheduleIdleExpiration(record, TimeUnit.SECONDS.toMillis(maxIdleSeconds));
         }
     }
 
@@ -884,16 +875,13 @@ public class DefaultRecordStore implements RecordStore {
     private void mapStoreDelete(Record record, Data key) {
         final MapStoreWrapper store = mapContainer.getStore();
         if (store != null) {
-            long writeDelayMillis = mapContainer.getWriteDelayMillis();
-            if (writeDelayMillis == 0) {
+            final WriteBehindManager writeBehindManager = mapContainer.getWriteBehindManager();
+            if (writeBehindManager == null || !writeBehindManager.offer(partitionId, key, null)) {
                 store.delete(mapService.toObject(key));
                 // todo ea record will be deleted then why calling onStore
                 if (record != null){
                     record.onStore();
                 }
-            } else {
-                mapService.scheduleMapStoreDelete(name, key, writeDelayMillis);
-                toBeRemovedKeys.add(key);
             }
         }
     }
@@ -904,9 +892,9 @@ public class DefaultRecordStore implements RecordStore {
 
     private void updateTtl(Record record, long ttl) {
         if (ttl > 0) {
-            mapService.scheduleTtlEviction(name, record, ttl);
+            scheduleTtlExpiration(record, ttl);
         } else if (ttl == 0) {
-            mapContainer.getTtlEvictionScheduler().cancel(record.getKey());
+            record.setTtlExpirationTime(0);
         }
     }
 
@@ -928,22 +916,78 @@ public class DefaultRecordStore implements RecordStore {
         recordFactory.setValue(record, value);
     }
 
-    private void cancelAssociatedSchedulers(Data key) {
-        mapContainer.getIdleEvictionScheduler().cancel(key);
-        mapContainer.getTtlEvictionScheduler().cancel(key);
+    public void scheduleTtlExpiration(Record record, long ttlMillis) {
+        final long now = Clock.currentTimeMillis();
+        final long previousExpirationTime = getExpirationTime(record);
+        record.setTtlExpirationTime(now + ttlMillis);
+        if (record.getStatistics() != null) {
+            record.getStatistics().setExpirationTime(now + ttlMillis);
+        }
+        addToExpirationWheel(record, previousExpirationTime, now);
+    }
+
+    public void scheduleIdleExpiration(Record record, long idleMillis) {
+        final long now = Clock.currentTimeMillis();
+        final long previousExpirationTime = getExpirationTime(record);
+        record.setIdleExpirationTime(now + idleMillis);
+        addToExpirationWheel(record, previousExpirationTime, now);
     }
 
-    private void cancelAssociatedSchedulers(Set<Data> keySet) {
-        if (keySet == null || keySet.isEmpty()) return;
+    public boolean hasScheduledExpirations() {
+        return expirationWheel.size() > 0;
+    }
 
-        for (Data key : keySet) {
-            cancelAssociatedSchedulers(key);
+    public void collectExpiredKeys(long now, Collection<Data> expiredKeys) {
+        final List<Data> dueKeys = new ArrayList<Data>();
+        expirationWheel.advance(now, dueKeys);
+        for (Data key : dueKeys) {
+            final Record record = records.get(key);
+            if (record == null) {
+                continue;
+            }
+            final long expirationTime = getExpirationTime(record);
+            if (expirationTime == Long.MAX_VALUE) {
+                continue;
+            }
+            if (expirationTime > now || (lockStore != null && lockStore.isLocked(key))) {
+                expirationWheel.add(key, expirationTime, now);
+            } else {
+                expiredKeys.add(key);
+                // checked again in case the eviction does not happen
+                expirationWheel.add(key, now, now);
+            }
+        }
+    }
+
+    /**
+     * A record is added to the wheel only if it expires earlier than before, otherwise the slot
+     * it is in already comes due first and re-adds it with the later time.
+     */
+    private void addToExpirationWheel(Record record, long previousExpirationTime, long now) {
+        final long expirationTime = getExpirationTime(record);
+        if (expirationTime < previousExpirationTime) {
+            expirationWheel.add(record.getKey(), expirationTime, now);
         }
     }
 
-    private void cancelAllSchedulers() {
-        mapContainer.getIdleEvictionScheduler().cancelAll();
-        mapContainer.getTtlEvictionScheduler().cancelAll();
+    private void rescheduleExpirations() {
+        expirationWheel.clear();
+        final long now = Clock.currentTimeMillis();
+        for (Record record : records.values()) {
+            final long expirationTime = getExpirationTime(record);
+            if (expirationTime != Long.MAX_VALUE) {
+                expirationWheel.add(record.getKey(), expirationTime, now);
+            }
+        }
+    }
+
+    private static long getExpirationTime(Record record) {
+        final long ttlExpirationTime = record.getTtlExpirationTime();
+        final long idleExpirationTime = record.getIdleExpirationTime();
+        if (ttlExpirationTime == 0) {
+            return idleExpirationTime == 0 ? Long.MAX_VALUE : idleExpirationTime;
+        }
+        return idleExpirationTime == 0 ? ttlExpirationTime : Math.min(ttlExpirationTime, idleExpirationTime);
     }
 
     private class MapLoadAllTask implements Runnable {
@@ -957,13 +1001,12 @@ public class DefaultRecordStore implements RecordStore {
 
         public void run() {
             final NodeEngine nodeEngine = mapService.getNodeEngine();
+            final MapInitialLoader initialLoader = mapContainer.getInitialLoader();
 
             try {
                 Map values = mapContainer.getStore().loadAll(keys.values());
                 if (values == null || values.isEmpty()) {
-                    if (checkIfMapLoaded.decrementAndGet() == 0) {
-                        loaded.set(true);
-                    }
+                    chunkLoaded();
                     return;
                 }
 
@@ -981,9 +1024,7 @@ public class DefaultRecordStore implements RecordStore {
                 operation.setResponseHandler(new ResponseHandler() {
                     @Override
                     public void sendResponse(Object obj) {
-                        if (checkIfMapLoaded.decrementAndGet() == 0) {
-                            loaded.set(true);
-                        }
+                        chunkLoaded();
                     }
 
                     public boolean isLocal() {
@@ -996,6 +1037,14 @@ public class DefaultRecordStore implements RecordStore {
                 nodeEngine.getOperationService().executeOperation(operation);
             } catch (Exception e) {
                 logger.warning("Exception while load all task:" + e.toString());
+                initialLoader.chunkDone(0);
+            }
+        }
+
+        private void chunkLoaded() {
+            mapContainer.getInitialLoader().chunkDone(keys.size());
+            if (checkIfMapLoaded.decrementAndGet() == 0) {
+                loaded.set(true);
             }
         }
     }
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map;
+
+import com.hazelcast.nio.serialization.Data;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Two level hashed timing wheel of the keys of a record store which have an expiration time.
+ * <p/>
+ * The first level has a slot per second for the next {@value #SLOT_COUNT} seconds, the second level
+ * has a slot per {@value #SLOT_COUNT} seconds. The wheel holds keys only, expiration times are kept
+ * in the records: when a slot comes due, its keys are handed back to the record store which expires
+ * them or re-adds them with their current expiration time. So extending the expiration of a record
+ * (e.g. on access for max-idle) does not touch the wheel.
+ * <p/>
+ * A key is scheduled at most once. Moving it to an earlier slot or removing it leaves its old
+ * entry in place, the entry is dropped when its slot comes due.
+ * <p/>
+ * Not thread-safe, used by the partition thread of its record store.
+ */
+final class ExpirationWheel {
+
+    static final int SLOT_COUNT = 64;
+
+    private static final int SLOT_SHIFT = 6;
+    private static final int SLOT_MASK = SLOT_COUNT - 1;
+    private static final long TICK_MILLIS = 1000;
+
+    private final List<Entry>[] seconds = new List[SLOT_COUNT];
+    private final List<Entry>[] minutes = new List[SLOT_COUNT];
+    // current entry of each scheduled key
+    private final Map<Data, Entry> entries = new HashMap<Data, Entry>();
+    private long currentTick = -1;
+    // read by the sweep task to skip idle record stores
+    private volatile int size;
+
+    /**
+     * Adds given key to the slot of given expiration time, unless it is scheduled in an earlier
+     * slot already. A key which is due already is added to the next tick.
+     */
+    void add(Data key, long expirationTime, long now) {
+        if (currentTick < 0) {
+            currentTick = toTick(now);
+        }
+        final long tick = Math.max(toTick(expirationTime), currentTick + 1);
+        final Entry current = entries.get(key);
+        if (current != null && current.tick <= tick) {
+            return;
+        }
+        final Entry entry = new Entry(key, tick);
+        final List<Entry>[] level;
+        final int slot;
+        if (tick - currentTick < SLOT_COUNT) {
+            level = seconds;
+            slot = (int) (tick & SLOT_MASK);
+        } else {
+            level = minutes;
+            // expirations beyond the second level fall into an earlier round and are re-added then
+            slot = (int) (Math.min(tick, currentTick + SLOT_COUNT * SLOT_COUNT - 1) >> SLOT_SHIFT & SLOT_MASK);
+        }
+        List<Entry> slotEntries = level[slot];
+        if (slotEntries == null) {
+            slotEntries = new ArrayList<Entry>();
+            level[slot] = slotEntries;
+        }
+        slotEntries.add(entry);
+        entries.put(key, entry);
+        size = entries.size();
+    }
+
+    /**
+     * Removes given key from the wheel; called when its record is removed.
+     */
+    void remove(Data key) {
+        if (entries.remove(key) != null) {
+            size = entries.size();
+        }
+    }
+
+    /**
+     * Advances the wheel to <tt>now</tt> and moves the keys of the slots which came due
+     * into <tt>dueKeys</tt>. The caller is expected to check their records and re-add the ones
+     * which are not expired yet.
+     */
+    void advance(long now, Collection<Data> dueKeys) {
+        final long nowTick = toTick(now);
+        if (currentTick < 0 || size == 0) {
+            currentTick = nowTick;
+            return;
+        }
+        if (nowTick - currentTick >= SLOT_COUNT * SLOT_COUNT) {
+            // wheel has not been advanced for a full round, everything is due
+            for (int i = 0; i < SLOT_COUNT; i++) {
+                drain(seconds, i, dueKeys);
+                drain(minutes, i, dueKeys);
+            }
+            currentTick = nowTick;
+            return;
+        }
+        while (currentTick < nowTick) {
+            currentTick++;
+            drain(seconds, (int) (currentTick & SLOT_MASK), dueKeys);
+            if ((currentTick & SLOT_MASK) == 0) {
+                drain(minutes, (int) (currentTick >> SLOT_SHIFT & SLOT_MASK), dueKeys);
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        for (int i = 0; i < SLOT_COUNT; i++) {
+            seconds[i] = null;
+            minutes[i] = null;
+        }
+        entries.clear();
+        size = 0;
+    }
+
+    private void drain(List<Entry>[] level, int slot, Collection<Data> dueKeys) {
+        final List<Entry> slotEntries = level[slot];
+        if (slotEntries == null) {
+            return;
+        }
+        level[slot] = null;
+        for (Entry entry : slotEntries) {
+            // skips entries of removed or rescheduled keys
+            if (entries.get(entry.key) == entry) {
+                entries.remove(entry.key);
+                dueKeys.add(entry.key);
+            }
+        }
+        size = entries.size();
+    }
+
+    private static long toTick(long time) {
+        return time / TICK_MILLIS;
+    }
+
+    private static final class Entry {
+        final Data key;
+        final long tick;
+
+        Entry(Data key, long tick) {
+            this.key = key;
+            this.tick = tick;
+        }
+    }
+}
@@ -28,14 +28,11 @@ import com.hazelcast.map.record.DataRecordFactory;
 import com.hazelcast.map.record.ObjectRecordFactory;
 import com.hazelcast.map.record.OffHeapRecordFactory;
 import com.hazelcast.map.record.RecordFactory;
+import com.hazelcast.map.writebehind.WriteBehindManager;
 import com.hazelcast.nio.ClassLoaderUtil;
-import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.query.impl.IndexService;
 import com.hazelcast.spi.NodeEngine;
 import com.hazelcast.util.ExceptionUtil;
-import com.hazelcast.util.scheduler.EntryTaskScheduler;
-import com.hazelcast.util.scheduler.EntryTaskSchedulerFactory;
-import com.hazelcast.util.scheduler.ScheduleType;
 import com.hazelcast.wan.WanReplicationPublisher;
 
 import java.util.List;
@@ -57,14 +54,12 @@ public class MapContainer {
     private final Map<String, MapInterceptor> interceptorMap;
     private final IndexService indexService = new IndexService();
     private final boolean nearCacheEnabled;
-    private final EntryTaskScheduler idleEvictionScheduler;
-    private final EntryTaskScheduler ttlEvictionScheduler;
-    private final EntryTaskScheduler mapStoreWriteScheduler;
-    private final EntryTaskScheduler mapStoreDeleteScheduler;
+    private final WriteBehindManager writeBehindManager;
     private final WanReplicationPublisher wanReplicationPublisher;
     private final MapMergePolicy wanMergePolicy;
     private final SizeEstimator nearCacheSizeEstimator;
-    private final Map<Data, Object> initialKeys = new ConcurrentHashMap<Data, Object>();
+    private final MapInitialLoader initialLoader;
+    private final ReadThroughLoader readThroughLoader;
     private final PartitioningStrategy partitioningStrategy;
 
     public MapContainer(String name, MapConfig mapConfig, MapService mapService) {
@@ -75,6 +70,7 @@ public class MapContainer {
         this.partitioningStrategy = createPartitioningStrategy();
 
         NodeEngine nodeEngine = mapService.getNodeEngine();
+        this.initialLoader = new MapInitialLoader(name, nodeEngine);
         switch (mapConfig.getInMemoryFormat()) {
             case BINARY:
                 recordFactory = new DataRecordFactory(mapConfig, nodeEngine.getSerializationService(), partitioningStrategy);
@@ -119,20 +115,18 @@ public class MapContainer {
                 ((MapLoaderLifecycleSupport) store).init(nodeEngine.getHazelcastInstance(), mapStoreConfig.getProperties(), name);
             }
             loadInitialKeys();
+            readThroughLoader = new ReadThroughLoader(this, nodeEngine);
 
             if (mapStoreConfig.getWriteDelaySeconds() > 0) {
-                mapStoreWriteScheduler = EntryTaskSchedulerFactory.newScheduler(nodeEngine.getExecutionService().getScheduledExecutor(), new MapStoreWriteProcessor(this, mapService), ScheduleType.FOR_EACH);
-                mapStoreDeleteScheduler = EntryTaskSchedulerFactory.newScheduler(nodeEngine.getExecutionService().getScheduledExecutor(), new MapStoreDeleteProcessor(this, mapService), ScheduleType.SCHEDULE_IF_NEW);
+                writeBehindManager = new WriteBehindManager(this);
+                writeBehindManager.start();
             } else {
-                mapStoreDeleteScheduler = null;
-                mapStoreWriteScheduler = null;
+                writeBehindManager = null;
             }
         } else {
-            mapStoreDeleteScheduler = null;
-            mapStoreWriteScheduler = null;
+            readThroughLoader = null;
+            writeBehindManager = null;
         }
-        ttlEvictionScheduler = EntryTaskSchedulerFactory.newScheduler(nodeEngine.getExecutionService().getScheduledExecutor(), new EvictionProcessor(nodeEngine, mapService, name), ScheduleType.POSTPONE);
-        idleEvictionScheduler = EntryTaskSchedulerFactory.newScheduler(nodeEngine.getExecutionService().getScheduledExecutor(), new EvictionProcessor(nodeEngine, mapService, name), ScheduleType.POSTPONE);
 
         WanReplicationRef wanReplicationRef = mapConfig.getWanReplicationRef();
         if (wanReplicationRef != null) {
@@ -166,42 +160,37 @@ public class MapContainer {
     }
 
     public void loadInitialKeys() {
-        initialKeys.clear();
+        initialLoader.clear();
         Set keys = storeWrapper.loadAllKeys();
         if (keys == null || keys.isEmpty()) {
             return;
         }
-        for (Object key : keys) {
-            Data dataKey = mapService.toData(key, partitioningStrategy);
-            initialKeys.put(dataKey, key);
-        }
+        initialLoader.routeKeys(keys, partitioningStrategy);
         // remove the keys remains more than 20 minutes.
         mapService.getNodeEngine().getExecutionService().schedule(new Runnable() {
             @Override
             public void run() {
-                initialKeys.clear();
+                initialLoader.clear();
             }
         }, 20, TimeUnit.MINUTES);
     }
 
-    public Map<Data, Object> getInitialKeys() {
-        return initialKeys;
-    }
-
-    public EntryTaskScheduler getIdleEvictionScheduler() {
-        return idleEvictionScheduler;
-    }
-
-    public EntryTaskScheduler getTtlEvictionScheduler() {
-        return ttlEvictionScheduler;
+    public MapInitialLoader getInitialLoader() {
+        return initialLoader;
     }
 
-    public EntryTaskScheduler getMapStoreWriteScheduler() {
-        return mapStoreWriteScheduler;
+    /**
+     * @return read-through loader of this map or null if the map has no map store.
+     */
+    public ReadThroughLoader getReadThroughLoader() {
+        return readThroughLoader;
     }
 
-    public EntryTaskScheduler getMapStoreDeleteScheduler() {
-        return mapStoreDeleteScheduler;
+    /**
+     * @return write-behind manager of this map or null if the map is not in write-behind mode.
+     */
+    public WriteBehindManager getWriteBehindManager() {
+        return writeBehindManager;
     }
 
     public IndexService getIndexService() {
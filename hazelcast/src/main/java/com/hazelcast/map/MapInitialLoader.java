@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map;
+
+import com.hazelcast.core.PartitioningStrategy;
+import com.hazelcast.instance.GroupProperties;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.partition.PartitionService;
+import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.util.Clock;
+
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Initial load of a map from its {@link com.hazelcast.core.MapLoader} on this member.
+ * <p/>
+ * Keys returned by <tt>loadAllKeys()</tt> are routed to their partitions in a single pass
+ * and grouped into chunks of {@link GroupProperties#PROP_MAP_LOAD_CHUNK_SIZE} keys, so that a record store
+ * only has to pick up its own chunks when it is created.
+ * <p/>
+ * Chunk tasks of all partitions are run on the <tt>hz:map-load</tt> executor with at most
+ * {@link GroupProperties#PROP_MAP_LOAD_MAX_PARALLEL_CHUNKS} of them in flight at a time, which bounds both
+ * the load put on the store and the number of loaded values held in memory.
+ */
+public class MapInitialLoader {
+
+    private static final String EXECUTOR_NAME = "hz:map-load";
+    private static final int PROGRESS_STEPS = 10;
+
+    private final String name;
+    private final NodeEngine nodeEngine;
+    private final ILogger logger;
+    private final int chunkSize;
+    private final int maxParallelChunks;
+    private final AtomicReferenceArray<Queue<Map<Data, Object>>> partitionChunks;
+    private final Queue<Runnable> pendingTasks = new ConcurrentLinkedQueue<Runnable>();
+    private final AtomicInteger runningTasks = new AtomicInteger();
+    private final AtomicInteger loadedKeyCount = new AtomicInteger();
+    private volatile int keyCount;
+    private volatile long startTime;
+
+    MapInitialLoader(String name, NodeEngine nodeEngine) {
+        this.name = name;
+        this.nodeEngine = nodeEngine;
+        this.logger = nodeEngine.getLogger(MapInitialLoader.class);
+        final GroupProperties groupProperties = nodeEngine.getGroupProperties();
+        this.chunkSize = groupProperties.MAP_LOAD_CHUNK_SIZE.getInteger();
+        this.maxParallelChunks = Math.max(1, groupProperties.MAP_LOAD_MAX_PARALLEL_CHUNKS.getInteger());
+        this.partitionChunks = new AtomicReferenceArray<Queue<Map<Data, Object>>>(
+                nodeEngine.getPartitionService().getPartitionCount());
+    }
+
+    /**
+     * Routes given keys to their partitions. Replaces keys of a previous call.
+     */
+    void routeKeys(Iterable keys, PartitioningStrategy partitioningStrategy) {
+        final PartitionService partitionService = nodeEngine.getPartitionService();
+        final int partitionCount = partitionChunks.length();
+        final Queue<Map<Data, Object>>[] chunks = new Queue[partitionCount];
+        final Map<Data, Object>[] currentChunks = new Map[partitionCount];
+        final long start = Clock.currentTimeMillis();
+        int count = 0;
+        for (Object key : keys) {
+            final Data dataKey = nodeEngine.getSerializationService().toData(key, partitioningStrategy);
+            final int partitionId = partitionService.getPartitionId(dataKey);
+            Map<Data, Object> chunk = currentChunks[partitionId];
+            if (chunk == null) {
+                chunk = new HashMap<Data, Object>();
+                currentChunks[partitionId] = chunk;
+                if (chunks[partitionId] == null) {
+                    chunks[partitionId] = new LinkedList<Map<Data, Object>>();
+                }
+                chunks[partitionId].add(chunk);
+            }
+            chunk.put(dataKey, key);
+            if (chunk.size() >= chunkSize) {
+                currentChunks[partitionId] = null;
+            }
+            count++;
+        }
+        keyCount = count;
+        loadedKeyCount.set(0);
+        startTime = start;
+        for (int i = 0; i < partitionCount; i++) {
+            partitionChunks.set(i, chunks[i]);
+        }
+        if (count > 0) {
+            logger.info("Routed " + count + " initial keys of map '" + name + "' to their partitions in "
+                    + (Clock.currentTimeMillis() - startTime) + " ms.");
+        }
+    }
+
+    /**
+     * Removes and returns the key chunks of given partition, null if there is nothing to load.
+     */
+    Queue<Map<Data, Object>> takeChunks(int partitionId) {
+        return partitionChunks.getAndSet(partitionId, null);
+    }
+
+    /**
+     * Drops the keys which have not been picked up by a record store yet.
+     */
+    void clear() {
+        for (int i = 0; i < partitionChunks.length(); i++) {
+            partitionChunks.set(i, null);
+        }
+    }
+
+    /**
+     * Runs given chunk task once an in-flight slot is free. The task must call
+     * {@link #chunkDone(int)} when it is completed, whether it succeeds or not.
+     */
+    void execute(Runnable chunkTask) {
+        pendingTasks.offer(chunkTask);
+        schedulePending();
+    }
+
+    /**
+     * Releases the in-flight slot of a completed chunk task and reports progress.
+     */
+    void chunkDone(int chunkKeyCount) {
+        runningTasks.decrementAndGet();
+        reportProgress(chunkKeyCount);
+        schedulePending();
+    }
+
+    public int getKeyCount() {
+        return keyCount;
+    }
+
+    public int getLoadedKeyCount() {
+        return loadedKeyCount.get();
+    }
+
+    private void schedulePending() {
+        while (!pendingTasks.isEmpty()) {
+            final int running = runningTasks.get();
+            if (running >= maxParallelChunks) {
+                return;
+            }
+            if (!runningTasks.compareAndSet(running, running + 1)) {
+                continue;
+            }
+            final Runnable task = pendingTasks.poll();
+            if (task == null) {
+                runningTasks.decrementAndGet();
+                // a task may have been queued while we were holding the slot.
+                continue;
+            }
+            nodeEngine.getExecutionService().execute(EXECUTOR_NAME, task);
+        }
+    }
+
+    private void reportProgress(int chunkKeyCount) {
+        final int total = keyCount;
+        final int loaded = loadedKeyCount.addAndGet(chunkKeyCount);
+        final int step = total / PROGRESS_STEPS;
+        if (step == 0 || loaded / step == (loaded - chunkKeyCount) / step) {
+            return;
+        }
+        // keys of the partitions owned by other members are counted in the total too.
+        final String message = "Initial load of map '" + name + "': loaded " + loaded + " of " + total
+                + " keys in " + (Clock.currentTimeMillis() - startTime) + " ms.";
+        if (total >= chunkSize * PROGRESS_STEPS) {
+            logger.info(message);
+        } else {
+            logger.finest(message);
+        }
+    }
+}
@@ -48,7 +48,6 @@ import com.hazelcast.spi.*;
 import com.hazelcast.spi.impl.EventServiceImpl;
 import com.hazelcast.spi.impl.ResponseHandlerFactory;
 import com.hazelcast.transaction.impl.TransactionSupport;
-import com.hazelcast.util.Clock;
 import com.hazelcast.util.ConcurrencyUtil;
 import com.hazelcast.util.ConstructorFunction;
 import com.hazelcast.util.ExceptionUtil;
@@ -127,6 +126,7 @@ public class MapService implements ManagedService, MigrationAwareService,
             });
         }
         nodeEngine.getExecutionService().scheduleAtFixedRate(new MapEvictTask(), 1, 1, TimeUnit.SECONDS);
+        nodeEngine.getExecutionService().scheduleAtFixedRate(new ClearExpiredRecordsTask(), 1, 1, TimeUnit.SECONDS);
     }
 
     public void reset() {
@@ -398,11 +398,9 @@ public class MapService implements ManagedService, MigrationAwareService,
                 scheduleTtlEviction(name, record, mapContainer.getMapConfig().getTimeToLiveSeconds() * 1000);
             } else if (ttl > 0) {
                 scheduleTtlEviction(name, record, ttl);
-            } else if (mapContainer.getStore() != null) { // following line cancels eviction due to evictable-null optimization. Optimization is only possible with mapstore usage
-                mapContainer.getTtlEvictionScheduler().cancel(record.getKey());
             }
             if (mapContainer.getMapConfig().getMaxIdleSeconds() > 0) {
-                scheduleIdleEviction(name, dataKey, mapContainer.getMapConfig().getMaxIdleSeconds() * 1000);
+                scheduleIdleEviction(name, record, mapContainer.getMapConfig().getMaxIdleSeconds() * 1000);
             }
         }
         return record;
@@ -506,7 +504,10 @@ public class MapService implements ManagedService, MigrationAwareService,
     }
 
     public void destroyDistributedObject(String name) {
-        mapContainers.remove(name);
+        MapContainer mapContainer = mapContainers.remove(name);
+        if (mapContainer != null && mapContainer.getWriteBehindManager() != null) {
+            mapContainer.getWriteBehindManager().destroy();
+        }
         final PartitionContainer[] containers = partitionContainers;
         for (PartitionContainer container : containers) {
             if (container != null) {
@@ -750,29 +751,48 @@ public class MapService implements ManagedService, MigrationAwareService,
         }
     }
 
-    public void scheduleIdleEviction(String mapName, Data key, long delay) {
-        getMapContainer(mapName).getIdleEvictionScheduler().schedule(delay, key, null);
+    public void scheduleIdleEviction(String mapName, Record record, long delay) {
+        getRecordStore(nodeEngine.getPartitionService().getPartitionId(record.getKey()), mapName)
+                .scheduleIdleExpiration(record, delay);
     }
 
     public void scheduleTtlEviction(String mapName, Record record, long delay) {
-        if (record.getStatistics() != null) {
-            record.getStatistics().setExpirationTime(Clock.currentTimeMillis() + delay);
-        }
-        getMapContainer(mapName).getTtlEvictionScheduler().schedule(delay, toData(record.getKey()), null);
-    }
-
-    public void scheduleMapStoreWrite(String mapName, Data key, Object value, long delay) {
-        getMapContainer(mapName).getMapStoreWriteScheduler().schedule(delay, key, value);
-    }
-
-    public void scheduleMapStoreDelete(String mapName, Data key, long delay) {
-        getMapContainer(mapName).getMapStoreDeleteScheduler().schedule(delay, key, null);
+        getRecordStore(nodeEngine.getPartitionService().getPartitionId(record.getKey()), mapName)
+                .scheduleTtlExpiration(record, delay);
     }
 
     public SerializationService getSerializationService() {
         return nodeEngine.getSerializationService();
     }
 
+    /**
+     * Triggers eviction of expired records on the owned partitions which have records scheduled to expire.
+     */
+    private class ClearExpiredRecordsTask implements Runnable {
+        public void run() {
+            final PartitionService partitionService = nodeEngine.getPartitionService();
+            final Address thisAddress = nodeEngine.getThisAddress();
+            for (int partitionId = 0; partitionId < partitionContainers.length; partitionId++) {
+                final PartitionContainer container = partitionContainers[partitionId];
+                if (container == null || !thisAddress.equals(partitionService.getPartitionOwner(partitionId))) {
+                    continue;
+                }
+                for (RecordStore recordStore : container.getMaps().values()) {
+                    if (!recordStore.hasScheduledExpirations()) {
+                        continue;
+                    }
+                    final ClearExpiredRecordsOperation operation = new ClearExpiredRecordsOperation(recordStore.getName());
+                    operation.setNodeEngine(nodeEngine);
+                    operation.setServiceName(SERVICE_NAME);
+                    operation.setResponseHandler(ResponseHandlerFactory.createEmptyResponseHandler());
+                    operation.setPartitionId(partitionId);
+                    OperationAccessor.setCallerAddress(operation, thisAddress);
+                    nodeEngine.getOperationService().executeOperation(operation);
+                }
+            }
+        }
+    }
+
     // todo map evict task is called every second. if load is very high, is it problem? if it is, you can count map-wide puts and fire map-evict in every thousand put
     // todo another "maybe" optimization run clear operation for all maps not just one map
     // todo what if eviction do not complete in 1 second
@@ -1056,8 +1076,8 @@ public class MapService implements ManagedService, MigrationAwareService,
             }
         }
 
-        if (mapContainer.getMapStoreWriteScheduler() != null && mapContainer.getMapStoreDeleteScheduler() != null) {
-            dirtyCount = mapContainer.getMapStoreWriteScheduler().size() + mapContainer.getMapStoreDeleteScheduler().size();
+        if (mapContainer.getWriteBehindManager() != null) {
+            dirtyCount = mapContainer.getWriteBehindManager().size();
         }
         localMapStats.setBackupCount(backupCount);
         localMapStats.setDirtyEntryCount(zeroOrPositive(dirtyCount));
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.map;
+
+/**
+ * Marks an {@link EntryProcessor} of a single key which should run off the partition thread, for
+ * processors which take long enough to hold up the other operations of the partition.
+ * <p/>
+ * The value is read on the partition thread and processed on the executor named by
+ * {@link #getExecutorName()}. The result is then written back on the partition thread if the entry
+ * has not been changed in the meantime; otherwise the processor is run again on the partition thread
+ * against the current value. Note that a processor which takes longer than the call timeout fails
+ * the call, since the call is not considered as executing while it is offloaded.
+ */
+public interface Offloadable {
+
+    /**
+     * Default executor of offloaded entry processors.
+     */
+    String OFFLOADABLE_EXECUTOR = "hz:offloadable";
+
+    /**
+     * @return name of the executor to run the processor on.
+     */
+    String getExecutorName();
+}
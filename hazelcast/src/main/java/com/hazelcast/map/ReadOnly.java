@@ -0,0 +1,27 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.map;
+
+/**
+ * Marks an {@link EntryProcessor} which only reads the entries it processes.
+ * <p/>
+ * A read-only processor does not take the write path: the entry is neither written back nor sent to
+ * the backups, no entry events are fired and it does not wait for the lock of the key. If the map has
+ * <tt>read-backup-data</tt> enabled, <tt>executeOnKey</tt> runs it on the local replica of the key when
+ * there is one. Changing the value of the entry fails with {@link UnsupportedOperationException}.
+ */
+public interface ReadOnly {
+}
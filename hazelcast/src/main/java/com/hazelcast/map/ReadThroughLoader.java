@@ -0,0 +1,308 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map;
+
+import com.hazelcast.instance.GroupProperties;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.partition.PartitionService;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.AbstractOperation;
+import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.spi.PartitionAwareOperation;
+import com.hazelcast.spi.ReadonlyOperation;
+import com.hazelcast.spi.ResponseHandler;
+import com.hazelcast.spi.exception.RetryableHazelcastException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Loads the values of missing keys of a map from its {@link com.hazelcast.core.MapLoader}
+ * off the partition threads.
+ * <p/>
+ * A get which misses registers its response handler and returns without a response. Concurrent
+ * gets of the same key wait on the same load, and keys missed within
+ * {@link GroupProperties#PROP_MAP_READ_THROUGH_BATCH_WINDOW_MILLIS} are loaded together with
+ * <tt>loadAll</tt>, at most {@link GroupProperties#PROP_MAP_READ_THROUGH_BATCH_SIZE} keys at a time.
+ * Loaded values are put into the record stores and the waiting gets are answered by
+ * an operation on the partition thread of each key.
+ * <p/>
+ * Registration and completion of a key both happen on its partition thread, so the waiters
+ * of a pending load need no further synchronization.
+ */
+public class ReadThroughLoader {
+
+    private static final String EXECUTOR_NAME = "hz:map-load";
+
+    private final String name;
+    private final MapContainer mapContainer;
+    private final NodeEngine nodeEngine;
+    private final ILogger logger;
+    private final int batchSize;
+    private final long batchWindowMillis;
+    private final ConcurrentMap<Data, PendingLoad> pendingLoads = new ConcurrentHashMap<Data, PendingLoad>();
+    private final Queue<PendingLoad> loadQueue = new ConcurrentLinkedQueue<PendingLoad>();
+    // at most one batch of a map is being loaded at a time on a member
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private final Runnable flushTask = new FlushTask();
+
+    ReadThroughLoader(MapContainer mapContainer, NodeEngine nodeEngine) {
+        this.name = mapContainer.getName();
+        this.mapContainer = mapContainer;
+        this.nodeEngine = nodeEngine;
+        this.logger = nodeEngine.getLogger(ReadThroughLoader.class);
+        final GroupProperties groupProperties = nodeEngine.getGroupProperties();
+        this.batchSize = Math.max(1, groupProperties.MAP_READ_THROUGH_BATCH_SIZE.getInteger());
+        this.batchWindowMillis = groupProperties.MAP_READ_THROUGH_BATCH_WINDOW_MILLIS.getLong();
+    }
+
+    /**
+     * Loads given key and answers <tt>responseHandler</tt> with its value once it is loaded.
+     * Must be called on the partition thread of the key.
+     */
+    public void load(int partitionId, Data dataKey, ResponseHandler responseHandler) {
+        PendingLoad pendingLoad = pendingLoads.get(dataKey);
+        if (pendingLoad == null) {
+            pendingLoad = new PendingLoad(partitionId, dataKey);
+            pendingLoads.put(dataKey, pendingLoad);
+            loadQueue.offer(pendingLoad);
+            scheduleFlush();
+        }
+        pendingLoad.responseHandlers.add(responseHandler);
+    }
+
+    /**
+     * Prevents the pending load of given key, if any, from storing its value; called when
+     * the key is removed while it is being loaded. Must be called on the partition thread of the key.
+     */
+    public void invalidate(Data dataKey) {
+        final PendingLoad pendingLoad = pendingLoads.get(dataKey);
+        if (pendingLoad != null) {
+            pendingLoad.invalidated = true;
+        }
+    }
+
+    /**
+     * Invalidates the pending loads of all keys of given partition.
+     */
+    public void invalidate(int partitionId) {
+        for (PendingLoad pendingLoad : pendingLoads.values()) {
+            if (pendingLoad.partitionId == partitionId) {
+                pendingLoad.invalidated = true;
+            }
+        }
+    }
+
+    private void scheduleFlush() {
+        if (!flushScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        if (batchWindowMillis > 0) {
+            nodeEngine.getExecutionService().schedule(new Runnable() {
+                public void run() {
+                    nodeEngine.getExecutionService().execute(EXECUTOR_NAME, flushTask);
+                }
+            }, batchWindowMillis, TimeUnit.MILLISECONDS);
+        } else {
+            nodeEngine.getExecutionService().execute(EXECUTOR_NAME, flushTask);
+        }
+    }
+
+    private void loadBatch(List<PendingLoad> batch) {
+        final MapStoreWrapper store = mapContainer.getStore();
+        Map values = null;
+        Throwable error = null;
+        try {
+            final List<Object> keys = new ArrayList<Object>(batch.size());
+            for (PendingLoad pendingLoad : batch) {
+                pendingLoad.key = nodeEngine.getSerializationService().toObject(pendingLoad.dataKey);
+                keys.add(pendingLoad.key);
+            }
+            if (keys.size() == 1) {
+                final Object value = store.load(keys.get(0));
+                values = value != null ? Collections.singletonMap(keys.get(0), value) : null;
+            } else {
+                values = store.loadAll(keys);
+            }
+        } catch (Throwable t) {
+            // the error is sent to the waiting callers
+            logger.finest("Could not load " + batch.size() + " keys of map '" + name + "'", t);
+            error = t;
+        }
+
+        final Map<Integer, List<PendingLoad>> partitionLoads = new HashMap<Integer, List<PendingLoad>>();
+        for (PendingLoad pendingLoad : batch) {
+            if (values != null) {
+                pendingLoad.value = values.get(pendingLoad.key);
+            }
+            pendingLoad.error = error;
+            List<PendingLoad> loads = partitionLoads.get(pendingLoad.partitionId);
+            if (loads == null) {
+                loads = new LinkedList<PendingLoad>();
+                partitionLoads.put(pendingLoad.partitionId, loads);
+            }
+            loads.add(pendingLoad);
+        }
+        for (Map.Entry<Integer, List<PendingLoad>> entry : partitionLoads.entrySet()) {
+            final CompleteLoadOperation operation = new CompleteLoadOperation(entry.getValue());
+            operation.setPartitionId(entry.getKey()).setNodeEngine(nodeEngine).setValidateTarget(false);
+            try {
+                nodeEngine.getOperationService().executeOperation(operation);
+            } catch (Throwable t) {
+                operation.logError(t);
+            }
+        }
+    }
+
+    private class FlushTask implements Runnable {
+        public void run() {
+            try {
+                List<PendingLoad> batch = new ArrayList<PendingLoad>(batchSize);
+                PendingLoad pendingLoad;
+                while ((pendingLoad = loadQueue.poll()) != null) {
+                    batch.add(pendingLoad);
+                    if (batch.size() == batchSize) {
+                        loadBatch(batch);
+                        batch = new ArrayList<PendingLoad>(batchSize);
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    loadBatch(batch);
+                }
+            } finally {
+                flushScheduled.set(false);
+            }
+            // keys missed after the queue had been drained
+            if (!loadQueue.isEmpty()) {
+                scheduleFlush();
+            }
+        }
+    }
+
+    private static class PendingLoad {
+        final int partitionId;
+        final Data dataKey;
+        // accessed on the partition thread only
+        final List<ResponseHandler> responseHandlers = new ArrayList<ResponseHandler>(1);
+        volatile boolean invalidated;
+        volatile Object key;
+        volatile Object value;
+        volatile Throwable error;
+
+        PendingLoad(int partitionId, Data dataKey) {
+            this.partitionId = partitionId;
+            this.dataKey = dataKey;
+        }
+    }
+
+    // runs locally, also while the partition is migrating; the waiters of its loads are answered
+    // on every path, otherwise they would wait forever
+    private class CompleteLoadOperation extends AbstractOperation
+            implements PartitionAwareOperation, ReadonlyOperation {
+
+        private final List<PendingLoad> loads;
+
+        CompleteLoadOperation(List<PendingLoad> loads) {
+            this.loads = loads;
+        }
+
+        public void run() {
+            final MapService mapService = mapContainer.getMapService();
+            final PartitionService partitionService = nodeEngine.getPartitionService();
+            final int partitionId = getPartitionId();
+            final boolean owner = !partitionService.isPartitionMigrating(partitionId)
+                    && nodeEngine.getThisAddress().equals(partitionService.getPartitionOwner(partitionId));
+            final RecordStore recordStore = owner ? mapService.getRecordStore(partitionId, name) : null;
+            for (PendingLoad pendingLoad : loads) {
+                Object response;
+                try {
+                    if (recordStore == null) {
+                        response = newMigratedException();
+                    } else if (pendingLoad.error != null) {
+                        response = pendingLoad.error;
+                    } else {
+                        final Object value = recordStore.getAfterLoad(pendingLoad.dataKey, pendingLoad.value,
+                                !pendingLoad.invalidated);
+                        final Data result = mapService.toData(value);
+                        mapService.interceptAfterGet(name, result);
+                        response = result;
+                    }
+                } catch (Throwable t) {
+                    response = t;
+                }
+                complete(pendingLoad, response);
+            }
+        }
+
+        @Override
+        public void logError(Throwable e) {
+            super.logError(e);
+            // the operation could not run, e.g. the partition is not assigned yet
+            final Object response = e instanceof RetryableHazelcastException ? e : newMigratedException();
+            for (PendingLoad pendingLoad : loads) {
+                complete(pendingLoad, response);
+            }
+        }
+
+        private void complete(PendingLoad pendingLoad, Object response) {
+            if (!pendingLoads.remove(pendingLoad.dataKey, pendingLoad)) {
+                // already answered
+                return;
+            }
+            for (ResponseHandler responseHandler : pendingLoad.responseHandlers) {
+                try {
+                    responseHandler.sendResponse(response);
+                } catch (Throwable t) {
+                    logger.warning("While answering a load of map '" + name + "'", t);
+                }
+            }
+        }
+
+        private RetryableHazelcastException newMigratedException() {
+            return new RetryableHazelcastException("Partition " + getPartitionId()
+                    + " has been migrated while loading a key of map '" + name + "'");
+        }
+
+        @Override
+        public boolean returnsResponse() {
+            return false;
+        }
+
+        @Override
+        protected void readInternal(ObjectDataInput in) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected void writeInternal(ObjectDataOutput out) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
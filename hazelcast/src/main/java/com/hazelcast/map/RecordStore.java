@@ -35,6 +35,21 @@ public interface RecordStore {
 
     Object get(Data dataKey);
 
+    /**
+     * Completes a read-through of given key which has been loaded off the partition thread.
+     * The loaded value is stored only if <tt>store</tt> is true and the key has not been written
+     * in the meantime.
+     *
+     * @return value of the key as <tt>get</tt> would return it.
+     */
+    Object getAfterLoad(Data dataKey, Object loadedValue, boolean store);
+
+    /**
+     * Reads the value of given key for a caller outside the partition thread, e.g. to read backup data.
+     * Neither loads missing keys nor updates the access statistics and expiration of the record.
+     */
+    Object readBackupData(Data dataKey);
+
     MapEntrySet getAll(Set<Data> keySet);
 
     boolean containsKey(Data dataKey);
@@ -124,4 +139,25 @@ public interface RecordStore {
     void clear();
 
     boolean isEmpty();
+
+    /**
+     * Sets the time-to-live expiration of given record of this record store.
+     */
+    void scheduleTtlExpiration(Record record, long ttlMillis);
+
+    /**
+     * Sets the max-idle expiration of given record of this record store.
+     */
+    void scheduleIdleExpiration(Record record, long idleMillis);
+
+    /**
+     * @return true if there are records which are scheduled to expire.
+     */
+    boolean hasScheduledExpirations();
+
+    /**
+     * Collects the keys of the records which have expired by <tt>now</tt>. Locked keys are not collected,
+     * they are checked again in the next second. Must be called on the partition thread.
+     */
+    void collectExpiredKeys(long now, Collection<Data> expiredKeys);
 }
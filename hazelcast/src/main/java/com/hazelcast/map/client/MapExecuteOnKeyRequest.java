@@ -22,6 +22,8 @@ import com.hazelcast.map.operation.EntryOperation;
 import com.hazelcast.map.EntryProcessor;
 import com.hazelcast.map.MapPortableHook;
 import com.hazelcast.map.MapService;
+import com.hazelcast.map.ReadOnly;
+import com.hazelcast.map.operation.ReadOnlyEntryOperation;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.nio.serialization.Data;
@@ -57,6 +59,9 @@ public class MapExecuteOnKeyRequest extends KeyBasedClientRequest implements Por
 
     @Override
     protected Operation prepareOperation() {
+        if (processor instanceof ReadOnly) {
+            return new ReadOnlyEntryOperation(name, key, processor);
+        }
         return new EntryOperation(name, key, processor);
     }
 
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.operation;
+
+import com.hazelcast.core.EntryEventType;
+import com.hazelcast.map.RecordStore;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.BackupAwareOperation;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.PartitionAwareOperation;
+import com.hazelcast.util.Clock;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.hazelcast.map.MapService.SERVICE_NAME;
+
+/**
+ * Evicts the records of a partition whose time-to-live or max-idle has expired.
+ * Runs locally, triggered every second for the owned partitions which have records scheduled to expire.
+ */
+public class ClearExpiredRecordsOperation extends AbstractMapOperation implements BackupAwareOperation, PartitionAwareOperation {
+
+    private transient Map<Data, Data> evictedEntries;
+
+    public ClearExpiredRecordsOperation(String name) {
+        super(name);
+    }
+
+    public void run() {
+        final RecordStore recordStore = mapService.getPartitionContainer(getPartitionId()).getExistingRecordStore(name);
+        if (recordStore == null) {
+            return;
+        }
+        final List<Data> expiredKeys = new ArrayList<Data>();
+        recordStore.collectExpiredKeys(Clock.currentTimeMillis(), expiredKeys);
+        if (expiredKeys.isEmpty()) {
+            return;
+        }
+        evictedEntries = new HashMap<Data, Data>(expiredKeys.size());
+        for (Data key : expiredKeys) {
+            final Object value = recordStore.evict(key);
+            if (value != null) {
+                evictedEntries.put(key, mapService.toData(value));
+            }
+        }
+    }
+
+    @Override
+    public void afterRun() {
+        if (evictedEntries == null || evictedEntries.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<Data, Data> entry : evictedEntries.entrySet()) {
+            mapService.interceptAfterRemove(name, entry.getValue());
+            mapService.publishEvent(getNodeEngine().getThisAddress(), name, EntryEventType.EVICTED,
+                    entry.getKey(), entry.getValue(), null);
+        }
+        if (mapService.isNearCacheAndInvalidationEnabled(name)) {
+            mapService.invalidateAllNearCaches(name, evictedEntries.keySet());
+        }
+    }
+
+    public boolean shouldBackup() {
+        return evictedEntries != null && !evictedEntries.isEmpty();
+    }
+
+    public int getSyncBackupCount() {
+        return 0;
+    }
+
+    public int getAsyncBackupCount() {
+        return mapContainer.getTotalBackupCount();
+    }
+
+    @Override
+    public boolean returnsResponse() {
+        return false;
+    }
+
+    public Operation getBackupOperation() {
+        final EvictKeysBackupOperation backupOperation = new EvictKeysBackupOperation(name, evictedEntries.keySet());
+        backupOperation.setServiceName(SERVICE_NAME);
+        return backupOperation;
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String toString() {
+        return "ClearExpiredRecordsOperation{" + name + "}";
+    }
+}
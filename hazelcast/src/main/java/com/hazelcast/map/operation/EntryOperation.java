@@ -21,23 +21,32 @@ import com.hazelcast.core.HazelcastInstanceAware;
 import com.hazelcast.map.EntryBackupProcessor;
 import com.hazelcast.map.EntryProcessor;
 import com.hazelcast.map.MapEntrySimple;
+import com.hazelcast.map.Offloadable;
 import com.hazelcast.map.SimpleEntryView;
 import com.hazelcast.map.record.Record;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.spi.BackupAwareOperation;
+import com.hazelcast.spi.NodeEngine;
 import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.OperationAccessor;
+import com.hazelcast.spi.ResponseHandler;
 import com.hazelcast.util.Clock;
 
 import java.io.IOException;
 import java.util.AbstractMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  *
  * GOTCHA : This operation loads missing keys from mapstore, in contrast with PartitionWideEntryOperation.
  *
+ * An {@link Offloadable} processor is run on its executor: this operation reads the entry and returns without
+ * a response, then a second EntryOperation carrying the same call commits the processed entry on the partition
+ * thread, or processes the entry again there if it has been changed meanwhile.
+ *
  * */
 public class EntryOperation extends LockAwareOperation implements BackupAwareOperation {
 
@@ -46,6 +55,11 @@ public class EntryOperation extends LockAwareOperation implements BackupAwareOpe
     private transient EntryEventType eventType;
     private transient Object response;
     protected transient Data dataOldValue;
+    // set on the operation committing an offloaded processor
+    private transient boolean commit;
+    private transient Record offloadedRecord;
+    private transient long offloadedVersion;
+    private transient MapEntrySimple offloadedEntry;
 
 
     public EntryOperation(String name, Data dataKey, EntryProcessor entryProcessor) {
@@ -63,12 +77,23 @@ public class EntryOperation extends LockAwareOperation implements BackupAwareOpe
     }
 
     public void run() {
+        if (isOffloaded() && !commit) {
+            offload();
+            return;
+        }
+        if (commit && isUnchanged()) {
+            apply(offloadedEntry);
+            return;
+        }
         //todo calls to map get interceptor is arguable.
         Map.Entry<Data, Data> mapEntry = recordStore.getMapEntryData(dataKey);
         dataOldValue = mapEntry.getValue();
-        final Object valueBeforeProcess = mapService.toObject(dataOldValue);
-        final MapEntrySimple entry = new MapEntrySimple(mapService.toObject(dataKey), valueBeforeProcess);
+        final MapEntrySimple entry = new MapEntrySimple(mapService.toObject(dataKey), mapService.toObject(dataOldValue));
         response = mapService.toData(entryProcessor.process(entry));
+        apply(entry);
+    }
+
+    private void apply(MapEntrySimple entry) {
         final Object valueAfterProcess = entry.getValue();
         // no matching data by key.
         if( dataOldValue == null && valueAfterProcess == null ){
@@ -92,9 +117,70 @@ public class EntryOperation extends LockAwareOperation implements BackupAwareOpe
         }
     }
 
+    private boolean isOffloaded() {
+        return entryProcessor instanceof Offloadable;
+    }
+
+    /**
+     * Reads the entry on the partition thread and processes it on the executor of the processor.
+     * The commit operation takes over the call, so this operation sends neither a response nor backups.
+     */
+    private void offload() {
+        eventType = __NO_NEED_TO_FIRE_EVENT;
+        final NodeEngine nodeEngine = getNodeEngine();
+        final Data oldValue = recordStore.getMapEntryData(dataKey).getValue();
+        final Record record = recordStore.getRecord(dataKey);
+        final EntryOperation commitOperation = new EntryOperation(name, dataKey, entryProcessor);
+        commitOperation.commit = true;
+        commitOperation.dataOldValue = oldValue;
+        commitOperation.offloadedRecord = record;
+        commitOperation.offloadedVersion = record != null ? record.getVersion() : -1;
+        copyCallTo(commitOperation);
+        final ResponseHandler responseHandler = getResponseHandler();
+        final String executorName = ((Offloadable) entryProcessor).getExecutorName();
+        try {
+            nodeEngine.getExecutionService().execute(executorName, new Runnable() {
+                public void run() {
+                    try {
+                        final MapEntrySimple entry = new MapEntrySimple(mapService.toObject(dataKey),
+                                mapService.toObject(oldValue));
+                        commitOperation.response = mapService.toData(entryProcessor.process(entry));
+                        commitOperation.offloadedEntry = entry;
+                        nodeEngine.getOperationService().executeOperation(commitOperation);
+                    } catch (Throwable t) {
+                        responseHandler.sendResponse(t);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // this operation does not return a response, so the caller has to be answered here
+            responseHandler.sendResponse(e);
+        }
+    }
+
+    private void copyCallTo(EntryOperation op) {
+        op.setThreadId(getThreadId());
+        op.setPartitionId(getPartitionId()).setReplicaIndex(getReplicaIndex()).setServiceName(getServiceName())
+                .setNodeEngine(getNodeEngine()).setService(getService()).setResponseHandler(getResponseHandler())
+                .setCallerUuid(getCallerUuid());
+        OperationAccessor.setCallId(op, getCallId());
+        OperationAccessor.setCallerAddress(op, getCallerAddress());
+        OperationAccessor.setConnection(op, getConnection());
+        OperationAccessor.setInvocationTime(op, getInvocationTime());
+        OperationAccessor.setCallTimeout(op, getCallTimeout());
+        OperationAccessor.setAsync(op, isAsync());
+    }
+
+    // the offloaded result is committed only if the entry is still the one which has been processed
+    private boolean isUnchanged() {
+        final Record record = recordStore.getRecord(dataKey);
+        return record == offloadedRecord && (record == null || record.getVersion() == offloadedVersion);
+    }
+
     public void afterRun() throws Exception {
         super.afterRun();
-        if (eventType == __NO_NEED_TO_FIRE_EVENT) {
+        // the offloading pass has not changed the entry, its commit operation fires the event
+        if ((isOffloaded() && !commit) || eventType == __NO_NEED_TO_FIRE_EVENT) {
             return;
         }
         mapService.publishEvent(getCallerAddress(), name, eventType, dataKey, dataOldValue, dataValue);
@@ -127,6 +213,11 @@ public class EntryOperation extends LockAwareOperation implements BackupAwareOpe
         out.writeObject(entryProcessor);
     }
 
+    @Override
+    public boolean returnsResponse() {
+        return commit || !isOffloaded();
+    }
+
     @Override
     public Object getResponse() {
         return response;
@@ -143,7 +234,7 @@ public class EntryOperation extends LockAwareOperation implements BackupAwareOpe
     }
 
     public boolean shouldBackup() {
-        return entryProcessor.getBackupProcessor() != null;
+        return returnsResponse() && entryProcessor.getBackupProcessor() != null;
     }
 
     public int getAsyncBackupCount() {
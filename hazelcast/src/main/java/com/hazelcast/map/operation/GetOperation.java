@@ -17,6 +17,7 @@
 package com.hazelcast.map.operation;
 
 import com.hazelcast.map.MapDataSerializerHook;
+import com.hazelcast.map.ReadThroughLoader;
 import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
 import com.hazelcast.spi.ReadonlyOperation;
@@ -24,6 +25,7 @@ import com.hazelcast.spi.ReadonlyOperation;
 public final class GetOperation extends KeyBasedMapOperation implements IdentifiedDataSerializable, ReadonlyOperation {
 
     private transient Data result;
+    private transient boolean loading;
 
     public GetOperation() {
     }
@@ -33,11 +35,25 @@ public final class GetOperation extends KeyBasedMapOperation implements Identifi
     }
 
     public void run() {
+        final ReadThroughLoader readThroughLoader = mapContainer.getReadThroughLoader();
+        if (readThroughLoader != null && recordStore.isLoaded() && recordStore.getRecord(dataKey) == null) {
+            // the response is sent once the value is loaded, without blocking the partition thread
+            loading = true;
+            readThroughLoader.load(getPartitionId(), dataKey, getResponseHandler());
+            return;
+        }
         result = mapService.toData(recordStore.get(dataKey));
     }
 
     public void afterRun() {
-        mapService.interceptAfterGet(name, result);
+        if (!loading) {
+            mapService.interceptAfterGet(name, result);
+        }
+    }
+
+    @Override
+    public boolean returnsResponse() {
+        return !loading;
     }
 
     @Override
@@ -23,17 +23,24 @@ import com.hazelcast.map.PartitionContainer;
 import com.hazelcast.map.RecordStore;
 import com.hazelcast.map.record.Record;
 import com.hazelcast.map.record.RecordReplicationInfo;
+import com.hazelcast.map.writebehind.DelayedEntry;
+import com.hazelcast.map.writebehind.WriteBehindManager;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.nio.serialization.SerializationService;
 import com.hazelcast.spi.AbstractOperation;
+import com.hazelcast.spi.ChunkedReplicationOperation;
+import com.hazelcast.spi.Operation;
 import com.hazelcast.util.Clock;
-import com.hazelcast.util.scheduler.ScheduledEntry;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -41,18 +48,22 @@ import java.util.Set;
 /**
  * @author mdogan 7/24/12
  */
-public class MapReplicationOperation extends AbstractOperation {
+public class MapReplicationOperation extends AbstractOperation implements ChunkedReplicationOperation {
 
     private Map<String, Set<RecordReplicationInfo>> data;
     private Map<String, Boolean> mapInitialLoadInfo;
 
+    // source side; records are read from the record stores chunk by chunk, never copied all at once.
+    private transient Iterator<RecordStore> recordStores;
+    private transient RecordStore currentRecordStore;
+    private transient Iterator<Record> records;
+
     public MapReplicationOperation() {
     }
 
     public MapReplicationOperation(PartitionContainer container, int partitionId, int replicaIndex) {
         this.setPartitionId(partitionId).setReplicaIndex(replicaIndex);
-        SerializationService ss = container.getMapService().getSerializationService();
-        data = new HashMap<String, Set<RecordReplicationInfo>>(container.getMaps().size());
+        final List<RecordStore> stores = new ArrayList<RecordStore>(container.getMaps().size());
         mapInitialLoadInfo = new HashMap<String, Boolean>(container.getMaps().size());
         for (Entry<String, RecordStore> entry : container.getMaps().entrySet()) {
             RecordStore recordStore = entry.getValue();
@@ -61,44 +72,72 @@ public class MapReplicationOperation extends AbstractOperation {
             if (mapConfig.getTotalBackupCount() < replicaIndex) {
                 continue;
             }
-
-            String name = entry.getKey();
             // adding if initial data is loaded for the only maps that has mapstore behind
-            if(mapContainer.getStore() != null) {
-                mapInitialLoadInfo.put(name, recordStore.isLoaded());
+            if (mapContainer.getStore() != null) {
+                mapInitialLoadInfo.put(entry.getKey(), recordStore.isLoaded());
             }
-            // now prepare data to migrate records
-            Set<RecordReplicationInfo> recordSet = new HashSet<RecordReplicationInfo>(recordStore.size());
-            for (Entry<Data, Record> recordEntry : recordStore.getReadonlyRecordMap().entrySet()) {
-                Data key = recordEntry.getKey();
-                Record record = recordEntry.getValue();
-                RecordReplicationInfo recordReplicationInfo;
-                if (replicaIndex == 0) {
-                    recordReplicationInfo = createScheduledRecordState(mapContainer, recordEntry, key);
-                } else {
-                    recordReplicationInfo = new RecordReplicationInfo(record.getKey(), ss.toData(record.getValue()), record.getStatistics());
+            stores.add(recordStore);
+        }
+        recordStores = stores.iterator();
+    }
+
+    public Operation nextChunk(int maxBytes) {
+        final MapReplicationOperation chunk = new MapReplicationOperation();
+        chunk.setPartitionId(getPartitionId()).setReplicaIndex(getReplicaIndex());
+        chunk.data = new HashMap<String, Set<RecordReplicationInfo>>();
+        chunk.mapInitialLoadInfo = mapInitialLoadInfo;
+        mapInitialLoadInfo = Collections.emptyMap();
+        int bytes = 0;
+        while (bytes < maxBytes) {
+            if (records == null || !records.hasNext()) {
+                if (!recordStores.hasNext()) {
+                    break;
                 }
-                recordSet.add(recordReplicationInfo);
+                currentRecordStore = recordStores.next();
+                records = currentRecordStore.getReadonlyRecordMap().values().iterator();
+                // maps without records are sent too, so that their record stores are created on the destination
+                chunk.data.put(currentRecordStore.getName(), new HashSet<RecordReplicationInfo>());
+                continue;
+            }
+            final Record record = records.next();
+            final MapContainer mapContainer = currentRecordStore.getMapContainer();
+            final RecordReplicationInfo recordReplicationInfo;
+            if (getReplicaIndex() == 0) {
+                recordReplicationInfo = createScheduledRecordState(mapContainer, record, getPartitionId());
+            } else {
+                recordReplicationInfo = new RecordReplicationInfo(record.getKey(),
+                        mapContainer.getMapService().getSerializationService().toData(record.getValue()),
+                        record.getStatistics());
             }
-            data.put(name, recordSet);
+            Set<RecordReplicationInfo> recordSet = chunk.data.get(currentRecordStore.getName());
+            if (recordSet == null) {
+                recordSet = new HashSet<RecordReplicationInfo>();
+                chunk.data.put(currentRecordStore.getName(), recordSet);
+            }
+            recordSet.add(recordReplicationInfo);
+            bytes += recordReplicationInfo.getKey().totalSize() + recordReplicationInfo.getValue().totalSize();
         }
-
+        return chunk.isEmpty() && chunk.mapInitialLoadInfo.isEmpty() ? null : chunk;
     }
 
-    private RecordReplicationInfo createScheduledRecordState(MapContainer mapContainer, Entry<Data, Record> recordEntry, Data key) {
-        ScheduledEntry idleScheduledEntry = mapContainer.getIdleEvictionScheduler() == null ? null : mapContainer.getIdleEvictionScheduler().cancel(key);
-        long idleDelay = idleScheduledEntry == null ? -1 : findDelayMillis(idleScheduledEntry);
-
-        ScheduledEntry ttlScheduledEntry = mapContainer.getTtlEvictionScheduler() == null ? null : mapContainer.getTtlEvictionScheduler().cancel(key);
-        long ttlDelay = ttlScheduledEntry == null ? -1 : findDelayMillis(ttlScheduledEntry);
-
-        ScheduledEntry writeScheduledEntry = mapContainer.getMapStoreWriteScheduler() == null ? null : mapContainer.getMapStoreWriteScheduler().cancel(key);
-        long writeDelay = writeScheduledEntry == null ? -1 : findDelayMillis(writeScheduledEntry);
-
-        ScheduledEntry deleteScheduledEntry = mapContainer.getMapStoreDeleteScheduler() == null ? null : mapContainer.getMapStoreDeleteScheduler().cancel(key);
-        long deleteDelay = deleteScheduledEntry == null ? -1 : findDelayMillis(deleteScheduledEntry);
+    private RecordReplicationInfo createScheduledRecordState(MapContainer mapContainer, Record record, int partitionId) {
+        Data key = record.getKey();
+        long idleDelay = findDelayMillis(record.getIdleExpirationTime());
+        long ttlDelay = findDelayMillis(record.getTtlExpirationTime());
+
+        // pending write-behind entry stays queued here, it is dropped when the partition is cleared after migration.
+        WriteBehindManager writeBehindManager = mapContainer.getWriteBehindManager();
+        DelayedEntry delayedEntry = writeBehindManager == null ? null : writeBehindManager.get(partitionId, key);
+        long writeDelay = -1;
+        long deleteDelay = -1;
+        if (delayedEntry != null) {
+            if (delayedEntry.isDelete()) {
+                deleteDelay = writeBehindManager.getRemainingDelayMillis(delayedEntry);
+            } else {
+                writeDelay = writeBehindManager.getRemainingDelayMillis(delayedEntry);
+            }
+        }
 
-        Record record = recordEntry.getValue();
         SerializationService ss = mapContainer.getMapService().getSerializationService();
         return new RecordReplicationInfo(record.getKey(), ss.toData(record.getValue()), record.getStatistics(),
                 idleDelay, ttlDelay, writeDelay, deleteDelay);
@@ -117,16 +156,18 @@ public class MapReplicationOperation extends AbstractOperation {
                     newRecord.setStatistics(recordReplicationInfo.getStatistics());
                     recordStore.putRecord(key, newRecord);
                     if (recordReplicationInfo.getIdleDelayMillis() >= 0) {
-                        mapService.scheduleIdleEviction(mapName, key, recordReplicationInfo.getIdleDelayMillis());
+                        mapService.scheduleIdleEviction(mapName, newRecord, recordReplicationInfo.getIdleDelayMillis());
                     }
                     if (recordReplicationInfo.getTtlDelayMillis() >= 0) {
                         mapService.scheduleTtlEviction(mapName, newRecord, recordReplicationInfo.getTtlDelayMillis());
                     }
-                    if (recordReplicationInfo.getMapStoreWriteDelayMillis() >= 0) {
-                        mapService.scheduleMapStoreWrite(mapName, key, newRecord.getValue(), recordReplicationInfo.getMapStoreWriteDelayMillis());
-                    }
-                    if (recordReplicationInfo.getMapStoreDeleteDelayMillis() >= 0) {
-                        mapService.scheduleMapStoreDelete(mapName, key, recordReplicationInfo.getMapStoreDeleteDelayMillis());
+                    WriteBehindManager writeBehindManager = recordStore.getMapContainer().getWriteBehindManager();
+                    if (writeBehindManager != null) {
+                        if (recordReplicationInfo.getMapStoreWriteDelayMillis() >= 0) {
+                            writeBehindManager.add(getPartitionId(), key, newRecord.getValue(), recordReplicationInfo.getMapStoreWriteDelayMillis());
+                        } else if (recordReplicationInfo.getMapStoreDeleteDelayMillis() >= 0) {
+                            writeBehindManager.add(getPartitionId(), key, null, recordReplicationInfo.getMapStoreDeleteDelayMillis());
+                        }
                     }
                 }
             }
@@ -139,8 +180,8 @@ public class MapReplicationOperation extends AbstractOperation {
         }
     }
 
-    private long findDelayMillis(ScheduledEntry entry) {
-        return Math.max(0, entry.getScheduledDelayMillis() - (Clock.currentTimeMillis() - entry.getScheduleTime()));
+    private long findDelayMillis(long expirationTime) {
+        return expirationTime == 0 ? -1 : Math.max(0, expirationTime - Clock.currentTimeMillis());
     }
 
     public String getServiceName() {
@@ -170,6 +211,12 @@ public class MapReplicationOperation extends AbstractOperation {
     }
 
     protected void writeInternal(final ObjectDataOutput out) throws IOException {
+        if (data == null) {
+            // not sent in chunks, write everything at once
+            final MapReplicationOperation all = (MapReplicationOperation) nextChunk(Integer.MAX_VALUE);
+            data = all != null ? all.data : Collections.<String, Set<RecordReplicationInfo>>emptyMap();
+            mapInitialLoadInfo = all != null ? all.mapInitialLoadInfo : Collections.<String, Boolean>emptyMap();
+        }
         out.writeInt(data.size());
         for (Entry<String, Set<RecordReplicationInfo>> mapEntry : data.entrySet()) {
             out.writeUTF(mapEntry.getKey());
@@ -187,6 +234,9 @@ public class MapReplicationOperation extends AbstractOperation {
     }
 
     public boolean isEmpty() {
+        if (recordStores != null && data == null) {
+            return !recordStores.hasNext();
+        }
         return data == null || data.isEmpty();
     }
 }
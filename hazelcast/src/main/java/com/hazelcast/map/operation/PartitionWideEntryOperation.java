@@ -36,6 +36,8 @@ import java.util.Map;
 
 /**
  * GOTCHA : This operation does not load missing keys from mapstore for now.
+ *
+ * A {@link ReadOnly} processor leaves the entries as they are, so neither events nor backups are sent for it.
  */
 public class PartitionWideEntryOperation extends AbstractMapOperation implements BackupAwareOperation, PartitionAwareOperation {
 
@@ -75,6 +77,13 @@ public class PartitionWideEntryOperation extends AbstractMapOperation implements
                 dataValue = mapService.toData(result);
                 response.add(new AbstractMap.SimpleImmutableEntry<Data, Data>(dataKey, dataValue));
             }
+            if (isReadOnly()) {
+                if (entry.isModified()) {
+                    throw new UnsupportedOperationException("Entry processor of map '" + name
+                            + "' is read-only but it has changed the entry!");
+                }
+                continue;
+            }
 
             EntryEventType eventType = null;
             if (valueAfterProcess == null) {
@@ -127,6 +136,10 @@ public class PartitionWideEntryOperation extends AbstractMapOperation implements
         return response;
     }
 
+    private boolean isReadOnly() {
+        return entryProcessor instanceof ReadOnly;
+    }
+
     protected Predicate getPredicate() {
         return null;
     }
@@ -149,7 +162,7 @@ public class PartitionWideEntryOperation extends AbstractMapOperation implements
     }
 
     public boolean shouldBackup() {
-        return entryProcessor.getBackupProcessor() != null;
+        return !isReadOnly() && entryProcessor.getBackupProcessor() != null;
     }
 
     public int getSyncBackupCount() {
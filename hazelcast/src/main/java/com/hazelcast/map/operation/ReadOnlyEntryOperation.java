@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.operation;
+
+import com.hazelcast.core.HazelcastInstanceAware;
+import com.hazelcast.map.EntryProcessor;
+import com.hazelcast.map.MapEntrySimple;
+import com.hazelcast.map.Offloadable;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.ReadonlyOperation;
+import com.hazelcast.spi.ResponseHandler;
+
+import java.io.IOException;
+
+/**
+ * Runs a {@link com.hazelcast.map.ReadOnly} entry processor: the entry is not written back, no events are fired
+ * and no backups are sent. Runs on a backup replica if the replica index is set, missing keys are loaded
+ * from the map store on the owner only.
+ */
+public class ReadOnlyEntryOperation extends KeyBasedMapOperation implements ReadonlyOperation {
+
+    private EntryProcessor entryProcessor;
+    private transient Object response;
+
+    public ReadOnlyEntryOperation(String name, Data dataKey, EntryProcessor entryProcessor) {
+        super(name, dataKey);
+        this.entryProcessor = entryProcessor;
+    }
+
+    public ReadOnlyEntryOperation() {
+    }
+
+    public void innerBeforeRun() {
+        if (entryProcessor instanceof HazelcastInstanceAware) {
+            ((HazelcastInstanceAware) entryProcessor).setHazelcastInstance(getNodeEngine().getHazelcastInstance());
+        }
+    }
+
+    public void run() {
+        final Object value = getReplicaIndex() == 0 ? recordStore.getMapEntryData(dataKey).getValue()
+                : recordStore.getMapEntryObject(dataKey).getValue();
+        if (entryProcessor instanceof Offloadable) {
+            final ResponseHandler responseHandler = getResponseHandler();
+            final String executorName = ((Offloadable) entryProcessor).getExecutorName();
+            getNodeEngine().getExecutionService().execute(executorName, new Runnable() {
+                public void run() {
+                    Object result;
+                    try {
+                        result = process(value);
+                    } catch (Throwable t) {
+                        result = t;
+                    }
+                    responseHandler.sendResponse(result);
+                }
+            });
+        } else {
+            response = process(value);
+        }
+    }
+
+    private Data process(Object value) {
+        final MapEntrySimple entry = new MapEntrySimple(mapService.toObject(dataKey), mapService.toObject(value));
+        final Object result = entryProcessor.process(entry);
+        if (entry.isModified()) {
+            throw new UnsupportedOperationException("Entry processor of map '" + name
+                    + "' is read-only but it has changed the entry!");
+        }
+        return mapService.toData(result);
+    }
+
+    @Override
+    public boolean returnsResponse() {
+        return !(entryProcessor instanceof Offloadable);
+    }
+
+    @Override
+    public Object getResponse() {
+        return response;
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        super.readInternal(in);
+        entryProcessor = in.readObject();
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        super.writeInternal(out);
+        out.writeObject(entryProcessor);
+    }
+
+    @Override
+    public String toString() {
+        return "ReadOnlyEntryOperation{}";
+    }
+}
@@ -228,6 +228,25 @@ public class MapProxyImpl<K, V> extends MapProxySupport implements IMap<K, V>, I
         lockSupport.lock(getNodeEngine(), k, timeUnit.toMillis(leaseTime));
     }
 
+    public void lockAll(final Collection<K> keys) {
+        lockSupport.lockAll(getNodeEngine(), toLockKeys(keys));
+    }
+
+    public void unlockAll(final Collection<K> keys) {
+        lockSupport.unlockAll(getNodeEngine(), toLockKeys(keys));
+    }
+
+    private List<Data> toLockKeys(final Collection<K> keys) {
+        final List<Data> dataKeys = new ArrayList<Data>(keys.size());
+        for (K key : keys) {
+            if (key == null) {
+                throw new NullPointerException(NULL_KEY_IS_NOT_ALLOWED);
+            }
+            dataKeys.add(getService().toData(key, partitionStrategy));
+        }
+        return dataKeys;
+    }
+
     public void unlock(final K key) {
         if (key == null) {
             throw new NullPointerException(NULL_KEY_IS_NOT_ALLOWED);
@@ -132,7 +132,7 @@ abstract class MapProxySupport extends AbstractDistributedObject<MapService> imp
                 int partitionId = partitionService.getPartitionId(key);
                 PartitionView partition = partitionService.getPartition(partitionId);
                 if (nodeEngine.getThisAddress().equals(partition.getReplicaAddress(i))) {
-                    Object val = mapService.getPartitionContainer(partitionId).getRecordStore(name).get(key);
+                    Object val = mapService.getPartitionContainer(partitionId).getRecordStore(name).readBackupData(key);
                     if (val != null) {
                         mapService.interceptAfterGet(name, val);
                         return val;
@@ -615,11 +615,12 @@ abstract class MapProxySupport extends AbstractDistributedObject<MapService> imp
     public Data executeOnKeyInternal(Data key, EntryProcessor entryProcessor) {
         final NodeEngine nodeEngine = getNodeEngine();
         int partitionId = nodeEngine.getPartitionService().getPartitionId(key);
-        EntryOperation operation = new EntryOperation(name, key, entryProcessor);
+        KeyBasedMapOperation operation = createEntryOperation(key, entryProcessor);
         operation.setThreadId(ThreadUtil.getThreadId());
         try {
             Invocation invocation =
                     nodeEngine.getOperationService().createInvocationBuilder(SERVICE_NAME, operation, partitionId)
+                            .setReplicaIndex(getEntryReplicaIndex(partitionId, entryProcessor))
                             .build();
             Future future = invocation.invoke();
             return (Data) future.get();
@@ -630,20 +631,23 @@ abstract class MapProxySupport extends AbstractDistributedObject<MapService> imp
     public Future executeOnKeyInternal(Data key, EntryProcessor entryProcessor, ExecutionCallback callback) {
         final NodeEngine nodeEngine = getNodeEngine();
         int partitionId = nodeEngine.getPartitionService().getPartitionId(key);
-        EntryOperation operation = new EntryOperation(name, key, entryProcessor);
+        KeyBasedMapOperation operation = createEntryOperation(key, entryProcessor);
         operation.setThreadId(ThreadUtil.getThreadId());
+        final int replicaIndex = getEntryReplicaIndex(partitionId, entryProcessor);
         try {
             Invocation invocation;
             if(callback == null)
             {
                 invocation = nodeEngine.getOperationService()
                         .createInvocationBuilder(SERVICE_NAME, operation, partitionId)
+                        .setReplicaIndex(replicaIndex)
                         .build();
             }
             else
             {
                 invocation = nodeEngine.getOperationService()
                         .createInvocationBuilder(SERVICE_NAME, operation, partitionId)
+                        .setReplicaIndex(replicaIndex)
                         .setCallback(new ExecutionCallbackAdapter(callback))
                         .build();
             }
@@ -653,6 +657,28 @@ abstract class MapProxySupport extends AbstractDistributedObject<MapService> imp
         }
     }
 
+    private KeyBasedMapOperation createEntryOperation(Data key, EntryProcessor entryProcessor) {
+        if (entryProcessor instanceof ReadOnly) {
+            return new ReadOnlyEntryOperation(name, key, entryProcessor);
+        }
+        return new EntryOperation(name, key, entryProcessor);
+    }
+
+    // a read-only processor runs on the local replica of the key if the map reads backup data
+    private int getEntryReplicaIndex(int partitionId, EntryProcessor entryProcessor) {
+        if (entryProcessor instanceof ReadOnly && mapConfig.isReadBackupData()) {
+            final NodeEngine nodeEngine = getNodeEngine();
+            final PartitionView partition = nodeEngine.getPartitionService().getPartition(partitionId);
+            final int backupCount = mapConfig.getTotalBackupCount();
+            for (int i = 0; i <= backupCount; i++) {
+                if (nodeEngine.getThisAddress().equals(partition.getReplicaAddress(i))) {
+                    return i;
+                }
+            }
+        }
+        return 0;
+    }
+
     public Map executeOnEntries(EntryProcessor entryProcessor) {
         Map result = new HashMap();
         try {
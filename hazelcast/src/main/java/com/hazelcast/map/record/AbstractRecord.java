@@ -25,6 +25,8 @@ public abstract class AbstractRecord<V> implements Record<V> {
     protected RecordStatistics statistics;
     protected Data key;
     protected long version;
+    protected long ttlExpirationTime;
+    protected long idleExpirationTime;
 
     public AbstractRecord(Data key, boolean statisticsEnabled) {
         this.key = key;
@@ -53,6 +55,22 @@ public abstract class AbstractRecord<V> implements Record<V> {
         return version;
     }
 
+    public final long getTtlExpirationTime() {
+        return ttlExpirationTime;
+    }
+
+    public final void setTtlExpirationTime(long ttlExpirationTime) {
+        this.ttlExpirationTime = ttlExpirationTime;
+    }
+
+    public final long getIdleExpirationTime() {
+        return idleExpirationTime;
+    }
+
+    public final void setIdleExpirationTime(long idleExpirationTime) {
+        this.idleExpirationTime = idleExpirationTime;
+    }
+
     public final void onAccess() {
         if (statistics != null)
             statistics.access();
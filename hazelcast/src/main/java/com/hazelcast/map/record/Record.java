@@ -41,4 +41,18 @@ public interface Record<V> {
     long getCost();
 
     long getVersion();
+
+    /**
+     * @return time this record expires because of its time-to-live, 0 if it has none.
+     */
+    long getTtlExpirationTime();
+
+    void setTtlExpirationTime(long ttlExpirationTime);
+
+    /**
+     * @return time this record expires unless it is accessed, 0 if the map has no max-idle.
+     */
+    long getIdleExpirationTime();
+
+    void setIdleExpirationTime(long idleExpirationTime);
 }
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.writebehind;
+
+import com.hazelcast.nio.serialization.Data;
+
+/**
+ * A pending write-behind operation of a single key. A <tt>null</tt> value
+ * denotes a delete.
+ */
+public final class DelayedEntry {
+
+    private final Data key;
+    private final int partitionId;
+    private Object value;
+    private long storeTime;
+    private int retryCount;
+
+    DelayedEntry(Data key, Object value, int partitionId, long storeTime) {
+        this.key = key;
+        this.value = value;
+        this.partitionId = partitionId;
+        this.storeTime = storeTime;
+    }
+
+    public Data getKey() {
+        return key;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    void setValue(Object value) {
+        this.value = value;
+    }
+
+    public boolean isDelete() {
+        return value == null;
+    }
+
+    public int getPartitionId() {
+        return partitionId;
+    }
+
+    public long getStoreTime() {
+        return storeTime;
+    }
+
+    void setStoreTime(long storeTime) {
+        this.storeTime = storeTime;
+    }
+
+    public int getRetryCount() {
+        return retryCount;
+    }
+
+    void incrementRetryCount() {
+        retryCount++;
+    }
+
+    @Override
+    public String toString() {
+        return "DelayedEntry{" +
+                "key=" + key +
+                ", partitionId=" + partitionId +
+                ", delete=" + isDelete() +
+                ", storeTime=" + storeTime +
+                ", retryCount=" + retryCount +
+                '}';
+    }
+}
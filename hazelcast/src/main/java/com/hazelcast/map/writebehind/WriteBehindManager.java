@@ -0,0 +1,298 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.writebehind;
+
+import com.hazelcast.instance.GroupProperties;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.map.MapContainer;
+import com.hazelcast.map.MapService;
+import com.hazelcast.map.MapStoreWrapper;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.util.Clock;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Write-behind subsystem of a map on this member.
+ * <p/>
+ * Dirty entries are queued per partition ({@link WriteBehindQueue}) and a single store worker
+ * periodically drains the entries which are due, across all partitions, into
+ * <tt>storeAll</tt>/<tt>deleteAll</tt> calls of at most <tt>write-batch-size</tt> entries.
+ * <p/>
+ * The number of queued entries is bounded by {@link GroupProperties#PROP_MAP_WRITE_BEHIND_QUEUE_CAPACITY};
+ * when the limit is hit {@link #offer(int, Data, Object)} rejects new keys and the caller is expected
+ * to write through instead, which slows it down to the pace of the store.
+ * <p/>
+ * When a batch fails, its entries are retried one by one and the failing ones are re-queued
+ * with exponential backoff bounded by {@link GroupProperties#PROP_MAP_WRITE_BEHIND_MAX_BACKOFF_SECONDS}.
+ */
+public class WriteBehindManager {
+
+    private final MapContainer mapContainer;
+    private final MapService mapService;
+    private final ILogger logger;
+    private final WriteBehindQueue[] queues;
+    private final AtomicInteger size = new AtomicInteger();
+    private final int batchSize;
+    private final long writeDelayMillis;
+    private final long flushIntervalMillis;
+    private final long maxBackoffMillis;
+    private volatile ScheduledFuture<?> storeWorkerFuture;
+
+    public WriteBehindManager(MapContainer mapContainer) {
+        this.mapContainer = mapContainer;
+        this.mapService = mapContainer.getMapService();
+        final NodeEngine nodeEngine = mapService.getNodeEngine();
+        final GroupProperties groupProperties = nodeEngine.getGroupProperties();
+        this.logger = nodeEngine.getLogger(WriteBehindManager.class);
+        this.batchSize = mapContainer.getMapConfig().getMapStoreConfig().getWriteBatchSize();
+        this.writeDelayMillis = mapContainer.getWriteDelayMillis();
+        this.flushIntervalMillis = groupProperties.MAP_WRITE_BEHIND_FLUSH_INTERVAL_MILLIS.getLong();
+        this.maxBackoffMillis = TimeUnit.SECONDS.toMillis(groupProperties.MAP_WRITE_BEHIND_MAX_BACKOFF_SECONDS.getLong());
+        final int capacity = groupProperties.MAP_WRITE_BEHIND_QUEUE_CAPACITY.getInteger();
+        final int partitionCount = nodeEngine.getPartitionService().getPartitionCount();
+        queues = new WriteBehindQueue[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            queues[i] = new WriteBehindQueue(i, size, capacity);
+        }
+    }
+
+    public void start() {
+        storeWorkerFuture = mapService.getNodeEngine().getExecutionService()
+                .scheduleWithFixedDelay(new StoreWorker(), flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queues a store (or a delete when <tt>value</tt> is null) of the given key, to be
+     * executed after <tt>write-delay-seconds</tt>.
+     *
+     * @return false if the queue is full, caller should write through.
+     */
+    public boolean offer(int partitionId, Data key, Object value) {
+        return queues[partitionId].offer(key, value, Clock.currentTimeMillis() + writeDelayMillis, true);
+    }
+
+    /**
+     * Re-queues an operation transferred from another member (migration) with its remaining delay.
+     * Capacity is not checked since the entry had been admitted on its previous owner.
+     */
+    public void add(int partitionId, Data key, Object value, long delayMillis) {
+        queues[partitionId].offer(key, value, Clock.currentTimeMillis() + delayMillis, false);
+    }
+
+    public DelayedEntry get(int partitionId, Data key) {
+        return queues[partitionId].get(key);
+    }
+
+    public DelayedEntry remove(int partitionId, Data key) {
+        return queues[partitionId].remove(key);
+    }
+
+    /**
+     * Remaining time before given entry becomes due, never negative.
+     */
+    public long getRemainingDelayMillis(DelayedEntry entry) {
+        return Math.max(0, entry.getStoreTime() - Clock.currentTimeMillis());
+    }
+
+    /**
+     * Stores all queued entries of a partition immediately.
+     *
+     * @return keys of the stored (not deleted) entries.
+     */
+    public Set<Data> flush(int partitionId) {
+        final List<DelayedEntry> entries = new ArrayList<DelayedEntry>();
+        queues[partitionId].drainAll(entries);
+        final Set<Data> storedKeys = new HashSet<Data>(entries.size());
+        for (DelayedEntry entry : entries) {
+            if (!entry.isDelete()) {
+                storedKeys.add(entry.getKey());
+            }
+        }
+        for (int from = 0; from < entries.size(); from += batchSize) {
+            store(entries.subList(from, Math.min(entries.size(), from + batchSize)));
+        }
+        return storedKeys;
+    }
+
+    /**
+     * Stores the queued entry of given key immediately, if any.
+     *
+     * @return true if an entry was queued for the key.
+     */
+    public boolean flush(int partitionId, Data key) {
+        final DelayedEntry entry = queues[partitionId].remove(key);
+        if (entry == null) {
+            return false;
+        }
+        final List<DelayedEntry> entries = new ArrayList<DelayedEntry>(1);
+        entries.add(entry);
+        store(entries);
+        return true;
+    }
+
+    public void clear(int partitionId) {
+        queues[partitionId].clear();
+    }
+
+    /**
+     * Returns number of queued entries on this member.
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Stops the store worker after writing all queued entries.
+     */
+    public void destroy() {
+        final ScheduledFuture<?> future = storeWorkerFuture;
+        if (future != null) {
+            future.cancel(false);
+        }
+        for (int partitionId = 0; partitionId < queues.length; partitionId++) {
+            flush(partitionId);
+        }
+    }
+
+    private void store(List<DelayedEntry> entries) {
+        final List<DelayedEntry> writes = new ArrayList<DelayedEntry>(entries.size());
+        final List<DelayedEntry> deletes = new ArrayList<DelayedEntry>();
+        for (DelayedEntry entry : entries) {
+            if (entry.isDelete()) {
+                deletes.add(entry);
+            } else {
+                writes.add(entry);
+            }
+        }
+        Exception exception = null;
+        if (!writes.isEmpty()) {
+            exception = storeBatch(writes, false);
+        }
+        if (!deletes.isEmpty()) {
+            final Exception e = storeBatch(deletes, true);
+            exception = e != null ? e : exception;
+        }
+        if (exception != null) {
+            logger.severe(exception);
+        }
+    }
+
+    private Exception storeBatch(List<DelayedEntry> entries, boolean delete) {
+        if (entries.size() == 1) {
+            return storeSingle(entries.get(0));
+        }
+        final MapStoreWrapper store = mapContainer.getStore();
+        if (store == null) {
+            return null;
+        }
+        try {
+            final long start = Clock.currentTimeMillis();
+            if (delete) {
+                final Set<Object> keys = new HashSet<Object>(entries.size());
+                for (DelayedEntry entry : entries) {
+                    keys.add(mapService.toObject(entry.getKey()));
+                }
+                store.deleteAll(keys);
+            } else {
+                final Map<Object, Object> map = new HashMap<Object, Object>(entries.size());
+                for (DelayedEntry entry : entries) {
+                    map.put(mapService.toObject(entry.getKey()), mapService.toObject(entry.getValue()));
+                }
+                store.storeAll(map);
+            }
+            recordLatency(start);
+            return null;
+        } catch (Exception e) {
+            // if the batch fails we try the entries one by one, so that only the failing ones are retried.
+            Exception exception = null;
+            for (DelayedEntry entry : entries) {
+                final Exception temp = storeSingle(entry);
+                if (temp != null) {
+                    exception = temp;
+                }
+            }
+            return exception;
+        }
+    }
+
+    private Exception storeSingle(DelayedEntry entry) {
+        final MapStoreWrapper store = mapContainer.getStore();
+        if (store == null) {
+            return null;
+        }
+        try {
+            final long start = Clock.currentTimeMillis();
+            if (entry.isDelete()) {
+                store.delete(mapService.toObject(entry.getKey()));
+            } else {
+                store.store(mapService.toObject(entry.getKey()), mapService.toObject(entry.getValue()));
+            }
+            recordLatency(start);
+            return null;
+        } catch (Exception e) {
+            final long backoff = Math.min(maxBackoffMillis, writeDelayMillis << Math.min(entry.getRetryCount(), 16));
+            queues[entry.getPartitionId()].retry(entry, Clock.currentTimeMillis() + backoff);
+            return e;
+        }
+    }
+
+    private void recordLatency(long start) {
+        if (mapContainer.getMapConfig().isStatisticsEnabled()) {
+            mapService.getLocalMapStatsImpl(mapContainer.getName()).incrementStores(Clock.currentTimeMillis() - start);
+        }
+    }
+
+    private class StoreWorker implements Runnable {
+
+        // scheduled tasks are handed off to an executor, a slow store must not cause overlapping runs.
+        private final AtomicBoolean running = new AtomicBoolean(false);
+
+        public void run() {
+            if (!running.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                final long now = Clock.currentTimeMillis();
+                List<DelayedEntry> batch = new ArrayList<DelayedEntry>();
+                for (WriteBehindQueue queue : queues) {
+                    while (queue.drainDue(now, batchSize - batch.size(), batch) > 0) {
+                        if (batch.size() >= batchSize) {
+                            store(batch);
+                            batch = new ArrayList<DelayedEntry>();
+                        }
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    store(batch);
+                }
+            } finally {
+                running.set(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.writebehind;
+
+import com.hazelcast.nio.serialization.Data;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ordered write-behind queue of a single partition of a map.
+ * <p/>
+ * Entries are kept in the order their keys first became dirty. Updating a key which is
+ * already queued only replaces the pending value (coalescing), so the store sees
+ * at most one operation per key per flush and never gets an older value after a newer one.
+ * <p/>
+ * Mutations come from the partition thread while draining is done by the store worker,
+ * so access is guarded by the queue's monitor.
+ */
+final class WriteBehindQueue {
+
+    private final int partitionId;
+    private final Map<Data, DelayedEntry> entries = new LinkedHashMap<Data, DelayedEntry>();
+    // shared by all partition queues of a map on this member
+    private final AtomicInteger totalSize;
+    private final int capacity;
+
+    WriteBehindQueue(int partitionId, AtomicInteger totalSize, int capacity) {
+        this.partitionId = partitionId;
+        this.totalSize = totalSize;
+        this.capacity = capacity;
+    }
+
+    /**
+     * @param bounded whether the capacity should be checked for a key which is not queued yet.
+     * @return false if the key is not queued yet and the queue is full.
+     */
+    synchronized boolean offer(Data key, Object value, long storeTime, boolean bounded) {
+        final DelayedEntry existing = entries.get(key);
+        if (existing != null) {
+            existing.setValue(value);
+            return true;
+        }
+        if (bounded && totalSize.get() >= capacity) {
+            return false;
+        }
+        entries.put(key, new DelayedEntry(key, value, partitionId, storeTime));
+        totalSize.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Puts back an entry whose store failed, unless a newer operation for the same key
+     * has been queued in the meantime.
+     */
+    synchronized void retry(DelayedEntry entry, long nextStoreTime) {
+        if (entries.containsKey(entry.getKey())) {
+            return;
+        }
+        entry.incrementRetryCount();
+        entry.setStoreTime(nextStoreTime);
+        entries.put(entry.getKey(), entry);
+        totalSize.incrementAndGet();
+    }
+
+    /**
+     * Moves entries which are due at <tt>now</tt> into <tt>drainTo</tt> until it holds
+     * <tt>maxSize</tt> entries. Fresh entries are in store time order so draining stops at the
+     * first one which is not due yet; retried entries may be out of order and are skipped.
+     *
+     * @return number of drained entries
+     */
+    synchronized int drainDue(long now, int maxSize, Collection<DelayedEntry> drainTo) {
+        int count = 0;
+        final Iterator<DelayedEntry> iterator = entries.values().iterator();
+        while (count < maxSize && iterator.hasNext()) {
+            final DelayedEntry entry = iterator.next();
+            if (entry.getStoreTime() > now) {
+                if (entry.getRetryCount() == 0) {
+                    break;
+                }
+                continue;
+            }
+            iterator.remove();
+            drainTo.add(entry);
+            count++;
+        }
+        totalSize.addAndGet(-count);
+        return count;
+    }
+
+    synchronized int drainAll(Collection<DelayedEntry> drainTo) {
+        final int count = entries.size();
+        drainTo.addAll(entries.values());
+        entries.clear();
+        totalSize.addAndGet(-count);
+        return count;
+    }
+
+    synchronized DelayedEntry get(Data key) {
+        return entries.get(key);
+    }
+
+    synchronized DelayedEntry remove(Data key) {
+        final DelayedEntry entry = entries.remove(key);
+        if (entry != null) {
+            totalSize.decrementAndGet();
+        }
+        return entry;
+    }
+
+    synchronized void clear() {
+        totalSize.addAndGet(-entries.size());
+        entries.clear();
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+}
@@ -161,6 +161,28 @@ public interface LocalMapStats extends LocalInstanceStats {
      */
     public long getMaxRemoveLatency();
 
+    /**
+     * Returns the number of map store write operations (store, storeAll, delete and deleteAll calls)
+     * done by the write-behind subsystem of this member.
+     *
+     * @return number of map store write operations
+     */
+    public long getStoreOperationCount();
+
+    /**
+     * Returns the total latency of map store write operations. To get the average latency, divide to number of store operations
+     *
+     * @return total latency of map store write operations
+     */
+    public long getTotalStoreLatency();
+
+    /**
+     * Returns the maximum latency of map store write operations.
+     *
+     * @return maximum latency of map store write operations
+     */
+    public long getMaxStoreLatency();
+
     /**
      * Returns the number of Events Received
      *
@@ -40,6 +40,9 @@ public class LocalMapStatsImpl implements LocalMapStats, IdentifiedDataSerializa
     private final AtomicLong maxGetLatency = new AtomicLong(0);
     private final AtomicLong maxPutLatency = new AtomicLong(0);
     private final AtomicLong maxRemoveLatency = new AtomicLong(0);
+    private final AtomicLong storeCount = new AtomicLong(0);
+    private final AtomicLong totalStoreLatencies = new AtomicLong(0);
+    private final AtomicLong maxStoreLatency = new AtomicLong(0);
     private long ownedEntryCount;
     private long backupEntryCount;
     private long ownedEntryMemoryCost;
@@ -77,6 +80,9 @@ public class LocalMapStatsImpl implements LocalMapStats, IdentifiedDataSerializa
         out.writeLong(maxGetLatency.get());
         out.writeLong(maxPutLatency.get());
         out.writeLong(maxRemoveLatency.get());
+        out.writeLong(storeCount.get());
+        out.writeLong(totalStoreLatencies.get());
+        out.writeLong(maxStoreLatency.get());
         out.writeLong(heapCost);
     }
 
@@ -102,6 +108,9 @@ public class LocalMapStatsImpl implements LocalMapStats, IdentifiedDataSerializa
         maxGetLatency.set(in.readLong());
         maxPutLatency.set(in.readLong());
         maxRemoveLatency.set(in.readLong());
+        storeCount.set(in.readLong());
+        totalStoreLatencies.set(in.readLong());
+        maxStoreLatency.set(in.readLong());
         heapCost = in.readLong();
     }
 
@@ -215,6 +224,16 @@ public class LocalMapStatsImpl implements LocalMapStats, IdentifiedDataSerializa
         maxRemoveLatency.set(Math.max(maxRemoveLatency.get(), latency));
     }
 
+    public long getStoreOperationCount() {
+        return storeCount.get();
+    }
+
+    public void incrementStores(long latency) {
+        storeCount.incrementAndGet();
+        totalStoreLatencies.addAndGet(latency);
+        maxStoreLatency.set(Math.max(maxStoreLatency.get(), latency));
+    }
+
     public long getTotalPutLatency() {
         return totalPutLatencies.get();
     }
@@ -239,6 +258,14 @@ public class LocalMapStatsImpl implements LocalMapStats, IdentifiedDataSerializa
         return maxRemoveLatency.get();
     }
 
+    public long getTotalStoreLatency() {
+        return totalStoreLatencies.get();
+    }
+
+    public long getMaxStoreLatency() {
+        return maxStoreLatency.get();
+    }
+
     public long getOtherOperationCount() {
         return numberOfOtherOperations.get();
     }
@@ -275,6 +302,8 @@ public class LocalMapStatsImpl implements LocalMapStats, IdentifiedDataSerializa
                 ", totalGetLatencies=" + totalGetLatencies +
                 ", totalPutLatencies=" + totalPutLatencies +
                 ", totalRemoveLatencies=" + totalRemoveLatencies +
+                ", storeCount=" + storeCount +
+                ", totalStoreLatencies=" + totalStoreLatencies +
                 ", ownedEntryCount=" + ownedEntryCount +
                 ", backupEntryCount=" + backupEntryCount +
                 ", backupCount=" + backupCount +
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.multimap;
+
+import java.util.Collection;
+
+/**
+ * Value collection of a multimap key that finds records by id and by value without a scan.
+ */
+public interface IndexedRecordCollection extends Collection<MultiMapRecord> {
+
+    boolean containsRecordId(long recordId);
+
+    /**
+     * @return the removed record, <tt>null</tt> if there is no record with the id
+     */
+    MultiMapRecord removeRecord(long recordId);
+
+    /**
+     * Removes one record whose value equals the value of the given record.
+     *
+     * @return the removed record, <tt>null</tt> if no record has an equal value
+     */
+    MultiMapRecord removeEqual(MultiMapRecord record);
+}
@@ -105,9 +105,9 @@ public class MultiMapContainer {
         if (wrapper == null) {
             Collection<MultiMapRecord> coll;
             if (config.getValueCollectionType().equals(MultiMapConfig.ValueCollectionType.SET)) {
-                coll = new HashSet<MultiMapRecord>(10);
+                coll = new MultiMapRecordSet();
             } else if (config.getValueCollectionType().equals(MultiMapConfig.ValueCollectionType.LIST)) {
-                coll = new LinkedList<MultiMapRecord>();
+                coll = new MultiMapRecordList();
             } else {
                 throw new IllegalArgumentException("No Matching CollectionProxyType!");
             }
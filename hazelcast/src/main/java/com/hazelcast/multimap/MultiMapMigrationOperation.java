@@ -84,9 +84,9 @@ public class MultiMapMigrationOperation extends AbstractOperation {
                 String collectionType = in.readUTF();
                 Collection<MultiMapRecord> coll;
                 if (collectionType.equals(MultiMapConfig.ValueCollectionType.SET.name())){
-                    coll = new HashSet<MultiMapRecord>();
+                    coll = new MultiMapRecordSet();
                 } else {
-                    coll = new LinkedList<MultiMapRecord>();
+                    coll = new MultiMapRecordList();
                 }
                 for (int k = 0; k < collSize; k++) {
                     MultiMapRecord record = new MultiMapRecord();
@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.multimap;
+
+import java.util.*;
+
+/**
+ * Linked list of records for the <tt>LIST</tt> value collection type. Besides the list order,
+ * records are indexed by id and by value; records with equal values are chained in list order,
+ * so duplicates are allowed and the first of them can be removed in constant time.
+ */
+public class MultiMapRecordList extends AbstractSequentialList<MultiMapRecord> implements IndexedRecordCollection {
+
+    private final Node header = new Node(null);
+
+    private final Map<Long, Node> byId = new HashMap<Long, Node>();
+
+    // chain of the nodes with an equal value
+    private final Map<MultiMapRecord, Chain> byValue = new HashMap<MultiMapRecord, Chain>();
+
+    private int size;
+
+    public MultiMapRecordList() {
+        header.next = header;
+        header.prev = header;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean add(MultiMapRecord record) {
+        linkBefore(header, record);
+        return true;
+    }
+
+    public boolean contains(Object o) {
+        return byValue.containsKey(o);
+    }
+
+    public boolean remove(Object o) {
+        return o instanceof MultiMapRecord && removeEqual((MultiMapRecord) o) != null;
+    }
+
+    public void clear() {
+        header.next = header;
+        header.prev = header;
+        byId.clear();
+        byValue.clear();
+        size = 0;
+        modCount++;
+    }
+
+    public boolean containsRecordId(long recordId) {
+        return byId.containsKey(recordId);
+    }
+
+    public MultiMapRecord removeRecord(long recordId) {
+        final Node node = byId.get(recordId);
+        if (node == null) {
+            return null;
+        }
+        unlink(node);
+        return node.record;
+    }
+
+    public MultiMapRecord removeEqual(MultiMapRecord record) {
+        final Chain chain = byValue.get(record);
+        if (chain == null) {
+            return null;
+        }
+        final Node node = chain.first;
+        unlink(node);
+        return node.record;
+    }
+
+    public ListIterator<MultiMapRecord> listIterator(int index) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        Node next = header.next;
+        for (int i = 0; i < index; i++) {
+            next = next.next;
+        }
+        return new RecordIterator(next, index);
+    }
+
+    private Node linkBefore(Node successor, MultiMapRecord record) {
+        final Node node = new Node(record);
+        node.next = successor;
+        node.prev = successor.prev;
+        successor.prev.next = node;
+        successor.prev = node;
+        byId.put(record.getRecordId(), node);
+        final Chain chain = byValue.get(record);
+        if (chain == null) {
+            byValue.put(record, new Chain(node));
+        } else {
+            linkSame(chain, node, successor == header ? chain.last : findPreviousSame(node));
+        }
+        size++;
+        modCount++;
+        return node;
+    }
+
+    // a record added in the middle of the list follows the last equal one before it, found by walking back
+    private Node findPreviousSame(Node node) {
+        for (Node prev = node.prev; prev != header; prev = prev.prev) {
+            if (prev.record.equals(node.record)) {
+                return prev;
+            }
+        }
+        return null;
+    }
+
+    private static void linkSame(Chain chain, Node node, Node prevSame) {
+        node.prevSame = prevSame;
+        node.nextSame = prevSame != null ? prevSame.nextSame : chain.first;
+        if (prevSame != null) {
+            prevSame.nextSame = node;
+        } else {
+            chain.first = node;
+        }
+        if (node.nextSame != null) {
+            node.nextSame.prevSame = node;
+        } else {
+            chain.last = node;
+        }
+    }
+
+    private void unlink(Node node) {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        if (byId.get(node.record.getRecordId()) == node) {
+            byId.remove(node.record.getRecordId());
+        }
+        final Chain chain = byValue.get(node.record);
+        if (node.prevSame == null) {
+            chain.first = node.nextSame;
+        } else {
+            node.prevSame.nextSame = node.nextSame;
+        }
+        if (node.nextSame == null) {
+            chain.last = node.prevSame;
+        } else {
+            node.nextSame.prevSame = node.prevSame;
+        }
+        if (chain.first == null) {
+            byValue.remove(node.record);
+        }
+        size--;
+        modCount++;
+    }
+
+    private static class Chain {
+
+        Node first;
+
+        Node last;
+
+        Chain(Node node) {
+            first = node;
+            last = node;
+        }
+    }
+
+    private static class Node {
+
+        final MultiMapRecord record;
+
+        Node prev;
+
+        Node next;
+
+        Node prevSame;
+
+        Node nextSame;
+
+        Node(MultiMapRecord record) {
+            this.record = record;
+        }
+    }
+
+    private class RecordIterator implements ListIterator<MultiMapRecord> {
+
+        private Node next;
+
+        private Node lastReturned;
+
+        private int nextIndex;
+
+        private int expectedModCount = modCount;
+
+        RecordIterator(Node next, int nextIndex) {
+            this.next = next;
+            this.nextIndex = nextIndex;
+        }
+
+        public boolean hasNext() {
+            return nextIndex < size;
+        }
+
+        public MultiMapRecord next() {
+            checkForComodification();
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = next;
+            next = next.next;
+            nextIndex++;
+            return lastReturned.record;
+        }
+
+        public boolean hasPrevious() {
+            return nextIndex > 0;
+        }
+
+        public MultiMapRecord previous() {
+            checkForComodification();
+            if (!hasPrevious()) {
+                throw new NoSuchElementException();
+            }
+            next = next.prev;
+            lastReturned = next;
+            nextIndex--;
+            return lastReturned.record;
+        }
+
+        public int nextIndex() {
+            return nextIndex;
+        }
+
+        public int previousIndex() {
+            return nextIndex - 1;
+        }
+
+        public void remove() {
+            checkForComodification();
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            if (next == lastReturned) {
+                next = lastReturned.next;
+            } else {
+                nextIndex--;
+            }
+            unlink(lastReturned);
+            lastReturned = null;
+            expectedModCount = modCount;
+        }
+
+        public void set(MultiMapRecord record) {
+            throw new UnsupportedOperationException();
+        }
+
+        public void add(MultiMapRecord record) {
+            checkForComodification();
+            linkBefore(next, record);
+            lastReturned = null;
+            nextIndex++;
+            expectedModCount = modCount;
+        }
+
+        private void checkForComodification() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.multimap;
+
+import java.util.*;
+
+/**
+ * Records of the <tt>SET</tt> value collection type, unique by value and indexed by id.
+ */
+public class MultiMapRecordSet extends AbstractSet<MultiMapRecord> implements IndexedRecordCollection {
+
+    private final Map<MultiMapRecord, MultiMapRecord> byValue = new LinkedHashMap<MultiMapRecord, MultiMapRecord>();
+
+    private final Map<Long, MultiMapRecord> byId = new HashMap<Long, MultiMapRecord>();
+
+    public int size() {
+        return byValue.size();
+    }
+
+    public boolean add(MultiMapRecord record) {
+        if (byValue.containsKey(record)) {
+            return false;
+        }
+        byValue.put(record, record);
+        byId.put(record.getRecordId(), record);
+        return true;
+    }
+
+    public boolean contains(Object o) {
+        return byValue.containsKey(o);
+    }
+
+    public boolean remove(Object o) {
+        return o instanceof MultiMapRecord && removeEqual((MultiMapRecord) o) != null;
+    }
+
+    public void clear() {
+        byValue.clear();
+        byId.clear();
+    }
+
+    public boolean containsRecordId(long recordId) {
+        return byId.containsKey(recordId);
+    }
+
+    public MultiMapRecord removeRecord(long recordId) {
+        final MultiMapRecord record = byId.remove(recordId);
+        if (record != null) {
+            byValue.remove(record);
+        }
+        return record;
+    }
+
+    public MultiMapRecord removeEqual(MultiMapRecord record) {
+        final MultiMapRecord removed = byValue.remove(record);
+        if (removed != null) {
+            byId.remove(removed.getRecordId());
+        }
+        return removed;
+    }
+
+    public Iterator<MultiMapRecord> iterator() {
+        final Iterator<MultiMapRecord> iterator = byValue.keySet().iterator();
+        return new Iterator<MultiMapRecord>() {
+            MultiMapRecord last;
+
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            public MultiMapRecord next() {
+                last = iterator.next();
+                return last;
+            }
+
+            public void remove() {
+                iterator.remove();
+                byId.remove(last.getRecordId());
+            }
+        };
+    }
+}
@@ -17,6 +17,7 @@
 package com.hazelcast.multimap;
 
 import java.util.Collection;
+import java.util.Iterator;
 
 /**
  * @author ali 3/1/13
@@ -46,6 +47,9 @@ public class MultiMapWrapper {
     }
 
     public boolean containsRecordId(long recordId){
+        if (collection instanceof IndexedRecordCollection) {
+            return ((IndexedRecordCollection) collection).containsRecordId(recordId);
+        }
         for (MultiMapRecord record: collection){
             if (record.getRecordId() == recordId){
                 return true;
@@ -54,6 +58,36 @@ public class MultiMapWrapper {
         return false;
     }
 
+    public MultiMapRecord removeRecord(long recordId) {
+        if (collection instanceof IndexedRecordCollection) {
+            return ((IndexedRecordCollection) collection).removeRecord(recordId);
+        }
+        Iterator<MultiMapRecord> iter = collection.iterator();
+        while (iter.hasNext()) {
+            MultiMapRecord record = iter.next();
+            if (record.getRecordId() == recordId) {
+                iter.remove();
+                return record;
+            }
+        }
+        return null;
+    }
+
+    public MultiMapRecord removeEqual(MultiMapRecord record) {
+        if (collection instanceof IndexedRecordCollection) {
+            return ((IndexedRecordCollection) collection).removeEqual(record);
+        }
+        Iterator<MultiMapRecord> iter = collection.iterator();
+        while (iter.hasNext()) {
+            MultiMapRecord r = iter.next();
+            if (r.equals(record)) {
+                iter.remove();
+                return r;
+            }
+        }
+        return null;
+    }
+
     public long getVersion() {
         return version;
     }
@@ -17,7 +17,6 @@
 package com.hazelcast.multimap.operations;
 
 import com.hazelcast.multimap.MultiMapDataSerializerHook;
-import com.hazelcast.multimap.MultiMapRecord;
 import com.hazelcast.multimap.MultiMapWrapper;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
@@ -25,8 +24,6 @@ import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.spi.BackupOperation;
 
 import java.io.IOException;
-import java.util.Collection;
-import java.util.Iterator;
 
 /**
  * @author ali 1/16/13
@@ -49,16 +46,10 @@ public class RemoveBackupOperation extends MultiMapKeyBasedOperation implements
         if (wrapper == null) {
             return;
         }
-        Collection<MultiMapRecord> coll = wrapper.getCollection();
-        Iterator<MultiMapRecord> iter = coll.iterator();
-        while (iter.hasNext()){
-            if(iter.next().getRecordId() == recordId){
-                iter.remove();
-                response = true;
-                if (coll.isEmpty()) {
-                    remove();
-                }
-                break;
+        if (wrapper.removeRecord(recordId) != null) {
+            response = true;
+            if (wrapper.getCollection().isEmpty()) {
+                remove();
             }
         }
     }
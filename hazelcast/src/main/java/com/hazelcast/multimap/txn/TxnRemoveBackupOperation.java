@@ -18,7 +18,6 @@ package com.hazelcast.multimap.txn;
 
 import com.hazelcast.multimap.MultiMapContainer;
 import com.hazelcast.multimap.MultiMapDataSerializerHook;
-import com.hazelcast.multimap.MultiMapRecord;
 import com.hazelcast.multimap.MultiMapWrapper;
 import com.hazelcast.multimap.operations.MultiMapKeyBasedOperation;
 import com.hazelcast.nio.ObjectDataInput;
@@ -26,8 +25,6 @@ import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.nio.serialization.Data;
 
 import java.io.IOException;
-import java.util.Collection;
-import java.util.Iterator;
 
 /**
  * @ali 10/18/13
@@ -54,15 +51,8 @@ public class TxnRemoveBackupOperation extends MultiMapKeyBasedOperation {
             response = false;
             return;
         }
-        Collection<MultiMapRecord> coll = wrapper.getCollection();
-        Iterator<MultiMapRecord> iter = coll.iterator();
-        while (iter.hasNext()){
-            if (iter.next().getRecordId() == recordId){
-                iter.remove();
-                break;
-            }
-        }
-        if (coll.isEmpty()) {
+        wrapper.removeRecord(recordId);
+        if (wrapper.getCollection().isEmpty()) {
             remove();
         }
     }
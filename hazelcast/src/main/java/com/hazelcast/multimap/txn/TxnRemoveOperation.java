@@ -27,8 +27,6 @@ import com.hazelcast.spi.Operation;
 import com.hazelcast.util.Clock;
 
 import java.io.IOException;
-import java.util.Collection;
-import java.util.Iterator;
 
 /**
  * @author ali 4/5/13
@@ -57,15 +55,8 @@ public class TxnRemoveOperation extends MultiMapKeyBasedOperation implements Bac
             response = false;
             return;
         }
-        Collection<MultiMapRecord> coll = wrapper.getCollection();
-        Iterator<MultiMapRecord> iter = coll.iterator();
-        while (iter.hasNext()){
-            if (iter.next().getRecordId() == recordId){
-                iter.remove();
-                break;
-            }
-        }
-        if (coll.isEmpty()) {
+        wrapper.removeRecord(recordId);
+        if (wrapper.getCollection().isEmpty()) {
             remove();
         }
     }
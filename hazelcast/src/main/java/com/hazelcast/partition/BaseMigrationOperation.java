@@ -22,11 +22,12 @@ import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.spi.AbstractOperation;
 import com.hazelcast.spi.ExceptionAction;
 import com.hazelcast.spi.PartitionAwareOperation;
+import com.hazelcast.spi.UrgentSystemOperation;
 
 import java.io.IOException;
 
 public abstract class BaseMigrationOperation extends AbstractOperation
-        implements MigrationCycleOperation, PartitionAwareOperation {
+        implements MigrationCycleOperation, PartitionAwareOperation, UrgentSystemOperation {
 
     protected MigrationInfo migrationInfo;
 
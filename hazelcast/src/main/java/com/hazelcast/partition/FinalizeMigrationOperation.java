@@ -22,13 +22,15 @@ import com.hazelcast.spi.AbstractOperation;
 import com.hazelcast.spi.MigrationAwareService;
 import com.hazelcast.spi.PartitionAwareOperation;
 import com.hazelcast.spi.PartitionMigrationEvent;
+import com.hazelcast.spi.UrgentSystemOperation;
 import com.hazelcast.spi.impl.NodeEngineImpl;
 
 import java.io.IOException;
 import java.util.Collection;
 
 // runs locally...
-final class FinalizeMigrationOperation extends AbstractOperation implements PartitionAwareOperation, MigrationCycleOperation {
+final class FinalizeMigrationOperation extends AbstractOperation implements PartitionAwareOperation, MigrationCycleOperation,
+        UrgentSystemOperation {
 
     private final MigrationEndpoint endpoint;
     private final boolean success;
@@ -57,6 +59,10 @@ final class FinalizeMigrationOperation extends AbstractOperation implements Part
                 }
             }
             partitionService.removeActiveMigration(getPartitionId());
+            if (success && endpoint == MigrationEndpoint.SOURCE) {
+                // not the owner anymore, replicas will sync from the new owner
+                partitionService.clearBackupLogs(getPartitionId());
+            }
             if (success) {
                 nodeEngine.onPartitionMigrate(migrationInfo);
             }
@@ -40,16 +40,22 @@ public final class MigrationOperation extends BaseMigrationOperation {
     private byte[] taskData;
     private int taskCount;
     private boolean compressed;
+    // a partition is migrated in one or more chunks, sent one after another
+    private boolean firstChunk = true;
+    private boolean lastChunk = true;
 
     public MigrationOperation() {
     }
 
-    public MigrationOperation(MigrationInfo migrationInfo, long[] replicaVersions, byte[] taskData, int taskCount, boolean compressed) {
+    public MigrationOperation(MigrationInfo migrationInfo, long[] replicaVersions, byte[] taskData, int taskCount,
+                              boolean compressed, boolean firstChunk, boolean lastChunk) {
         super(migrationInfo);
         this.replicaVersions = replicaVersions;
         this.taskCount = taskCount;
         this.taskData = taskData;
         this.compressed = compressed;
+        this.firstChunk = firstChunk;
+        this.lastChunk = lastChunk;
     }
 
     public void run() throws Exception {
@@ -58,6 +64,17 @@ public final class MigrationOperation extends BaseMigrationOperation {
             throw new RetryableHazelcastException("Migration initiator is not master node! => " + toString());
         }
         SerializationService serializationService = nodeEngine.getSerializationService();
+        final PartitionServiceImpl partitionService = getService();
+        if (!firstChunk) {
+            // following chunks continue the migration registered by the first one
+            final MigrationInfo activeMigration = partitionService.getActiveMigration(migrationInfo.getPartitionId());
+            if (!migrationInfo.equals(activeMigration)) {
+                getLogger().warning("Migration is cancelled while receiving chunks -> " + migrationInfo);
+                success = false;
+                return;
+            }
+            migrationInfo = activeMigration;
+        }
         BufferObjectDataInput in = null;
         if (migrationInfo.startProcessing()) {
             try {
@@ -81,8 +98,7 @@ public final class MigrationOperation extends BaseMigrationOperation {
                             + ", replica: " + getReplicaIndex());
                 }
                 success = runMigrationTasks();
-                if (success) {
-                    final PartitionServiceImpl partitionService = getService();
+                if (success && lastChunk) {
                     partitionService.setPartitionReplicaVersions(migrationInfo.getPartitionId(), replicaVersions);
                 }
             } catch (Throwable e) {
@@ -110,7 +126,9 @@ public final class MigrationOperation extends BaseMigrationOperation {
         boolean error = false;
         final NodeEngineImpl nodeEngine = (NodeEngineImpl) getNodeEngine();
         final PartitionServiceImpl partitionService = getService();
-        partitionService.addActiveMigration(migrationInfo);
+        if (firstChunk) {
+            partitionService.addActiveMigration(migrationInfo);
+        }
 
         for (Operation op : tasks) {
             try {
@@ -149,6 +167,8 @@ public final class MigrationOperation extends BaseMigrationOperation {
         out.writeInt(taskData.length);
         out.write(taskData);
         out.writeLongArray(replicaVersions);
+        out.writeBoolean(firstChunk);
+        out.writeBoolean(lastChunk);
     }
 
     protected void readInternal(ObjectDataInput in) throws IOException {
@@ -159,6 +179,8 @@ public final class MigrationOperation extends BaseMigrationOperation {
         taskData = new byte[size];
         in.readFully(taskData);
         replicaVersions = in.readLongArray();
+        firstChunk = in.readBoolean();
+        lastChunk = in.readBoolean();
     }
 
     @Override
@@ -169,6 +191,8 @@ public final class MigrationOperation extends BaseMigrationOperation {
         sb.append(", migration=").append(migrationInfo);
         sb.append(", taskCount=").append(taskCount);
         sb.append(", compressed=").append(compressed);
+        sb.append(", firstChunk=").append(firstChunk);
+        sb.append(", lastChunk=").append(lastChunk);
         sb.append('}');
         return sb.toString();
     }
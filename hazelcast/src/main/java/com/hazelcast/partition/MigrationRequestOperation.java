@@ -27,6 +27,7 @@ import com.hazelcast.spi.*;
 import com.hazelcast.spi.exception.RetryableHazelcastException;
 import com.hazelcast.spi.exception.TargetNotMemberException;
 import com.hazelcast.spi.impl.NodeEngineImpl;
+import com.hazelcast.util.Clock;
 
 import java.util.Collection;
 import java.util.LinkedList;
@@ -72,7 +73,7 @@ public final class MigrationRequestOperation extends BaseMigrationOperation {
             throw new RetryableHazelcastException("Source of migration is not this node! => " + toString());
         }
 
-        PartitionServiceImpl partitionService = getService();
+        final PartitionServiceImpl partitionService = getService();
         PartitionImpl partition = partitionService.getPartition(migrationInfo.getPartitionId());
         final Address owner = partition.getOwner();
         if (owner == null) {
@@ -99,22 +100,38 @@ public final class MigrationRequestOperation extends BaseMigrationOperation {
                         public void run() {
                             final BufferObjectDataOutput out = serializationService.createObjectDataOutput(1024 * 32);
                             try {
-                                out.writeInt(tasks.size());
-                                for (Operation task : tasks) {
-                                    serializationService.writeObject(out, task);
+                                final long start = Clock.currentTimeMillis();
+                                final boolean compress = nodeEngine.getGroupProperties().PARTITION_MIGRATION_ZIP_ENABLED.getBoolean();
+                                final int chunkSize = nodeEngine.getGroupProperties().PARTITION_MIGRATION_CHUNK_SIZE.getInteger() * 1024;
+                                final ReplicationChunkWriter chunkWriter = new ReplicationChunkWriter(serializationService, tasks, chunkSize);
+                                // chunks are sent one at a time, the next one is written only after the previous one is applied.
+                                Boolean result = Boolean.TRUE;
+                                boolean firstChunk = true;
+                                while (Boolean.TRUE.equals(result)) {
+                                    out.clear();
+                                    final int taskCount = chunkWriter.writeNext(out);
+                                    final boolean lastChunk = !chunkWriter.hasNext();
+                                    final byte[] data;
+                                    if (compress) {
+                                        data = IOUtil.compress(out.toByteArray());
+                                    } else {
+                                        data = out.toByteArray();
+                                    }
+                                    partitionService.throttleMigration(data.length);
+                                    final MigrationOperation migrationOperation = new MigrationOperation(migrationInfo,
+                                            replicaVersions, data, taskCount, compress, firstChunk, lastChunk);
+                                    Invocation inv = nodeEngine.getOperationService().createInvocationBuilder(PartitionServiceImpl.SERVICE_NAME,
+                                            migrationOperation, destination).setTryPauseMillis(1000).setReplicaIndex(getReplicaIndex()).build();
+                                    Future future = inv.invoke();
+                                    result = (Boolean) nodeEngine.toObject(future.get(timeout, TimeUnit.SECONDS));
+                                    firstChunk = false;
+                                    if (lastChunk) {
+                                        break;
+                                    }
                                 }
-                                final byte[] data;
-                                boolean compress = nodeEngine.getGroupProperties().PARTITION_MIGRATION_ZIP_ENABLED.getBoolean();
-                                if (compress) {
-                                    data = IOUtil.compress(out.toByteArray());
-                                } else {
-                                    data = out.toByteArray();
+                                if (Boolean.TRUE.equals(result)) {
+                                    partitionService.recordMigration(chunkWriter.getTotalBytes(), Clock.currentTimeMillis() - start);
                                 }
-                                final MigrationOperation migrationOperation = new MigrationOperation(migrationInfo, replicaVersions, data, tasks.size(), compress);
-                                Invocation inv = nodeEngine.getOperationService().createInvocationBuilder(PartitionServiceImpl.SERVICE_NAME,
-                                        migrationOperation, destination).setTryPauseMillis(1000).setReplicaIndex(getReplicaIndex()).build();
-                                Future future = inv.invoke();
-                                Boolean result = (Boolean) nodeEngine.toObject(future.get(timeout, TimeUnit.SECONDS));
                                 responseHandler.sendResponse(result);
                             } catch (Throwable e) {
                                 responseHandler.sendResponse(Boolean.FALSE);
@@ -51,6 +51,7 @@ public class PartitionServiceImpl implements PartitionService, ManagedService,
     public static final String SERVICE_NAME = "hz:core:partitionService";
 
     private static final long REPARTITIONING_CHECK_INTERVAL = TimeUnit.SECONDS.toMillis(600); // 10 MINUTES
+    private static final String MIGRATION_EXECUTOR = "hz:migration";
 
     private final Node node;
     private final NodeEngineImpl nodeEngine;
@@ -72,6 +73,13 @@ public class PartitionServiceImpl implements PartitionService, ManagedService,
     private final BlockingQueue<Runnable> migrationQueue = new LinkedBlockingQueue<Runnable>();
     private final AtomicBoolean migrationActive = new AtomicBoolean(true);
     private final AtomicLong lastRepartitionTime = new AtomicLong();
+    // partitions migrated from this member
+    private final AtomicLong migratedBytes = new AtomicLong();
+    private final AtomicLong migrationMillis = new AtomicLong();
+    private final long migrationBandwidth; // bytes per second, 0 is unlimited
+    private final int backupLogSize;
+    // time at which the bandwidth budget allows the next chunk to be sent
+    private final AtomicLong migrationBudgetTime = new AtomicLong();
     private final SystemLogService systemLogService;
 
     // can be read and written concurrently...
@@ -108,6 +116,8 @@ public class PartitionServiceImpl implements PartitionService, ManagedService,
         partitionMigrationInterval = node.groupProperties.PARTITION_MIGRATION_INTERVAL.getLong() * 1000;
         // partitionMigrationTimeout is 1.5 times of real timeout
         partitionMigrationTimeout = (long) (node.groupProperties.PARTITION_MIGRATION_TIMEOUT.getLong() * 1.5f);
+        migrationBandwidth = node.groupProperties.PARTITION_MIGRATION_MAX_BANDWIDTH.getLong() * 1024;
+        backupLogSize = node.groupProperties.PARTITION_BACKUP_LOG_SIZE.getInteger();
 
         migrationThread = new MigrationThread(node);
         proxy = new PartitionServiceProxy(this);
@@ -156,7 +166,7 @@ public class PartitionServiceImpl implements PartitionService, ManagedService,
                 final ReplicaSyncInfo syncInfo = entry.getValue();
                 if (replicaSyncRequests.remove(entry.getKey(), syncInfo)) {
                     logger.info("Re-sending sync replica request for partition: " + syncInfo.partitionId + ", replica: " + syncInfo.replicaIndex);
-                    syncPartitionReplica(syncInfo.partitionId, syncInfo.replicaIndex, false);
+                    syncPartitionReplica(syncInfo.partitionId, syncInfo.replicaIndex, false, syncInfo.fullSync);
                 }
             }
         }
@@ -604,16 +614,26 @@ public class PartitionServiceImpl implements PartitionService, ManagedService,
 
     @PrivateApi
     void syncPartitionReplica(int partitionId, int replicaIndex, boolean force) {
+        syncPartitionReplica(partitionId, replicaIndex, force, force);
+    }
+
+    /**
+     * @param fullSync whether whole partition data is requested; otherwise owner may send only the backups
+     *                 this replica missed, if it still has them.
+     */
+    private void syncPartitionReplica(int partitionId, int replicaIndex, boolean force, boolean fullSync) {
         if (replicaIndex < 0 || replicaIndex > PartitionImpl.MAX_REPLICA_COUNT) {
             throw new IllegalArgumentException("Invalid replica index: " + replicaIndex);
         }
         final PartitionImpl partitionImpl = getPartition(partitionId);
         final Address target = partitionImpl.getOwner();
         if (target != null) {
-            final ReplicaSyncRequest syncRequest = new ReplicaSyncRequest();
+            final long replicaVersion = fullSync || replicaIndex == 0 ? -1
+                    : replicaVersions[partitionId].get()[replicaIndex - 1];
+            final ReplicaSyncRequest syncRequest = new ReplicaSyncRequest(replicaVersion);
             syncRequest.setPartitionId(partitionId).setReplicaIndex(replicaIndex);
             final ReplicaSyncInfo currentSyncInfo = replicaSyncRequests.get(partitionId);
-            final ReplicaSyncInfo syncInfo = new ReplicaSyncInfo(partitionId, replicaIndex, target);
+            final ReplicaSyncInfo syncInfo = new ReplicaSyncInfo(partitionId, replicaIndex, target, fullSync);
             boolean sendRequest = false;
             if (currentSyncInfo == null) {
                 sendRequest = replicaSyncRequests.putIfAbsent(partitionId, syncInfo) == null;
@@ -744,7 +764,8 @@ public class PartitionServiceImpl implements PartitionService, ManagedService,
     }
 
     boolean hasOnGoingMigrationLocal() {
-        return !activeMigrations.isEmpty() || !migrationQueue.isEmpty() || shouldWaitMigrationOrBackups(Level.OFF);
+        return !activeMigrations.isEmpty() || !migrationQueue.isEmpty() || migrationThread.hasRunningMigrations()
+                || shouldWaitMigrationOrBackups(Level.OFF);
     }
 
     private boolean checkReplicaSyncState() {
@@ -851,13 +872,45 @@ public class PartitionServiceImpl implements PartitionService, ManagedService,
         return replicaVersions[partitionId].incrementAndGet(backupCount);
     }
 
-    // called in operation threads
+    /**
+     * Updates the versions of a backup replica on receiving a backup.
+     * Called in operation threads.
+     *
+     * @return false if the backup is out of order, it must not be applied; a sync of the replica is requested instead.
+     */
     @PrivateApi
-    public void updatePartitionReplicaVersions(int partitionId, long versions[], int replicaIndex) {
+    public boolean updatePartitionReplicaVersions(int partitionId, long versions[], int replicaIndex) {
         final PartitionReplicaVersions partitionVersion = replicaVersions[partitionId];
         if (!partitionVersion.update(versions, replicaIndex)) {
-            syncPartitionReplica(partitionId, replicaIndex, false);
+            syncPartitionReplica(partitionId, replicaIndex, false, false);
+            return false;
         }
+        return true;
+    }
+
+    /**
+     * Keeps a copy of a backup sent by the owner, so that a replica which misses it can catch up
+     * from the log instead of syncing the whole partition. Called in operation threads after
+     * {@link #incrementPartitionReplicaVersions(int, int)}.
+     */
+    @PrivateApi
+    public void logBackup(int partitionId, int replicaIndex, Operation backup) {
+        replicaVersions[partitionId].logBackup(replicaIndex, backup);
+    }
+
+    @PrivateApi
+    public boolean isBackupLogEnabled() {
+        return backupLogSize > 0;
+    }
+
+    // called in operation threads
+    List<Operation> getLoggedBackups(int partitionId, int replicaIndex, long version) {
+        return replicaVersions[partitionId].getBackupsAfter(replicaIndex, version);
+    }
+
+    // called in operation threads
+    void clearBackupLogs(int partitionId) {
+        replicaVersions[partitionId].clearBackupLogs();
     }
 
     // called in operation threads
@@ -889,6 +942,8 @@ public class PartitionServiceImpl implements PartitionService, ManagedService,
     private class PartitionReplicaVersions {
         final int partitionId;
         final long versions[] = new long[PartitionImpl.MAX_BACKUP_COUNT]; // read and updated only by operation/partition threads
+        // backups sent by this member as owner, per backup replica; created lazily
+        final BackupLog[] backupLogs = new BackupLog[PartitionImpl.MAX_BACKUP_COUNT];
 
         private PartitionReplicaVersions(int partitionId) {
             this.partitionId = partitionId;
@@ -918,6 +973,29 @@ public class PartitionServiceImpl implements PartitionService, ManagedService,
 
         void reset(long[] newVersions) {
             System.arraycopy(newVersions, 0, versions, 0, newVersions.length);
+            clearBackupLogs();
+        }
+
+        void logBackup(int replicaIndex, Operation backup) {
+            final int index = replicaIndex - 1;
+            BackupLog backupLog = backupLogs[index];
+            if (backupLog == null) {
+                backupLog = new BackupLog(backupLogSize);
+                backupLogs[index] = backupLog;
+            }
+            backupLog.add(versions[index], backup);
+        }
+
+        List<Operation> getBackupsAfter(int replicaIndex, long version) {
+            final int index = replicaIndex - 1;
+            final BackupLog backupLog = backupLogs[index];
+            return backupLog != null ? backupLog.getAfter(version, versions[index]) : null;
+        }
+
+        void clearBackupLogs() {
+            for (int i = 0; i < backupLogs.length; i++) {
+                backupLogs[i] = null;
+            }
         }
 
         @Override
@@ -931,6 +1009,45 @@ public class PartitionServiceImpl implements PartitionService, ManagedService,
         }
     }
 
+    /**
+     * Ring of the last backup operations sent to a replica, indexed by their replica version.
+     * Holds consecutive versions only; a gap drops the older entries.
+     */
+    private static class BackupLog {
+        final Operation[] backups;
+        long lastVersion;
+        int count;
+
+        BackupLog(int capacity) {
+            backups = new Operation[capacity];
+        }
+
+        void add(long version, Operation backup) {
+            if (count > 0 && version != lastVersion + 1) {
+                Arrays.fill(backups, null);
+                count = 0;
+            }
+            backups[(int) (version % backups.length)] = backup;
+            lastVersion = version;
+            count = Math.min(count + 1, backups.length);
+        }
+
+        /**
+         * Returns the backups of the versions after given one up to <tt>currentVersion</tt>,
+         * null if some of them are not in the log anymore.
+         */
+        List<Operation> getAfter(long version, long currentVersion) {
+            if (count == 0 || lastVersion != currentVersion || version > lastVersion || lastVersion - version > count) {
+                return null;
+            }
+            final List<Operation> result = new ArrayList<Operation>((int) (lastVersion - version));
+            for (long v = version + 1; v <= lastVersion; v++) {
+                result.add(backups[(int) (v % backups.length)]);
+            }
+            return result;
+        }
+    }
+
     public Map<Address, List<Integer>> getMemberPartitionsMap() {
         final int members = node.getClusterService().getSize();
         Map<Address, List<Integer>> memberPartitions = new HashMap<Address, List<Integer>>(members);
@@ -966,7 +1083,7 @@ public class PartitionServiceImpl implements PartitionService, ManagedService,
     }
 
     private boolean shouldCheckRepartitioning() {
-        return migrationQueue.isEmpty()
+        return migrationQueue.isEmpty() && !migrationThread.hasRunningMigrations()
                 && lastRepartitionTime.get() < (Clock.currentTimeMillis() - REPARTITIONING_CHECK_INTERVAL);
     }
 
@@ -1031,7 +1148,7 @@ public class PartitionServiceImpl implements PartitionService, ManagedService,
                     final PartitionStateGenerator psg = partitionStateGenerator;
                     final Set<Member> members = node.getClusterService().getMembers();
                     final PartitionImpl[] newState = psg.reArrange(memberGroupFactory.createMemberGroups(members), partitions);
-                    int migrationCount = 0;
+                    final List<Migrator> migrators = new ArrayList<Migrator>();
                     int lostCount = 0;
                     lastRepartitionTime.set(Clock.currentTimeMillis());
                     for (PartitionImpl newPartition : newState) {
@@ -1048,14 +1165,22 @@ public class PartitionServiceImpl implements PartitionService, ManagedService,
                             sendMigrationEvent(migrationInfo, MigrationStatus.COMPLETED);
 
                         } else if (newOwner != null && !currentOwner.equals(newOwner)) {
-                            migrationCount++;
                             MigrationInfo info = new MigrationInfo(partitionId, currentOwner, newOwner);
-                            final Migrator migrator = new Migrator(info, new BackupMigrationTask(newPartition));
-                            migrationQueue.offer(migrator);
+                            migrators.add(new Migrator(info, new BackupMigrationTask(newPartition),
+                                    getReplicaCount(currentPartition)));
                         } else {
                             currentPartition.setPartitionInfo(newPartition);
                         }
                     }
+                    // partitions with fewer replicas are the most at risk, they are migrated first
+                    Collections.sort(migrators, new Comparator<Migrator>() {
+                        public int compare(Migrator m1, Migrator m2) {
+                            return m1.replicaCount < m2.replicaCount ? -1 : (m1.replicaCount == m2.replicaCount ? 0 : 1);
+                        }
+                    });
+                    migrationQueue.addAll(migrators);
+                    final int migrationCount = migrators.size();
+                    migrationThread.migrationsScheduled(migrationCount);
                     sendPartitionRuntimeState(false);
 
                     if (lostCount > 0) {
@@ -1074,6 +1199,16 @@ public class PartitionServiceImpl implements PartitionService, ManagedService,
         }
     }
 
+    private int getReplicaCount(PartitionImpl partition) {
+        int count = 0;
+        for (int index = 0; index < PartitionView.MAX_REPLICA_COUNT; index++) {
+            if (partition.getReplicaAddress(index) != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
     private class BackupMigrationTask implements Runnable {
         final PartitionImpl newPartition;
 
@@ -1105,10 +1240,12 @@ public class PartitionServiceImpl implements PartitionService, ManagedService,
     private class Migrator implements Runnable {
         final MigrationInfo migrationInfo;
         final BackupMigrationTask backupTask;
+        final int replicaCount;
 
-        Migrator(MigrationInfo migrationInfo, BackupMigrationTask backupTask) {
+        Migrator(MigrationInfo migrationInfo, BackupMigrationTask backupTask, int replicaCount) {
             this.migrationInfo = migrationInfo;
             this.backupTask = backupTask;
+            this.replicaCount = replicaCount;
             final MemberImpl masterMember = getMasterMember();
             if (masterMember != null) {
                 migrationInfo.setMasterUuid(masterMember.getUuid());
@@ -1207,26 +1344,41 @@ public class PartitionServiceImpl implements PartitionService, ManagedService,
         }
     }
 
+    /**
+     * Runs the migration tasks of the master. Up to {@link com.hazelcast.instance.GroupProperties#PROP_PARTITION_MIGRATION_MAX_PARALLEL}
+     * migrations run at a time, at most {@link com.hazelcast.instance.GroupProperties#PROP_PARTITION_MIGRATION_MAX_PER_MEMBER}
+     * of them with the same member as source or destination; a migration whose members are busy is skipped
+     * in favour of the next one in the queue. Other tasks (re-partitioning) change the partition table,
+     * they wait for the running migrations and run alone.
+     */
     private class MigrationThread implements Runnable {
         private final Thread thread;
         private final long sleepTime = Math.max(250L, partitionMigrationInterval);
+        private final int maxParallelMigrations;
+        private final int maxMigrationsPerMember;
+        // guarded by itself
+        private final Map<Address, Integer> memberMigrations = new HashMap<Address, Integer>();
+        private final AtomicInteger runningMigrations = new AtomicInteger();
+        private final AtomicInteger finishedMigrations = new AtomicInteger();
+        private volatile int scheduledMigrations;
+        private volatile long scheduleTime;
         private boolean migrating = false;
 
         MigrationThread(Node node) {
             thread = new Thread(node.threadGroup, this, node.getThreadNamePrefix("migration"));
+            maxParallelMigrations = Math.max(1, node.groupProperties.PARTITION_MIGRATION_MAX_PARALLEL.getInteger());
+            maxMigrationsPerMember = Math.max(1, node.groupProperties.PARTITION_MIGRATION_MAX_PER_MEMBER.getInteger());
         }
 
         public void run() {
             try {
                 while (!thread.isInterrupted()) {
-                    Runnable r;
-                    while (migrationActive.get() && (r = migrationQueue.poll(1, TimeUnit.SECONDS)) != null) {
-                        safeRun(r);
+                    while (migrationActive.get() && scheduleNext()) {
                         if (partitionMigrationInterval > 0) {
                             Thread.sleep(partitionMigrationInterval);
                         }
                     }
-                    final boolean hasNoTasks = migrationQueue.isEmpty();
+                    final boolean hasNoTasks = migrationQueue.isEmpty() && runningMigrations.get() == 0;
                     if (hasNoTasks) {
                         if (migrating) {
                             migrating = false;
@@ -1234,8 +1386,11 @@ public class PartitionServiceImpl implements PartitionService, ManagedService,
                         }
                         evictCompletedMigrations();
                         Thread.sleep(sleepTime);
-                    } else if (!migrationActive.get()) {
-                        Thread.sleep(sleepTime);
+                    } else {
+                        // waiting for a running migration to free its slots, or for new tasks
+                        synchronized (this) {
+                            wait(sleepTime);
+                        }
                     }
                 }
             } catch (InterruptedException e) {
@@ -1245,10 +1400,140 @@ public class PartitionServiceImpl implements PartitionService, ManagedService,
             }
         }
 
+        private boolean scheduleNext() {
+            final Runnable head = migrationQueue.peek();
+            if (head == null || thread.isInterrupted()) {
+                return false;
+            }
+            if (!(head instanceof Migrator)) {
+                if (runningMigrations.get() > 0) {
+                    return false;
+                }
+                if (migrationQueue.remove(head)) {
+                    safeRun(head);
+                }
+                return true;
+            }
+            if (runningMigrations.get() >= maxParallelMigrations) {
+                return false;
+            }
+            for (Iterator<Runnable> iter = migrationQueue.iterator(); iter.hasNext(); ) {
+                final Runnable r = iter.next();
+                if (!(r instanceof Migrator)) {
+                    return false;
+                }
+                final Migrator migrator = (Migrator) r;
+                if (acquireSlots(migrator.migrationInfo)) {
+                    iter.remove();
+                    start(migrator);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void start(final Migrator migrator) {
+            migrating = true;
+            runningMigrations.incrementAndGet();
+            try {
+                nodeEngine.getExecutionService().execute(MIGRATION_EXECUTOR, new Runnable() {
+                    public void run() {
+                        try {
+                            migrator.run();
+                        } catch (Throwable t) {
+                            logger.warning(t);
+                        } finally {
+                            migrationDone(migrator.migrationInfo);
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                logger.warning("Could not start " + migrator, e);
+                migrationDone(migrator.migrationInfo);
+            }
+        }
+
+        private void migrationDone(MigrationInfo migrationInfo) {
+            releaseSlots(migrationInfo);
+            runningMigrations.decrementAndGet();
+            reportProgress();
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+
+        private boolean acquireSlots(MigrationInfo migrationInfo) {
+            final Address source = migrationInfo.getSource();
+            final Address destination = migrationInfo.getDestination();
+            synchronized (memberMigrations) {
+                if (getMigrationCount(source) >= maxMigrationsPerMember
+                        || getMigrationCount(destination) >= maxMigrationsPerMember) {
+                    return false;
+                }
+                memberMigrations.put(source, getMigrationCount(source) + 1);
+                memberMigrations.put(destination, getMigrationCount(destination) + 1);
+                return true;
+            }
+        }
+
+        private void releaseSlots(MigrationInfo migrationInfo) {
+            synchronized (memberMigrations) {
+                for (Address address : new Address[]{migrationInfo.getSource(), migrationInfo.getDestination()}) {
+                    final int count = getMigrationCount(address) - 1;
+                    if (count > 0) {
+                        memberMigrations.put(address, count);
+                    } else {
+                        memberMigrations.remove(address);
+                    }
+                }
+            }
+        }
+
+        private int getMigrationCount(Address address) {
+            final Integer count = memberMigrations.get(address);
+            return count != null ? count : 0;
+        }
+
+        void migrationsScheduled(int count) {
+            finishedMigrations.set(0);
+            scheduleTime = Clock.currentTimeMillis();
+            scheduledMigrations = count;
+        }
+
+        private void reportProgress() {
+            final int total = scheduledMigrations;
+            final int finished = finishedMigrations.incrementAndGet();
+            if (total == 0 || finished > total) {
+                return;
+            }
+            final int step = Math.max(1, total / 10);
+            if (finished % step == 0 || finished == total) {
+                logger.info("Migration progress: " + finished + " of " + total + " partitions migrated in "
+                        + (Clock.currentTimeMillis() - scheduleTime) + " ms, about "
+                        + TimeUnit.MILLISECONDS.toSeconds(getRemainingMillis()) + " seconds remaining.");
+            }
+        }
+
+        /**
+         * Estimates the remaining time of the scheduled migrations from the average time they took so far,
+         * -1 if unknown.
+         */
+        long getRemainingMillis() {
+            final int total = scheduledMigrations;
+            final int finished = Math.min(total, finishedMigrations.get());
+            if (finished == 0) {
+                return -1;
+            }
+            return (Clock.currentTimeMillis() - scheduleTime) * (total - finished) / finished;
+        }
+
+        boolean hasRunningMigrations() {
+            return runningMigrations.get() > 0;
+        }
+
         boolean safeRun(final Runnable r) {
             if (r == null || thread.isInterrupted()) return false;
             try {
-                migrating = (r instanceof Migrator);
                 r.run();
             } catch (Throwable t) {
                 logger.warning( t);
@@ -1271,11 +1556,13 @@ public class PartitionServiceImpl implements PartitionService, ManagedService,
         final int replicaIndex;
         final long requestTime = Clock.currentTimeMillis();
         final Address target;
+        final boolean fullSync;
 
-        private ReplicaSyncInfo(int partitionId, int replicaIndex, Address target) {
+        private ReplicaSyncInfo(int partitionId, int replicaIndex, Address target, boolean fullSync) {
             this.partitionId = partitionId;
             this.replicaIndex = replicaIndex;
             this.target = target;
+            this.fullSync = fullSync;
         }
 
         @Override
@@ -1325,6 +1612,9 @@ public class PartitionServiceImpl implements PartitionService, ManagedService,
             activeMigrations.clear();
             completedMigrations.clear();
             stateVersion.set(0);
+            for (PartitionReplicaVersions partitionVersions : replicaVersions) {
+                partitionVersions.clearBackupLogs();
+            }
         } finally {
             lock.unlock();
         }
@@ -1348,6 +1638,64 @@ public class PartitionServiceImpl implements PartitionService, ManagedService,
         return migrationQueue.size();
     }
 
+    /**
+     * Blocks until sending given number of migration bytes fits into the bandwidth budget of this member,
+     * which is shared by all migrations having this member as source.
+     */
+    void throttleMigration(int bytes) throws InterruptedException {
+        if (migrationBandwidth <= 0) {
+            return;
+        }
+        final long now = Clock.currentTimeMillis();
+        final long cost = bytes * 1000L / migrationBandwidth;
+        long sendTime;
+        while (true) {
+            final long budgetTime = migrationBudgetTime.get();
+            sendTime = Math.max(budgetTime, now);
+            if (migrationBudgetTime.compareAndSet(budgetTime, sendTime + cost)) {
+                break;
+            }
+        }
+        if (sendTime > now) {
+            Thread.sleep(sendTime - now);
+        }
+    }
+
+    /**
+     * Returns estimated time left to complete the scheduled migrations, -1 if unknown.
+     * Only the master schedules migrations.
+     */
+    public long getMigrationEtaMillis() {
+        return migrationThread.getRemainingMillis();
+    }
+
+    void recordMigration(long bytes, long millis) {
+        migratedBytes.addAndGet(bytes);
+        migrationMillis.addAndGet(millis);
+        if (logger.isFinestEnabled()) {
+            logger.finest("Migrated " + bytes + " bytes in " + millis + " ms.");
+        }
+    }
+
+    /**
+     * Returns total uncompressed size of the partitions migrated from this member.
+     */
+    public long getMigratedBytes() {
+        return migratedBytes.get();
+    }
+
+    /**
+     * Returns average time spent migrating a gigabyte of partition data from this member,
+     * -1 if nothing has been migrated yet.
+     */
+    public long getMigrationMillisPerGigabyte() {
+        final long bytes = migratedBytes.get();
+        if (bytes == 0) {
+            return -1;
+        }
+        return (long) (migrationMillis.get() * (1024d * 1024 * 1024 / bytes));
+    }
+
     public PartitionServiceProxy getPartitionServiceProxy() {
         return proxy;
     }
@@ -31,11 +31,19 @@ import java.util.logging.Level;
 /**
  * @author mdogan 4/11/13
  */
-public final class ReplicaSyncRequest extends Operation implements PartitionAwareOperation, MigrationCycleOperation {
+public final class ReplicaSyncRequest extends Operation implements PartitionAwareOperation, MigrationCycleOperation,
+        UrgentSystemOperation {
+
+    // version of the requesting replica, -1 if it needs the whole partition
+    private long replicaVersion = -1;
 
     public ReplicaSyncRequest() {
     }
 
+    public ReplicaSyncRequest(long replicaVersion) {
+        this.replicaVersion = replicaVersion;
+    }
+
     public void beforeRun() throws Exception {
     }
 
@@ -49,6 +57,9 @@ public final class ReplicaSyncRequest extends Operation implements PartitionAwar
         final int replicaIndex = getReplicaIndex();
 
         try {
+            if (replicaVersion >= 0 && sendMissedBackups(partitionService)) {
+                return;
+            }
             final Collection<ServiceInfo> services = nodeEngine.getServiceInfos(MigrationAwareService.class);
             final PartitionReplicationEvent event = new PartitionReplicationEvent(partitionId, replicaIndex);
             final List<Operation> tasks = new LinkedList<Operation>();
@@ -60,40 +71,73 @@ public final class ReplicaSyncRequest extends Operation implements PartitionAwar
                     tasks.add(op);
                 }
             }
-            byte[] data = null;
-            if (!tasks.isEmpty()) {
-                final SerializationService serializationService = nodeEngine.getSerializationService();
-                final BufferObjectDataOutput out = serializationService.createObjectDataOutput(1024 * 32);
-                try {
-                    out.writeInt(tasks.size());
-                    for (Operation task : tasks) {
-                        serializationService.writeObject(out, task);
-                    }
-                    data = IOUtil.compress(out.toByteArray());
-                } finally {
-                    IOUtil.closeResource(out);
-                }
-            } else {
+            final long[] replicaVersions = partitionService.getPartitionReplicaVersions(partitionId);
+            final Address target = getCallerAddress();
+            final OperationService operationService = nodeEngine.getOperationService();
+            if (tasks.isEmpty()) {
                 final Level level = Level.FINEST;
                 if (logger.isLoggable(level)) {
                     logger.log(level, "No replica data is found for partition: " + partitionId + ", replica: " + replicaIndex + "\n" + partitionService.getPartition(partitionId));
                 }
+                sendResponse(operationService, new ReplicaSyncResponse(null, replicaVersions, true), target);
+                return;
             }
-
-            final long[] replicaVersions = partitionService.getPartitionReplicaVersions(partitionId);
-            ReplicaSyncResponse syncResponse = new ReplicaSyncResponse(data, replicaVersions);
-            syncResponse.setPartitionId(partitionId).setReplicaIndex(replicaIndex);
-            final Address target = getCallerAddress();
-            if (logger.isFinestEnabled()) {
-                logger.finest( "Sending sync response to -> " + target + "; for partition: " + partitionId + ", replica: " + replicaIndex);
+            // replica data is sent in several responses, only the last one completes the sync
+            final SerializationService serializationService = nodeEngine.getSerializationService();
+            final int chunkSize = nodeEngine.getGroupProperties().PARTITION_MIGRATION_CHUNK_SIZE.getInteger() * 1024;
+            final ReplicationChunkWriter chunkWriter = new ReplicationChunkWriter(serializationService, tasks, chunkSize);
+            final BufferObjectDataOutput out = serializationService.createObjectDataOutput(1024 * 32);
+            try {
+                while (chunkWriter.hasNext()) {
+                    out.clear();
+                    chunkWriter.writeNext(out);
+                    final byte[] data = IOUtil.compress(out.toByteArray());
+                    sendResponse(operationService, new ReplicaSyncResponse(data, replicaVersions, !chunkWriter.hasNext()), target);
+                }
+            } finally {
+                IOUtil.closeResource(out);
             }
-            final OperationService operationService = nodeEngine.getOperationService();
-            operationService.send(syncResponse, target);
         } finally {
             partitionService.decrementReplicaSyncProcessCount();
         }
     }
 
+    /**
+     * Sends the backups the replica missed, if they are still in the backup log.
+     */
+    private boolean sendMissedBackups(PartitionServiceImpl partitionService) throws IOException {
+        final List<Operation> backups = partitionService.getLoggedBackups(getPartitionId(), getReplicaIndex(), replicaVersion);
+        if (backups == null) {
+            return false;
+        }
+        final NodeEngine nodeEngine = getNodeEngine();
+        final SerializationService serializationService = nodeEngine.getSerializationService();
+        final BufferObjectDataOutput out = serializationService.createObjectDataOutput(1024 * 32);
+        try {
+            out.writeInt(backups.size());
+            for (Operation backup : backups) {
+                serializationService.writeObject(out, backup);
+            }
+            final byte[] data = IOUtil.compress(out.toByteArray());
+            final long[] replicaVersions = partitionService.getPartitionReplicaVersions(getPartitionId());
+            final ReplicaSyncResponse syncResponse = new ReplicaSyncResponse(data, replicaVersions, true);
+            syncResponse.setDeltaFromVersion(replicaVersion);
+            sendResponse(nodeEngine.getOperationService(), syncResponse, getCallerAddress());
+        } finally {
+            IOUtil.closeResource(out);
+        }
+        return true;
+    }
+
+    private void sendResponse(OperationService operationService, ReplicaSyncResponse syncResponse, Address target) {
+        syncResponse.setPartitionId(getPartitionId()).setReplicaIndex(getReplicaIndex());
+        final ILogger logger = getLogger();
+        if (logger.isFinestEnabled()) {
+            logger.finest( "Sending sync response to -> " + target + "; for partition: " + getPartitionId() + ", replica: " + getReplicaIndex());
+        }
+        operationService.send(syncResponse, target);
+    }
+
     public void afterRun() throws Exception {
     }
 
@@ -114,9 +158,11 @@ public final class ReplicaSyncRequest extends Operation implements PartitionAwar
     }
 
     protected void writeInternal(ObjectDataOutput out) throws IOException {
+        out.writeLong(replicaVersion);
     }
 
     protected void readInternal(ObjectDataInput in) throws IOException {
+        replicaVersion = in.readLong();
     }
 
     @Override
@@ -125,6 +171,7 @@ public final class ReplicaSyncRequest extends Operation implements PartitionAwar
         sb.append("ReplicaSyncRequest");
         sb.append("{partition=").append(getPartitionId());
         sb.append(", replica=").append(getReplicaIndex());
+        sb.append(", replicaVersion=").append(replicaVersion);
         sb.append('}');
         return sb.toString();
     }
@@ -26,6 +26,7 @@ import com.hazelcast.spi.BackupOperation;
 import com.hazelcast.spi.Operation;
 import com.hazelcast.spi.PartitionAwareOperation;
 import com.hazelcast.spi.ResponseHandler;
+import com.hazelcast.spi.UrgentSystemOperation;
 import com.hazelcast.spi.impl.NodeEngineImpl;
 
 import java.io.IOException;
@@ -35,17 +36,26 @@ import java.util.logging.Level;
 /**
  * @author mdogan 4/11/13
  */
-public class ReplicaSyncResponse extends Operation implements PartitionAwareOperation, BackupOperation {
+public class ReplicaSyncResponse extends Operation implements PartitionAwareOperation, BackupOperation,
+        UrgentSystemOperation {
 
     private byte[] data;
     private long[] replicaVersions;
+    private boolean lastChunk = true;
+    // version the replica had when it asked for the backups it missed, -1 for whole partition data
+    private long deltaFromVersion = -1;
 
     public ReplicaSyncResponse() {
     }
 
-    public ReplicaSyncResponse(byte[] data, long[] replicaVersions) {
+    public ReplicaSyncResponse(byte[] data, long[] replicaVersions, boolean lastChunk) {
         this.data = data;
         this.replicaVersions = replicaVersions;
+        this.lastChunk = lastChunk;
+    }
+
+    void setDeltaFromVersion(long deltaFromVersion) {
+        this.deltaFromVersion = deltaFromVersion;
     }
 
     public void beforeRun() throws Exception {
@@ -57,6 +67,13 @@ public class ReplicaSyncResponse extends Operation implements PartitionAwareOper
         final SerializationService serializationService = nodeEngine.getSerializationService();
         final int partitionId = getPartitionId();
         final int replicaIndex = getReplicaIndex();
+        if (deltaFromVersion >= 0 && partitionService.getPartitionReplicaVersions(partitionId)[replicaIndex - 1] != deltaFromVersion) {
+            // replica has changed since it asked for the missed backups, they cannot be applied anymore.
+            nodeEngine.getLogger(getClass()).finest("Replica version has changed, requesting whole data of partition: "
+                    + partitionId + ", replica: " + replicaIndex);
+            partitionService.syncPartitionReplica(partitionId, replicaIndex, true);
+            return;
+        }
         BufferObjectDataInput in = null;
         try {
             if (data != null) {
@@ -84,7 +101,9 @@ public class ReplicaSyncResponse extends Operation implements PartitionAwareOper
             }
         } finally {
             IOUtil.closeResource(in);
-            partitionService.finalizeReplicaSync(partitionId, replicaVersions);
+            if (lastChunk) {
+                partitionService.finalizeReplicaSync(partitionId, replicaVersions);
+            }
         }
     }
 
@@ -129,11 +148,15 @@ public class ReplicaSyncResponse extends Operation implements PartitionAwareOper
     protected void writeInternal(ObjectDataOutput out) throws IOException {
         IOUtil.writeByteArray(out, data);
         out.writeLongArray(replicaVersions);
+        out.writeBoolean(lastChunk);
+        out.writeLong(deltaFromVersion);
     }
 
     protected void readInternal(ObjectDataInput in) throws IOException {
         data = IOUtil.readByteArray(in);
         replicaVersions = in.readLongArray();
+        lastChunk = in.readBoolean();
+        deltaFromVersion = in.readLong();
     }
 
     @Override
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.partition;
+
+import com.hazelcast.nio.BufferObjectDataOutput;
+import com.hazelcast.nio.serialization.SerializationService;
+import com.hazelcast.spi.ChunkedReplicationOperation;
+import com.hazelcast.spi.Operation;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * Writes the replication operations of a partition into chunks of about
+ * {@link com.hazelcast.instance.GroupProperties#PROP_PARTITION_MIGRATION_CHUNK_SIZE} kilobytes.
+ * A {@link ChunkedReplicationOperation} is split into several operations which may end up in
+ * different chunks, any other operation is written as a whole.
+ * <p/>
+ * A chunk is an int count followed by the serialized operations, the format
+ * {@link MigrationOperation} and {@link ReplicaSyncResponse} read.
+ */
+final class ReplicationChunkWriter {
+
+    private final SerializationService serializationService;
+    private final Iterator<Operation> tasks;
+    private final int maxChunkBytes;
+    private ChunkedReplicationOperation currentTask;
+    private String currentServiceName;
+    private long totalBytes;
+
+    ReplicationChunkWriter(SerializationService serializationService, Collection<Operation> tasks, int maxChunkBytes) {
+        this.serializationService = serializationService;
+        this.tasks = tasks.iterator();
+        this.maxChunkBytes = Math.max(1, maxChunkBytes);
+    }
+
+    /**
+     * Returns true until all operations have been written. The last chunk may turn out empty
+     * when a chunked operation has no data left.
+     */
+    boolean hasNext() {
+        return currentTask != null || tasks.hasNext();
+    }
+
+    /**
+     * Writes the next chunk to <tt>out</tt>.
+     *
+     * @return number of operations written.
+     */
+    int writeNext(BufferObjectDataOutput out) throws IOException {
+        final int start = out.position();
+        out.writeInt(0);
+        int count = 0;
+        Operation op;
+        while (out.position() - start < maxChunkBytes
+                && (op = nextOperation(maxChunkBytes - (out.position() - start))) != null) {
+            serializationService.writeObject(out, op);
+            count++;
+        }
+        out.writeInt(start, count);
+        totalBytes += out.position() - start;
+        return count;
+    }
+
+    /**
+     * Returns number of bytes written so far, before compression.
+     */
+    long getTotalBytes() {
+        return totalBytes;
+    }
+
+    private Operation nextOperation(int maxBytes) {
+        while (true) {
+            if (currentTask != null) {
+                final Operation chunk = currentTask.nextChunk(maxBytes);
+                if (chunk != null) {
+                    chunk.setServiceName(currentServiceName);
+                    return chunk;
+                }
+                currentTask = null;
+            }
+            if (!tasks.hasNext()) {
+                return null;
+            }
+            final Operation task = tasks.next();
+            if (!(task instanceof ChunkedReplicationOperation)) {
+                return task;
+            }
+            currentTask = (ChunkedReplicationOperation) task;
+            currentServiceName = task.getServiceName();
+        }
+    }
+}
@@ -23,16 +23,21 @@ import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.spi.Notifier;
 import com.hazelcast.spi.Operation;
 import com.hazelcast.spi.WaitNotifyKey;
+import com.hazelcast.spi.WaitSupport;
 import com.hazelcast.spi.impl.SerializableCollection;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Map;
 
 /**
+ * Removes up to <tt>maxSize</tt> items, all of them if negative. With a timeout it waits
+ * for the first item while the queue is empty.
+ *
  * @author ali 12/19/12
  */
-public class DrainOperation extends QueueBackupAwareOperation implements Notifier {
+public class DrainOperation extends QueueBackupAwareOperation implements WaitSupport, Notifier {
 
     int maxSize;
 
@@ -46,6 +51,11 @@ public class DrainOperation extends QueueBackupAwareOperation implements Notifie
         this.maxSize = maxSize;
     }
 
+    public DrainOperation(String name, int maxSize, long timeoutMillis) {
+        super(name, timeoutMillis);
+        this.maxSize = maxSize;
+    }
+
     public void run() throws Exception {
         QueueContainer container = getOrCreateContainer();
         dataMap = container.drain(maxSize);
@@ -86,6 +96,18 @@ public class DrainOperation extends QueueBackupAwareOperation implements Notifie
         return getOrCreateContainer().getOfferWaitNotifyKey();
     }
 
+    public WaitNotifyKey getWaitKey() {
+        return getOrCreateContainer().getPollWaitNotifyKey();
+    }
+
+    public boolean shouldWait() {
+        return getWaitTimeoutMillis() != 0 && maxSize != 0 && getOrCreateContainer().size() == 0;
+    }
+
+    public void onWaitExpire() {
+        getResponseHandler().sendResponse(new SerializableCollection(Collections.<Data>emptyList()));
+    }
+
     public int getId() {
         return QueueDataSerializerHook.DRAIN;
     }
@@ -0,0 +1,416 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.queue;
+
+import com.hazelcast.core.HazelcastException;
+import com.hazelcast.core.QueueStore;
+import com.hazelcast.nio.IOUtil;
+import com.hazelcast.util.Clock;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.*;
+
+/**
+ * Local, append-only queue store. Items are written as records to segment files in
+ * <tt>dir/member/queueName</tt>; a store or delete of several items is one write and one sync
+ * (group commit). Sealed segments are memory-mapped for reads and a segment is removed
+ * once it is the oldest one and all of its items are deleted, which is the usual case
+ * for a FIFO queue.
+ * <p/>
+ * On creation the existing segments are replayed, so the items of the queue survive a
+ * restart of the member. A record torn by a crash is cut off at the end of the last segment.
+ * <p/>
+ * Each member keeps the items of the queues it owns in a directory of its own. Backups hold
+ * their items in memory, and a member which takes over a queue writes its items to its own store.
+ * <p/>
+ * Values are the binary form of the items, see {@link FileQueueStoreFactory} for configuration.
+ */
+public class FileQueueStore implements QueueStore<byte[]> {
+
+    static final String SEGMENT_SUFFIX = ".seg";
+
+    private static final byte RECORD_STORE = 1;
+
+    private static final byte RECORD_DELETE = 2;
+
+    // type, key, value length
+    private static final int HEADER_SIZE = 1 + 8 + 4;
+
+    private static final int SEGMENT_BITS = 24;
+
+    private static final int OFFSET_BITS = 64 - SEGMENT_BITS;
+
+    private final File dir;
+
+    private final long segmentSize;
+
+    private final long syncIntervalMillis;
+
+    // key -> segment id and offset of its store record, packed into a long
+    private final Map<Long, Long> index = new HashMap<Long, Long>();
+
+    private final TreeMap<Integer, Segment> segments = new TreeMap<Integer, Segment>();
+
+    private Segment active;
+
+    private long lastSync;
+
+    public FileQueueStore(File dir, long segmentSize, long syncIntervalMillis) {
+        this.dir = dir;
+        this.segmentSize = Math.min(segmentSize, Integer.MAX_VALUE);
+        this.syncIntervalMillis = syncIntervalMillis;
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new HazelcastException("Could not create queue store directory " + dir);
+        }
+        try {
+            recover();
+        } catch (IOException e) {
+            throw new HazelcastException(e);
+        }
+    }
+
+    public synchronized void store(Long key, byte[] value) {
+        storeAll(Collections.singletonMap(key, value));
+    }
+
+    public synchronized void storeAll(Map<Long, byte[]> map) {
+        if (map.isEmpty()) {
+            return;
+        }
+        int size = 0;
+        for (byte[] value : map.values()) {
+            size += HEADER_SIZE + value.length;
+        }
+        try {
+            rollIfNeeded(size);
+            final ByteBuffer buffer = ByteBuffer.allocate(size);
+            long offset = active.size;
+            for (Map.Entry<Long, byte[]> entry : map.entrySet()) {
+                final byte[] value = entry.getValue();
+                buffer.put(RECORD_STORE).putLong(entry.getKey()).putInt(value.length).put(value);
+                put(entry.getKey(), active, offset);
+                offset += HEADER_SIZE + value.length;
+            }
+            append(buffer);
+        } catch (IOException e) {
+            throw new HazelcastException(e);
+        }
+    }
+
+    public synchronized void delete(Long key) {
+        deleteAll(Collections.singleton(key));
+    }
+
+    public synchronized void deleteAll(Collection<Long> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        try {
+            rollIfNeeded(keys.size() * HEADER_SIZE);
+            final ByteBuffer buffer = ByteBuffer.allocate(keys.size() * HEADER_SIZE);
+            for (Long key : keys) {
+                buffer.put(RECORD_DELETE).putLong(key).putInt(0);
+            }
+            append(buffer);
+            for (Long key : keys) {
+                remove(key);
+            }
+            compact();
+        } catch (IOException e) {
+            throw new HazelcastException(e);
+        }
+    }
+
+    public synchronized byte[] load(Long key) {
+        final Long position = index.get(key);
+        if (position == null) {
+            return null;
+        }
+        try {
+            return read(position);
+        } catch (IOException e) {
+            throw new HazelcastException(e);
+        }
+    }
+
+    public synchronized Map<Long, byte[]> loadAll(Collection<Long> keys) {
+        // read in file order, bulk loads of a queue are mostly sequential within a segment
+        final TreeMap<Long, Long> positions = new TreeMap<Long, Long>();
+        for (Long key : keys) {
+            final Long position = index.get(key);
+            if (position != null) {
+                positions.put(position, key);
+            }
+        }
+        final Map<Long, byte[]> map = new HashMap<Long, byte[]>(positions.size());
+        try {
+            for (Map.Entry<Long, Long> entry : positions.entrySet()) {
+                map.put(entry.getValue(), read(entry.getKey()));
+            }
+        } catch (IOException e) {
+            throw new HazelcastException(e);
+        }
+        return map;
+    }
+
+    public synchronized Set<Long> loadAllKeys() {
+        return new TreeSet<Long>(index.keySet());
+    }
+
+    /**
+     * Syncs pending writes and closes all segment files.
+     */
+    public synchronized void close() {
+        try {
+            sync();
+        } catch (IOException e) {
+            throw new HazelcastException(e);
+        } finally {
+            for (Segment segment : segments.values()) {
+                segment.close();
+            }
+        }
+    }
+
+    /**
+     * Closes the store and deletes its segment files and directory.
+     */
+    public synchronized void destroy() {
+        for (Segment segment : segments.values()) {
+            segment.release();
+            if (!segment.file.delete()) {
+                segment.file.deleteOnExit();
+            }
+        }
+        segments.clear();
+        index.clear();
+        active = null;
+        if (!dir.delete()) {
+            dir.deleteOnExit();
+        }
+    }
+
+    private void recover() throws IOException {
+        final File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                final String fileName = file.getName();
+                if (fileName.endsWith(SEGMENT_SUFFIX)) {
+                    final int id = Integer.parseInt(fileName.substring(0, fileName.length() - SEGMENT_SUFFIX.length()));
+                    segments.put(id, new Segment(id, file));
+                }
+            }
+        }
+        for (Segment segment : segments.values()) {
+            replay(segment);
+        }
+        if (segments.isEmpty()) {
+            active = openSegment(0);
+        } else {
+            active = segments.lastEntry().getValue();
+            for (Segment segment : segments.headMap(active.id).values()) {
+                segment.open();
+                segment.seal();
+            }
+            active.open();
+        }
+        compact();
+        lastSync = Clock.currentTimeMillis();
+    }
+
+    private void replay(Segment segment) throws IOException {
+        final RandomAccessFile raf = new RandomAccessFile(segment.file, "rw");
+        try {
+            final FileChannel channel = raf.getChannel();
+            final long length = channel.size();
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            long offset = 0;
+            while (offset + HEADER_SIZE <= length) {
+                header.clear();
+                readFully(channel, header, offset);
+                header.flip();
+                final byte type = header.get();
+                final long key = header.getLong();
+                final int valueLength = header.getInt();
+                if ((type != RECORD_STORE && type != RECORD_DELETE) || valueLength < 0
+                        || offset + HEADER_SIZE + valueLength > length) {
+                    break;
+                }
+                if (type == RECORD_STORE) {
+                    put(key, segment, offset);
+                } else {
+                    remove(key);
+                }
+                offset += HEADER_SIZE + valueLength;
+            }
+            if (offset < length) {
+                // torn write at the end of the log
+                channel.truncate(offset);
+            }
+            segment.size = offset;
+        } finally {
+            IOUtil.closeResource(raf);
+        }
+    }
+
+    private void put(long key, Segment segment, long offset) {
+        final Long old = index.put(key, ((long) segment.id << OFFSET_BITS) | offset);
+        if (old != null) {
+            segments.get(segmentId(old)).live--;
+        }
+        segment.live++;
+    }
+
+    private void remove(long key) {
+        final Long position = index.remove(key);
+        if (position != null) {
+            segments.get(segmentId(position)).live--;
+        }
+    }
+
+    // delete records of later segments refer to earlier ones, so only the oldest segments are dropped
+    private void compact() {
+        while (segments.size() > 1) {
+            final Segment oldest = segments.firstEntry().getValue();
+            if (oldest.live > 0) {
+                return;
+            }
+            segments.remove(oldest.id);
+            oldest.release();
+            if (!oldest.file.delete()) {
+                // a mapped file can not be deleted on some platforms, its items are deleted anyway
+                oldest.file.deleteOnExit();
+            }
+        }
+    }
+
+    private void rollIfNeeded(int size) throws IOException {
+        if (active.size > 0 && active.size + size > segmentSize) {
+            sync();
+            active.seal();
+            active = openSegment(active.id + 1);
+        }
+    }
+
+    private Segment openSegment(int id) throws IOException {
+        final Segment segment = new Segment(id, new File(dir, id + SEGMENT_SUFFIX));
+        segment.open();
+        segments.put(id, segment);
+        return segment;
+    }
+
+    private void append(ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        final int length = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            active.channel.write(buffer, active.size + length - buffer.remaining());
+        }
+        active.size += length;
+        active.dirty = true;
+        if (syncIntervalMillis >= 0 && Clock.currentTimeMillis() - lastSync >= syncIntervalMillis) {
+            sync();
+        }
+    }
+
+    private void sync() throws IOException {
+        if (active != null && active.dirty) {
+            active.channel.force(false);
+            active.dirty = false;
+        }
+        lastSync = Clock.currentTimeMillis();
+    }
+
+    private byte[] read(long position) throws IOException {
+        final Segment segment = segments.get(segmentId(position));
+        final long offset = position & ((1L << OFFSET_BITS) - 1);
+        if (segment.mapped != null) {
+            final ByteBuffer buffer = segment.mapped.duplicate();
+            buffer.position((int) offset + HEADER_SIZE - 4);
+            final byte[] value = new byte[buffer.getInt()];
+            buffer.get(value);
+            return value;
+        }
+        final ByteBuffer length = ByteBuffer.allocate(4);
+        readFully(segment.channel, length, offset + HEADER_SIZE - 4);
+        length.flip();
+        final ByteBuffer value = ByteBuffer.allocate(length.getInt());
+        readFully(segment.channel, value, offset + HEADER_SIZE);
+        return value.array();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of queue store segment");
+            }
+        }
+    }
+
+    private static int segmentId(long position) {
+        return (int) (position >>> OFFSET_BITS);
+    }
+
+    private static class Segment {
+
+        final int id;
+
+        final File file;
+
+        long size;
+
+        int live;
+
+        boolean dirty;
+
+        RandomAccessFile raf;
+
+        FileChannel channel;
+
+        MappedByteBuffer mapped;
+
+        Segment(int id, File file) {
+            this.id = id;
+            this.file = file;
+        }
+
+        void open() throws IOException {
+            raf = new RandomAccessFile(file, "rw");
+            channel = raf.getChannel();
+        }
+
+        void seal() throws IOException {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            close();
+        }
+
+        void close() {
+            IOUtil.closeResource(raf);
+            raf = null;
+            channel = null;
+        }
+
+        void release() {
+            close();
+            mapped = null;
+        }
+    }
+}
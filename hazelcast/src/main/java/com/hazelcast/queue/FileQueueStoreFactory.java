@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.queue;
+
+import com.hazelcast.core.QueueStore;
+import com.hazelcast.core.QueueStoreFactory;
+import com.hazelcast.nio.Address;
+
+import java.io.File;
+import java.util.Properties;
+
+/**
+ * Creates a {@link FileQueueStore} per queue. Set it as the factory class name of a
+ * queue store config; the store is always binary. Properties:
+ * <ul>
+ * <li><tt>dir</tt>: parent directory of the member directories, <tt>hazelcast-queue-store</tt> by default</li>
+ * <li><tt>member-dir</tt>: name of the directory of this member, <tt>&lt;host&gt;-&lt;port&gt;</tt> of its
+ * address by default. Members sharing the parent directory must use different names.</li>
+ * <li><tt>segment-size</tt>: bytes after which a new segment file is started, 64MB by default</li>
+ * <li><tt>sync-interval-millis</tt>: <tt>0</tt> syncs every write (default), a positive value
+ * syncs a write only if the last sync is older, a negative value leaves syncing to the OS</li>
+ * </ul>
+ * A member reads the items stored by an earlier run only if it restarts with the same member directory.
+ * Without <tt>member-dir</tt> that means on the same address; a member restarting on another host or
+ * port starts with an empty store, so set <tt>member-dir</tt> if the address of a member may change.
+ */
+public class FileQueueStoreFactory implements QueueStoreFactory<byte[]> {
+
+    private static final String DEFAULT_DIR = "hazelcast-queue-store";
+
+    private static final long DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    public QueueStore<byte[]> newQueueStore(String name, Properties properties) {
+        return newQueueStore(name, properties, null);
+    }
+
+    /**
+     * Creates the store of the queue in the directory of the given member, so members sharing
+     * the parent directory never open the same files.
+     */
+    public FileQueueStore newQueueStore(String name, Properties properties, Address member) {
+        File dir = new File(properties.getProperty("dir", DEFAULT_DIR));
+        String memberDir = properties.getProperty("member-dir");
+        if ((memberDir == null || memberDir.trim().isEmpty()) && member != null) {
+            memberDir = member.getHost() + '-' + member.getPort();
+        }
+        if (memberDir != null && !memberDir.trim().isEmpty()) {
+            dir = new File(dir, toFileName(memberDir.trim()));
+        }
+        final long segmentSize = parseLong(properties, "segment-size", DEFAULT_SEGMENT_SIZE);
+        final long syncIntervalMillis = parseLong(properties, "sync-interval-millis", 0);
+        return new FileQueueStore(new File(dir, toFileName(name)), segmentSize, syncIntervalMillis);
+    }
+
+    private static String toFileName(String name) {
+        final StringBuilder sb = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            final char c = name.charAt(i);
+            sb.append(Character.isLetterOrDigit(c) || c == '-' || c == '.' ? c : '_');
+        }
+        return sb.toString();
+    }
+
+    private static long parseLong(Properties properties, String name, long defaultValue) {
+        final String val = properties.getProperty(name);
+        if (val == null || val.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(val.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
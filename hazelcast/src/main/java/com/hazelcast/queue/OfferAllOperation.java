@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.queue;
+
+import com.hazelcast.core.ItemEventType;
+import com.hazelcast.nio.IOUtil;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.Notifier;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.WaitNotifyKey;
+import com.hazelcast.spi.WaitSupport;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Adds as many of the items as the capacity of the queue allows, waiting for the
+ * capacity while the queue is full. Responds with the number of items added.
+ */
+public class OfferAllOperation extends QueueBackupAwareOperation implements WaitSupport, Notifier {
+
+    private List<Data> dataList;
+    private transient Map<Long, Data> dataMap;
+
+    public OfferAllOperation() {
+    }
+
+    public OfferAllOperation(String name, long timeoutMillis, List<Data> dataList) {
+        super(name, timeoutMillis);
+        this.dataList = dataList;
+    }
+
+    public void run() {
+        QueueContainer container = getOrCreateContainer();
+        int count = Math.min(dataList.size(), container.getConfig().getMaxSize() - container.size());
+        if (count > 0) {
+            dataMap = container.addAll(dataList.subList(0, count));
+            response = count;
+        } else {
+            response = 0;
+        }
+    }
+
+    public void afterRun() throws Exception {
+        getQueueService().getLocalQueueStatsImpl(name).incrementOtherOperations();
+        if (dataMap != null) {
+            for (Data data : dataMap.values()) {
+                publishEvent(ItemEventType.ADDED, data);
+            }
+        }
+    }
+
+    public boolean shouldBackup() {
+        return dataMap != null;
+    }
+
+    public Operation getBackupOperation() {
+        return new AddAllBackupOperation(name, dataMap);
+    }
+
+    public boolean shouldNotify() {
+        return dataMap != null;
+    }
+
+    public WaitNotifyKey getNotifiedKey() {
+        return getOrCreateContainer().getPollWaitNotifyKey();
+    }
+
+    public WaitNotifyKey getWaitKey() {
+        return getOrCreateContainer().getOfferWaitNotifyKey();
+    }
+
+    public boolean shouldWait() {
+        return getWaitTimeoutMillis() != 0 && !dataList.isEmpty() && !getOrCreateContainer().hasEnoughCapacity();
+    }
+
+    public void onWaitExpire() {
+        getResponseHandler().sendResponse(0);
+    }
+
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        super.writeInternal(out);
+        out.writeInt(dataList.size());
+        for (Data data : dataList) {
+            data.writeData(out);
+        }
+    }
+
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        super.readInternal(in);
+        int size = in.readInt();
+        dataList = new ArrayList<Data>(size);
+        for (int i = 0; i < size; i++) {
+            dataList.add(IOUtil.readData(in));
+        }
+    }
+
+    public int getId() {
+        return QueueDataSerializerHook.OFFER_ALL;
+    }
+}
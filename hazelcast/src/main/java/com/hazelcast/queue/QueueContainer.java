@@ -36,11 +36,13 @@ import java.util.*;
  * User: ali
  * Date: 11/22/12
  * Time: 11:00 AM
+ *
+ * Items are kept in a {@link QueueItemBuffer}, which serves as the queue of the primary and as the
+ * backup of the other replicas; QueueItem instances are created on access only.
  */
 public class QueueContainer implements IdentifiedDataSerializable {
 
-    private LinkedList<QueueItem> itemQueue = null;
-    private HashMap<Long, QueueItem> backupMap = null;
+    private final QueueItemBuffer items = new QueueItemBuffer();
     private final Map<Long, TxQueueItem> txMap = new HashMap<Long, TxQueueItem>();
     private final HashMap<Long, Data> dataMap = new HashMap<Long, Data>();
 
@@ -81,13 +83,16 @@ public class QueueContainer implements IdentifiedDataSerializable {
     }
 
     public void init(boolean fromBackup){
-        if (!fromBackup && store.isEnabled()) {
+        if (fromBackup) {
+            // items left in a local store by an earlier run of this member are not ours anymore
+            clearLocalStore();
+        } else if (store.isEnabled()) {
             Set<Long> keys = store.loadAllKeys();
             if (keys != null) {
                 long maxId = -1;
+                final long now = Clock.currentTimeMillis();
                 for (Long key : keys) {
-                    QueueItem item = new QueueItem(this, key, null);
-                    getItemQueue().offer(item);
+                    items.addLast(key, null, now);
                     maxId = Math.max(maxId, key);
                 }
                 idGenerator = maxId + 1;
@@ -106,31 +111,27 @@ public class QueueContainer implements IdentifiedDataSerializable {
 
     //TX Poll
     public QueueItem txnPollReserve(long reservedOfferId, String transactionId) {
-        QueueItem item = getItemQueue().poll();
-        if (item == null) {
+        if (items.isEmpty()) {
             TxQueueItem txItem = txMap.remove(reservedOfferId);
             if (txItem == null){
                 return null;
             }
-            item = new QueueItem(this, txItem.getItemId(), txItem.getData());
-            return item;
-        }
-        if (store.isEnabled() && item.getData() == null) {
-            try {
-                load(item);
-            } catch (Exception e) {
-                throw new HazelcastException(e);
-            }
+            return new QueueItem(this, txItem.getItemId(), txItem.getData());
         }
+        loadIfNeeded(0);
+        QueueItem item = getItem(0);
+        items.removeFirst();
         txMap.put(item.getItemId(), new TxQueueItem(item).setPollOperation(true).setTransactionId(transactionId));
         return item;
     }
 
     public boolean txnPollBackupReserve(long itemId, String transactionId) {
-        QueueItem item = getBackupMap().remove(itemId);
-        if (item == null) {
+        final int index = items.indexOf(itemId);
+        if (index < 0) {
             throw new TransactionException("Backup reserve failed: " + itemId);
         }
+        QueueItem item = getItem(index);
+        items.remove(index);
         txMap.put(itemId, new TxQueueItem(item).setPollOperation(true).setTransactionId(transactionId));
         return true;
     }
@@ -164,7 +165,7 @@ public class QueueContainer implements IdentifiedDataSerializable {
             return false;
         }
         if (!backup) {
-            getItemQueue().offerFirst(item);
+            items.addFirst(item.getItemId(), item.getData(), item.getCreationTime());
         }
         cancelEvictionIfExists();
         return true;
@@ -193,13 +194,10 @@ public class QueueContainer implements IdentifiedDataSerializable {
             item = new QueueItem(this, itemId, data);
         }
         item.setData(data);
+        items.addLast(itemId, data, item.getCreationTime());
         if (!backup) {
-            getItemQueue().offer(item);
             cancelEvictionIfExists();
         }
-        else{
-            getBackupMap().put(itemId, item);
-        }
         if (store.isEnabled()) {
             try {
                 store.store(item.getItemId(), data);
@@ -226,8 +224,7 @@ public class QueueContainer implements IdentifiedDataSerializable {
     }
 
     public QueueItem txnPeek(long offerId, String transactionId) {
-        QueueItem item = getItemQueue().peek();
-        if (item == null) {
+        if (items.isEmpty()) {
             if ( offerId == -1 ){
                 return null;
             }
@@ -235,57 +232,37 @@ public class QueueContainer implements IdentifiedDataSerializable {
             if (txItem == null){
                 return null;
             }
-            item = new QueueItem(this, txItem.getItemId(), txItem.getData());
-            return item;
-        }
-        if (store.isEnabled() && item.getData() == null) {
-            try {
-                load(item);
-            } catch (Exception e) {
-                throw new HazelcastException(e);
-            }
+            return new QueueItem(this, txItem.getItemId(), txItem.getData());
         }
-        return item;
+        loadIfNeeded(0);
+        return getItem(0);
     }
 
     //TX Methods Ends
 
 
     public long offer(Data data) {
-        QueueItem item = new QueueItem(this, nextId(), null);
+        final long itemId = nextId();
         if (store.isEnabled()) {
             try {
-                store.store(item.getItemId(), data);
+                store.store(itemId, data);
             } catch (Exception e) {
                 throw new HazelcastException(e);
             }
         }
-        if (!store.isEnabled() || store.getMemoryLimit() > getItemQueue().size()) {
-            item.setData(data);
-        }
-        getItemQueue().offer(item);
+        items.addLast(itemId, keepInMemory(false) ? data : null, Clock.currentTimeMillis());
         cancelEvictionIfExists();
-        return item.getItemId();
+        return itemId;
     }
 
     public void offerBackup(Data data, long itemId) {
-        QueueItem item = new QueueItem(this, itemId, null);
-        if (!store.isEnabled() || store.getMemoryLimit() > getItemQueue().size()) {
-            item.setData(data);
-        }
-        getBackupMap().put(itemId, item);
+        items.addLast(itemId, keepInMemory(true) ? data : null, Clock.currentTimeMillis());
     }
 
     public Map<Long, Data> addAll(Collection<Data> dataList) {
-        Map<Long, Data> map = new HashMap<Long, Data>(dataList.size());
-        List<QueueItem> list = new ArrayList<QueueItem>(dataList.size());
+        Map<Long, Data> map = new LinkedHashMap<Long, Data>(dataList.size());
         for (Data data : dataList) {
-            QueueItem item = new QueueItem(this, nextId(), null);
-            if (!store.isEnabled() || store.getMemoryLimit() > getItemQueue().size()) {
-                item.setData(data);
-            }
-            map.put(item.getItemId(), data);
-            list.add(item);
+            map.put(nextId(), data);
         }
         if (store.isEnabled() && !map.isEmpty()) {
             try {
@@ -294,36 +271,73 @@ public class QueueContainer implements IdentifiedDataSerializable {
                 throw new HazelcastException(e);
             }
         }
-        if (!list.isEmpty()){
-            getItemQueue().addAll(list);
+        if (!map.isEmpty()){
+            addAll(map, false);
             cancelEvictionIfExists();
         }
         return map;
     }
 
     public void addAllBackup(Map<Long, Data> dataMap) {
+        addAll(dataMap, true);
+    }
+
+    private void addAll(Map<Long, Data> dataMap, boolean backup) {
+        final long now = Clock.currentTimeMillis();
         for (Map.Entry<Long, Data> entry : dataMap.entrySet()) {
-            QueueItem item = new QueueItem(this, entry.getKey(), null);
-            if (!store.isEnabled() || store.getMemoryLimit() > getItemQueue().size()) {
-                item.setData(entry.getValue());
+            items.addLast(entry.getKey(), keepInMemory(backup) ? entry.getValue() : null, now);
+        }
+    }
+
+    // values beyond the memory limit of the store are loaded from the store on demand,
+    // backups of a local store can not load them so they keep all values
+    private boolean keepInMemory(boolean backup) {
+        return !store.isEnabled() || (backup && store.isLocal()) || store.getMemoryLimit() > items.size();
+    }
+
+    /**
+     * Writes the items to the local store when this member has become the owner of the queue,
+     * after a migration or the promotion of a backup. All values are in memory then; the ones
+     * beyond the memory limit are dropped once they are stored.
+     */
+    public void storeLocally() {
+        if (!store.isLocal()) {
+            return;
+        }
+        clearLocalStore();
+        final Map<Long, Data> map = new LinkedHashMap<Long, Data>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            final Data data = getData(i);
+            if (data != null) {
+                map.put(items.getItemId(i), data);
+            }
+        }
+        try {
+            store.storeAll(map);
+        } catch (Exception e) {
+            throw new HazelcastException(e);
+        }
+        for (int i = store.getMemoryLimit(); i < items.size(); i++) {
+            items.setData(i, null);
+        }
+    }
+
+    // a local store holds the items of an owned queue only
+    private void clearLocalStore() {
+        if (store.isLocal()) {
+            final Set<Long> keys = store.loadAllKeys();
+            if (keys != null && !keys.isEmpty()) {
+                store.deleteAll(keys);
             }
-            getBackupMap().put(item.getItemId(), item);
         }
     }
 
     public QueueItem peek() {
-        QueueItem item = getItemQueue().peek();
-        if (item == null) {
+        if (items.isEmpty()) {
             return null;
         }
-        if (store.isEnabled() && item.getData() == null) {
-            try {
-                load(item);
-            } catch (Exception e) {
-                throw new HazelcastException(e);
-            }
-        }
-        return item;
+        loadIfNeeded(0);
+        return getItem(0);
     }
 
     public QueueItem poll() {
@@ -338,35 +352,28 @@ public class QueueContainer implements IdentifiedDataSerializable {
                 throw new HazelcastException(e);
             }
         }
-        getItemQueue().poll();
-        age(item, Clock.currentTimeMillis());
+        items.removeFirst();
+        age(item.getCreationTime(), Clock.currentTimeMillis());
         scheduleEvictionIfEmpty();
         return item;
     }
 
     public void pollBackup(long itemId) {
-        QueueItem item = getBackupMap().remove(itemId);
-        if (item != null) {
-            age(item, Clock.currentTimeMillis());//For Stats
+        final int index = items.indexOf(itemId);
+        if (index >= 0) {
+            age(items.getCreationTime(index), Clock.currentTimeMillis());//For Stats
+            items.remove(index);
         }
     }
 
     public Map<Long, Data> drain(int maxSize) {
-        if (maxSize < 0 || maxSize > getItemQueue().size()) {
-            maxSize = getItemQueue().size();
+        if (maxSize < 0 || maxSize > items.size()) {
+            maxSize = items.size();
         }
         LinkedHashMap<Long, Data> map = new LinkedHashMap<Long, Data>(maxSize);
-        Iterator<QueueItem> iter = getItemQueue().iterator();
         for (int i = 0; i < maxSize; i++) {
-            QueueItem item = iter.next();
-            if (store.isEnabled() && item.getData() == null) {
-                try {
-                    load(item);
-                } catch (Exception e) {
-                    throw new HazelcastException(e);
-                }
-            }
-            map.put(item.getItemId(), item.getData());
+            loadIfNeeded(i);
+            map.put(items.getItemId(i), getData(i));
         }
         if (store.isEnabled() && maxSize != 0) {
             try {
@@ -377,8 +384,8 @@ public class QueueContainer implements IdentifiedDataSerializable {
         }
         long current = Clock.currentTimeMillis();
         for (int i = 0; i < maxSize; i++) {
-            QueueItem item = getItemQueue().poll();
-            age(item, current); //For Stats
+            age(items.getCreationTime(0), current); //For Stats
+            items.removeFirst();
         }
         if (maxSize != 0){
             scheduleEvictionIfEmpty();
@@ -387,26 +394,34 @@ public class QueueContainer implements IdentifiedDataSerializable {
     }
 
     public void drainFromBackup(Set<Long> itemIdSet) {
-        for (Long itemId : itemIdSet) {
-            pollBackup(itemId);
+        // drained items are usually at the head of the backup
+        final long current = Clock.currentTimeMillis();
+        int remaining = itemIdSet.size();
+        while (remaining > 0 && !items.isEmpty() && itemIdSet.contains(items.getItemId(0))) {
+            age(items.getCreationTime(0), current);//For Stats
+            items.removeFirst();
+            remaining--;
+        }
+        if (remaining > 0) {
+            items.removeAll(itemIdSet);
         }
         dataMap.clear();
     }
 
     public int size() {
-        return Math.min(config.getMaxSize(),getItemQueue().size());
+        return Math.min(config.getMaxSize(), items.size());
     }
 
     public int backupSize(){
-        return getBackupMap().size();
+        return items.size();
     }
 
     public Map<Long, Data> clear() {
         long current = Clock.currentTimeMillis();
-        LinkedHashMap<Long, Data> map = new LinkedHashMap<Long, Data>(getItemQueue().size());
-        for (QueueItem item : getItemQueue()) {
-            map.put(item.getItemId(), item.getData());
-            age(item, current); // For stats
+        LinkedHashMap<Long, Data> map = new LinkedHashMap<Long, Data>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            map.put(items.getItemId(i), getData(i));
+            age(items.getCreationTime(i), current); // For stats
         }
         if (store.isEnabled() && !map.isEmpty()) {
             try {
@@ -415,7 +430,7 @@ public class QueueContainer implements IdentifiedDataSerializable {
                 throw new HazelcastException(e);
             }
         }
-        getItemQueue().clear();
+        items.clear();
         dataMap.clear();
         scheduleEvictionIfEmpty();
         return map;
@@ -430,28 +445,30 @@ public class QueueContainer implements IdentifiedDataSerializable {
      * This method does not trigger store load.
      */
     public long remove(Data data) {
-        Iterator<QueueItem> iter = getItemQueue().iterator();
-        while (iter.hasNext()) {
-            QueueItem item = iter.next();
-            if (data.equals(item.getData())) {
+        for (int i = 0; i < items.size(); i++) {
+            if (data.equals(getData(i))) {
+                final long itemId = items.getItemId(i);
                 if (store.isEnabled()) {
                     try {
-                        store.delete(item.getItemId());
+                        store.delete(itemId);
                     } catch (Exception e) {
                         throw new HazelcastException(e);
                     }
                 }
-                iter.remove();
-                age(item, Clock.currentTimeMillis()); //For Stats
+                age(items.getCreationTime(i), Clock.currentTimeMillis()); //For Stats
+                items.remove(i);
                 scheduleEvictionIfEmpty();
-                return item.getItemId();
+                return itemId;
             }
         }
         return -1;
     }
 
     public void removeBackup(long itemId) {
-        getBackupMap().remove(itemId);
+        final int index = items.indexOf(itemId);
+        if (index >= 0) {
+            items.remove(index);
+        }
     }
 
     /**
@@ -460,8 +477,8 @@ public class QueueContainer implements IdentifiedDataSerializable {
     public boolean contains(Collection<Data> dataSet) {
         for (Data data : dataSet) {
             boolean contains = false;
-            for (QueueItem item : getItemQueue()) {
-                if (item.getData() != null && item.getData().equals(data)){
+            for (int i = 0; i < items.size(); i++) {
+                if (data.equals(getData(i))){
                     contains = true;
                     break;
                 }
@@ -477,16 +494,10 @@ public class QueueContainer implements IdentifiedDataSerializable {
      * This method triggers store load.
      */
     public List<Data> getAsDataList() {
-        List<Data> dataList = new ArrayList<Data>(getItemQueue().size());
-        for (QueueItem item : getItemQueue()) {
-            if (store.isEnabled() && item.getData() == null) {
-                try {
-                    load(item);
-                } catch (Exception e) {
-                    throw new HazelcastException(e);
-                }
-            }
-            dataList.add(item.getData());
+        List<Data> dataList = new ArrayList<Data>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            loadIfNeeded(i);
+            dataList.add(getData(i));
         }
         return dataList;
     }
@@ -496,17 +507,14 @@ public class QueueContainer implements IdentifiedDataSerializable {
      */
     public Map<Long, Data> compareAndRemove(Collection<Data> dataList, boolean retain) {
         LinkedHashMap<Long, Data> map = new LinkedHashMap<Long, Data>();
-        for (QueueItem item : getItemQueue()) {
-            if (item.getData() == null && store.isEnabled()) {
-                try {
-                    load(item);
-                } catch (Exception e) {
-                    throw new HazelcastException(e);
-                }
-            }
-            boolean contains = dataList.contains(item.getData());
+        long current = Clock.currentTimeMillis();
+        for (int i = 0; i < items.size(); i++) {
+            loadIfNeeded(i);
+            final Data data = getData(i);
+            boolean contains = dataList.contains(data);
             if ((retain && !contains) || (!retain && contains)) {
-                map.put(item.getItemId(), item.getData());
+                map.put(items.getItemId(i), data);
+                age(items.getCreationTime(i), current);//For Stats
             }
         }
         if (map.size() > 0) {
@@ -517,14 +525,7 @@ public class QueueContainer implements IdentifiedDataSerializable {
                     throw new HazelcastException(e);
                 }
             }
-            Iterator<QueueItem> iter = getItemQueue().iterator();
-            while (iter.hasNext()) {
-                QueueItem item = iter.next();
-                if (map.containsKey(item.getItemId())) {
-                    iter.remove();
-                    age(item, Clock.currentTimeMillis());//For Stats
-                }
-            }
+            items.removeAll(map.keySet());
             scheduleEvictionIfEmpty();
         }
         return map;
@@ -534,20 +535,44 @@ public class QueueContainer implements IdentifiedDataSerializable {
         drainFromBackup(itemIdSet);
     }
 
-    private void load(QueueItem item) throws Exception {
-        int bulkLoad = store.getBulkLoad();
-        bulkLoad = Math.min(getItemQueue().size(), bulkLoad);
+    private QueueItem getItem(int index) {
+        return new QueueItem(this, items.getItemId(index), getData(index), items.getCreationTime(index));
+    }
+
+    // takes over the value of the item if it has been bulk loaded
+    private Data getData(int index) {
+        Data data = items.getData(index);
+        if (data == null && !dataMap.isEmpty()) {
+            data = dataMap.remove(items.getItemId(index));
+            if (data != null) {
+                items.setData(index, data);
+            }
+        }
+        return data;
+    }
+
+    private void loadIfNeeded(int index) {
+        if (store.isEnabled() && getData(index) == null) {
+            try {
+                load(index);
+            } catch (Exception e) {
+                throw new HazelcastException(e);
+            }
+        }
+    }
+
+    private void load(int index) throws Exception {
+        int bulkLoad = Math.min(items.size() - index, store.getBulkLoad());
         if (bulkLoad == 1) {
-            item.setData(store.load(item.getItemId()));
+            items.setData(index, store.load(items.getItemId(index)));
         } else if (bulkLoad > 1) {
-            ListIterator<QueueItem> iter = getItemQueue().listIterator();
             HashSet<Long> keySet = new HashSet<Long>(bulkLoad);
-            for (int i = 0; i < bulkLoad; i++) {
-                keySet.add(iter.next().getItemId());
+            for (int i = index; i < index + bulkLoad; i++) {
+                keySet.add(items.getItemId(i));
             }
             Map<Long, Data> values = store.loadAll(keySet);
             dataMap.putAll(values);
-            item.setData(getDataFromMap(item.getItemId()));
+            getData(index);
         }
     }
 
@@ -556,39 +581,9 @@ public class QueueContainer implements IdentifiedDataSerializable {
     }
 
     public boolean hasEnoughCapacity(int delta) {
-        return (getItemQueue().size() + delta) <= config.getMaxSize();
-    }
-
-    LinkedList<QueueItem> getItemQueue() {
-        if (itemQueue == null) {
-            itemQueue = new LinkedList<QueueItem>();
-            if (backupMap != null && !backupMap.isEmpty()) {
-                List<QueueItem> values = new ArrayList<QueueItem>(backupMap.values());
-                Collections.sort(values);
-                itemQueue.addAll(values);
-                backupMap.clear();
-                backupMap = null;
-            }
-        }
-        return itemQueue;
+        return (items.size() + delta) <= config.getMaxSize();
     }
 
-    Map<Long, QueueItem> getBackupMap(){
-        if (backupMap == null){
-            backupMap = new HashMap<Long, QueueItem>();
-            if (itemQueue != null){
-                for (QueueItem item: itemQueue){
-                    backupMap.put(item.getItemId(), item);
-                }
-                itemQueue.clear();
-                itemQueue = null;
-            }
-        }
-        return backupMap;
-    }
-
-
-
     public Data getDataFromMap(long itemId) {
         return dataMap.remove(itemId);
     }
@@ -600,7 +595,7 @@ public class QueueContainer implements IdentifiedDataSerializable {
         store = new QueueStoreWrapper(nodeEngine.getSerializationService());
         this.config = new QueueConfig(config);
         QueueStoreConfig storeConfig = config.getQueueStoreConfig();
-        store.setConfig(storeConfig, name);
+        store.setConfig(storeConfig, name, nodeEngine.getThisAddress());
     }
 
     long nextId() {
@@ -623,8 +618,8 @@ public class QueueContainer implements IdentifiedDataSerializable {
         return config;
     }
 
-    private void age(QueueItem item, long currentTime) {
-        long elapsed = currentTime - item.getCreationTime();
+    private void age(long creationTime, long currentTime) {
+        long elapsed = currentTime - creationTime;
         if (elapsed <= 0) {
             return;//elapsed time can not be a negative value, a system clock problem maybe. ignored
         }
@@ -647,7 +642,7 @@ public class QueueContainer implements IdentifiedDataSerializable {
         if (emptyQueueTtl < 0){
             return;
         }
-        if(getItemQueue().isEmpty() && txMap.isEmpty() && !isEvictionScheduled ){
+        if(items.isEmpty() && txMap.isEmpty() && !isEvictionScheduled ){
             if (emptyQueueTtl == 0){
                 nodeEngine.getProxyService().destroyDistributedObject(QueueService.SERVICE_NAME, name);
             } else if (emptyQueueTtl > 0){
@@ -665,7 +660,7 @@ public class QueueContainer implements IdentifiedDataSerializable {
     }
 
     public boolean isEvictable(){
-        return getItemQueue().isEmpty() && txMap.isEmpty();
+        return items.isEmpty() && txMap.isEmpty();
     }
 
     public void rollbackTransaction(String transactionId){
@@ -676,7 +671,7 @@ public class QueueContainer implements IdentifiedDataSerializable {
             if (transactionId.equals(item.getTransactionId())){
                 iterator.remove();
                 if (item.isPollOperation()){
-                    getItemQueue().offerFirst(item);
+                    items.addFirst(item.getItemId(), item.getData(), item.getCreationTime());
                     cancelEvictionIfExists();
                 }
             }
@@ -685,8 +680,13 @@ public class QueueContainer implements IdentifiedDataSerializable {
 
     public void writeData(ObjectDataOutput out) throws IOException {
         out.writeUTF(name);
-        out.writeInt(getItemQueue().size());
-        for (QueueItem item : getItemQueue()) {
+        out.writeInt(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            final QueueItem item = getItem(i);
+            if (item.getData() == null && store.isLocal()) {
+                // the other member can not load from the local store of this one
+                item.setData(store.load(item.getItemId()));
+            }
             item.writeData(out);
         }
         out.writeInt(txMap.size());
@@ -701,7 +701,7 @@ public class QueueContainer implements IdentifiedDataSerializable {
         for (int j = 0; j < size; j++) {
             QueueItem item = new QueueItem(this, -1, null);
             item.readData(in);
-            getItemQueue().offer(item);
+            items.addLast(item.getItemId(), item.getData(), item.getCreationTime());
             setId(item.getItemId());
         }
         int txSize = in.readInt();
@@ -714,14 +714,17 @@ public class QueueContainer implements IdentifiedDataSerializable {
     }
 
     public void destroy(){
-        if (itemQueue != null){
-            itemQueue.clear();
-        }
-        if (backupMap != null){
-            backupMap.clear();
-        }
+        items.clear();
         txMap.clear();
         dataMap.clear();
+        store.destroy();
+    }
+
+    /**
+     * Closes the store when the member shuts down, the items of a local store are kept.
+     */
+    public void close() {
+        store.close();
     }
 
     public int getFactoryId() {
@@ -69,6 +69,7 @@ public final class QueueDataSerializerHook implements DataSerializerHook {
     public static final int TX_QUEUE_ITEM = 35;
     public static final int QUEUE_CONTAINER = 36;
     public static final int TXN_PEEK = 37;
+    public static final int OFFER_ALL = 38;
 
 
     public int getFactoryId() {
@@ -77,7 +78,7 @@ public final class QueueDataSerializerHook implements DataSerializerHook {
 
     public DataSerializableFactory createFactory() {
 
-        ConstructorFunction<Integer, IdentifiedDataSerializable> constructors[] = new ConstructorFunction[TXN_PEEK+1];
+        ConstructorFunction<Integer, IdentifiedDataSerializable> constructors[] = new ConstructorFunction[OFFER_ALL+1];
         constructors[OFFER] = new ConstructorFunction<Integer, IdentifiedDataSerializable>() {
             public IdentifiedDataSerializable createNew(Integer arg) {
                 return new OfferOperation();
@@ -265,6 +266,11 @@ public final class QueueDataSerializerHook implements DataSerializerHook {
                 return new TxnPeekOperation();
             }
         };
+        constructors[OFFER_ALL] = new ConstructorFunction<Integer, IdentifiedDataSerializable>() {
+            public IdentifiedDataSerializable createNew(Integer arg) {
+                return new OfferAllOperation();
+            }
+        };
 
 
         return new ArrayDataSerializableFactory(constructors);
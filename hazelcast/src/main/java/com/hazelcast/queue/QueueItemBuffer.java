@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.queue;
+
+import com.hazelcast.nio.serialization.Data;
+
+import java.util.Set;
+
+/**
+ * Item storage of a {@link QueueContainer}: a double ended queue of item ids, creation times and
+ * payloads kept in parallel arrays, in chunks of {@value #CHUNK_SIZE} items which are allocated and
+ * released as the queue grows and shrinks. Items are held in queue order, which is the order of
+ * their ids except for transactional offers and rolled back polls.
+ * <p/>
+ * Not thread-safe, used by the partition thread of its container.
+ */
+final class QueueItemBuffer {
+
+    static final int CHUNK_SIZE = 1 << 8;
+
+    private static final int CHUNK_SHIFT = 8;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int INITIAL_CHUNK_SLOTS = 4;
+
+    // circular array of chunks, the first one at firstChunk
+    private Chunk[] chunks = new Chunk[INITIAL_CHUNK_SLOTS];
+    private int firstChunk;
+    private int chunkCount;
+    // index of the first item in the first chunk
+    private int head;
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    long getItemId(int index) {
+        final int position = head + index;
+        return chunk(position).itemIds[position & CHUNK_MASK];
+    }
+
+    long getCreationTime(int index) {
+        final int position = head + index;
+        return chunk(position).creationTimes[position & CHUNK_MASK];
+    }
+
+    Data getData(int index) {
+        final int position = head + index;
+        return chunk(position).data[position & CHUNK_MASK];
+    }
+
+    void setData(int index, Data data) {
+        final int position = head + index;
+        chunk(position).data[position & CHUNK_MASK] = data;
+    }
+
+    void addLast(long itemId, Data data, long creationTime) {
+        final int position = head + size;
+        if ((position >>> CHUNK_SHIFT) == chunkCount) {
+            ensureChunkSlot();
+            chunks[(firstChunk + chunkCount) & (chunks.length - 1)] = new Chunk();
+            chunkCount++;
+        }
+        set(position, itemId, data, creationTime);
+        size++;
+    }
+
+    void addFirst(long itemId, Data data, long creationTime) {
+        if (head == 0) {
+            ensureChunkSlot();
+            firstChunk = (firstChunk - 1) & (chunks.length - 1);
+            chunks[firstChunk] = new Chunk();
+            chunkCount++;
+            head = CHUNK_SIZE;
+        }
+        head--;
+        set(head, itemId, data, creationTime);
+        size++;
+    }
+
+    void removeFirst() {
+        if (size == 0) {
+            return;
+        }
+        chunk(head).data[head & CHUNK_MASK] = null;
+        head++;
+        size--;
+        if (size == 0) {
+            clear();
+        } else if (head == CHUNK_SIZE) {
+            chunks[firstChunk] = null;
+            firstChunk = (firstChunk + 1) & (chunks.length - 1);
+            chunkCount--;
+            head = 0;
+        }
+    }
+
+    /**
+     * Removes the item at given index, shifting the shorter side of the queue.
+     */
+    void remove(int index) {
+        if (index < size / 2) {
+            for (int i = index; i > 0; i--) {
+                copy(head + i - 1, head + i);
+            }
+            removeFirst();
+        } else {
+            for (int i = index; i < size - 1; i++) {
+                copy(head + i + 1, head + i);
+            }
+            removeLast();
+        }
+    }
+
+    /**
+     * @return index of the item with given id or -1. Items are usually removed from the head, so the
+     *         search starts there.
+     */
+    int indexOf(long itemId) {
+        for (int i = 0; i < size; i++) {
+            if (getItemId(i) == itemId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Removes the items with given ids, without looking beyond the head of the queue
+     * as long as the ids are found there.
+     */
+    void removeAll(Set<Long> itemIds) {
+        int remaining = itemIds.size();
+        while (remaining > 0 && size > 0 && itemIds.contains(getItemId(0))) {
+            removeFirst();
+            remaining--;
+        }
+        if (remaining == 0 || size == 0) {
+            return;
+        }
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (remaining > 0 && itemIds.contains(getItemId(i))) {
+                remaining--;
+            } else {
+                if (kept != i) {
+                    copy(head + i, head + kept);
+                }
+                kept++;
+            }
+        }
+        while (size > kept) {
+            removeLast();
+        }
+    }
+
+    void clear() {
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = null;
+        }
+        if (chunks.length > INITIAL_CHUNK_SLOTS) {
+            chunks = new Chunk[INITIAL_CHUNK_SLOTS];
+        }
+        firstChunk = 0;
+        chunkCount = 0;
+        head = 0;
+        size = 0;
+    }
+
+    private void removeLast() {
+        final int position = head + size - 1;
+        chunk(position).data[position & CHUNK_MASK] = null;
+        size--;
+        if (size == 0) {
+            clear();
+        } else if (((head + size - 1) >>> CHUNK_SHIFT) < chunkCount - 1) {
+            chunkCount--;
+            chunks[(firstChunk + chunkCount) & (chunks.length - 1)] = null;
+        }
+    }
+
+    private Chunk chunk(int position) {
+        return chunks[(firstChunk + (position >>> CHUNK_SHIFT)) & (chunks.length - 1)];
+    }
+
+    private void set(int position, long itemId, Data data, long creationTime) {
+        final Chunk chunk = chunk(position);
+        final int slot = position & CHUNK_MASK;
+        chunk.itemIds[slot] = itemId;
+        chunk.creationTimes[slot] = creationTime;
+        chunk.data[slot] = data;
+    }
+
+    private void copy(int from, int to) {
+        final Chunk source = chunk(from);
+        final int slot = from & CHUNK_MASK;
+        set(to, source.itemIds[slot], source.data[slot], source.creationTimes[slot]);
+    }
+
+    private void ensureChunkSlot() {
+        if (chunkCount < chunks.length) {
+            return;
+        }
+        final Chunk[] newChunks = new Chunk[chunks.length << 1];
+        for (int i = 0; i < chunkCount; i++) {
+            newChunks[i] = chunks[(firstChunk + i) & (chunks.length - 1)];
+        }
+        chunks = newChunks;
+        firstChunk = 0;
+    }
+
+    private static final class Chunk {
+        final long[] itemIds = new long[CHUNK_SIZE];
+        final long[] creationTimes = new long[CHUNK_SIZE];
+        final Data[] data = new Data[CHUNK_SIZE];
+    }
+}
@@ -47,6 +47,7 @@ public class QueuePortableHook implements PortableHook {
     public static final int TXN_POLL = 15;
     public static final int TXN_SIZE = 16;
     public static final int TXN_PEEK = 17;
+    public static final int OFFER_ALL = 18;
 
 
     public int getFactoryId() {
@@ -56,7 +57,7 @@ public class QueuePortableHook implements PortableHook {
     @Override
     public PortableFactory createFactory() {
 
-        ConstructorFunction<Integer, Portable> constructors[] = new ConstructorFunction[TXN_PEEK+1];
+        ConstructorFunction<Integer, Portable> constructors[] = new ConstructorFunction[OFFER_ALL+1];
 
         constructors[OFFER] = new ConstructorFunction<Integer, Portable>() {
             @Override
@@ -160,6 +161,12 @@ public class QueuePortableHook implements PortableHook {
                 return new TxnPeekRequest();
             }
         };
+        constructors[OFFER_ALL] = new ConstructorFunction<Integer, Portable>() {
+            @Override
+            public Portable createNew(Integer arg) {
+                return new OfferAllRequest();
+            }
+        };
 
         return new ArrayPortableFactory(constructors);
     }
@@ -50,7 +50,10 @@ public class QueueReplicationOperation extends AbstractOperation implements Iden
             String name = entry.getKey();
             QueueContainer container = entry.getValue();
             QueueConfig conf = getNodeEngine().getConfig().findQueueConfig(name);
+            // the replaced container has to release its local store before the new one opens it
+            service.destroyContainer(name);
             container.setConfig(conf, getNodeEngine(), service);
+            container.init(true);
             service.addContainer(name, container);
         }
     }
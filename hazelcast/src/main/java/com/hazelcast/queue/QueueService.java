@@ -16,6 +16,7 @@
 
 package com.hazelcast.queue;
 
+import com.hazelcast.config.QueueStoreConfig;
 import com.hazelcast.core.ItemEvent;
 import com.hazelcast.core.ItemEventType;
 import com.hazelcast.core.ItemListener;
@@ -24,9 +25,11 @@ import com.hazelcast.monitor.LocalQueueStats;
 import com.hazelcast.monitor.impl.LocalQueueStatsImpl;
 import com.hazelcast.nio.Address;
 import com.hazelcast.partition.MigrationEndpoint;
+import com.hazelcast.partition.PartitionService;
 import com.hazelcast.partition.PartitionView;
 import com.hazelcast.partition.strategy.StringPartitioningStrategy;
 import com.hazelcast.queue.proxy.QueueProxyImpl;
+import com.hazelcast.queue.proxy.ShardedQueueProxy;
 import com.hazelcast.queue.tx.QueueTransactionRollbackOperation;
 import com.hazelcast.queue.tx.TransactionalQueueProxy;
 import com.hazelcast.spi.*;
@@ -51,6 +54,7 @@ public class QueueService implements ManagedService, MigrationAwareService, Tran
         RemoteService, EventPublishingService<QueueEvent, ItemListener> {
 
     public static final String SERVICE_NAME = "hz:impl:queueService";
+    private static final char SHARD_SEPARATOR = '#';
     protected static final StringPartitioningStrategy PARTITIONING_STRATEGY = new StringPartitioningStrategy();
 
     private final NodeEngine nodeEngine;
@@ -83,6 +87,9 @@ public class QueueService implements ManagedService, MigrationAwareService, Tran
     }
 
     public void reset() {
+        for (QueueContainer container : containerMap.values()) {
+            container.close();
+        }
         containerMap.clear();
     }
 
@@ -109,6 +116,16 @@ public class QueueService implements ManagedService, MigrationAwareService, Tran
         containerMap.put(name, container);
     }
 
+    /**
+     * Removes the container of the queue and deletes the items of its local store.
+     */
+    public void destroyContainer(String name) {
+        final QueueContainer container = containerMap.remove(name);
+        if (container != null) {
+            container.destroy();
+        }
+    }
+
     // need for testing..
     public boolean containsQueue(String name) {
         return containerMap.containsKey(name);
@@ -133,6 +150,15 @@ public class QueueService implements ManagedService, MigrationAwareService, Tran
     public void commitMigration(PartitionMigrationEvent event) {
         if (event.getMigrationEndpoint() == MigrationEndpoint.SOURCE) {
             clearMigrationData(event.getPartitionId());
+        } else {
+            // this member owns the migrated or promoted partition now
+            for (Entry<String, QueueContainer> entry : containerMap.entrySet()) {
+                final String name = entry.getKey();
+                final int partitionId = nodeEngine.getPartitionService().getPartitionId(StringPartitioningStrategy.getPartitionKey(name));
+                if (partitionId == event.getPartitionId()) {
+                    entry.getValue().storeLocally();
+                }
+            }
         }
     }
 
@@ -161,7 +187,8 @@ public class QueueService implements ManagedService, MigrationAwareService, Tran
     }
 
     public void dispatchEvent(QueueEvent event, ItemListener listener) {
-        ItemEvent itemEvent = new ItemEvent(event.name, event.eventType, nodeEngine.toObject(event.data),
+        final String name = isShard(event.name) ? StringPartitioningStrategy.getBaseName(event.name) : event.name;
+        ItemEvent itemEvent = new ItemEvent(name, event.eventType, nodeEngine.toObject(event.data),
                 nodeEngine.getClusterService().getMember(event.caller));
         if (event.eventType.equals(ItemEventType.ADDED)) {
             listener.itemAdded(itemEvent);
@@ -172,12 +199,70 @@ public class QueueService implements ManagedService, MigrationAwareService, Tran
     }
 
     public QueueProxyImpl createDistributedObject(String objectId) {
+        if (isSharded(objectId)) {
+            final QueueStoreConfig storeConfig = nodeEngine.getConfig().findQueueConfig(objectId).getQueueStoreConfig();
+            if (storeConfig != null && storeConfig.isEnabled()) {
+                throw new IllegalArgumentException("Sharded queue '" + objectId + "' cannot have a queue store!");
+            }
+            return new ShardedQueueProxy(objectId, this, nodeEngine);
+        }
         return new QueueProxyImpl(objectId, this, nodeEngine);
     }
 
     public void destroyDistributedObject(String name) {
-        containerMap.remove(name);
+        destroyContainer(name);
         nodeEngine.getEventService().deregisterAllListeners(SERVICE_NAME, name);
+        if (isSharded(name)) {
+            for (String shardName : getShardNames(name)) {
+                destroyContainer(shardName);
+                nodeEngine.getEventService().deregisterAllListeners(SERVICE_NAME, shardName);
+            }
+        }
+    }
+
+    /**
+     * Queues with a shard count above one are sharded unless their name has a partition key.
+     */
+    boolean isSharded(String name) {
+        return name.indexOf('@') < 0 && nodeEngine.getConfig().findQueueConfig(name).getShardCount() > 1;
+    }
+
+    /**
+     * Shards of a sharded queue are plain queues named <tt>name@name#key</tt>. Keys are chosen in order
+     * so that the shards fall on distinct partitions, the same ones on every member.
+     */
+    public String[] getShardNames(String name) {
+        final PartitionService partitionService = nodeEngine.getPartitionService();
+        final int shardCount = nodeEngine.getConfig().findQueueConfig(name).getShardCount();
+        final String[] shardNames = new String[shardCount];
+        final Set<Integer> partitionIds = new HashSet<Integer>();
+        int key = 0;
+        for (int i = 0; i < shardCount; i++) {
+            String shardName;
+            int partitionId;
+            do {
+                shardName = name + '@' + name + SHARD_SEPARATOR + key++;
+                partitionId = partitionService.getPartitionId(StringPartitioningStrategy.getPartitionKey(shardName));
+            } while (partitionIds.contains(partitionId) && partitionIds.size() < partitionService.getPartitionCount());
+            partitionIds.add(partitionId);
+            shardNames[i] = shardName;
+        }
+        return shardNames;
+    }
+
+    /**
+     * Client requests address the partition of the queue's own name and cannot reach the shards,
+     * so clients are refused access to sharded queues.
+     */
+    public void checkClientAccess(String name) {
+        if (isSharded(name)) {
+            throw new UnsupportedOperationException("Sharded queue '" + name + "' cannot be accessed by clients!");
+        }
+    }
+
+    static boolean isShard(String name) {
+        final int index = name.indexOf('@');
+        return index > 0 && name.startsWith(name.substring(0, index) + SHARD_SEPARATOR, index + 1);
     }
 
     public String addItemListener(String name, ItemListener listener, boolean includeValue) {
@@ -215,11 +300,42 @@ public class QueueService implements ManagedService, MigrationAwareService, Tran
         return stats;
     }
 
+    /**
+     * Creates the local statistics of a sharded queue, the item counts of its shards summed up.
+     */
+    public LocalQueueStats createLocalQueueStats(String name, String[] shardNames, int[] partitionIds) {
+        LocalQueueStatsImpl stats = getLocalQueueStatsImpl(name);
+        int ownedItemCount = 0;
+        int backupItemCount = 0;
+        Address thisAddress = nodeEngine.getClusterService().getThisAddress();
+        for (int i = 0; i < shardNames.length; i++) {
+            QueueContainer container = containerMap.get(shardNames[i]);
+            if (container == null) {
+                continue;
+            }
+            if (thisAddress.equals(nodeEngine.getPartitionService().getPartitionOwner(partitionIds[i]))) {
+                ownedItemCount += container.size();
+            } else {
+                backupItemCount += container.backupSize();
+            }
+        }
+        stats.setOwnedItemCount(ownedItemCount);
+        stats.setBackupItemCount(backupItemCount);
+        return stats;
+    }
+
+    // operations and events of the shards of a sharded queue are counted for the queue
     public LocalQueueStatsImpl getLocalQueueStatsImpl(String name) {
+        if (isShard(name)) {
+            name = StringPartitioningStrategy.getBaseName(name);
+        }
         return ConcurrencyUtil.getOrPutIfAbsent(statsMap, name, localQueueStatsConstructorFunction);
     }
 
     public TransactionalQueueProxy createTransactionalObject(String name, TransactionSupport transaction) {
+        if (isSharded(name)) {
+            throw new UnsupportedOperationException("Sharded queue '" + name + "' is not transactional!");
+        }
         return new TransactionalQueueProxy(nodeEngine, this, name, transaction);
     }
 
@@ -20,6 +20,7 @@ import com.hazelcast.config.QueueStoreConfig;
 import com.hazelcast.core.HazelcastException;
 import com.hazelcast.core.QueueStore;
 import com.hazelcast.core.QueueStoreFactory;
+import com.hazelcast.nio.Address;
 import com.hazelcast.nio.BufferObjectDataOutput;
 import com.hazelcast.nio.ClassLoaderUtil;
 import com.hazelcast.nio.IOUtil;
@@ -59,6 +60,10 @@ public class QueueStoreWrapper implements QueueStore<Data> {
     }
 
     public void setConfig(QueueStoreConfig storeConfig, String name) {
+        setConfig(storeConfig, name, null);
+    }
+
+    public void setConfig(QueueStoreConfig storeConfig, String name, Address thisAddress) {
         if (storeConfig == null) {
             return;
         }
@@ -81,11 +86,15 @@ public class QueueStoreWrapper implements QueueStore<Data> {
             if (factory == null){
                 return;
             }
-            store = factory.newQueueStore(name, storeConfig.getProperties());
+            if (factory instanceof FileQueueStoreFactory) {
+                store = ((FileQueueStoreFactory) factory).newQueueStore(name, storeConfig.getProperties(), thisAddress);
+            } else {
+                store = factory.newQueueStore(name, storeConfig.getProperties());
+            }
         }
         this.storeConfig = storeConfig;
         enabled = storeConfig.isEnabled();
-        binary = Boolean.parseBoolean(storeConfig.getProperty("binary"));
+        binary = store instanceof FileQueueStore || Boolean.parseBoolean(storeConfig.getProperty("binary"));
         memoryLimit = parseInt("memory-limit", DEFAULT_MEMORY_LIMIT);
         bulkLoad = parseInt("bulk-load", DEFAULT_BULK_LOAD);
         if (bulkLoad < 1) {
@@ -102,6 +111,31 @@ public class QueueStoreWrapper implements QueueStore<Data> {
         return binary;
     }
 
+    /**
+     * A local store holds the items of this member only, the other members can not load from it.
+     */
+    public boolean isLocal() {
+        return enabled && store instanceof FileQueueStore;
+    }
+
+    /**
+     * Closes a local store, its items are kept for a restart of the member.
+     */
+    public void close() {
+        if (isLocal()) {
+            ((FileQueueStore) store).close();
+        }
+    }
+
+    /**
+     * Closes a local store and deletes its items, used when the queue is not held by this member anymore.
+     */
+    public void destroy() {
+        if (isLocal()) {
+            ((FileQueueStore) store).destroy();
+        }
+    }
+
     public int getMemoryLimit() {
         return memoryLimit;
     }
@@ -209,7 +243,6 @@ public class QueueStoreWrapper implements QueueStore<Data> {
                     }
                     dataMap.put(entry.getKey(), data);
                 }
-                return (Map<Long, Data>) map;
             } else {
                 for (Map.Entry<Long, ?> entry : map.entrySet()) {
                     dataMap.put(entry.getKey(), serializationService.toData(entry.getValue()));
@@ -74,6 +74,7 @@ public class AddListenerRequest extends CallableClientRequest implements Portabl
         final ClientEndpoint endpoint = getEndpoint();
         final ClientEngine clientEngine = getClientEngine();
         final QueueService service = getService();
+        service.checkClientAccess(name);
 
         ItemListener listener = new ItemListener() {
             public void itemAdded(ItemEvent item) {
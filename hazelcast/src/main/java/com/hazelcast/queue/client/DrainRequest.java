@@ -46,8 +46,13 @@ public class DrainRequest extends QueueRequest {
         this.maxSize = maxSize;
     }
 
+    public DrainRequest(String name, int maxSize, long timeoutMillis) {
+        super(name, timeoutMillis);
+        this.maxSize = maxSize;
+    }
+
     protected Operation prepareOperation() {
-        return new DrainOperation(name, maxSize);
+        return new DrainOperation(name, maxSize, timeoutMillis);
     }
 
     public int getClassId() {
@@ -52,6 +52,8 @@ public abstract class QueueRequest extends PartitionClientRequest implements Por
     }
 
     protected int getPartition() {
+        final QueueService service = getService();
+        service.checkClientAccess(name);
         final String partitionKey = StringPartitioningStrategy.getPartitionKey(name);
         return getClientEngine().getPartitionService().getPartitionId(partitionKey);
     }
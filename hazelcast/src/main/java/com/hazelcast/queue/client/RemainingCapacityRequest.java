@@ -59,6 +59,7 @@ public class RemainingCapacityRequest extends CallableClientRequest implements P
 
     public Object call() throws Exception {
         QueueService service = getService();
+        service.checkClientAccess(name);
         QueueContainer container = service.getOrCreateContainer(name, false);
         return container.getConfig().getMaxSize() - container.size();
     }
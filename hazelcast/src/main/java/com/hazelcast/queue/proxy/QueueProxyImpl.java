@@ -111,6 +111,24 @@ public class QueueProxyImpl<E> extends QueueProxySupport implements IQueue<E>, I
         return dataList.size();
     }
 
+    public int offerAll(Collection<? extends E> items, long timeout, TimeUnit timeUnit) throws InterruptedException {
+        return offerAllInternal(getDataList(items), timeUnit.toMillis(timeout));
+    }
+
+    public List<E> pollBatch(int maxElements, long timeout, TimeUnit timeUnit) throws InterruptedException {
+        if (maxElements <= 0) {
+            throw new IllegalArgumentException("maxElements must be positive");
+        }
+        final NodeEngine nodeEngine = getNodeEngine();
+        Collection<Data> dataList = drainInternal(maxElements, timeUnit.toMillis(timeout));
+        List<E> items = new ArrayList<E>(dataList.size());
+        for (Data data : dataList) {
+            E e = nodeEngine.toObject(data);
+            items.add(e);
+        }
+        return items;
+    }
+
     public E remove() {
         final E res = poll();
         if (res == null) {
@@ -137,6 +137,34 @@ abstract class QueueProxySupport extends AbstractDistributedObject<QueueService>
         return collectionContainer.getCollection();
     }
 
+    Collection<Data> drainInternal(int maxSize, long timeout) throws InterruptedException {
+        DrainOperation operation = new DrainOperation(name, maxSize, timeout);
+        final NodeEngine nodeEngine = getNodeEngine();
+        try {
+            Invocation inv = nodeEngine.getOperationService().createInvocationBuilder(QueueService.SERVICE_NAME, operation, getPartitionId()).build();
+            Future f = inv.invoke();
+            SerializableCollection collectionContainer = (SerializableCollection) nodeEngine.toObject(f.get());
+            return collectionContainer.getCollection();
+        } catch (Throwable throwable) {
+            throw ExceptionUtil.rethrowAllowInterrupted(throwable);
+        }
+    }
+
+    int offerAllInternal(List<Data> dataList, long timeout) throws InterruptedException {
+        for (Data data : dataList) {
+            throwExceptionIfNull(data);
+        }
+        OfferAllOperation operation = new OfferAllOperation(name, timeout, dataList);
+        final NodeEngine nodeEngine = getNodeEngine();
+        try {
+            Invocation inv = nodeEngine.getOperationService().createInvocationBuilder(QueueService.SERVICE_NAME, operation, getPartitionId()).build();
+            Future f = inv.invoke();
+            return (Integer) nodeEngine.toObject(f.get());
+        } catch (Throwable throwable) {
+            throw ExceptionUtil.rethrowAllowInterrupted(throwable);
+        }
+    }
+
     boolean addAllInternal(Collection<Data> dataList) {
         AddAllOperation operation = new AddAllOperation(name, dataList);
         return (Boolean) invoke(operation);
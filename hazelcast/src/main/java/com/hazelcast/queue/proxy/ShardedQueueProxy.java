@@ -0,0 +1,315 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.queue.proxy;
+
+import com.hazelcast.core.ItemListener;
+import com.hazelcast.monitor.LocalQueueStats;
+import com.hazelcast.nio.Address;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.partition.PartitionService;
+import com.hazelcast.queue.QueueService;
+import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.util.Clock;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Queue whose items are spread over the partitions of its shards, see
+ * {@link com.hazelcast.config.QueueConfig#setShardCount(int)}.
+ * <p/>
+ * Each shard is a plain queue, so items are FIFO per shard only. Offers and polls try the shards owned
+ * by this member first, starting from a rotating shard, and then the shards of the other members.
+ * A blocking poll waits on the first of these shards for at most {@value #POLL_INTERVAL_MILLIS} ms
+ * at a time before it looks at the others again, likewise a blocking offer.
+ */
+public class ShardedQueueProxy<E> extends QueueProxyImpl<E> {
+
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    private final QueueProxyImpl[] shards;
+    private final String[] shardNames;
+    private final int[] partitionIds;
+    private final AtomicInteger nextShard = new AtomicInteger();
+    // registration ids of the shards per registration id of the queue
+    private final ConcurrentMap<String, String[]> registrations = new ConcurrentHashMap<String, String[]>();
+
+    public ShardedQueueProxy(String name, QueueService queueService, NodeEngine nodeEngine) {
+        super(name, queueService, nodeEngine);
+        shardNames = queueService.getShardNames(name);
+        shards = new QueueProxyImpl[shardNames.length];
+        partitionIds = new int[shardNames.length];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new QueueProxyImpl(shardNames[i], queueService, nodeEngine);
+            partitionIds[i] = shards[i].partitionId;
+        }
+    }
+
+    /**
+     * @return shards owned by this member followed by the others, each group starting from the next shard.
+     */
+    private QueueProxyImpl[] getShardsInOrder() {
+        final PartitionService partitionService = getNodeEngine().getPartitionService();
+        final Address thisAddress = getNodeEngine().getThisAddress();
+        final int start = (nextShard.getAndIncrement() & Integer.MAX_VALUE) % shards.length;
+        final QueueProxyImpl[] ordered = new QueueProxyImpl[shards.length];
+        int local = 0;
+        int remote = shards.length;
+        for (int i = 0; i < shards.length; i++) {
+            final int index = (start + i) % shards.length;
+            if (thisAddress.equals(partitionService.getPartitionOwner(partitionIds[index]))) {
+                ordered[local++] = shards[index];
+            } else {
+                ordered[--remote] = shards[index];
+            }
+        }
+        // remote shards have been filled from the end
+        for (int i = local, j = shards.length - 1; i < j; i++, j--) {
+            final QueueProxyImpl shard = ordered[i];
+            ordered[i] = ordered[j];
+            ordered[j] = shard;
+        }
+        return ordered;
+    }
+
+    @Override
+    boolean offerInternal(Data data, long timeout) throws InterruptedException {
+        final QueueProxyImpl[] ordered = getShardsInOrder();
+        final long deadline = timeout < 0 ? Long.MAX_VALUE : Clock.currentTimeMillis() + timeout;
+        while (true) {
+            for (QueueProxyImpl shard : ordered) {
+                if (shard.offerInternal(data, 0)) {
+                    return true;
+                }
+            }
+            final long remaining = deadline - Clock.currentTimeMillis();
+            if (remaining <= 0) {
+                return false;
+            }
+            if (ordered[0].offerInternal(data, Math.min(remaining, POLL_INTERVAL_MILLIS))) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    Object pollInternal(long timeout) throws InterruptedException {
+        final QueueProxyImpl[] ordered = getShardsInOrder();
+        final long deadline = timeout < 0 ? Long.MAX_VALUE : Clock.currentTimeMillis() + timeout;
+        while (true) {
+            for (QueueProxyImpl shard : ordered) {
+                final Object item = shard.pollInternal(0);
+                if (item != null) {
+                    return item;
+                }
+            }
+            final long remaining = deadline - Clock.currentTimeMillis();
+            if (remaining <= 0) {
+                return null;
+            }
+            final Object item = ordered[0].pollInternal(Math.min(remaining, POLL_INTERVAL_MILLIS));
+            if (item != null) {
+                return item;
+            }
+        }
+    }
+
+    @Override
+    int offerAllInternal(List<Data> dataList, long timeout) throws InterruptedException {
+        final QueueProxyImpl[] ordered = getShardsInOrder();
+        final long deadline = timeout < 0 ? Long.MAX_VALUE : Clock.currentTimeMillis() + timeout;
+        while (true) {
+            int count = 0;
+            for (QueueProxyImpl shard : ordered) {
+                if (count == dataList.size()) {
+                    break;
+                }
+                count += shard.offerAllInternal(dataList.subList(count, dataList.size()), 0);
+            }
+            if (count > 0 || dataList.isEmpty()) {
+                return count;
+            }
+            final long remaining = deadline - Clock.currentTimeMillis();
+            if (remaining <= 0) {
+                return 0;
+            }
+            count = ordered[0].offerAllInternal(dataList, Math.min(remaining, POLL_INTERVAL_MILLIS));
+            if (count > 0) {
+                return count;
+            }
+        }
+    }
+
+    @Override
+    Collection<Data> drainInternal(int maxSize, long timeout) throws InterruptedException {
+        final long deadline = timeout < 0 ? Long.MAX_VALUE : Clock.currentTimeMillis() + timeout;
+        while (true) {
+            Collection<Data> items = drainInternal(maxSize);
+            if (!items.isEmpty()) {
+                return items;
+            }
+            final long remaining = deadline - Clock.currentTimeMillis();
+            if (remaining <= 0) {
+                return items;
+            }
+            items = getShardsInOrder()[0].drainInternal(maxSize, Math.min(remaining, POLL_INTERVAL_MILLIS));
+            if (!items.isEmpty()) {
+                return items;
+            }
+        }
+    }
+
+    @Override
+    Object peekInternal() {
+        for (QueueProxyImpl shard : getShardsInOrder()) {
+            final Object item = shard.peekInternal();
+            if (item != null) {
+                return item;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (QueueProxyImpl shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return (int) Math.min(Integer.MAX_VALUE, (long) config.getMaxSize() * shards.length - size());
+    }
+
+    @Override
+    public void clear() {
+        for (QueueProxyImpl shard : shards) {
+            shard.clear();
+        }
+    }
+
+    @Override
+    boolean removeInternal(Data data) {
+        for (QueueProxyImpl shard : getShardsInOrder()) {
+            if (shard.removeInternal(data)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    boolean containsInternal(Collection<Data> dataList) {
+        for (Data data : dataList) {
+            final Collection<Data> item = Collections.singletonList(data);
+            boolean found = false;
+            for (QueueProxyImpl shard : shards) {
+                if (shard.containsInternal(item)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    List<Data> listInternal() {
+        final List<Data> items = new ArrayList<Data>();
+        for (QueueProxyImpl shard : shards) {
+            items.addAll(shard.listInternal());
+        }
+        return items;
+    }
+
+    @Override
+    Collection<Data> drainInternal(int maxSize) {
+        final List<Data> items = new ArrayList<Data>();
+        for (QueueProxyImpl shard : getShardsInOrder()) {
+            if (maxSize < 0) {
+                items.addAll(shard.drainInternal(-1));
+            } else if (items.size() < maxSize) {
+                items.addAll(shard.drainInternal(maxSize - items.size()));
+            }
+        }
+        return items;
+    }
+
+    // the items are added to a single shard to keep their order
+    @Override
+    boolean addAllInternal(Collection<Data> dataList) {
+        for (QueueProxyImpl shard : getShardsInOrder()) {
+            if (shard.addAllInternal(dataList)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    boolean compareAndRemove(Collection<Data> dataList, boolean retain) {
+        boolean changed = false;
+        for (QueueProxyImpl shard : shards) {
+            changed |= shard.compareAndRemove(dataList, retain);
+        }
+        return changed;
+    }
+
+    @Override
+    public String addItemListener(ItemListener listener, boolean includeValue) {
+        final String[] ids = new String[shards.length];
+        for (int i = 0; i < shards.length; i++) {
+            ids[i] = shards[i].addItemListener(listener, includeValue);
+        }
+        registrations.put(ids[0], ids);
+        return ids[0];
+    }
+
+    @Override
+    public boolean removeItemListener(String registrationId) {
+        final String[] ids = registrations.remove(registrationId);
+        if (ids == null) {
+            return false;
+        }
+        boolean removed = false;
+        for (int i = 0; i < shards.length; i++) {
+            removed |= shards[i].removeItemListener(ids[i]);
+        }
+        return removed;
+    }
+
+    @Override
+    public LocalQueueStats getLocalQueueStats() {
+        return getService().createLocalQueueStats(name, shardNames, partitionIds);
+    }
+
+    @Override
+    public String toString() {
+        return "IQueue{name='" + name + "', shards=" + shards.length + '}';
+    }
+}
@@ -20,6 +20,7 @@ import com.hazelcast.collection.list.ListService;
 import com.hazelcast.collection.set.SetService;
 import com.hazelcast.concurrent.atomiclong.AtomicLongService;
 import com.hazelcast.concurrent.countdownlatch.CountDownLatchService;
+import com.hazelcast.concurrent.counter.CounterService;
 import com.hazelcast.concurrent.idgen.IdGeneratorService;
 import com.hazelcast.concurrent.lock.LockService;
 import com.hazelcast.concurrent.semaphore.SemaphoreService;
@@ -81,6 +82,8 @@ public final class ActionConstants {
             return new ExecutorServicePermission(name, actions);
         } else if (IdGeneratorService.SERVICE_NAME.equals(serviceName)){
             return new AtomicLongPermission(IdGeneratorService.ATOMIC_LONG_NAME+name, actions);
+        } else if (CounterService.SERVICE_NAME.equals(serviceName)){
+            return new AtomicLongPermission(CounterService.ATOMIC_LONG_NAME+name, actions);
         }
         throw new IllegalArgumentException("No service matched!!!");
     }
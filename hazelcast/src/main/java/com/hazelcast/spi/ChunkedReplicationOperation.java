@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi;
+
+/**
+ * A replication operation returned by {@link MigrationAwareService#prepareReplicationOperation(PartitionReplicationEvent)}
+ * which can be split into smaller operations, so that a large partition is transferred in bounded chunks
+ * instead of a single packet. The operation itself is never sent, its chunks are.
+ */
+public interface ChunkedReplicationOperation {
+
+    /**
+     * Returns an operation holding the next part of the replication data, of about <tt>maxBytes</tt>
+     * serialized bytes at most (a single entry larger than that is returned alone).
+     *
+     * @return next chunk or null if all data has been returned.
+     */
+    Operation nextChunk(int maxBytes);
+}
@@ -38,14 +38,33 @@ public interface OperationService {
 
     int getOperationExecutorQueueSize();
 
+    /**
+     * Returns the number of queued {@link UrgentSystemOperation}s of the partition threads.
+     */
+    int getPriorityOperationExecutorQueueSize();
+
     int getRunningOperationsCount();
 
+    /**
+     * Returns the number of invocations in flight, counted only when back-pressure is enabled.
+     */
+    int getInvocationCount();
+
+    /**
+     * Returns the number of invocations rejected by back-pressure.
+     */
+    long getRejectedInvocationCount();
+
     int getRemoteOperationsCount();
 
     int getOperationThreadCount();
 
     long  getExecutedOperationCount();
 
+    long getExecutedPartitionOperationCount();
+
+    long getExecutedPriorityOperationCount();
+
     boolean isOperationThread();
 
     /**
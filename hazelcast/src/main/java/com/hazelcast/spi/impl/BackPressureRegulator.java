@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl;
+
+import com.hazelcast.core.HazelcastOverloadException;
+import com.hazelcast.core.RuntimeInterruptedException;
+import com.hazelcast.instance.GroupProperties;
+import com.hazelcast.util.Clock;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounds the number of invocations this member has in flight, in total and per partition.
+ * <p/>
+ * A caller which hits a limit backs off until a slot is freed or
+ * {@link GroupProperties#PROP_BACKPRESSURE_BACKOFF_TIMEOUT_MILLIS} passes, and is then rejected with
+ * a {@link HazelcastOverloadException}. Additionally every {@link GroupProperties#PROP_BACKPRESSURE_SYNC_WINDOW}-th
+ * backup of a partition is sent as a sync backup, so that async backups can not pile up on the backup
+ * replicas faster than they are applied.
+ */
+final class BackPressureRegulator {
+
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final int maxPerMember;
+    private final int maxPerPartition;
+    private final long backoffTimeoutMillis;
+    private final int syncWindow;
+    private final AtomicInteger memberInvocations = new AtomicInteger();
+    private final AtomicIntegerArray partitionInvocations;
+    // updated by the partition threads only
+    private final int[] backupsSinceSync;
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    BackPressureRegulator(GroupProperties groupProperties, int partitionCount) {
+        this.maxPerMember = Math.max(1, groupProperties.BACKPRESSURE_MAX_CONCURRENT_INVOCATIONS_PER_MEMBER.getInteger());
+        this.maxPerPartition = Math.max(1, groupProperties.BACKPRESSURE_MAX_CONCURRENT_INVOCATIONS_PER_PARTITION.getInteger());
+        this.backoffTimeoutMillis = Math.max(0, groupProperties.BACKPRESSURE_BACKOFF_TIMEOUT_MILLIS.getLong());
+        this.syncWindow = groupProperties.BACKPRESSURE_SYNC_WINDOW.getInteger();
+        this.partitionInvocations = new AtomicIntegerArray(partitionCount);
+        this.backupsSinceSync = new int[partitionCount];
+    }
+
+    /**
+     * Takes an invocation slot, waiting for one if the limits are hit.
+     * Must be paired with {@link #release(int)}.
+     *
+     * @param partitionId partition of the invocation, -1 if it has none.
+     * @throws HazelcastOverloadException if no slot is freed in time.
+     */
+    void acquire(int partitionId) {
+        if (tryAcquire(partitionId)) {
+            return;
+        }
+        final long deadline = Clock.currentTimeMillis() + backoffTimeoutMillis;
+        long backoffNanos = 1000;
+        while (Clock.currentTimeMillis() < deadline) {
+            LockSupport.parkNanos(backoffNanos);
+            if (Thread.currentThread().isInterrupted()) {
+                throw new RuntimeInterruptedException("Interrupted while waiting for an invocation slot");
+            }
+            if (tryAcquire(partitionId)) {
+                return;
+            }
+            backoffNanos = Math.min(backoffNanos << 1, MAX_BACKOFF_NANOS);
+        }
+        rejectedCount.incrementAndGet();
+        throw new HazelcastOverloadException("Too many invocations in flight; member: " + memberInvocations.get()
+                + "/" + maxPerMember + (partitionId > -1 ? ", partition " + partitionId + ": "
+                + partitionInvocations.get(partitionId) + "/" + maxPerPartition : ""));
+    }
+
+    void release(int partitionId) {
+        if (partitionId > -1) {
+            partitionInvocations.decrementAndGet(partitionId);
+        }
+        memberInvocations.decrementAndGet();
+    }
+
+    /**
+     * Returns true if the backups of the current operation of given partition should be acknowledged.
+     * Must be called on the partition thread.
+     */
+    boolean isSyncForced(int partitionId) {
+        if (syncWindow <= 0) {
+            return false;
+        }
+        if (++backupsSinceSync[partitionId] < syncWindow) {
+            return false;
+        }
+        backupsSinceSync[partitionId] = 0;
+        return true;
+    }
+
+    int getInvocationCount() {
+        return memberInvocations.get();
+    }
+
+    long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    private boolean tryAcquire(int partitionId) {
+        if (partitionId > -1) {
+            int count;
+            do {
+                count = partitionInvocations.get(partitionId);
+                if (count >= maxPerPartition) {
+                    return false;
+                }
+            } while (!partitionInvocations.compareAndSet(partitionId, count, count + 1));
+        }
+        int count;
+        do {
+            count = memberInvocations.get();
+            if (count >= maxPerMember) {
+                if (partitionId > -1) {
+                    partitionInvocations.decrementAndGet(partitionId);
+                }
+                return false;
+            }
+        } while (!memberInvocations.compareAndSet(count, count + 1));
+        return true;
+    }
+}
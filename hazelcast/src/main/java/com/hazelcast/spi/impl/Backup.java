@@ -34,7 +34,7 @@ import java.util.logging.Level;
 /**
  * @author mdogan 4/5/13
  */
-final class Backup extends Operation implements BackupOperation, IdentifiedDataSerializable {
+final class Backup extends Operation implements BackupOperation, UrgentSystemOperation, IdentifiedDataSerializable {
 
     private Operation backupOp;
     private Address originalCaller;
@@ -74,9 +74,11 @@ final class Backup extends Operation implements BackupOperation, IdentifiedDataS
         if (valid) {
             final NodeEngine nodeEngine = getNodeEngine();
             final PartitionServiceImpl partitionService = (PartitionServiceImpl) nodeEngine.getPartitionService();
-            partitionService.updatePartitionReplicaVersions(getPartitionId(), replicaVersions, getReplicaIndex());
+            // an out of order backup is skipped, the replica catches up by a sync instead
+            final boolean inOrder = partitionService.updatePartitionReplicaVersions(getPartitionId(),
+                    replicaVersions, getReplicaIndex());
 
-            if (backupOp != null) {
+            if (inOrder && backupOp != null) {
                 backupOp.setNodeEngine(nodeEngine);
                 backupOp.setResponseHandler(ResponseHandlerFactory.createEmptyResponseHandler());
                 backupOp.setCallerUuid(getCallerUuid());
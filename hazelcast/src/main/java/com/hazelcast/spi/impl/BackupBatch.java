@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.spi.impl;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.partition.ReplicaErrorLogger;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.OperationAccessor;
+import com.hazelcast.spi.UrgentSystemOperation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Backups of several partitions sent to a member in a single packet, see {@link BackupBatcher}.
+ * <p/>
+ * All batches of a member are run by the same operation thread of the target, which hands the backups
+ * over to their partition threads in order; so backups of a partition are run in the order they were sent.
+ */
+final class BackupBatch extends Operation implements UrgentSystemOperation, IdentifiedDataSerializable {
+
+    private List<Backup> backups;
+
+    BackupBatch() {
+    }
+
+    BackupBatch(List<Backup> backups) {
+        this.backups = backups;
+    }
+
+    public void beforeRun() throws Exception {
+    }
+
+    public void run() throws Exception {
+        final NodeEngineImpl nodeEngine = (NodeEngineImpl) getNodeEngine();
+        for (Backup backup : backups) {
+            backup.setNodeEngine(nodeEngine);
+            backup.setResponseHandler(ResponseHandlerFactory.createEmptyResponseHandler());
+            OperationAccessor.setCallerAddress(backup, getCallerAddress());
+            OperationAccessor.setConnection(backup, getConnection());
+            nodeEngine.operationService.executeOperation(backup);
+        }
+    }
+
+    public void afterRun() throws Exception {
+    }
+
+    public boolean returnsResponse() {
+        return false;
+    }
+
+    public Object getResponse() {
+        return null;
+    }
+
+    public boolean validatesTarget() {
+        return false;
+    }
+
+    public void logError(Throwable e) {
+        ReplicaErrorLogger.log(e, getLogger());
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        out.writeInt(backups.size());
+        for (Backup backup : backups) {
+            backup.writeData(out);
+        }
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        final int size = in.readInt();
+        backups = new ArrayList<Backup>(size);
+        for (int i = 0; i < size; i++) {
+            final Backup backup = new Backup();
+            backup.readData(in);
+            backups.add(backup);
+        }
+    }
+
+    public int getFactoryId() {
+        return SpiDataSerializerHook.F_ID;
+    }
+
+    public int getId() {
+        return SpiDataSerializerHook.BACKUP_BATCH;
+    }
+
+    @Override
+    public String toString() {
+        return "BackupBatch{backups=" + backups.size() + '}';
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.spi.impl;
+
+import com.hazelcast.instance.GroupProperties;
+import com.hazelcast.instance.Node;
+import com.hazelcast.nio.Address;
+import com.hazelcast.nio.Connection;
+import com.hazelcast.nio.Packet;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.util.ConcurrencyUtil;
+import com.hazelcast.util.ConstructorFunction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accumulates the backups sent to each member and sends them as a {@link BackupBatch}, when
+ * {@link GroupProperties#PROP_BACKUP_BATCH_SIZE} backups are buffered or
+ * {@link GroupProperties#PROP_BACKUP_BATCH_DELAY_MILLIS} after the first one, whichever comes first.
+ * <p/>
+ * Sync backups are sent immediately, along with the buffered ones, unless
+ * {@link GroupProperties#PROP_BACKUP_BATCH_SYNC_ENABLED} is set. Either way every backup to a member goes
+ * through its buffer, so backups of a partition are not reordered.
+ */
+final class BackupBatcher {
+
+    private final NodeEngineImpl nodeEngine;
+    private final int batchSize;
+    private final long batchDelayMillis;
+    private final boolean batchSyncBackups;
+    // batches of this member are run by the same operation thread on every target
+    private final int executionPartitionId;
+    private final ConcurrentMap<Address, BackupBuffer> buffers = new ConcurrentHashMap<Address, BackupBuffer>();
+
+    private final ConstructorFunction<Address, BackupBuffer> bufferConstructor =
+            new ConstructorFunction<Address, BackupBuffer>() {
+                public BackupBuffer createNew(Address target) {
+                    return new BackupBuffer(target);
+                }
+            };
+
+    BackupBatcher(NodeEngineImpl nodeEngine) {
+        this.nodeEngine = nodeEngine;
+        final Node node = nodeEngine.getNode();
+        final GroupProperties groupProperties = node.getGroupProperties();
+        this.batchSize = Math.max(1, groupProperties.BACKUP_BATCH_SIZE.getInteger());
+        this.batchDelayMillis = groupProperties.BACKUP_BATCH_DELAY_MILLIS.getLong();
+        this.batchSyncBackups = groupProperties.BACKUP_BATCH_SYNC_ENABLED.getBoolean();
+        this.executionPartitionId = (node.getThisAddress().hashCode() & Integer.MAX_VALUE)
+                % groupProperties.PARTITION_COUNT.getInteger();
+    }
+
+    void send(Backup backup, Address target, boolean sync) {
+        final BackupBuffer buffer = ConcurrencyUtil.getOrPutIfAbsent(buffers, target, bufferConstructor);
+        boolean flush = false;
+        boolean schedule = false;
+        synchronized (buffer) {
+            buffer.backups.add(backup);
+            if (buffer.backups.size() >= batchSize || (sync && !batchSyncBackups) || batchDelayMillis <= 0) {
+                flush = true;
+            } else if (!buffer.flushScheduled) {
+                buffer.flushScheduled = true;
+                schedule = true;
+            }
+        }
+        if (flush) {
+            buffer.flush();
+        } else if (schedule) {
+            nodeEngine.getExecutionService().schedule(buffer, batchDelayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    void onMemberLeft(Address address) {
+        buffers.remove(address);
+    }
+
+    private class BackupBuffer implements Runnable {
+        final Address target;
+        List<Backup> backups = new ArrayList<Backup>();
+        boolean flushScheduled;
+
+        BackupBuffer(Address target) {
+            this.target = target;
+        }
+
+        public void run() {
+            flush();
+        }
+
+        // sends while holding the lock, so that batches of a target are sent in order
+        synchronized void flush() {
+            flushScheduled = false;
+            if (backups.isEmpty()) {
+                return;
+            }
+            final BackupBatch batch = new BackupBatch(backups);
+            backups = new ArrayList<Backup>();
+            final Connection connection = nodeEngine.getNode().getConnectionManager().getOrConnect(target);
+            final Data data = nodeEngine.toData(batch);
+            final Packet packet = new Packet(data, executionPartitionId, nodeEngine.getSerializationContext());
+            packet.setHeader(Packet.HEADER_OP);
+            packet.setHeader(Packet.HEADER_URGENT);
+            nodeEngine.send(packet, connection);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.spi.impl.EventServiceImpl.EventPacket;
+
+import java.io.IOException;
+
+/**
+ * Events sent to a subscriber in a single packet, see {@link EventBatcher}.
+ */
+final class EventBatch implements IdentifiedDataSerializable {
+
+    private EventPacket[] eventPackets;
+    private int[] orderKeys;
+    private int size;
+    // non-zero if the subscriber should acknowledge this batch
+    private long ackId;
+
+    EventBatch() {
+    }
+
+    EventBatch(EventPacket[] eventPackets, int[] orderKeys, int size, long ackId) {
+        this.eventPackets = eventPackets;
+        this.orderKeys = orderKeys;
+        this.size = size;
+        this.ackId = ackId;
+    }
+
+    int size() {
+        return size;
+    }
+
+    EventPacket getEventPacket(int index) {
+        return eventPackets[index];
+    }
+
+    int getOrderKey(int index) {
+        return orderKeys[index];
+    }
+
+    long getAckId() {
+        return ackId;
+    }
+
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeLong(ackId);
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeInt(orderKeys[i]);
+            eventPackets[i].writeData(out);
+        }
+    }
+
+    public void readData(ObjectDataInput in) throws IOException {
+        ackId = in.readLong();
+        size = in.readInt();
+        eventPackets = new EventPacket[size];
+        orderKeys = new int[size];
+        for (int i = 0; i < size; i++) {
+            orderKeys[i] = in.readInt();
+            eventPackets[i] = new EventPacket();
+            eventPackets[i].readData(in);
+        }
+    }
+
+    public int getFactoryId() {
+        return SpiDataSerializerHook.F_ID;
+    }
+
+    public int getId() {
+        return SpiDataSerializerHook.EVENT_BATCH;
+    }
+}
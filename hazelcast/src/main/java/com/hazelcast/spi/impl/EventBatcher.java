@@ -0,0 +1,296 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl;
+
+import com.hazelcast.instance.GroupProperties;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.nio.Address;
+import com.hazelcast.nio.Packet;
+import com.hazelcast.spi.ExecutionService;
+import com.hazelcast.spi.impl.EventServiceImpl.EventPacket;
+import com.hazelcast.util.ConcurrencyUtil;
+import com.hazelcast.util.ConstructorFunction;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accumulates the events sent to each remote subscriber and sends them as {@link EventBatch}es, when
+ * {@link GroupProperties#PROP_EVENT_BATCH_SIZE} events are buffered or
+ * {@link GroupProperties#PROP_EVENT_BATCH_DELAY_MILLIS} after the first one, whichever comes first.
+ * <p/>
+ * Publishers only append to the buffer of the subscriber; batches are sent by a flush task on the event
+ * executor, one at a time per subscriber so that they arrive in order. Every
+ * {@link GroupProperties#PROP_EVENT_ACK_WINDOW} events, a batch asks the subscriber for an acknowledgement.
+ * When the flush task reaches the next window while the previous acknowledgement is still missing,
+ * it stops and is resumed by the acknowledgement, or after {@link #ACK_TIMEOUT_MILLIS}. Meanwhile
+ * events of a slow subscriber pile up in its buffer; once it holds
+ * {@link GroupProperties#PROP_EVENT_QUEUE_CAPACITY} events, new ones are dropped.
+ */
+final class EventBatcher {
+
+    static final long ACK_TIMEOUT_MILLIS = 3000;
+
+    // batches sent by a flush task before it makes way for the other tasks of the event executor
+    private static final int MAX_BATCHES_PER_FLUSH = 16;
+
+    private final NodeEngineImpl nodeEngine;
+    private final ILogger logger;
+    private final Executor executor;
+    private final int batchSize;
+    private final long batchDelayMillis;
+    private final int ackWindow;
+    private final int capacity;
+    private final ConcurrentMap<Address, EventBuffer> buffers = new ConcurrentHashMap<Address, EventBuffer>();
+
+    private final ConstructorFunction<Address, EventBuffer> bufferConstructor =
+            new ConstructorFunction<Address, EventBuffer>() {
+                public EventBuffer createNew(Address subscriber) {
+                    return new EventBuffer(subscriber);
+                }
+            };
+
+    EventBatcher(NodeEngineImpl nodeEngine, ILogger logger) {
+        this.nodeEngine = nodeEngine;
+        this.logger = logger;
+        this.executor = nodeEngine.getExecutionService().getExecutor(ExecutionService.EVENT_EXECUTOR);
+        final GroupProperties groupProperties = nodeEngine.getNode().getGroupProperties();
+        this.batchSize = Math.max(1, groupProperties.EVENT_BATCH_SIZE.getInteger());
+        this.batchDelayMillis = groupProperties.EVENT_BATCH_DELAY_MILLIS.getLong();
+        this.ackWindow = Math.max(1, groupProperties.EVENT_ACK_WINDOW.getInteger());
+        this.capacity = Math.max(batchSize, groupProperties.EVENT_QUEUE_CAPACITY.getInteger());
+    }
+
+    /**
+     * Buffers given event for the subscriber, never blocks.
+     */
+    void send(Address subscriber, EventPacket eventPacket, int orderKey) {
+        final EventBuffer buffer = ConcurrencyUtil.getOrPutIfAbsent(buffers, subscriber, bufferConstructor);
+        boolean flush = false;
+        boolean schedule = false;
+        synchronized (buffer) {
+            if (buffer.closed) {
+                return;
+            }
+            if (buffer.size() >= capacity) {
+                if (!buffer.overflowReported) {
+                    buffer.overflowReported = true;
+                    logger.warning("Dropping events to " + subscriber + ", it has not acknowledged "
+                            + capacity + " buffered events.");
+                }
+                return;
+            }
+            buffer.add(eventPacket, orderKey);
+            if (buffer.flushing) {
+                // the running flush task sends it
+                return;
+            }
+            if (buffer.size() >= batchSize || batchDelayMillis <= 0) {
+                buffer.flushing = true;
+                flush = true;
+            } else if (!buffer.flushScheduled) {
+                buffer.flushScheduled = true;
+                schedule = true;
+            }
+        }
+        if (flush) {
+            buffer.submitFlush();
+        } else if (schedule) {
+            nodeEngine.getExecutionService().schedule(buffer.delayedFlush, batchDelayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    void onAck(Address subscriber, long ackId) {
+        final EventBuffer buffer = buffers.get(subscriber);
+        if (buffer == null) {
+            return;
+        }
+        boolean resume = false;
+        synchronized (buffer) {
+            buffer.ackedId = Math.max(buffer.ackedId, ackId);
+            if (buffer.awaitingAck && buffer.ackedId >= buffer.lastAckId) {
+                buffer.awaitingAck = false;
+                resume = true;
+            }
+        }
+        if (resume) {
+            buffer.submitFlush();
+        }
+    }
+
+    void onMemberLeft(Address address) {
+        final EventBuffer buffer = buffers.remove(address);
+        if (buffer != null) {
+            synchronized (buffer) {
+                buffer.closed = true;
+                buffer.clear();
+            }
+        }
+    }
+
+    private class EventBuffer implements Runnable {
+        final Address subscriber;
+        // guarded by this buffer; events from head to tail are waiting to be sent
+        EventPacket[] eventPackets = new EventPacket[batchSize];
+        int[] orderKeys = new int[batchSize];
+        int head;
+        int tail;
+        boolean flushScheduled;
+        // a flush task is queued or running, or waits for an acknowledgement
+        boolean flushing;
+        boolean awaitingAck;
+        boolean overflowReported;
+        boolean closed;
+        int eventsSinceAck;
+        long lastAckId;
+        long ackedId;
+
+        final Runnable delayedFlush = new Runnable() {
+            public void run() {
+                boolean flush = false;
+                synchronized (EventBuffer.this) {
+                    flushScheduled = false;
+                    if (!flushing && size() > 0) {
+                        flushing = true;
+                        flush = true;
+                    }
+                }
+                if (flush) {
+                    submitFlush();
+                }
+            }
+        };
+
+        EventBuffer(Address subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        int size() {
+            return tail - head;
+        }
+
+        void add(EventPacket eventPacket, int orderKey) {
+            if (tail == eventPackets.length) {
+                final int size = size();
+                if (head > 0 && size <= eventPackets.length / 2) {
+                    System.arraycopy(eventPackets, head, eventPackets, 0, size);
+                    System.arraycopy(orderKeys, head, orderKeys, 0, size);
+                    Arrays.fill(eventPackets, size, tail, null);
+                } else {
+                    eventPackets = Arrays.copyOfRange(eventPackets, head, head + size * 2);
+                    orderKeys = Arrays.copyOfRange(orderKeys, head, head + size * 2);
+                }
+                head = 0;
+                tail = size;
+            }
+            eventPackets[tail] = eventPacket;
+            orderKeys[tail] = orderKey;
+            tail++;
+        }
+
+        void clear() {
+            eventPackets = new EventPacket[batchSize];
+            orderKeys = new int[batchSize];
+            head = 0;
+            tail = 0;
+        }
+
+        void submitFlush() {
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                synchronized (this) {
+                    flushing = false;
+                }
+            }
+        }
+
+        public void run() {
+            for (int i = 0; i < MAX_BATCHES_PER_FLUSH; i++) {
+                final EventBatch batch = nextBatch();
+                if (batch == null) {
+                    return;
+                }
+                final Packet packet = new Packet(nodeEngine.toData(batch), nodeEngine.getSerializationContext());
+                packet.setHeader(Packet.HEADER_EVENT);
+                nodeEngine.send(packet, subscriber);
+            }
+            synchronized (this) {
+                if (size() == 0 || closed) {
+                    flushing = false;
+                    return;
+                }
+            }
+            submitFlush();
+        }
+
+        /**
+         * Takes the next batch to send, or returns null and ends this flush task if there is none
+         * or the previous acknowledgement has to be waited for.
+         */
+        private synchronized EventBatch nextBatch() {
+            final int size = size();
+            if (size == 0 || closed) {
+                flushing = false;
+                overflowReported = false;
+                return null;
+            }
+            long ackId = 0;
+            if (eventsSinceAck >= ackWindow) {
+                if (ackedId < lastAckId) {
+                    awaitingAck = true;
+                    final long ackIdToWait = lastAckId;
+                    nodeEngine.getExecutionService().schedule(new Runnable() {
+                        public void run() {
+                            onAckTimeout(ackIdToWait);
+                        }
+                    }, ACK_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                    return null;
+                }
+                ackId = ++lastAckId;
+                eventsSinceAck = 0;
+            }
+            final int count = Math.min(size, batchSize);
+            final EventPacket[] batchPackets = Arrays.copyOfRange(eventPackets, head, head + count);
+            final int[] batchOrderKeys = Arrays.copyOfRange(orderKeys, head, head + count);
+            Arrays.fill(eventPackets, head, head + count, null);
+            head += count;
+            if (head == tail) {
+                head = 0;
+                tail = 0;
+            }
+            eventsSinceAck += count;
+            return new EventBatch(batchPackets, batchOrderKeys, count, ackId);
+        }
+
+        private void onAckTimeout(long ackId) {
+            synchronized (this) {
+                if (!awaitingAck || lastAckId != ackId) {
+                    return;
+                }
+                // the subscriber is too slow or the acknowledgement is lost, goes on without it
+                awaitingAck = false;
+                ackedId = Math.max(ackedId, ackId);
+            }
+            submitFlush();
+        }
+    }
+}
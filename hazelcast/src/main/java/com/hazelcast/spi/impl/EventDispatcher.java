@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl;
+
+import com.hazelcast.instance.GroupProperties;
+import com.hazelcast.logging.ILogger;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs local events in order per listener and order key.
+ * <p/>
+ * Each listener has its own set of queues, one of which is chosen by the order key of an event.
+ * A queue which has events is scheduled on the event executor, so any free event thread picks up the next
+ * listener which has work and a slow listener only holds up its own events instead of every listener
+ * sharing its stripe. A queue runs at most {@link #BATCH_SIZE} events in a row before it is re-scheduled
+ * behind the other ready queues.
+ * <p/>
+ * {@link GroupProperties#PROP_EVENT_QUEUE_CAPACITY} bounds the events queued for all listeners together, so
+ * memory does not grow with the number of listeners. When it is reached the event is dropped, either right
+ * away or after waiting up to the offer timeout, see {@link GroupProperties#PROP_EVENT_QUEUE_FULL_POLICY}. Listeners which take longer than
+ * {@link GroupProperties#PROP_EVENT_SLOW_LISTENER_THRESHOLD_MILLIS} for an event are reported once
+ * until their queue has been drained.
+ */
+final class EventDispatcher {
+
+    private static final int BATCH_SIZE = 64;
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final ILogger logger;
+    private final Executor executor;
+    private final int queueCount;
+    private final int queueCapacity;
+    private final long slowListenerThresholdNanos;
+    private final AtomicInteger queuedEventCount = new AtomicInteger();
+    private final AtomicLong droppedEventCount = new AtomicLong();
+    // events which do not belong to a listener registration, e.g. proxy events
+    private final ListenerQueue[] systemQueues;
+    private volatile boolean live = true;
+
+    EventDispatcher(ILogger logger, Executor executor, int queueCount, int queueCapacity,
+                    long slowListenerThresholdMillis) {
+        this.logger = logger;
+        this.executor = executor;
+        this.queueCount = Math.max(1, queueCount);
+        this.queueCapacity = queueCapacity;
+        this.slowListenerThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowListenerThresholdMillis);
+        this.systemQueues = createQueues("system events");
+    }
+
+    /**
+     * Creates the queues of a listener; <tt>owner</tt> is used in log messages only.
+     */
+    ListenerQueue[] createQueues(Object owner) {
+        final ListenerQueue[] queues = new ListenerQueue[queueCount];
+        for (int i = 0; i < queueCount; i++) {
+            queues[i] = new ListenerQueue(owner);
+        }
+        return queues;
+    }
+
+    /**
+     * Queues given event task to the queue of <tt>orderKey</tt>, waiting up to <tt>timeoutMillis</tt>
+     * if the queue is full.
+     *
+     * @return false if the event is dropped because the queue is full or the dispatcher is shut down.
+     */
+    boolean dispatch(ListenerQueue[] queues, int orderKey, Runnable task, long timeoutMillis) {
+        if (!live) {
+            return false;
+        }
+        final int index = orderKey != Integer.MIN_VALUE ? Math.abs(orderKey) % queues.length : 0;
+        return queues[index].offer(task, timeoutMillis);
+    }
+
+    boolean dispatch(int orderKey, Runnable task) {
+        return dispatch(systemQueues, orderKey, task, 0);
+    }
+
+    int getQueuedEventCount() {
+        return queuedEventCount.get();
+    }
+
+    long getDroppedEventCount() {
+        return droppedEventCount.get();
+    }
+
+    boolean isLive() {
+        return live;
+    }
+
+    void clear(ListenerQueue[] queues) {
+        for (ListenerQueue queue : queues) {
+            queue.clear();
+        }
+    }
+
+    void shutdown() {
+        live = false;
+        clear(systemQueues);
+    }
+
+    /**
+     * Takes a place for an event within the capacity, backing off up to <tt>timeoutMillis</tt> while it is reached.
+     */
+    private boolean reserve(long timeoutMillis) {
+        if (tryReserve()) {
+            return true;
+        }
+        if (timeoutMillis <= 0) {
+            return false;
+        }
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        long backoffNanos = 1000;
+        while (System.nanoTime() < deadline && live) {
+            LockSupport.parkNanos(backoffNanos);
+            if (Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+            if (tryReserve()) {
+                return true;
+            }
+            backoffNanos = Math.min(backoffNanos << 1, MAX_BACKOFF_NANOS);
+        }
+        return false;
+    }
+
+    private boolean tryReserve() {
+        int count;
+        do {
+            count = queuedEventCount.get();
+            if (count >= queueCapacity) {
+                return false;
+            }
+        } while (!queuedEventCount.compareAndSet(count, count + 1));
+        return true;
+    }
+
+    final class ListenerQueue implements Runnable {
+
+        private final Object owner;
+        private final Queue<Runnable> queue = new ConcurrentLinkedQueue<Runnable>();
+        private final AtomicBoolean scheduled = new AtomicBoolean(false);
+        // reset when the queue has been drained, so that a listener is reported once per backlog
+        private volatile boolean slowReported;
+        private volatile boolean overflowReported;
+
+        private ListenerQueue(Object owner) {
+            this.owner = owner;
+        }
+
+        private boolean offer(Runnable task, long timeoutMillis) {
+            if (!reserve(timeoutMillis)) {
+                droppedEventCount.incrementAndGet();
+                if (!overflowReported && live) {
+                    overflowReported = true;
+                    logger.warning("EventQueue overloaded! Dropping events of " + owner + ", " + queueCapacity
+                            + " events are queued for all listeners.");
+                }
+                return false;
+            }
+            queue.offer(task);
+            schedule();
+            return true;
+        }
+
+        private void schedule() {
+            if (scheduled.get()) {
+                return;
+            }
+            if (!queue.isEmpty() && scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                    if (live) {
+                        logger.warning("Could not schedule events of " + owner, e);
+                    }
+                }
+            }
+        }
+
+        public void run() {
+            try {
+                for (int i = 0; i < BATCH_SIZE && live; i++) {
+                    final Runnable task = queue.poll();
+                    if (task == null) {
+                        slowReported = false;
+                        overflowReported = false;
+                        break;
+                    }
+                    queuedEventCount.decrementAndGet();
+                    runTask(task);
+                }
+            } finally {
+                scheduled.set(false);
+                if (live) {
+                    schedule();
+                }
+            }
+        }
+
+        private void runTask(Runnable task) {
+            final long start = System.nanoTime();
+            try {
+                task.run();
+            } catch (Throwable t) {
+                if (live) {
+                    logger.warning("Error while dispatching an event to " + owner, t);
+                }
+            }
+            final long elapsed = System.nanoTime() - start;
+            if (elapsed > slowListenerThresholdNanos && !slowReported) {
+                slowReported = true;
+                logger.warning("Slow listener! " + owner + " took " + TimeUnit.NANOSECONDS.toMillis(elapsed)
+                        + " ms to handle " + task + ", " + queue.size() + " events of it are waiting.");
+            }
+        }
+
+        private void clear() {
+            int count = 0;
+            while (queue.poll() != null) {
+                count++;
+            }
+            queuedEventCount.addAndGet(-count);
+        }
+    }
+}
@@ -30,14 +30,12 @@ import com.hazelcast.spi.*;
 import com.hazelcast.spi.annotation.PrivateApi;
 import com.hazelcast.util.ConcurrencyUtil;
 import com.hazelcast.util.ConstructorFunction;
-import com.hazelcast.util.executor.StripedExecutor;
+import com.hazelcast.spi.impl.EventDispatcher.ListenerQueue;
 import com.hazelcast.util.executor.StripedRunnable;
-import com.hazelcast.util.executor.TimeoutRunnable;
 
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author mdogan 12/14/12
@@ -48,10 +46,11 @@ public class EventServiceImpl implements EventService {
     private final ILogger logger;
     private final NodeEngineImpl nodeEngine;
     private final ConcurrentMap<String, EventServiceSegment> segments;
-    private final StripedExecutor eventExecutor;
+    private final EventDispatcher eventDispatcher;
     private final int eventQueueTimeoutMs;
     private final int eventThreadCount;
     private final int eventQueueCapacity;
+    private final EventBatcher eventBatcher;
 
     EventServiceImpl(NodeEngineImpl nodeEngine) {
         this.nodeEngine = nodeEngine;
@@ -60,9 +59,12 @@ public class EventServiceImpl implements EventService {
         GroupProperties groupProperties = node.getGroupProperties();
         eventThreadCount = groupProperties.EVENT_THREAD_COUNT.getInteger();
         eventQueueCapacity = groupProperties.EVENT_QUEUE_CAPACITY.getInteger();
-        eventQueueTimeoutMs = groupProperties.EVENT_QUEUE_TIMEOUT_MILLIS.getInteger();
-        eventExecutor = new StripedExecutor(nodeEngine.executionService.getCachedExecutor(), eventThreadCount, eventQueueCapacity);
+        final boolean dropWhenFull = "DROP".equalsIgnoreCase(groupProperties.EVENT_QUEUE_FULL_POLICY.getString());
+        eventQueueTimeoutMs = dropWhenFull ? 0 : groupProperties.EVENT_QUEUE_TIMEOUT_MILLIS.getInteger();
+        eventDispatcher = new EventDispatcher(logger, nodeEngine.executionService.getExecutor(ExecutionService.EVENT_EXECUTOR),
+                eventThreadCount, eventQueueCapacity, groupProperties.EVENT_SLOW_LISTENER_THRESHOLD_MILLIS.getLong());
         segments = new ConcurrentHashMap<String, EventServiceSegment>();
+        eventBatcher = new EventBatcher(nodeEngine, logger);
     }
 
     @Override
@@ -77,7 +79,7 @@ public class EventServiceImpl implements EventService {
 
     @Override
     public int getEventQueueSize() {
-        return eventExecutor.getWorkQueueSize();
+        return eventDispatcher.getQueuedEventCount();
     }
 
     public EventRegistration registerLocalListener(String serviceName, String topic, Object listener) {
@@ -107,6 +109,7 @@ public class EventServiceImpl implements EventService {
         EventServiceSegment segment = getSegment(serviceName, true);
         Registration reg = new Registration(UUID.randomUUID().toString(), serviceName, topic, filter,
                 nodeEngine.getThisAddress(), listener, localOnly);
+        reg.queues = eventDispatcher.createQueues(reg);
         if (segment.addRegistration(topic, reg)) {
             if (!localOnly) {
                 invokeRegistrationOnOtherNodes(serviceName, reg);
@@ -228,7 +231,8 @@ public class EventServiceImpl implements EventService {
             executeLocal(serviceName, event, reg, orderKey);
         } else {
             final Address subscriber = registration.getSubscriber();
-            sendEventPacket(subscriber, new EventPacket(registration.getId(), serviceName, event), orderKey);
+            // serialized right away, the event may be changed once it is published
+            sendEventPacket(subscriber, new EventPacket(registration.getId(), serviceName, nodeEngine.toData(event)), orderKey);
         }
     }
 
@@ -255,36 +259,17 @@ public class EventServiceImpl implements EventService {
 
     private void executeLocal(String serviceName, Object event, Registration reg, int orderKey) {
         if (nodeEngine.isActive()) {
-            try {
-                if (reg.listener != null) {
-                    eventExecutor.execute(new LocalEventDispatcher(serviceName, event, reg.listener, orderKey, eventQueueTimeoutMs));
-                } else {
-                    logger.warning("Something seems wrong! Listener instance is null! -> " + reg);
-                }
-            } catch (RejectedExecutionException e) {
-                if (eventExecutor.isLive()) {
-                    logger.warning("EventQueue overloaded! " + event + " failed to publish to " + reg.serviceName + ":" + reg.topic);
-                }
+            if (reg.listener != null && reg.queues != null) {
+                eventDispatcher.dispatch(reg.queues, orderKey,
+                        new LocalEventDispatcher(serviceName, event, reg.listener), eventQueueTimeoutMs);
+            } else {
+                logger.warning("Something seems wrong! Listener instance is null! -> " + reg);
             }
         }
     }
 
     private void sendEventPacket(Address subscriber, EventPacket eventPacket, int orderKey) {
-        final String serviceName = eventPacket.serviceName;
-        final EventServiceSegment segment = getSegment(serviceName, true);
-        boolean sync = segment.incrementPublish() % 100000 == 0;
-        if (sync) {
-            Invocation inv = nodeEngine.getOperationService().createInvocationBuilder(serviceName,
-                    new SendEventOperation(eventPacket, orderKey), subscriber).setTryCount(50).build();
-            try {
-                inv.invoke().get(3, TimeUnit.SECONDS);
-            } catch (Exception ignored) {
-            }
-        } else {
-            final Packet packet = new Packet(nodeEngine.toData(eventPacket), orderKey, nodeEngine.getSerializationContext());
-            packet.setHeader(Packet.HEADER_EVENT);
-            nodeEngine.send(packet, subscriber);
-        }
+        eventBatcher.send(subscriber, eventPacket, orderKey);
     }
 
     private EventServiceSegment getSegment(String service, boolean forceCreate) {
@@ -306,27 +291,32 @@ public class EventServiceImpl implements EventService {
     @PrivateApi
     void executeEvent(Runnable eventRunnable) {
         if (nodeEngine.isActive()) {
-            try {
-                eventExecutor.execute(eventRunnable);
-            } catch (RejectedExecutionException e) {
-                if (eventExecutor.isLive()) {
-                    logger.warning("EventQueue overloaded! Failed to execute event process: "  + eventRunnable);
-                }
-            }
+            final int orderKey = eventRunnable instanceof StripedRunnable
+                    ? ((StripedRunnable) eventRunnable).getKey() : eventRunnable.hashCode();
+            eventDispatcher.dispatch(orderKey, eventRunnable);
         }
     }
 
+    /**
+     * Dispatches the events of a batch to the queues of their listeners. Only the batch is read here, events
+     * themselves are deserialized by the event threads. Events are never waited for on the IO thread,
+     * they are dropped if the queue of their listener is full.
+     */
     @PrivateApi
     void handleEvent(Packet packet) {
-        try {
-            eventExecutor.execute(new RemoteEventPacketProcessor(packet));
-        } catch (RejectedExecutionException e) {
-            if (eventExecutor.isLive()) {
-                final Connection conn = packet.getConn();
-                String endpoint = conn.getEndPoint() != null ? conn.getEndPoint().toString() : conn.toString();
-                logger.warning("EventQueue overloaded! Failed to process event packet sent from: "  + endpoint);
+        final Connection conn = packet.getConn();
+        final EventBatch batch = (EventBatch) nodeEngine.toObject(packet.getData());
+        for (int i = 0; i < batch.size(); i++) {
+            final EventPacket eventPacket = batch.getEventPacket(i);
+            final Registration registration = getLocalRegistration(eventPacket);
+            if (registration != null) {
+                eventDispatcher.dispatch(registration.queues, batch.getOrderKey(i),
+                        new EventPacketProcessor(eventPacket, registration), 0);
             }
         }
+        if (batch.getAckId() != 0) {
+            nodeEngine.getOperationService().send(new EventAckOperation(batch.getAckId()), conn);
+        }
     }
 
     public PostJoinRegistrationOperation getPostJoinOperation() {
@@ -343,8 +333,13 @@ public class EventServiceImpl implements EventService {
 
     void shutdown() {
         logger.finest("Stopping event executor...");
-        eventExecutor.shutdown();
+        eventDispatcher.shutdown();
         for (EventServiceSegment segment : segments.values()) {
+            for (Registration reg : segment.registrationIdMap.values()) {
+                if (reg.queues != null) {
+                    eventDispatcher.clear(reg.queues);
+                }
+            }
             segment.clear();
         }
         segments.clear();
@@ -355,6 +350,7 @@ public class EventServiceImpl implements EventService {
         for (EventServiceSegment segment : segments.values()) {
             segment.onMemberLeft(address);
         }
+        eventBatcher.onMemberLeft(address);
     }
 
     private static class EventServiceSegment {
@@ -364,8 +360,6 @@ public class EventServiceImpl implements EventService {
 
         final ConcurrentMap<String, Registration> registrationIdMap = new ConcurrentHashMap<String, Registration>();
 
-        final AtomicInteger totalPublishes = new AtomicInteger();
-
         EventServiceSegment(String serviceName) {
             this.serviceName = serviceName;
         }
@@ -428,29 +422,45 @@ public class EventServiceImpl implements EventService {
                 }
             }
         }
+    }
 
-        int incrementPublish() {
-            return totalPublishes.incrementAndGet();
+    private Registration getLocalRegistration(EventPacket eventPacket) {
+        final String serviceName = eventPacket.serviceName;
+        EventServiceSegment segment = getSegment(serviceName, false);
+        if (segment == null) {
+            if (nodeEngine.isActive()) {
+                logger.warning("No service registration found for " + serviceName);
+            }
+            return null;
+        }
+        Registration registration = segment.registrationIdMap.get(eventPacket.id);
+        if (registration == null) {
+            if (nodeEngine.isActive()) {
+                logger.warning("No registration found for " + serviceName + " / " + eventPacket.id);
+            }
+            return null;
+        }
+        if (!isLocal(registration)) {
+            logger.severe("Invalid target for  " + registration);
+            return null;
+        }
+        if (registration.listener == null || registration.queues == null) {
+            logger.warning("Something seems wrong! Subscriber is local but listener instance is null! -> " + registration);
+            return null;
         }
+        return registration;
     }
 
-    private class EventPacketProcessor implements StripedRunnable {
-        private EventPacket eventPacket;
-        int orderKey;
-
-        private EventPacketProcessor() {
-        }
+    private class EventPacketProcessor implements Runnable {
+        private final EventPacket eventPacket;
+        private final Registration registration;
 
-        public EventPacketProcessor(EventPacket packet, int orderKey) {
-            this.eventPacket = packet;
-            this.orderKey = orderKey;
+        EventPacketProcessor(EventPacket eventPacket, Registration registration) {
+            this.eventPacket = eventPacket;
+            this.registration = registration;
         }
 
         public void run() {
-            process(eventPacket);
-        }
-
-        void process(EventPacket eventPacket) {
             Object eventObject = eventPacket.event;
             if (eventObject instanceof Data) {
                 eventObject = nodeEngine.toObject(eventObject);
@@ -463,35 +473,9 @@ public class EventServiceImpl implements EventService {
                 }
                 return;
             }
-            EventServiceSegment segment = getSegment(serviceName, false);
-            if (segment == null) {
-                if (nodeEngine.isActive()) {
-                    logger.warning("No service registration found for " + serviceName);
-                }
-                return;
-            }
-            Registration registration = segment.registrationIdMap.get(eventPacket.id);
-            if (registration == null) {
-                if (nodeEngine.isActive()) {
-                    logger.warning("No registration found for " + serviceName + " / " + eventPacket.id);
-                }
-                return;
-            }
-            if (!isLocal(registration)) {
-                logger.severe("Invalid target for  " + registration);
-                return;
-            }
-            if (registration.listener == null) {
-                logger.warning("Something seems wrong! Subscriber is local but listener instance is null! -> " + registration);
-                return;
-            }
             service.dispatchEvent(eventObject, registration.listener);
         }
 
-        public int getKey() {
-            return orderKey;
-        }
-
         public String toString() {
             final StringBuilder sb = new StringBuilder("EventPacketProcessor{");
             sb.append("eventPacket=").append(eventPacket);
@@ -500,42 +484,15 @@ public class EventServiceImpl implements EventService {
         }
     }
 
-    private class RemoteEventPacketProcessor extends EventPacketProcessor implements StripedRunnable {
-        private Packet packet;
-
-        public RemoteEventPacketProcessor(Packet packet) {
-            this.packet = packet;
-            this.orderKey = packet.getPartitionId();
-        }
-
-        public void run() {
-            Data data = packet.getData();
-            EventPacket eventPacket = (EventPacket) nodeEngine.toObject(data);
-            process(eventPacket);
-        }
-    }
-
-    private class LocalEventDispatcher implements StripedRunnable, TimeoutRunnable {
+    private class LocalEventDispatcher implements Runnable {
         final String serviceName;
         final Object event;
         final Object listener;
-        final int orderKey;
-        final long timeoutMs;
 
-        private LocalEventDispatcher(String serviceName, Object event, Object listener, int orderKey, long timeoutMs) {
+        private LocalEventDispatcher(String serviceName, Object event, Object listener) {
             this.serviceName = serviceName;
             this.event = event;
             this.listener = listener;
-            this.orderKey = orderKey;
-            this.timeoutMs = timeoutMs;
-        }
-
-        public long getTimeout() {
-            return timeoutMs;
-        }
-
-        public TimeUnit getTimeUnit() {
-            return TimeUnit.MILLISECONDS;
         }
 
         public final void run() {
@@ -549,8 +506,8 @@ public class EventServiceImpl implements EventService {
             }
         }
 
-        public int getKey() {
-            return orderKey;
+        public String toString() {
+            return "LocalEventDispatcher{event=" + event + '}';
         }
     }
 
@@ -562,6 +519,8 @@ public class EventServiceImpl implements EventService {
         private Address subscriber;
         private transient boolean localOnly;
         private transient Object listener;
+        // queues of the listener, set on the subscriber only
+        transient ListenerQueue[] queues;
 
         public Registration() {
         }
@@ -718,38 +677,33 @@ public class EventServiceImpl implements EventService {
         }
     }
 
-    public static class SendEventOperation extends AbstractOperation {
-        private EventPacket eventPacket;
-        private int orderKey;
+    public static class EventAckOperation extends AbstractOperation implements UrgentSystemOperation {
+        private long ackId;
 
-        public SendEventOperation() {
+        public EventAckOperation() {
         }
 
-        public SendEventOperation(EventPacket eventPacket, int orderKey) {
-            this.eventPacket = eventPacket;
-            this.orderKey = orderKey;
+        EventAckOperation(long ackId) {
+            this.ackId = ackId;
         }
 
         public void run() throws Exception {
             EventServiceImpl eventService = (EventServiceImpl) getNodeEngine().getEventService();
-            eventService.executeEvent(eventService.new EventPacketProcessor(eventPacket, orderKey));
+            eventService.eventBatcher.onAck(getCallerAddress(), ackId);
         }
 
         public boolean returnsResponse() {
-            return true;
+            return false;
         }
 
         protected void writeInternal(ObjectDataOutput out) throws IOException {
             super.writeInternal(out);
-            eventPacket.writeData(out);
-            out.writeInt(orderKey);
+            out.writeLong(ackId);
         }
 
         protected void readInternal(ObjectDataInput in) throws IOException {
             super.readInternal(in);
-            eventPacket = new EventPacket();
-            eventPacket.readData(in);
-            orderKey = in.readInt();
+            ackId = in.readLong();
         }
     }
 
@@ -77,6 +77,8 @@ public final class ExecutionServiceImpl implements ExecutionService {
         register(ASYNC_EXECUTOR, coreSize * 10, coreSize * 10000);
         register(CLIENT_EXECUTOR, coreSize * 10, coreSize * 10000);
         scheduledManagedExecutor = register(SCHEDULED_EXECUTOR, coreSize * 5, coreSize * 10000);
+        // queues of the listeners are scheduled here, events themselves are bounded by the listener queues
+        register(EVENT_EXECUTOR, node.getGroupProperties().EVENT_THREAD_COUNT.getInteger(), Integer.MAX_VALUE);
     }
 
     public Set<String> getExecutorNames(){
@@ -32,9 +32,13 @@ import com.hazelcast.util.executor.ScheduledTaskRunner;
 
 import java.io.IOException;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 abstract class InvocationImpl implements Invocation, Callback<Object> {
 
+    private static final AtomicReferenceFieldUpdater<InvocationImpl, BackPressureRegulator> BACK_PRESSURE_SLOT
+            = AtomicReferenceFieldUpdater.newUpdater(InvocationImpl.class, BackPressureRegulator.class, "backPressureSlot");
+
     private final BlockingQueue<Object> responseQ = new LinkedBlockingQueue<Object>();
     protected final long callTimeout;
     protected final NodeEngineImpl nodeEngine;
@@ -51,6 +55,8 @@ abstract class InvocationImpl implements Invocation, Callback<Object> {
     private volatile int invokeCount = 0;
     private volatile Address target;
     private boolean remote = false;
+    // set while this invocation holds a back-pressure slot, until its first response
+    private volatile BackPressureRegulator backPressureSlot;
 
     InvocationImpl(NodeEngineImpl nodeEngine, String serviceName, Operation op, int partitionId,
                    int replicaIndex, int tryCount, long tryPauseMillis, long callTimeout, Callback<Object> callback) {
@@ -100,11 +106,13 @@ abstract class InvocationImpl implements Invocation, Callback<Object> {
             if (!nodeEngine.operationService.isInvocationAllowedFromCurrentThread(op) && !OperationAccessor.isMigrationOperation(op)) {
                 throw new IllegalThreadStateException(Thread.currentThread() + " cannot make remote call: " + op);
             }
+            acquireBackPressureSlot();
             doInvoke();
         } catch (Exception e) {
             if (e instanceof RetryableException) {
                 notify(e);
             } else {
+                releaseBackPressureSlot();
                 throw ExceptionUtil.rethrow(e);
             }
         }
@@ -196,7 +204,35 @@ abstract class InvocationImpl implements Invocation, Callback<Object> {
         operationService.registerBackupCall(callId);
     }
 
+    private void acquireBackPressureSlot() {
+        final OperationServiceImpl operationService = nodeEngine.operationService;
+        final BackPressureRegulator regulator = operationService.getBackPressureRegulator();
+        // system operations and operations which wait (locks, queues...) are not limited,
+        // neither are the invocations of operation threads which must not block.
+        if (regulator == null || op instanceof UrgentSystemOperation || op instanceof WaitSupport
+                || OperationAccessor.isJoinOperation(op) || OperationAccessor.isMigrationOperation(op)
+                || operationService.isOperationThread()) {
+            return;
+        }
+        regulator.acquire(partitionId);
+        backPressureSlot = regulator;
+    }
+
+    /**
+     * Frees the back-pressure slot of this invocation, if it still holds one. Called on its first response,
+     * when its caller stops waiting for a response, or when its target leaves the cluster.
+     */
+    void releaseBackPressureSlot() {
+        if (backPressureSlot != null) {
+            final BackPressureRegulator regulator = BACK_PRESSURE_SLOT.getAndSet(this, null);
+            if (regulator != null) {
+                regulator.release(partitionId);
+            }
+        }
+    }
+
     public void notify(Object obj) {
+        releaseBackPressureSlot();
         final Object response;
         if (obj == null) {
             response = NULL_RESPONSE;
@@ -291,7 +327,13 @@ abstract class InvocationImpl implements Invocation, Callback<Object> {
         }
 
         public Object get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
-            final Object response = resolveResponse(waitForResponse(timeout, unit));
+            final Object waitedResponse = waitForResponse(timeout, unit);
+            if (waitedResponse == TIMEOUT_RESPONSE || waitedResponse instanceof OperationTimeoutException
+                    || waitedResponse instanceof InterruptedException) {
+                // the caller gives up, the response may never come
+                releaseBackPressureSlot();
+            }
+            final Object response = resolveResponse(waitedResponse);
             done = true;
             if (response instanceof Response) {
                 if (op instanceof BackupAwareOperation && callback == null) {
@@ -505,7 +547,7 @@ abstract class InvocationImpl implements Invocation, Callback<Object> {
         return partitionId;
     }
 
-    public static class IsStillExecuting extends AbstractOperation {
+    public static class IsStillExecuting extends AbstractOperation implements UrgentSystemOperation {
 
         private long operationCallId;
 
@@ -38,7 +38,6 @@ import com.hazelcast.spi.exception.PartitionMigratingException;
 import com.hazelcast.spi.exception.WrongTargetException;
 import com.hazelcast.spi.impl.PartitionIteratingOperation.PartitionResponse;
 import com.hazelcast.util.Clock;
-import com.hazelcast.util.executor.AbstractExecutorThreadFactory;
 import com.hazelcast.util.executor.SingleExecutorThreadFactory;
 import com.hazelcast.util.scheduler.*;
 
@@ -58,10 +57,11 @@ final class OperationServiceImpl implements OperationService {
     private final ILogger logger;
     private final AtomicLong callIdGen = new AtomicLong(0);
     private final ConcurrentMap<Long, RemoteCall> remoteCalls;
-    private final ExecutorService[] operationExecutors;
-    private final BlockingQueue[] operationExecutorQueues;
+    private final OperationThread[] operationThreads;
 
     private final ExecutorService defaultOperationExecutor;
+    // urgent system operations which are not bound to a partition
+    private final ExecutorService systemExecutor;
     private final ExecutorService responseExecutor;
     private final long defaultCallTimeout;
     private final Map<RemoteCallKey, RemoteCallKey> executingCalls;
@@ -69,6 +69,10 @@ final class OperationServiceImpl implements OperationService {
     private final int operationThreadCount;
     private final EntryTaskScheduler<Object, ScheduledBackup> backupScheduler;
     private final BlockingQueue<Runnable> responseWorkQueue = new LinkedBlockingQueue<Runnable>();
+    // null unless backups are sent in batches
+    private final BackupBatcher backupBatcher;
+    // null unless back-pressure is enabled
+    private final BackPressureRegulator backPressureRegulator;
 
     OperationServiceImpl(NodeEngineImpl nodeEngine) {
         this.nodeEngine = nodeEngine;
@@ -81,17 +85,15 @@ final class OperationServiceImpl implements OperationService {
         remoteCalls = new ConcurrentHashMap<Long, RemoteCall>(1000, 0.75f, concurrencyLevel);
         final int opThreadCount = node.getGroupProperties().OPERATION_THREAD_COUNT.getInteger();
         operationThreadCount =  opThreadCount > 0 ? opThreadCount : coreSize * 2;
-        operationExecutors = new ExecutorService[operationThreadCount];
-        operationExecutorQueues = new BlockingQueue[operationThreadCount];
-        for (int i = 0; i < operationExecutors.length; i++) {
-            BlockingQueue<Runnable> q = new LinkedBlockingQueue<Runnable>();
-            operationExecutorQueues[i]=q;
-            operationExecutors[i] =  new ThreadPoolExecutor(1, 1,
-                    0L, TimeUnit.MILLISECONDS,
-                    q,
-                    new OperationThreadFactory(i));
+        operationThreads = new OperationThread[operationThreadCount];
+        final String poolNamePrefix = node.getThreadPoolNamePrefix("operation");
+        for (int i = 0; i < operationThreads.length; i++) {
+            operationThreads[i] = new OperationThread(node.threadGroup, poolNamePrefix + i, i,
+                    node.getConfigClassLoader(), node.getGroupProperties(), logger);
+            operationThreads[i].start();
         }
         defaultOperationExecutor = nodeEngine.getExecutionService().getExecutor(ExecutionService.OPERATION_EXECUTOR);
+        systemExecutor = nodeEngine.getExecutionService().getExecutor(ExecutionService.SYSTEM_EXECUTOR);
 
         responseExecutor = new ThreadPoolExecutor(1, 1,
                 0L, TimeUnit.MILLISECONDS,
@@ -103,6 +105,10 @@ final class OperationServiceImpl implements OperationService {
         backupCalls = new ConcurrentHashMap<Long, Semaphore>(1000, 0.75f, concurrencyLevel);
         backupScheduler = EntryTaskSchedulerFactory.newScheduler(nodeEngine.getExecutionService().getScheduledExecutor(),
                 new ScheduledBackupProcessor(), ScheduleType.SCHEDULE_IF_NEW);
+        backupBatcher = node.getGroupProperties().BACKUP_BATCH_ENABLED.getBoolean() ? new BackupBatcher(nodeEngine) : null;
+        backPressureRegulator = node.getGroupProperties().BACKPRESSURE_ENABLED.getBoolean()
+                ? new BackPressureRegulator(node.getGroupProperties(), node.getGroupProperties().PARTITION_COUNT.getInteger())
+                : null;
     }
 
     @Override
@@ -133,12 +139,49 @@ final class OperationServiceImpl implements OperationService {
     @Override
     public int getOperationExecutorQueueSize() {
         int size = 0;
-        for(BlockingQueue q: operationExecutorQueues){
-            size+=q.size();
+        for (OperationThread thread : operationThreads) {
+            size += thread.getQueueSize();
         }
         return size;
     }
 
+    @Override
+    public int getInvocationCount() {
+        return backPressureRegulator != null ? backPressureRegulator.getInvocationCount() : 0;
+    }
+
+    @Override
+    public long getRejectedInvocationCount() {
+        return backPressureRegulator != null ? backPressureRegulator.getRejectedCount() : 0;
+    }
+
+    @Override
+    public int getPriorityOperationExecutorQueueSize() {
+        int size = 0;
+        for (OperationThread thread : operationThreads) {
+            size += thread.getPriorityQueueSize();
+        }
+        return size;
+    }
+
+    @Override
+    public long getExecutedPartitionOperationCount() {
+        long count = 0;
+        for (OperationThread thread : operationThreads) {
+            count += thread.getExecutedCount();
+        }
+        return count;
+    }
+
+    @Override
+    public long getExecutedPriorityOperationCount() {
+        long count = 0;
+        for (OperationThread thread : operationThreads) {
+            count += thread.getExecutedPriorityCount();
+        }
+        return count;
+    }
+
     public InvocationBuilder createInvocationBuilder(String serviceName, Operation op, final int partitionId) {
         if (partitionId < 0) throw new IllegalArgumentException("Partition id cannot be negative!");
         return new InvocationBuilder(nodeEngine, serviceName, op, partitionId);
@@ -152,14 +195,12 @@ final class OperationServiceImpl implements OperationService {
     @PrivateApi
     void handleOperation(final Packet packet) {
         try {
-            final Executor executor;
+            final RemoteOperationProcessor processor = new RemoteOperationProcessor(packet);
             if (packet.isHeaderSet(Packet.HEADER_RESPONSE)) {
-                executor = responseExecutor;
+                responseExecutor.execute(processor);
             } else {
-                final int partitionId = packet.getPartitionId();
-                executor = getExecutor(partitionId);
+                execute(packet.getPartitionId(), packet.isHeaderSet(Packet.HEADER_URGENT), processor);
             }
-            executor.execute(new RemoteOperationProcessor(packet));
         } catch (RejectedExecutionException e) {
             if (nodeEngine.isActive()) {
                 throw e;
@@ -167,8 +208,17 @@ final class OperationServiceImpl implements OperationService {
         }
     }
 
-    private Executor getExecutor(int partitionId) {
-        return partitionId > -1 ? operationExecutors[partitionId % operationThreadCount] : defaultOperationExecutor;
+    private void execute(int partitionId, boolean urgent, Runnable task) {
+        if (partitionId > -1) {
+            final OperationThread thread = operationThreads[partitionId % operationThreadCount];
+            if (urgent) {
+                thread.executePriority(task);
+            } else {
+                thread.execute(task);
+            }
+        } else {
+            (urgent ? systemExecutor : defaultOperationExecutor).execute(task);
+        }
     }
 
     private int getPartitionIdForExecution(Operation op) {
@@ -224,7 +274,7 @@ final class OperationServiceImpl implements OperationService {
      */
     public void executeOperation(final Operation op) {
         final int partitionId = getPartitionIdForExecution(op);
-        getExecutor(partitionId).execute(new LocalOperationProcessor(op));
+        execute(partitionId, op instanceof UrgentSystemOperation, new LocalOperationProcessor(op));
     }
 
     /**
@@ -364,6 +414,11 @@ final class OperationServiceImpl implements OperationService {
         if (!returnsResponse || op.isAsync()) {
             asyncBackupCount += syncBackupCount;
             syncBackupCount = 0;
+        } else if (asyncBackupCount > 0 && backPressureRegulator != null
+                && backPressureRegulator.isSyncForced(op.getPartitionId())) {
+            // caller waits for the acknowledgements, which slows it down to the pace of the backups
+            syncBackupCount += asyncBackupCount;
+            asyncBackupCount = 0;
         }
 
         final int totalBackupCount = syncBackupCount + asyncBackupCount;
@@ -371,6 +426,9 @@ final class OperationServiceImpl implements OperationService {
             final String serviceName = op.getServiceName();
             final int partitionId = op.getPartitionId();
             final long[] replicaVersions = partitionService.incrementPartitionReplicaVersions(partitionId, totalBackupCount);
+            // batched and logged backups are serialized later, they need their own copy of the versions
+            final long[] backupVersions = partitionService.isBackupLogEnabled() || backupBatcher != null
+                    ? Arrays.copyOf(replicaVersions, replicaVersions.length) : replicaVersions;
             final PartitionView partition = partitionService.getPartition(partitionId);
             for (int replicaIndex = 1; replicaIndex <= totalBackupCount; replicaIndex++) {
                 final Operation backupOp = backupAwareOp.getBackupOperation();
@@ -379,15 +437,25 @@ final class OperationServiceImpl implements OperationService {
                 }
 
                 backupOp.setPartitionId(partitionId).setReplicaIndex(replicaIndex).setServiceName(serviceName);
-                final Backup backup = new Backup(backupOp, op.getCallerAddress(), replicaVersions, replicaIndex <= syncBackupCount);
+                final boolean sync = replicaIndex <= syncBackupCount;
+                final Backup backup = new Backup(backupOp, op.getCallerAddress(), backupVersions, sync);
                 backup.setPartitionId(partitionId).setReplicaIndex(replicaIndex).setServiceName(serviceName)
                         .setCallerUuid(nodeEngine.getLocalMember().getUuid());
                 OperationAccessor.setCallId(backup, op.getCallId());
+                if (partitionService.isBackupLogEnabled()) {
+                    // replayed to a replica which misses it, without acknowledging the call again
+                    final Backup loggedBackup = new Backup(backupOp, null, backupVersions, false);
+                    loggedBackup.setPartitionId(partitionId).setReplicaIndex(replicaIndex).setServiceName(serviceName)
+                            .setCallerUuid(nodeEngine.getLocalMember().getUuid());
+                    partitionService.logBackup(partitionId, replicaIndex, loggedBackup);
+                }
 
                 final Address target = partition.getReplicaAddress(replicaIndex);
                 if (target != null) {
                     if (target.equals(node.getThisAddress())) {
                         throw new IllegalStateException("Normally shouldn't happen! Owner node and backup node are the same! " + partition);
+                    } else if (backupBatcher != null) {
+                        backupBatcher.send(backup, target, sync);
                     } else {
                         send(backup, target);
                     }
@@ -440,7 +508,11 @@ final class OperationServiceImpl implements OperationService {
             final PartitionView partition = partitionService.getPartition(partitionId);
             final Address target = partition.getReplicaAddress(replicaIndex);
             if (target != null && !target.equals(node.getThisAddress())) {
-                send(backup, target);
+                if (backupBatcher != null) {
+                    backupBatcher.send(backup, target, true);
+                } else {
+                    send(backup, target);
+                }
                 return true;
             }
             return ++retries >= 10; // if retried 10 times, give-up!
@@ -583,6 +655,9 @@ final class OperationServiceImpl implements OperationService {
         if (op instanceof ResponseOperation) {
             packet.setHeader(Packet.HEADER_RESPONSE);
         }
+        if (op instanceof UrgentSystemOperation) {
+            packet.setHeader(Packet.HEADER_URGENT);
+        }
         return nodeEngine.send(packet, connection);
     }
 
@@ -652,6 +727,11 @@ final class OperationServiceImpl implements OperationService {
         backupCalls.remove(callId);
     }
 
+    @PrivateApi
+    BackPressureRegulator getBackPressureRegulator() {
+        return backPressureRegulator;
+    }
+
     @PrivateApi
     long getDefaultCallTimeout() {
         return defaultCallTimeout;
@@ -663,6 +743,16 @@ final class OperationServiceImpl implements OperationService {
     }
 
     void onMemberLeft(final MemberImpl member) {
+        if (backupBatcher != null) {
+            backupBatcher.onMemberLeft(member.getAddress());
+        }
+        if (backPressureRegulator != null) {
+            for (RemoteCall call : remoteCalls.values()) {
+                if (call.isCallTarget(member)) {
+                    call.onTargetLeft();
+                }
+            }
+        }
         // postpone notifying calls since real response may arrive in the mean time.
         nodeEngine.getExecutionService().schedule(new Runnable() {
             public void run() {
@@ -680,8 +770,8 @@ final class OperationServiceImpl implements OperationService {
 
     void shutdown() {
         logger.finest( "Stopping operation threads...");
-        for (ExecutorService executor : operationExecutors) {
-            executor.shutdown();
+        for (OperationThread thread : operationThreads) {
+            thread.shutdown();
         }
         responseExecutor.shutdown();
         final Object response = new HazelcastInstanceNotActiveException();
@@ -691,9 +781,9 @@ final class OperationServiceImpl implements OperationService {
         remoteCalls.clear();
         backupCalls.clear();
         backupScheduler.cancelAll();
-        for (ExecutorService executor : operationExecutors) {
+        for (OperationThread thread : operationThreads) {
             try {
-                executor.awaitTermination(3, TimeUnit.SECONDS);
+                thread.awaitTermination(3, TimeUnit.SECONDS);
             } catch (InterruptedException ignored) {
             }
         }
@@ -760,41 +850,6 @@ final class OperationServiceImpl implements OperationService {
         }
     }
 
-    private class OperationThreadFactory extends AbstractExecutorThreadFactory {
-
-        final String threadName;
-        final int threadId;
-
-        public OperationThreadFactory(int threadId) {
-            super(node.threadGroup, node.getConfigClassLoader());
-            final String poolNamePrefix = node.getThreadPoolNamePrefix("operation");
-            this.threadName = poolNamePrefix + threadId;
-            this.threadId = threadId;
-        }
-
-        protected Thread createThread(Runnable r) {
-            return new OperationThread(threadGroup, r, threadName, threadId);
-        }
-    }
-
-    private class OperationThread extends Thread {
-
-        final int id;
-
-        public OperationThread(ThreadGroup threadGroup, Runnable target, String name, int id) {
-            super(threadGroup, target, name);
-            this.id = id;
-        }
-
-        public void run() {
-            try {
-                super.run();
-            } catch (OutOfMemoryError e) {
-                OutOfMemoryErrorDispatcher.onOutOfMemory(e);
-            }
-        }
-    }
-
     private class RemoteCallKey {
         private final long time = Clock.currentTimeMillis();
         private final Address callerAddress; // human readable caller
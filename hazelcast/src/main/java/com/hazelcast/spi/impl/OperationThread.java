@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl;
+
+import com.hazelcast.instance.GroupProperties;
+import com.hazelcast.instance.OutOfMemoryErrorDispatcher;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.util.MpscRingBuffer;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Operation thread which runs the operations of the partitions mapped to it, in submission order.
+ * <p/>
+ * Tasks are queued into a lock-free {@link MpscRingBuffer} and drained in batches of
+ * {@link GroupProperties#PROP_OPERATION_THREAD_DRAIN_BATCH_SIZE}. When the ring is full tasks spill over
+ * into an unbounded queue; a producer keeps using the overflow queue as long as it is not empty and it is
+ * polled only when the ring is empty, so tasks of a producer are never reordered.
+ * <p/>
+ * {@link com.hazelcast.spi.UrgentSystemOperation}s are queued into a separate priority queue, which is
+ * checked after every task. To keep the other operations from being starved, at most
+ * {@link GroupProperties#PROP_OPERATION_THREAD_PRIORITY_BATCH_SIZE} of them are run in a row.
+ * <p/>
+ * An idle thread spins for {@link GroupProperties#PROP_OPERATION_THREAD_IDLE_SPINS} empty polls,
+ * then yields for a while and then parks until a task is submitted.
+ */
+final class OperationThread extends Thread implements Executor {
+
+    private static final int IDLE_YIELDS = 100;
+
+    final int id;
+
+    private final ILogger logger;
+    private final MpscRingBuffer<Runnable> ring;
+    private final Queue<Runnable> overflow = new ConcurrentLinkedQueue<Runnable>();
+    private final Queue<Runnable> priorityQueue = new ConcurrentLinkedQueue<Runnable>();
+    private final Object[] batch;
+    private final int idleSpins;
+    private final int priorityBatchSize;
+    private volatile boolean parked;
+    private volatile boolean shutdown;
+    // written by this thread only
+    private volatile long executedCount;
+    private volatile long executedPriorityCount;
+
+    OperationThread(ThreadGroup threadGroup, String name, int id, ClassLoader classLoader,
+                    GroupProperties groupProperties, ILogger logger) {
+        super(threadGroup, name);
+        this.id = id;
+        this.logger = logger;
+        this.ring = new MpscRingBuffer<Runnable>(Math.max(1, groupProperties.OPERATION_THREAD_QUEUE_CAPACITY.getInteger()));
+        this.batch = new Object[Math.max(1, groupProperties.OPERATION_THREAD_DRAIN_BATCH_SIZE.getInteger())];
+        this.idleSpins = Math.max(0, groupProperties.OPERATION_THREAD_IDLE_SPINS.getInteger());
+        this.priorityBatchSize = Math.max(1, groupProperties.OPERATION_THREAD_PRIORITY_BATCH_SIZE.getInteger());
+        setContextClassLoader(classLoader != null ? classLoader : Thread.currentThread().getContextClassLoader());
+        setDaemon(false);
+        setPriority(Thread.NORM_PRIORITY);
+    }
+
+    public void execute(Runnable task) {
+        if (shutdown) {
+            throw new RejectedExecutionException("Operation thread " + getName() + " is shut down!");
+        }
+        if (!overflow.isEmpty() || !ring.offer(task)) {
+            overflow.offer(task);
+        }
+        if (parked) {
+            LockSupport.unpark(this);
+        }
+    }
+
+    void executePriority(Runnable task) {
+        if (shutdown) {
+            throw new RejectedExecutionException("Operation thread " + getName() + " is shut down!");
+        }
+        priorityQueue.offer(task);
+        if (parked) {
+            LockSupport.unpark(this);
+        }
+    }
+
+    int getQueueSize() {
+        return ring.size() + overflow.size();
+    }
+
+    int getPriorityQueueSize() {
+        return priorityQueue.size();
+    }
+
+    long getExecutedCount() {
+        return executedCount;
+    }
+
+    long getExecutedPriorityCount() {
+        return executedPriorityCount;
+    }
+
+    void shutdown() {
+        shutdown = true;
+        LockSupport.unpark(this);
+    }
+
+    void awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        join(unit.toMillis(timeout));
+    }
+
+    public void run() {
+        int idleCount = 0;
+        boolean taskRan = true;
+        while (true) {
+            // one batch of priority tasks between two tasks, unless no other task is waiting
+            if (taskRan || (ring.isEmpty() && overflow.isEmpty())) {
+                if (runPriorityTasks()) {
+                    idleCount = 0;
+                }
+            }
+            taskRan = false;
+            final int count = ring.drainTo(batch);
+            if (count > 0) {
+                for (int i = 0; i < count; i++) {
+                    final Runnable task = (Runnable) batch[i];
+                    batch[i] = null;
+                    runTask(task);
+                    executedCount++;
+                    if (i < count - 1) {
+                        runPriorityTasks();
+                    }
+                }
+                taskRan = true;
+                idleCount = 0;
+                continue;
+            }
+            if (!ring.isEmpty()) {
+                // a producer has claimed a slot but not published its task yet
+                continue;
+            }
+            final Runnable task = overflow.poll();
+            if (task != null) {
+                runTask(task);
+                executedCount++;
+                taskRan = true;
+                idleCount = 0;
+                continue;
+            }
+            if (!priorityQueue.isEmpty()) {
+                continue;
+            }
+            if (shutdown) {
+                return;
+            }
+            idle(++idleCount);
+        }
+    }
+
+    private void idle(int idleCount) {
+        if (idleCount <= idleSpins) {
+            return;
+        }
+        if (idleCount <= idleSpins + IDLE_YIELDS) {
+            Thread.yield();
+            return;
+        }
+        parked = true;
+        // a task submitted before the flag was visible to its producer is seen here
+        if (ring.isEmpty() && overflow.isEmpty() && priorityQueue.isEmpty() && !shutdown) {
+            LockSupport.park(this);
+        }
+        parked = false;
+    }
+
+    private boolean runPriorityTasks() {
+        Runnable task;
+        int count = 0;
+        while (count < priorityBatchSize && (task = priorityQueue.poll()) != null) {
+            runTask(task);
+            executedPriorityCount++;
+            count++;
+        }
+        return count > 0;
+    }
+
+    private void runTask(Runnable task) {
+        try {
+            task.run();
+        } catch (OutOfMemoryError e) {
+            OutOfMemoryErrorDispatcher.onOutOfMemory(e);
+        } catch (Throwable t) {
+            logger.severe(t);
+        }
+    }
+}
@@ -42,6 +42,16 @@ final class RemoteCall {
         callback.notify(response);
     }
 
+    /**
+     * Frees the back-pressure slot of the invocation right away when its target leaves;
+     * the invocation itself is notified later, since its response may still arrive.
+     */
+    void onTargetLeft() {
+        if (callback instanceof InvocationImpl) {
+            ((InvocationImpl) callback).releaseBackPressureSlot();
+        }
+    }
+
     boolean isCallTarget(MemberImpl leftMember) {
         boolean notify;
         if (uuid != null) {
@@ -36,6 +36,8 @@ public final class SpiDataSerializerHook implements DataSerializerHook {
     static final int PARALLEL_OPERATION_FACTORY = 5;
     static final int EVENT_PACKET = 6;
     static final int COLLECTION = 7;
+    static final int BACKUP_BATCH = 8;
+    static final int EVENT_BATCH = 9;
 
     private static final int LEN = 10;
 
@@ -90,6 +92,18 @@ public final class SpiDataSerializerHook implements DataSerializerHook {
             }
         };
 
+        constructors[BACKUP_BATCH] = new ConstructorFunction<Integer, IdentifiedDataSerializable>() {
+            public IdentifiedDataSerializable createNew(Integer arg) {
+                return new BackupBatch();
+            }
+        };
+
+        constructors[EVENT_BATCH] = new ConstructorFunction<Integer, IdentifiedDataSerializable>() {
+            public IdentifiedDataSerializable createNew(Integer arg) {
+                return new EventBatch();
+            }
+        };
+
         return new ArrayDataSerializableFactory(constructors);
     }
 
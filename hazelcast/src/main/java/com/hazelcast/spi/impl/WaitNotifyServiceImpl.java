@@ -27,66 +27,68 @@ import com.hazelcast.spi.exception.CallTimeoutException;
 import com.hazelcast.spi.exception.PartitionMigratingException;
 import com.hazelcast.spi.exception.RetryableException;
 import com.hazelcast.util.Clock;
-import com.hazelcast.util.ConcurrencyUtil;
-import com.hazelcast.util.ConstructorFunction;
 import com.hazelcast.util.executor.SingleExecutorThreadFactory;
 
-import java.util.Iterator;
-import java.util.Queue;
+import java.util.*;
 import java.util.concurrent.*;
 import java.util.logging.Level;
 
+/**
+ * Waiting operations are queued per partition and per wait key. A wait queue is only
+ * modified by the thread of its partition, except for invalidations on member leave,
+ * client disconnect and migration; invalidated operations are removed lazily. Operations
+ * without a partition run on any generic thread, so a queue is locked while an operation is
+ * added to it and while it is dropped from its map once empty.
+ * <p/>
+ * Wait timeouts and call timeouts are tracked by a hashed timer wheel advanced by a
+ * single thread. Operations timing out in the same tick are handed over to their
+ * partition threads in one operation per partition.
+ */
 class WaitNotifyServiceImpl implements WaitNotifyService {
 
-    private final ConcurrentMap<WaitNotifyKey, Queue<WaitingOp>> mapWaitingOps = new ConcurrentHashMap<WaitNotifyKey, Queue<WaitingOp>>(100);
-    private final DelayQueue delayQueue = new DelayQueue();
+    private static final long TICK_MILLIS = 10;
+
+    // power of two, a round of the wheel is ~5 seconds
+    private static final int WHEEL_SIZE = 512;
+
+    private static final int MIN_SWEEP_THRESHOLD = 64;
+
+    // one map per partition, the last one for operations without a partition
+    private final ConcurrentMap<WaitNotifyKey, WaitQueue>[] waitQueues;
+    private final Queue<WaitingOp>[] wheel;
+    // first tick of the wheel not visited yet
+    private volatile long nextTick;
     private final ExecutorService expirationService;
     private final Future expirationTask;
     private final NodeEngineImpl nodeEngine;
     private final ILogger logger;
 
+    @SuppressWarnings("unchecked")
     public WaitNotifyServiceImpl(final NodeEngineImpl nodeEngine) {
         this.nodeEngine = nodeEngine;
         final Node node = nodeEngine.getNode();
         logger = node.getLogger(WaitNotifyService.class.getName());
 
+        final int partitionCount = node.getGroupProperties().PARTITION_COUNT.getInteger();
+        waitQueues = new ConcurrentMap[partitionCount + 1];
+        for (int i = 0; i < waitQueues.length; i++) {
+            waitQueues[i] = new ConcurrentHashMap<WaitNotifyKey, WaitQueue>();
+        }
+        wheel = new Queue[WHEEL_SIZE];
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<WaitingOp>();
+        }
+        nextTick = Clock.currentTimeMillis() / TICK_MILLIS;
+
         expirationService = Executors.newSingleThreadExecutor(
                 new SingleExecutorThreadFactory(node.threadGroup, node.getConfigClassLoader(), node.getThreadNamePrefix("wait-notify")));
 
         expirationTask = expirationService.submit(new Runnable() {
             public void run() {
                 while (true) {
-                    if (Thread.interrupted()) {
-                        return;
-                    }
                     try {
-                        long waitTime = 1000;
-                        while (waitTime > 0) {
-                            long begin = System.currentTimeMillis();
-                            WaitingOp waitingOp = (WaitingOp) delayQueue.poll(waitTime, TimeUnit.MILLISECONDS);
-                            if (waitingOp != null) {
-                                if (waitingOp.isValid()) {
-                                    invalidate(waitingOp);
-                                }
-                            }
-                            long end = System.currentTimeMillis();
-                            waitTime -= (end - begin);
-                            if (waitTime > 1000) {
-                                waitTime = 1000;
-                            }
-                        }
-                        for (Queue<WaitingOp> q : mapWaitingOps.values()) {
-                            for (WaitingOp waitingOp : q) {
-                                if (Thread.interrupted()) {
-                                    return;
-                                }
-                                if (waitingOp.isValid()) {
-                                    if (waitingOp.needsInvalidation()) {
-                                        invalidate(waitingOp);
-                                    }
-                                }
-                            }
-                        }
+                        Thread.sleep(TICK_MILLIS);
+                        advance();
                     } catch (InterruptedException e) {
                         return;
                     } catch (Throwable t) {
@@ -97,34 +99,118 @@ class WaitNotifyServiceImpl implements WaitNotifyService {
         });
     }
 
-    private void invalidate(final WaitingOp waitingOp) throws Exception {
-        nodeEngine.getOperationService().executeOperation(waitingOp);
+    // visits the slots of the ticks passed since the last call
+    private void advance() {
+        final long now = Clock.currentTimeMillis();
+        final long tick = now / TICK_MILLIS;
+        final Map<Integer, List<WaitingOp>> expired = new HashMap<Integer, List<WaitingOp>>();
+        for (long t = Math.max(nextTick, tick - WHEEL_SIZE + 1); t <= tick; t++) {
+            nextTick = t + 1;
+            final Iterator<WaitingOp> it = wheel[(int) (t & (WHEEL_SIZE - 1))].iterator();
+            while (it.hasNext()) {
+                final WaitingOp waitingOp = it.next();
+                if (!waitingOp.isValid()) {
+                    it.remove();
+                } else if (waitingOp.deadline <= now || waitingOp.isCancelled()) {
+                    it.remove();
+                    addToBatch(expired, waitingOp);
+                }
+            }
+        }
+        nextTick = tick + 1;
+        executeBatches(expired);
+    }
+
+    private void schedule(WaitingOp waitingOp) {
+        if (waitingOp.deadline == Long.MAX_VALUE) {
+            return;
+        }
+        // first tick starting at or after the deadline
+        final long deadlineTick = (waitingOp.deadline + TICK_MILLIS - 1) / TICK_MILLIS;
+        while (true) {
+            final long tick = Math.max(deadlineTick, nextTick);
+            final Queue<WaitingOp> slot = wheel[(int) (tick & (WHEEL_SIZE - 1))];
+            slot.offer(waitingOp);
+            // advance() may have visited the slot after nextTick was read; the op is then either
+            // taken by it or taken back here and put into a slot not visited yet, instead of
+            // waiting a whole round
+            if (nextTick <= tick || !slot.remove(waitingOp)) {
+                return;
+            }
+        }
+    }
+
+    private static void addToBatch(Map<Integer, List<WaitingOp>> batches, WaitingOp waitingOp) {
+        final Integer partitionId = waitingOp.getPartitionId();
+        List<WaitingOp> batch = batches.get(partitionId);
+        if (batch == null) {
+            batch = new ArrayList<WaitingOp>();
+            batches.put(partitionId, batch);
+        }
+        batch.add(waitingOp);
+    }
+
+    private void executeBatches(Map<Integer, List<WaitingOp>> batches) {
+        for (Map.Entry<Integer, List<WaitingOp>> entry : batches.entrySet()) {
+            final int partitionId = entry.getKey();
+            final ExpirationBatch batch = partitionId >= 0
+                    ? new PartitionExpirationBatch(entry.getValue()) : new ExpirationBatch(entry.getValue());
+            batch.setPartitionId(partitionId);
+            batch.setNodeEngine(nodeEngine);
+            nodeEngine.getOperationService().executeOperation(batch);
+        }
     }
 
-    private final ConstructorFunction<WaitNotifyKey, Queue<WaitingOp>> waitQueueConstructor
-            = new ConstructorFunction<WaitNotifyKey, Queue<WaitingOp>>() {
-        public Queue<WaitingOp> createNew(WaitNotifyKey key) {
-            return new ConcurrentLinkedQueue<WaitingOp>();
+    private ConcurrentMap<WaitNotifyKey, WaitQueue> getWaitQueues(int partitionId) {
+        return waitQueues[partitionId >= 0 ? partitionId : waitQueues.length - 1];
+    }
+
+    // earliest of the wait timeout and the call timeout, in local time
+    private long getDeadline(WaitingOp waitingOp) {
+        long deadline = waitingOp.expirationTime > 0 ? waitingOp.expirationTime : Long.MAX_VALUE;
+        final Operation op = waitingOp.op;
+        if (op.returnsResponse() && op.getCallId() != 0) {
+            final long callExpireTime = op.getInvocationTime() + op.getCallTimeout();
+            if (callExpireTime > 0 && callExpireTime < Long.MAX_VALUE) {
+                final long localExpireTime = Clock.currentTimeMillis() + callExpireTime - nodeEngine.getClusterTime() + 1;
+                deadline = Math.min(deadline, localExpireTime);
+            }
         }
-    };
+        return deadline;
+    }
 
     // runs after queue lock
     public void await(WaitSupport waitSupport) {
         final WaitNotifyKey key = waitSupport.getWaitKey();
-        final Queue<WaitingOp> q = ConcurrencyUtil.getOrPutIfAbsent(mapWaitingOps, key, waitQueueConstructor);
-        long timeout = waitSupport.getWaitTimeoutMillis();
-        WaitingOp waitingOp = new WaitingOp(q, waitSupport);
-        waitingOp.setNodeEngine(nodeEngine);
-        if (timeout > -1 && timeout < 1500) {
-            delayQueue.offer(waitingOp);
-        }
-        q.offer(waitingOp);
+        final int partitionId = ((Operation) waitSupport).getPartitionId();
+        final ConcurrentMap<WaitNotifyKey, WaitQueue> queues = getWaitQueues(partitionId);
+        while (true) {
+            WaitQueue q = queues.get(key);
+            if (q == null) {
+                q = new WaitQueue(key, queues);
+                final WaitQueue current = queues.putIfAbsent(key, q);
+                q = current != null ? current : q;
+            }
+            final WaitingOp waitingOp = new WaitingOp(this, q, waitSupport);
+            waitingOp.setNodeEngine(nodeEngine);
+            waitingOp.deadline = getDeadline(waitingOp);
+            if (q.offerIfMapped(waitingOp)) {
+                schedule(waitingOp);
+                return;
+            }
+            // the queue emptied and left the map meanwhile, wait in the one that replaces it
+        }
     }
 
     // runs after queue lock
     public void notify(Notifier notifier) {
-        WaitNotifyKey key = notifier.getNotifiedKey();
-        Queue<WaitingOp> q = mapWaitingOps.get(key);
+        final WaitNotifyKey key = notifier.getNotifiedKey();
+        final WaitQueue q;
+        if (notifier instanceof Operation) {
+            q = getWaitQueues(((Operation) notifier).getPartitionId()).get(key);
+        } else {
+            q = findWaitQueue(key);
+        }
         if (q == null) return;
         WaitingOp waitingOp = q.peek();
         while (waitingOp != null) {
@@ -147,6 +233,17 @@ class WaitNotifyServiceImpl implements WaitNotifyService {
             q.poll(); // consume
             waitingOp = q.peek();
         }
+        q.removeIfEmpty();
+    }
+
+    private WaitQueue findWaitQueue(WaitNotifyKey key) {
+        for (ConcurrentMap<WaitNotifyKey, WaitQueue> queues : waitQueues) {
+            final WaitQueue q = queues.get(key);
+            if (q != null) {
+                return q;
+            }
+        }
+        return null;
     }
 
     // invalidated waiting ops will removed from queue eventually by notifiers.
@@ -159,12 +256,14 @@ class WaitNotifyServiceImpl implements WaitNotifyService {
     }
 
     private void invalidateWaitingOps(String callerUuid) {
-        for (Queue<WaitingOp> q : mapWaitingOps.values()) {
-            for (WaitingOp waitingOp : q) {
-                if (waitingOp.isValid()) {
-                    Operation op = waitingOp.getOperation();
-                    if (callerUuid.equals(op.getCallerUuid())) {
-                        waitingOp.setValid(false);
+        for (ConcurrentMap<WaitNotifyKey, WaitQueue> queues : waitQueues) {
+            for (Queue<WaitingOp> q : queues.values()) {
+                for (WaitingOp waitingOp : q) {
+                    if (waitingOp.isValid()) {
+                        Operation op = waitingOp.getOperation();
+                        if (callerUuid.equals(op.getCallerUuid())) {
+                            waitingOp.setValid(false);
+                        }
                     }
                 }
             }
@@ -175,7 +274,7 @@ class WaitNotifyServiceImpl implements WaitNotifyService {
     void onPartitionMigrate(Address thisAddress, MigrationInfo migrationInfo) {
         if (thisAddress.equals(migrationInfo.getSource())) {
             int partitionId = migrationInfo.getPartitionId();
-            for (Queue<WaitingOp> q : mapWaitingOps.values()) {
+            for (Queue<WaitingOp> q : getWaitQueues(partitionId).values()) {
                 Iterator<WaitingOp> it = q.iterator();
                 while (it.hasNext()) {
                     if (Thread.interrupted()) {
@@ -184,31 +283,34 @@ class WaitNotifyServiceImpl implements WaitNotifyService {
                     WaitingOp waitingOp = it.next();
                     if (waitingOp.isValid()) {
                         Operation op = waitingOp.getOperation();
-                        if (partitionId == op.getPartitionId()) {
-                            waitingOp.setValid(false);
-                            PartitionMigratingException pme = new PartitionMigratingException(thisAddress,
-                                    partitionId, op.getClass().getName(), op.getServiceName());
-                            op.getResponseHandler().sendResponse(pme);
-                            it.remove();
-                        }
+                        waitingOp.setValid(false);
+                        PartitionMigratingException pme = new PartitionMigratingException(thisAddress,
+                                partitionId, op.getClass().getName(), op.getServiceName());
+                        op.getResponseHandler().sendResponse(pme);
                     }
+                    it.remove();
                 }
             }
         }
     }
 
     public void cancelWaitingOps(String serviceName, Object objectId, Throwable cause) {
-        for (Queue<WaitingOp> q : mapWaitingOps.values()) {
-            for (WaitingOp waitingOp : q) {
-                if (waitingOp.isValid()) {
-                    WaitNotifyKey wnk = waitingOp.waitSupport.getWaitKey();
-                    if (serviceName.equals(wnk.getServiceName())
-                            && objectId.equals(wnk.getObjectName())) {
-                        waitingOp.cancel(cause);
+        final Map<Integer, List<WaitingOp>> cancelled = new HashMap<Integer, List<WaitingOp>>();
+        for (ConcurrentMap<WaitNotifyKey, WaitQueue> queues : waitQueues) {
+            for (Map.Entry<WaitNotifyKey, WaitQueue> entry : queues.entrySet()) {
+                final WaitNotifyKey wnk = entry.getKey();
+                if (serviceName.equals(wnk.getServiceName())
+                        && objectId.equals(wnk.getObjectName())) {
+                    for (WaitingOp waitingOp : entry.getValue()) {
+                        if (waitingOp.isValid()) {
+                            waitingOp.cancel(cause);
+                            addToBatch(cancelled, waitingOp);
+                        }
                     }
                 }
             }
         }
+        executeBatches(cancelled);
     }
 
     void shutdown() {
@@ -217,34 +319,138 @@ class WaitNotifyServiceImpl implements WaitNotifyService {
         expirationService.shutdown();
         final Object response = new HazelcastInstanceNotActiveException();
         final Address thisAddress = nodeEngine.getThisAddress();
-        for (Queue<WaitingOp> q : mapWaitingOps.values()) {
-            for (WaitingOp waitingOp : q) {
-                if (waitingOp.isValid()) {
-                    final Operation op = waitingOp.getOperation();
-                    // only for local invocations, remote ones will be expired via #onMemberLeft()
-                    if (thisAddress.equals(op.getCallerAddress())) {
-                        try {
-                            op.getResponseHandler().sendResponse(response);
-                        } catch (Exception e) {
-                            logger.finest("While sending HazelcastInstanceNotActiveException response...", e);
+        for (ConcurrentMap<WaitNotifyKey, WaitQueue> queues : waitQueues) {
+            for (Queue<WaitingOp> q : queues.values()) {
+                for (WaitingOp waitingOp : q) {
+                    if (waitingOp.isValid()) {
+                        final Operation op = waitingOp.getOperation();
+                        // only for local invocations, remote ones will be expired via #onMemberLeft()
+                        if (thisAddress.equals(op.getCallerAddress())) {
+                            try {
+                                op.getResponseHandler().sendResponse(response);
+                            } catch (Exception e) {
+                                logger.finest("While sending HazelcastInstanceNotActiveException response...", e);
+                            }
                         }
                     }
                 }
+                q.clear();
             }
-            q.clear();
+            queues.clear();
+        }
+        for (Queue<WaitingOp> slot : wheel) {
+            slot.clear();
+        }
+    }
+
+    /**
+     * Waiting operations of a key. Operations invalidated by a timeout stay in the queue
+     * until a notify consumes them or until enough of them pile up for a sweep.
+     */
+    static class WaitQueue extends ConcurrentLinkedQueue<WaitingOp> {
+        final WaitNotifyKey key;
+        final ConcurrentMap<WaitNotifyKey, WaitQueue> queues;
+        // guarded by the queue lock
+        int invalidCount;
+        int sweepThreshold = MIN_SWEEP_THRESHOLD;
+        boolean removed;
+
+        WaitQueue(WaitNotifyKey key, ConcurrentMap<WaitNotifyKey, WaitQueue> queues) {
+            this.key = key;
+            this.queues = queues;
+        }
+
+        synchronized boolean offerIfMapped(WaitingOp waitingOp) {
+            return !removed && offer(waitingOp);
+        }
+
+        synchronized void onInvalidated() {
+            if (++invalidCount < sweepThreshold) {
+                WaitingOp head = peek();
+                while (head != null && !head.isValid()) {
+                    poll();
+                    head = peek();
+                }
+            } else {
+                int remaining = 0;
+                final Iterator<WaitingOp> it = iterator();
+                while (it.hasNext()) {
+                    if (it.next().isValid()) {
+                        remaining++;
+                    } else {
+                        it.remove();
+                    }
+                }
+                invalidCount = 0;
+                sweepThreshold = Math.max(MIN_SWEEP_THRESHOLD, remaining);
+            }
+            removeIfEmpty();
+        }
+
+        synchronized void removeIfEmpty() {
+            if (isEmpty()) {
+                removed = true;
+                queues.remove(key, this);
+            }
+        }
+    }
+
+    /**
+     * Hands the waiting operations without a partition that timed out or were cancelled
+     * over to a generic operation thread at once.
+     */
+    static class ExpirationBatch extends AbstractOperation {
+        final List<WaitingOp> waitingOps;
+
+        ExpirationBatch(List<WaitingOp> waitingOps) {
+            this.waitingOps = waitingOps;
+        }
+
+        @Override
+        public void run() throws Exception {
+            for (WaitingOp waitingOp : waitingOps) {
+                try {
+                    waitingOp.run();
+                } catch (Throwable t) {
+                    waitingOp.logError(t);
+                }
+            }
+        }
+
+        @Override
+        public boolean returnsResponse() {
+            return false;
+        }
+
+        @Override
+        public String getServiceName() {
+            return waitingOps.get(0).getServiceName();
+        }
+    }
+
+    /**
+     * Hands the waiting operations of a partition that timed out or were cancelled
+     * over to the partition thread at once.
+     */
+    static class PartitionExpirationBatch extends ExpirationBatch implements PartitionAwareOperation {
+
+        PartitionExpirationBatch(List<WaitingOp> waitingOps) {
+            super(waitingOps);
         }
-        mapWaitingOps.clear();
     }
 
-    static class WaitingOp extends AbstractOperation implements Delayed, PartitionAwareOperation {
-        final Queue<WaitingOp> queue;
+    static class WaitingOp extends AbstractOperation implements PartitionAwareOperation {
+        final WaitNotifyServiceImpl waitNotifyService;
+        final WaitQueue queue;
         final Operation op;
         final WaitSupport waitSupport;
         final long expirationTime;
+        long deadline;
         volatile boolean valid = true;
         volatile Throwable error = null;
 
-        WaitingOp(Queue<WaitingOp> queue, WaitSupport waitSupport) {
+        WaitingOp(WaitNotifyServiceImpl waitNotifyService, WaitQueue queue, WaitSupport waitSupport) {
+            this.waitNotifyService = waitNotifyService;
             this.op = (Operation) waitSupport;
             this.waitSupport = waitSupport;
             this.queue = queue;
@@ -265,10 +471,6 @@ class WaitNotifyServiceImpl implements WaitNotifyService {
             return valid;
         }
 
-        public boolean needsInvalidation() {
-            return isExpired() || isCancelled() || isCallTimedOut();
-        }
-
         public boolean isExpired() {
             return expirationTime > 0 && Clock.currentTimeMillis() >= expirationTime;
         }
@@ -290,29 +492,29 @@ class WaitNotifyServiceImpl implements WaitNotifyService {
             return waitSupport.shouldWait();
         }
 
-        public long getDelay(TimeUnit unit) {
-            return unit.convert(expirationTime - Clock.currentTimeMillis(), TimeUnit.MILLISECONDS);
-        }
-
-        public int compareTo(Delayed other) {
-            if (other == this) // compare zero ONLY if same object
-                return 0;
-            long d = (getDelay(TimeUnit.NANOSECONDS) -
-                    other.getDelay(TimeUnit.NANOSECONDS));
-            return (d == 0) ? 0 : ((d < 0) ? -1 : 1);
-        }
-
+        // runs on the partition thread when the deadline of the op has passed or it is cancelled
         @Override
         public void run() throws Exception {
             if (valid) {
-                if (isCancelled() && queue.remove(this)) {
+                if (isCancelled() || isCallTimedOut()) {
+                    invalidate();
                     op.getResponseHandler().sendResponse(error);
-                } else if (isExpired() && queue.remove(this)) {
+                } else if (isExpired()) {
+                    invalidate();
                     waitSupport.onWaitExpire();
+                } else {
+                    // call timeout is in cluster time, deadline was an estimate
+                    deadline = Clock.currentTimeMillis() + TICK_MILLIS;
+                    waitNotifyService.schedule(this);
                 }
             }
         }
 
+        private void invalidate() {
+            valid = false;
+            queue.onInvalidated();
+        }
+
         public void logError(Throwable e) {
             final ILogger logger = getLogger();
             if (e instanceof RetryableException) {
@@ -361,11 +563,17 @@ class WaitNotifyServiceImpl implements WaitNotifyService {
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder("WaitNotifyService{");
-        sb.append("delayQueue=" + delayQueue.size());
+        int timers = 0;
+        for (Queue<WaitingOp> slot : wheel) {
+            timers += slot.size();
+        }
+        sb.append("timers=" + timers);
         sb.append(" \n[");
-        for (Queue<WaitingOp> ScheduledOps : mapWaitingOps.values()) {
-            sb.append("\t");
-            sb.append(ScheduledOps.size() + ", ");
+        for (ConcurrentMap<WaitNotifyKey, WaitQueue> queues : waitQueues) {
+            for (Queue<WaitingOp> ScheduledOps : queues.values()) {
+                sb.append("\t");
+                sb.append(ScheduledOps.size() + ", ");
+            }
         }
         sb.append("]\n}");
         return sb.toString();
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.topic;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.spi.ReadonlyOperation;
+import com.hazelcast.spi.WaitNotifyKey;
+import com.hazelcast.spi.WaitSupport;
+
+import java.io.IOException;
+
+/**
+ * Reads a batch of messages of a reliable topic starting from a sequence. If there is no message
+ * at the sequence yet, the operation waits for one up to its timeout and then returns an empty batch.
+ */
+public class ReadBatchOperation extends ReliableTopicOperation implements WaitSupport, ReadonlyOperation {
+
+    private long sequence;
+    private int maxCount;
+    private long timeoutMillis;
+
+    public ReadBatchOperation() {
+    }
+
+    public ReadBatchOperation(String name, long sequence, int maxCount, long timeoutMillis) {
+        super(name);
+        this.sequence = sequence;
+        this.maxCount = maxCount;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public void run() throws Exception {
+        final TopicRingBuffer ringBuffer = getRingBuffer();
+        sequence = ringBuffer.adjustReadSequence(sequence);
+        response = ringBuffer.read(sequence, maxCount);
+    }
+
+    public WaitNotifyKey getWaitKey() {
+        return new TopicWaitNotifyKey(name);
+    }
+
+    public boolean shouldWait() {
+        final TopicRingBuffer ringBuffer = getRingBuffer();
+        sequence = ringBuffer.adjustReadSequence(sequence);
+        return timeoutMillis > 0 && sequence > ringBuffer.getTailSequence();
+    }
+
+    public long getWaitTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    public void onWaitExpire() {
+        getResponseHandler().sendResponse(ReadResult.empty(sequence));
+    }
+
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        super.writeInternal(out);
+        out.writeLong(sequence);
+        out.writeInt(maxCount);
+        out.writeLong(timeoutMillis);
+    }
+
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        super.readInternal(in);
+        sequence = in.readLong();
+        maxCount = in.readInt();
+        timeoutMillis = in.readLong();
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.topic;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.DataSerializable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Batch of messages read from the ring buffer of a reliable topic.
+ */
+public class ReadResult implements DataSerializable {
+
+    private List<ReliableTopicMessage> messages;
+    private long nextSequence;
+    private long lostCount;
+
+    public ReadResult() {
+    }
+
+    public ReadResult(List<ReliableTopicMessage> messages, long nextSequence, long lostCount) {
+        this.messages = messages;
+        this.nextSequence = nextSequence;
+        this.lostCount = lostCount;
+    }
+
+    static ReadResult empty(long nextSequence) {
+        return new ReadResult(Collections.<ReliableTopicMessage>emptyList(), nextSequence, 0);
+    }
+
+    public List<ReliableTopicMessage> getMessages() {
+        return messages;
+    }
+
+    /**
+     * Sequence the reader should continue from.
+     */
+    public long getNextSequence() {
+        return nextSequence;
+    }
+
+    /**
+     * Number of messages which had been overwritten before the reader got to them.
+     */
+    public long getLostCount() {
+        return lostCount;
+    }
+
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeLong(nextSequence);
+        out.writeLong(lostCount);
+        out.writeInt(messages.size());
+        for (ReliableTopicMessage message : messages) {
+            message.writeData(out);
+        }
+    }
+
+    public void readData(ObjectDataInput in) throws IOException {
+        nextSequence = in.readLong();
+        lostCount = in.readLong();
+        final int size = in.readInt();
+        messages = new ArrayList<ReliableTopicMessage>(size);
+        for (int i = 0; i < size; i++) {
+            final ReliableTopicMessage message = new ReliableTopicMessage();
+            message.readData(in);
+            messages.add(message);
+        }
+    }
+}
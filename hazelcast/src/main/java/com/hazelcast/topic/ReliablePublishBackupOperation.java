@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.topic;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.spi.BackupOperation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stores the messages appended by a {@link ReliablePublishOperation} at the same sequences on a backup.
+ */
+public class ReliablePublishBackupOperation extends ReliableTopicOperation implements BackupOperation {
+
+    private long firstSequence;
+    private List<ReliableTopicMessage> messages;
+
+    public ReliablePublishBackupOperation() {
+    }
+
+    public ReliablePublishBackupOperation(String name, long firstSequence, List<ReliableTopicMessage> messages) {
+        super(name);
+        this.firstSequence = firstSequence;
+        this.messages = messages;
+    }
+
+    public void run() throws Exception {
+        final TopicRingBuffer ringBuffer = getRingBuffer();
+        for (int i = 0; i < messages.size(); i++) {
+            ringBuffer.set(firstSequence + i, messages.get(i));
+        }
+        response = Boolean.TRUE;
+    }
+
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        super.writeInternal(out);
+        out.writeLong(firstSequence);
+        out.writeInt(messages.size());
+        for (ReliableTopicMessage message : messages) {
+            message.writeData(out);
+        }
+    }
+
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        super.readInternal(in);
+        firstSequence = in.readLong();
+        final int size = in.readInt();
+        messages = new ArrayList<ReliableTopicMessage>(size);
+        for (int i = 0; i < size; i++) {
+            final ReliableTopicMessage message = new ReliableTopicMessage();
+            message.readData(in);
+            messages.add(message);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.topic;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.BackupAwareOperation;
+import com.hazelcast.spi.Notifier;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.WaitNotifyKey;
+import com.hazelcast.util.Clock;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Appends a batch of messages to the ring buffer of a reliable topic and wakes up the waiting readers.
+ * Returns the sequence of the last message.
+ */
+public class ReliablePublishOperation extends ReliableTopicOperation implements BackupAwareOperation, Notifier {
+
+    private List<Data> payloads;
+    private transient long firstSequence;
+    private transient List<ReliableTopicMessage> messages;
+
+    public ReliablePublishOperation() {
+    }
+
+    public ReliablePublishOperation(String name, List<Data> payloads) {
+        super(name);
+        this.payloads = payloads;
+    }
+
+    public void run() throws Exception {
+        final long publishTime = Clock.currentTimeMillis();
+        messages = new ArrayList<ReliableTopicMessage>(payloads.size());
+        for (Data payload : payloads) {
+            messages.add(new ReliableTopicMessage(payload, publishTime, getCallerAddress()));
+        }
+        firstSequence = getRingBuffer().addAll(messages);
+        response = firstSequence + messages.size() - 1;
+    }
+
+    public boolean shouldNotify() {
+        return true;
+    }
+
+    public WaitNotifyKey getNotifiedKey() {
+        return new TopicWaitNotifyKey(name);
+    }
+
+    public boolean shouldBackup() {
+        return true;
+    }
+
+    public int getSyncBackupCount() {
+        return getRingBuffer().getBackupCount();
+    }
+
+    public int getAsyncBackupCount() {
+        return 0;
+    }
+
+    public Operation getBackupOperation() {
+        return new ReliablePublishBackupOperation(name, firstSequence, messages);
+    }
+
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        super.writeInternal(out);
+        out.writeInt(payloads.size());
+        for (Data payload : payloads) {
+            payload.writeData(out);
+        }
+    }
+
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        super.readInternal(in);
+        final int size = in.readInt();
+        payloads = new ArrayList<Data>(size);
+        for (int i = 0; i < size; i++) {
+            final Data payload = new Data();
+            payload.readData(in);
+            payloads.add(payload);
+        }
+    }
+}
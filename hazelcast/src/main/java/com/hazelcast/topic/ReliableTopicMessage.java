@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.topic;
+
+import com.hazelcast.nio.Address;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.nio.serialization.DataSerializable;
+
+import java.io.IOException;
+
+/**
+ * Message of a reliable topic as it is kept in the ring buffer.
+ */
+public class ReliableTopicMessage implements DataSerializable {
+
+    private Data payload;
+    private long publishTime;
+    private Address publisherAddress;
+
+    public ReliableTopicMessage() {
+    }
+
+    public ReliableTopicMessage(Data payload, long publishTime, Address publisherAddress) {
+        this.payload = payload;
+        this.publishTime = publishTime;
+        this.publisherAddress = publisherAddress;
+    }
+
+    public Data getPayload() {
+        return payload;
+    }
+
+    public long getPublishTime() {
+        return publishTime;
+    }
+
+    public Address getPublisherAddress() {
+        return publisherAddress;
+    }
+
+    public void writeData(ObjectDataOutput out) throws IOException {
+        payload.writeData(out);
+        out.writeLong(publishTime);
+        out.writeObject(publisherAddress);
+    }
+
+    public void readData(ObjectDataInput in) throws IOException {
+        payload = new Data();
+        payload.readData(in);
+        publishTime = in.readLong();
+        publisherAddress = in.readObject();
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.topic;
+
+import com.hazelcast.spi.PartitionAwareOperation;
+import com.hazelcast.spi.impl.AbstractNamedOperation;
+
+/**
+ * Operation on the ring buffer of a reliable topic, run on the partition thread of the topic.
+ */
+abstract class ReliableTopicOperation extends AbstractNamedOperation implements PartitionAwareOperation {
+
+    protected transient Object response;
+
+    protected ReliableTopicOperation() {
+    }
+
+    protected ReliableTopicOperation(String name) {
+        super(name);
+    }
+
+    TopicRingBuffer getRingBuffer() {
+        TopicService service = getService();
+        return service.getOrCreateRingBuffer(name);
+    }
+
+    @Override
+    public Object getResponse() {
+        return response;
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.topic;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.spi.AbstractOperation;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Copies the ring buffers of the reliable topics of a partition to a new owner or backup.
+ */
+public class TopicReplicationOperation extends AbstractOperation {
+
+    private Map<String, TopicRingBuffer> migrationData;
+
+    public TopicReplicationOperation() {
+    }
+
+    public TopicReplicationOperation(Map<String, TopicRingBuffer> migrationData) {
+        this.migrationData = migrationData;
+    }
+
+    public void run() throws Exception {
+        TopicService service = getService();
+        service.insertMigrationData(migrationData);
+    }
+
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        out.writeInt(migrationData.size());
+        for (Map.Entry<String, TopicRingBuffer> entry : migrationData.entrySet()) {
+            out.writeUTF(entry.getKey());
+            entry.getValue().writeData(out);
+        }
+    }
+
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        final int size = in.readInt();
+        migrationData = new HashMap<String, TopicRingBuffer>(size);
+        for (int i = 0; i < size; i++) {
+            final String name = in.readUTF();
+            final TopicRingBuffer ringBuffer = new TopicRingBuffer();
+            ringBuffer.readData(in);
+            migrationData.put(name, ringBuffer);
+        }
+    }
+}
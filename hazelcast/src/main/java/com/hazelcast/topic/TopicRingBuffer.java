@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.topic;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.DataSerializable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bounded ring buffer of the messages of a reliable topic, kept by the owner and the backups of the
+ * partition of the topic.
+ * <p/>
+ * Every message gets the next sequence number; the buffer retains the last <tt>capacity</tt> ones,
+ * from <tt>headSequence</tt> up to and including <tt>tailSequence</tt>. Readers keep their own sequence,
+ * so a slow reader does not hold up the publishers; when it falls behind the head it skips the messages
+ * which have been overwritten.
+ * <p/>
+ * Not thread-safe, accessed by the partition thread of the topic.
+ */
+public class TopicRingBuffer implements DataSerializable {
+
+    private int partitionId;
+    private int backupCount;
+    private ReliableTopicMessage[] items;
+    private long headSequence;
+    private long tailSequence = -1;
+
+    public TopicRingBuffer() {
+    }
+
+    public TopicRingBuffer(int partitionId, int capacity, int backupCount) {
+        this.partitionId = partitionId;
+        this.backupCount = backupCount;
+        this.items = new ReliableTopicMessage[capacity];
+    }
+
+    /**
+     * Appends given messages and returns the sequence of the first one.
+     */
+    public long addAll(List<ReliableTopicMessage> messages) {
+        final long firstSequence = tailSequence + 1;
+        for (int i = 0; i < messages.size(); i++) {
+            set(firstSequence + i, messages.get(i));
+        }
+        return firstSequence;
+    }
+
+    /**
+     * Stores given message at given sequence; used by the backups to follow the sequences of the owner.
+     */
+    public void set(long sequence, ReliableTopicMessage message) {
+        items[(int) (sequence % items.length)] = message;
+        if (sequence > tailSequence) {
+            tailSequence = sequence;
+        }
+        headSequence = Math.max(headSequence, tailSequence - items.length + 1);
+    }
+
+    /**
+     * Reads at most <tt>maxCount</tt> messages starting from <tt>sequence</tt>, which is moved to
+     * the head if those messages have been overwritten already.
+     */
+    public ReadResult read(long sequence, int maxCount) {
+        final long from = Math.max(sequence, headSequence);
+        final long to = Math.min(tailSequence, from + maxCount - 1);
+        final List<ReliableTopicMessage> messages = new ArrayList<ReliableTopicMessage>((int) Math.max(0, to - from + 1));
+        for (long seq = from; seq <= to; seq++) {
+            messages.add(items[(int) (seq % items.length)]);
+        }
+        return new ReadResult(messages, Math.max(from, to + 1), from - sequence);
+    }
+
+    /**
+     * Returns the sequence a reader starting at given sequence actually starts from: the next message
+     * for a negative sequence, and the next message as well for a sequence beyond it, which is possible
+     * when the messages of a lost partition could not be recovered from a backup.
+     */
+    public long adjustReadSequence(long sequence) {
+        return sequence < 0 || sequence > tailSequence + 1 ? tailSequence + 1 : sequence;
+    }
+
+    public int getPartitionId() {
+        return partitionId;
+    }
+
+    public int getBackupCount() {
+        return backupCount;
+    }
+
+    public int getCapacity() {
+        return items.length;
+    }
+
+    public long getHeadSequence() {
+        return headSequence;
+    }
+
+    public long getTailSequence() {
+        return tailSequence;
+    }
+
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeInt(partitionId);
+        out.writeInt(backupCount);
+        out.writeInt(items.length);
+        out.writeLong(headSequence);
+        out.writeLong(tailSequence);
+        for (long seq = headSequence; seq <= tailSequence; seq++) {
+            items[(int) (seq % items.length)].writeData(out);
+        }
+    }
+
+    public void readData(ObjectDataInput in) throws IOException {
+        partitionId = in.readInt();
+        backupCount = in.readInt();
+        items = new ReliableTopicMessage[in.readInt()];
+        headSequence = in.readLong();
+        tailSequence = in.readLong();
+        for (long seq = headSequence; seq <= tailSequence; seq++) {
+            final ReliableTopicMessage message = new ReliableTopicMessage();
+            message.readData(in);
+            items[(int) (seq % items.length)] = message;
+        }
+    }
+}
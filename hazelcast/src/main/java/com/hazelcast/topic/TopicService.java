@@ -20,13 +20,19 @@ import com.hazelcast.config.TopicConfig;
 import com.hazelcast.core.Message;
 import com.hazelcast.core.MessageListener;
 import com.hazelcast.monitor.impl.LocalTopicStatsImpl;
+import com.hazelcast.partition.MigrationEndpoint;
+import com.hazelcast.partition.strategy.StringPartitioningStrategy;
 import com.hazelcast.spi.*;
+import com.hazelcast.topic.proxy.ReliableTopicProxy;
 import com.hazelcast.topic.proxy.TopicProxy;
 import com.hazelcast.topic.proxy.TotalOrderedTopicProxy;
 import com.hazelcast.util.ConcurrencyUtil;
 import com.hazelcast.util.ConstructorFunction;
 
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -38,7 +44,7 @@ import java.util.concurrent.locks.ReentrantLock;
  * Date: 12/26/12
  * Time: 1:50 PM
  */
-public class TopicService implements ManagedService, RemoteService, EventPublishingService {
+public class TopicService implements ManagedService, RemoteService, EventPublishingService, MigrationAwareService {
 
     public static final String SERVICE_NAME = "hz:impl:topicService";
     private final Lock[] orderingLocks = new Lock[1000];
@@ -46,6 +52,16 @@ public class TopicService implements ManagedService, RemoteService, EventPublish
 
     private final ConcurrentMap<String, LocalTopicStatsImpl> statsMap = new ConcurrentHashMap<String, LocalTopicStatsImpl>();
 
+    // ring buffers of the reliable topics whose partitions are owned or backed up by this member
+    private final ConcurrentMap<String, TopicRingBuffer> ringBuffers = new ConcurrentHashMap<String, TopicRingBuffer>();
+
+    private final ConstructorFunction<String, TopicRingBuffer> ringBufferConstructor = new ConstructorFunction<String, TopicRingBuffer>() {
+        public TopicRingBuffer createNew(String name) {
+            TopicConfig topicConfig = nodeEngine.getConfig().findTopicConfig(name);
+            return new TopicRingBuffer(getPartitionId(name), topicConfig.getRingBufferCapacity(), topicConfig.getBackupCount());
+        }
+    };
+
     private final ConstructorFunction<String, LocalTopicStatsImpl> localTopicStatsConstructorFunction = new ConstructorFunction<String, LocalTopicStatsImpl>() {
         public LocalTopicStatsImpl createNew(String mapName) {
             return new LocalTopicStatsImpl();
@@ -61,6 +77,7 @@ public class TopicService implements ManagedService, RemoteService, EventPublish
 
     public void reset() {
         statsMap.clear();
+        ringBuffers.clear();
     }
 
     public void shutdown() {
@@ -75,7 +92,9 @@ public class TopicService implements ManagedService, RemoteService, EventPublish
     public TopicProxy createDistributedObject(String name) {
         TopicProxy proxy;
         TopicConfig topicConfig = nodeEngine.getConfig().findTopicConfig(name);
-        if (topicConfig.isGlobalOrderingEnabled())
+        if (topicConfig.isReliable())
+            proxy = new ReliableTopicProxy(name, nodeEngine, this);
+        else if (topicConfig.isGlobalOrderingEnabled())
             proxy = new TotalOrderedTopicProxy(name, nodeEngine, this);
         else
             proxy = new TopicProxy(name, nodeEngine, this);
@@ -84,6 +103,69 @@ public class TopicService implements ManagedService, RemoteService, EventPublish
 
     public void destroyDistributedObject(String objectId) {
         statsMap.remove(objectId);
+        ringBuffers.remove(objectId);
+    }
+
+    /**
+     * Client requests publish and listen through events and do not reach the ring buffer, so clients
+     * are refused access to reliable topics.
+     */
+    public void checkClientAccess(String name) {
+        if (nodeEngine.getConfig().findTopicConfig(name).isReliable()) {
+            throw new UnsupportedOperationException("Reliable topic '" + name + "' cannot be accessed by clients!");
+        }
+    }
+
+    public int getPartitionId(String name) {
+        return nodeEngine.getPartitionService().getPartitionId(StringPartitioningStrategy.getPartitionKey(name));
+    }
+
+    public TopicRingBuffer getOrCreateRingBuffer(String name) {
+        return ConcurrencyUtil.getOrPutIfAbsent(ringBuffers, name, ringBufferConstructor);
+    }
+
+    public void beforeMigration(PartitionMigrationEvent event) {
+    }
+
+    public Operation prepareReplicationOperation(PartitionReplicationEvent event) {
+        Map<String, TopicRingBuffer> migrationData = new HashMap<String, TopicRingBuffer>();
+        for (Map.Entry<String, TopicRingBuffer> entry : ringBuffers.entrySet()) {
+            TopicRingBuffer ringBuffer = entry.getValue();
+            if (ringBuffer.getPartitionId() == event.getPartitionId()
+                    && ringBuffer.getBackupCount() >= event.getReplicaIndex()) {
+                migrationData.put(entry.getKey(), ringBuffer);
+            }
+        }
+        return migrationData.isEmpty() ? null : new TopicReplicationOperation(migrationData);
+    }
+
+    void insertMigrationData(Map<String, TopicRingBuffer> migrationData) {
+        ringBuffers.putAll(migrationData);
+    }
+
+    public void commitMigration(PartitionMigrationEvent event) {
+        if (event.getMigrationEndpoint() == MigrationEndpoint.SOURCE) {
+            clearMigrationData(event.getPartitionId());
+        }
+    }
+
+    public void rollbackMigration(PartitionMigrationEvent event) {
+        if (event.getMigrationEndpoint() == MigrationEndpoint.DESTINATION) {
+            clearMigrationData(event.getPartitionId());
+        }
+    }
+
+    public void clearPartitionReplica(int partitionId) {
+        clearMigrationData(partitionId);
+    }
+
+    private void clearMigrationData(int partitionId) {
+        Iterator<TopicRingBuffer> iter = ringBuffers.values().iterator();
+        while (iter.hasNext()) {
+            if (iter.next().getPartitionId() == partitionId) {
+                iter.remove();
+            }
+        }
     }
 
     public void dispatchEvent(Object event, Object listener) {
@@ -47,6 +47,7 @@ public class AddMessageListenerRequest extends CallableClientRequest implements
 
     public Object call() throws Exception {
         final TopicService service = getService();
+        service.checkClientAccess(name);
         final ClientEngine clientEngine = getClientEngine();
         final ClientEndpoint endpoint = getEndpoint();
         MessageListener listener = new MessageListener() {
@@ -56,6 +56,8 @@ public class PublishRequest extends PartitionClientRequest implements Portable,
     }
 
     protected int getPartition() {
+        final TopicService service = getService();
+        service.checkClientAccess(name);
         Data key = getClientEngine().toData(name);
         return getClientEngine().getPartitionService().getPartitionId(key);
     }
@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.topic.proxy;
+
+import com.hazelcast.core.HazelcastInstanceNotActiveException;
+import com.hazelcast.core.Member;
+import com.hazelcast.core.Message;
+import com.hazelcast.core.MessageListener;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.Callback;
+import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.topic.ReadBatchOperation;
+import com.hazelcast.topic.ReadResult;
+import com.hazelcast.topic.ReliablePublishOperation;
+import com.hazelcast.topic.ReliableTopicMessage;
+import com.hazelcast.topic.TopicService;
+import com.hazelcast.util.ExceptionUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Topic whose messages are appended to a bounded ring buffer owned by the partition of the topic
+ * and replicated to its backups, see {@link com.hazelcast.topic.TopicRingBuffer}.
+ * <p/>
+ * Concurrent publishers are batched: the publisher which finds no batch in flight sends the messages
+ * queued so far in a single operation while the others wait for it. It then hands over to the publisher
+ * at the head of the queue, so each publisher waits only for the batch of its own message. Each listener has its own reader,
+ * which reads batches of messages by sequence at the pace of the listener, so a slow listener neither
+ * slows down the publishers nor the other listeners; if it falls behind the capacity of the ring buffer,
+ * it skips the overwritten messages.
+ */
+public class ReliableTopicProxy<E> extends TopicProxy<E> {
+
+    private static final String EXECUTOR_NAME = "hz:reliable-topic";
+    private static final int MAX_PUBLISH_BATCH_SIZE = 1000;
+    private static final int READ_BATCH_SIZE = 100;
+    private static final long READ_TIMEOUT_MILLIS = 5000;
+    private static final long RETRY_DELAY_MILLIS = 1000;
+
+    private final int partitionId;
+    private final ILogger logger;
+    private final Queue<PendingPublish> pendingPublishes = new ConcurrentLinkedQueue<PendingPublish>();
+    private final AtomicBoolean publishing = new AtomicBoolean(false);
+    private final ConcurrentMap<String, MessageReader> readers = new ConcurrentHashMap<String, MessageReader>();
+
+    public ReliableTopicProxy(String name, NodeEngine nodeEngine, TopicService service) {
+        super(name, nodeEngine, service);
+        this.partitionId = service.getPartitionId(name);
+        this.logger = nodeEngine.getLogger(ReliableTopicProxy.class);
+    }
+
+    @Override
+    public void publish(E message) {
+        final PendingPublish pending = new PendingPublish(getNodeEngine().toData(message), Thread.currentThread());
+        pendingPublishes.offer(pending);
+        boolean interrupted = false;
+        while (!pending.done) {
+            if (publishing.compareAndSet(false, true)) {
+                try {
+                    publishNextBatch();
+                } finally {
+                    publishing.set(false);
+                }
+                // wakes up the publisher of the oldest queued message, which takes over if it is still queued
+                final PendingPublish next = pendingPublishes.peek();
+                if (next != null) {
+                    LockSupport.unpark(next.thread);
+                }
+            } else {
+                LockSupport.park(this);
+                // like invocations, the wait for the response is not interruptible
+                interrupted |= Thread.interrupted();
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (pending.error != null) {
+            throw ExceptionUtil.rethrow(pending.error);
+        }
+        getService().getLocalTopicStats(getName()).incrementPublishes();
+    }
+
+    /**
+     * Adds a listener which receives the messages starting from given sequence, which allows to replay
+     * the messages retained by the ring buffer. A negative sequence starts from the next published message.
+     */
+    public String addMessageListener(MessageListener<E> listener, long sequence) {
+        final String id = UUID.randomUUID().toString();
+        final MessageReader reader = new MessageReader(listener, sequence);
+        readers.put(id, reader);
+        reader.readNext();
+        return id;
+    }
+
+    @Override
+    public String addMessageListenerInternal(MessageListener listener) {
+        return addMessageListener(listener, -1);
+    }
+
+    @Override
+    public boolean removeMessageListenerInternal(String registrationId) {
+        final MessageReader reader = readers.remove(registrationId);
+        if (reader == null) {
+            return false;
+        }
+        reader.cancelled = true;
+        return true;
+    }
+
+    private void publishNextBatch() {
+        final List<PendingPublish> batch = new ArrayList<PendingPublish>();
+        PendingPublish pending;
+        while (batch.size() < MAX_PUBLISH_BATCH_SIZE && (pending = pendingPublishes.poll()) != null) {
+            batch.add(pending);
+        }
+        if (!batch.isEmpty()) {
+            publishBatch(batch);
+        }
+    }
+
+    private void publishBatch(List<PendingPublish> batch) {
+        final List<Data> payloads = new ArrayList<Data>(batch.size());
+        for (PendingPublish pending : batch) {
+            payloads.add(pending.payload);
+        }
+        Throwable error = null;
+        try {
+            final NodeEngine nodeEngine = getNodeEngine();
+            nodeEngine.getOperationService().createInvocationBuilder(TopicService.SERVICE_NAME,
+                    new ReliablePublishOperation(getName(), payloads), partitionId).build().invoke().get();
+        } catch (Throwable t) {
+            error = t;
+        }
+        for (PendingPublish pending : batch) {
+            pending.complete(error);
+        }
+    }
+
+    private static class PendingPublish {
+        final Data payload;
+        final Thread thread;
+        volatile Throwable error;
+        volatile boolean done;
+
+        PendingPublish(Data payload, Thread thread) {
+            this.payload = payload;
+            this.thread = thread;
+        }
+
+        void complete(Throwable error) {
+            this.error = error;
+            done = true;
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Reads the messages of the topic for a listener. There is at most one read in flight; its response
+     * is handed off to the topic executor which runs the listener and then issues the next read.
+     */
+    private class MessageReader implements Callback<Object>, Runnable {
+
+        private final MessageListener listener;
+        // kept here since the proxy refuses access once it is destroyed
+        private final NodeEngine nodeEngine;
+        private final TopicService topicService;
+        private volatile long sequence;
+        private volatile Object response;
+        private volatile boolean cancelled;
+
+        MessageReader(MessageListener listener, long sequence) {
+            this.listener = listener;
+            this.nodeEngine = getNodeEngine();
+            this.topicService = getService();
+            this.sequence = sequence;
+        }
+
+        void readNext() {
+            if (cancelled) {
+                return;
+            }
+            try {
+                // fails once the proxy is destroyed
+                getNodeEngine();
+                nodeEngine.getOperationService().createInvocationBuilder(TopicService.SERVICE_NAME,
+                        new ReadBatchOperation(getName(), sequence, READ_BATCH_SIZE, READ_TIMEOUT_MILLIS), partitionId)
+                        .setCallback(this).build().invoke();
+            } catch (HazelcastInstanceNotActiveException e) {
+                cancelled = true;
+            }
+        }
+
+        public void notify(Object response) {
+            this.response = nodeEngine.toObject(response);
+            nodeEngine.getExecutionService().execute(EXECUTOR_NAME, this);
+        }
+
+        public void run() {
+            if (cancelled || !nodeEngine.isActive()) {
+                return;
+            }
+            final Object result = response;
+            if (result instanceof Throwable) {
+                logger.finest("Could not read messages of topic '" + getName() + "', retrying", (Throwable) result);
+                nodeEngine.getExecutionService().schedule(new Runnable() {
+                    public void run() {
+                        readNext();
+                    }
+                }, RETRY_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+                return;
+            }
+            final ReadResult readResult = (ReadResult) result;
+            if (readResult.getLostCount() > 0) {
+                logger.warning("Listener " + listener + " of topic '" + getName() + "' has fallen behind and lost "
+                        + readResult.getLostCount() + " messages.");
+            }
+            for (ReliableTopicMessage message : readResult.getMessages()) {
+                if (cancelled) {
+                    return;
+                }
+                onMessage(message);
+            }
+            sequence = readResult.getNextSequence();
+            readNext();
+        }
+
+        private void onMessage(ReliableTopicMessage message) {
+            final Member publisher = message.getPublisherAddress() != null
+                    ? nodeEngine.getClusterService().getMember(message.getPublisherAddress()) : null;
+            topicService.incrementReceivedMessages(getName());
+            try {
+                listener.onMessage(new Message(getName(), nodeEngine.toObject(message.getPayload()),
+                        message.getPublishTime(), publisher));
+            } catch (Throwable t) {
+                logger.warning("Listener " + listener + " of topic '" + getName() + "' failed on a message", t);
+            }
+        }
+    }
+}
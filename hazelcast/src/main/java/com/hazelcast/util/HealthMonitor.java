@@ -131,8 +131,10 @@ public class HealthMonitor extends Thread {
         private final int eventQueueSize;
         private final int operationServiceOperationExecutorQueueSize;
         private final int operationServiceOperationResponseQueueSize;
+        private final int operationServicePriorityOperationQueueSize;
         private final int runningOperationsCount;
         private final int remoteOperationsCount;
+        private final long rejectedInvocationCount;
         private final int proxyCount;
         private final int clientEndpointCount;
         private final int activeConnectionCount;
@@ -161,8 +163,10 @@ public class HealthMonitor extends Thread {
              eventQueueSize = eventService.getEventQueueSize();
             operationServiceOperationExecutorQueueSize = operationService.getOperationExecutorQueueSize();
             operationServiceOperationResponseQueueSize = operationService.getResponseQueueSize();
+            operationServicePriorityOperationQueueSize = operationService.getPriorityOperationExecutorQueueSize();
             runningOperationsCount = operationService.getRunningOperationsCount();
             remoteOperationsCount = operationService.getRemoteOperationsCount();
+            rejectedInvocationCount = operationService.getRejectedInvocationCount();
             proxyCount = proxyService.getProxyCount();
             clientEndpointCount = clientEngine.getClientEndpointCount();
             activeConnectionCount = connectionManager.getActiveConnectionCount();
@@ -212,8 +216,10 @@ public class HealthMonitor extends Thread {
             sb.append("executor.q.system.size=").append(systemExecutorQueueSize).append(", ");
             sb.append("executor.q.operation.size=").append(operationServiceOperationExecutorQueueSize).append(", ");
             sb.append("executor.q.response.size=").append(operationServiceOperationResponseQueueSize).append(", ");
+            sb.append("executor.q.priorityOperation.size=").append(operationServicePriorityOperationQueueSize).append(", ");
             sb.append("operations.remote.size=").append(remoteOperationsCount).append(", ");
             sb.append("operations.running.size=").append(runningOperationsCount).append(", ");
+            sb.append("invocations.rejected.count=").append(rejectedInvocationCount).append(", ");
             sb.append("proxy.count=").append(proxyCount).append(", ");
             sb.append("clientEndpoint.count=").append(clientEndpointCount).append(", ");
             sb.append("connection.active.count=").append(activeConnectionCount).append(", ");
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free multi-producer/single-consumer ring buffer.
+ * <p/>
+ * Producers claim a slot by advancing the tail and then publish their element into it; the consumer
+ * takes published elements in slot order. A slot which has been claimed but not published yet keeps
+ * the buffer non-empty, so the consumer never overtakes it.
+ *
+ * @param <E> type of the elements
+ */
+public final class MpscRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> buffer;
+    private final int capacity;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    // written by the consumer only
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * @param capacity rounded up to the next power of two.
+     */
+    public MpscRingBuffer(int capacity) {
+        int c = 1;
+        while (c < capacity) {
+            c <<= 1;
+        }
+        this.capacity = c;
+        this.mask = c - 1;
+        this.buffer = new AtomicReferenceArray<E>(c);
+    }
+
+    /**
+     * Adds given element if the buffer is not full. Can be called by any thread.
+     *
+     * @return false if the buffer is full.
+     */
+    public boolean offer(E e) {
+        if (e == null) {
+            throw new NullPointerException();
+        }
+        long t;
+        do {
+            t = tail.get();
+            if (t - head.get() >= capacity) {
+                return false;
+            }
+        } while (!tail.compareAndSet(t, t + 1));
+        buffer.lazySet((int) t & mask, e);
+        return true;
+    }
+
+    /**
+     * Removes the next element, waiting for its producer to publish it if its slot has been claimed.
+     * Must be called by the consumer thread only.
+     *
+     * @return null if the buffer is empty.
+     */
+    public E poll() {
+        final long h = head.get();
+        final int index = (int) h & mask;
+        E e = buffer.get(index);
+        if (e == null) {
+            if (h == tail.get()) {
+                return null;
+            }
+            while ((e = buffer.get(index)) == null) {
+                // producer is between claiming and publishing the slot
+            }
+        }
+        buffer.lazySet(index, null);
+        head.lazySet(h + 1);
+        return e;
+    }
+
+    /**
+     * Moves up to <tt>batch.length</tt> published elements into <tt>batch</tt>, advancing the head once.
+     * Must be called by the consumer thread only.
+     *
+     * @return number of elements moved, 0 if none has been published yet.
+     */
+    public int drainTo(Object[] batch) {
+        final long h = head.get();
+        int count = 0;
+        while (count < batch.length) {
+            final int index = (int) (h + count) & mask;
+            final E e = buffer.get(index);
+            if (e == null) {
+                break;
+            }
+            buffer.lazySet(index, null);
+            batch[count++] = e;
+        }
+        if (count > 0) {
+            head.lazySet(h + count);
+        }
+        return count;
+    }
+
+    /**
+     * True if no slot is claimed; an element which is being published counts as present.
+     */
+    public boolean isEmpty() {
+        return head.get() == tail.get();
+    }
+
+    public int size() {
+        final long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.benchmarks;
+
+
+import com.carrotsearch.junitbenchmarks.BenchmarkRule;
+import com.carrotsearch.junitbenchmarks.annotation.AxisRange;
+import com.carrotsearch.junitbenchmarks.annotation.BenchmarkHistoryChart;
+import com.carrotsearch.junitbenchmarks.annotation.BenchmarkMethodChart;
+import com.carrotsearch.junitbenchmarks.annotation.LabelType;
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.instance.GroupProperties;
+import org.junit.*;
+import org.junit.rules.TestRule;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Operations per second of a single member against the number of its operation threads.
+ */
+@AxisRange(min = 0, max = 1)
+@BenchmarkMethodChart(filePrefix = "benchmark-operation-thread")
+@BenchmarkHistoryChart(filePrefix = "benchmark-operation-thread-history", labelWith = LabelType.CUSTOM_KEY, maxRuns = 20)
+public class OperationThreadBenchmark {
+    @Rule
+    public TestRule benchmarkRun = new BenchmarkRule();
+
+    private static final int CALLER_THREADS = 16;
+    private static final int OPERATIONS_PER_CALLER = 50000;
+
+    @After
+    public void after() {
+        Hazelcast.shutdownAll();
+    }
+
+    @Test
+    public void oneOperationThread() throws Exception {
+        run(1);
+    }
+
+    @Test
+    public void twoOperationThreads() throws Exception {
+        run(2);
+    }
+
+    @Test
+    public void fourOperationThreads() throws Exception {
+        run(4);
+    }
+
+    @Test
+    public void eightOperationThreads() throws Exception {
+        run(8);
+    }
+
+    private void run(int operationThreadCount) throws Exception {
+        final Config config = new Config();
+        config.setProperty(GroupProperties.PROP_OPERATION_THREAD_COUNT, String.valueOf(operationThreadCount));
+        final HazelcastInstance hazelcastInstance = Hazelcast.newHazelcastInstance(config);
+        final IMap<Object, Object> map = hazelcastInstance.getMap("exampleMap");
+        final CountDownLatch latch = new CountDownLatch(CALLER_THREADS);
+        for (int t = 0; t < CALLER_THREADS; t++) {
+            final int offset = t * OPERATIONS_PER_CALLER;
+            new Thread() {
+                public void run() {
+                    for (int k = 0; k < OPERATIONS_PER_CALLER; k++) {
+                        map.set(offset + k % 1000, "bar");
+                    }
+                    latch.countDown();
+                }
+            }.start();
+        }
+        latch.await();
+    }
+}
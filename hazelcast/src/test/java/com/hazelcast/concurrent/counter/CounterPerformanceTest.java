@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.concurrent.counter;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IAtomicLong;
+import com.hazelcast.core.ICounter;
+import org.junit.Ignore;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Compares the update throughput of {@link ICounter#increment()} with
+ * {@link IAtomicLong#incrementAndGet()} on a small cluster.
+ */
+@Ignore("not a JUnit test")
+public class CounterPerformanceTest {
+
+    static final int MEMBER_COUNT = 2;
+    static final int THREAD_COUNT = 8;
+    static final int OPERATIONS_PER_THREAD = 100000;
+
+    public static void main(String[] args) throws Exception {
+        final HazelcastInstance[] instances = new HazelcastInstance[MEMBER_COUNT];
+        for (int i = 0; i < MEMBER_COUNT; i++) {
+            instances[i] = Hazelcast.newHazelcastInstance(new Config());
+        }
+        final HazelcastInstance instance = instances[0];
+
+        final IAtomicLong atomicLong = instance.getAtomicLong("atomicLong");
+        long elapsed = run(new Runnable() {
+            public void run() {
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    atomicLong.incrementAndGet();
+                }
+            }
+        });
+        print("IAtomicLong.incrementAndGet", elapsed, atomicLong.get());
+
+        final ICounter counter = instance.getCounter("counter");
+        elapsed = run(new Runnable() {
+            public void run() {
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    counter.increment();
+                }
+                counter.getExact();
+            }
+        });
+        print("ICounter.increment", elapsed, counter.getExact());
+
+        Hazelcast.shutdownAll();
+    }
+
+    private static long run(final Runnable task) throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(THREAD_COUNT);
+        final long start = System.nanoTime();
+        for (int i = 0; i < THREAD_COUNT; i++) {
+            new Thread() {
+                public void run() {
+                    task.run();
+                    latch.countDown();
+                }
+            }.start();
+        }
+        latch.await();
+        return (System.nanoTime() - start) / 1000000;
+    }
+
+    private static void print(String name, long elapsedMillis, long value) {
+        final long total = (long) THREAD_COUNT * OPERATIONS_PER_THREAD;
+        System.err.println(name + ": " + total + " updates in " + elapsedMillis + " ms, "
+                + (total * 1000 / Math.max(1, elapsedMillis)) + " ops/s, value: " + value);
+    }
+}
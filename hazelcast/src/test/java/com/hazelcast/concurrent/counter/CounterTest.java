@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.concurrent.counter;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.HazelcastException;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IAtomicLong;
+import com.hazelcast.core.ICounter;
+import com.hazelcast.test.HazelcastJUnit4ClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ClientCompatibleTest;
+import com.hazelcast.test.annotation.ParallelTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastJUnit4ClassRunner.class)
+@Category(ParallelTest.class)
+public class CounterTest extends HazelcastTestSupport {
+
+    @Test
+    @ClientCompatibleTest
+    public void testSimpleCounter() {
+        HazelcastInstance hazelcastInstance = createHazelcastInstanceFactory(1).newHazelcastInstance(new Config());
+        ICounter counter = hazelcastInstance.getCounter("testSimpleCounter");
+        assertEquals(0, counter.getExact());
+        counter.increment();
+        counter.increment();
+        counter.decrement();
+        counter.add(41);
+        assertEquals(42, counter.get());
+        assertEquals(42, counter.getExact());
+    }
+
+    @Test
+    public void testCounterOnManyMembers() throws InterruptedException {
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(3);
+        final HazelcastInstance[] instances = factory.newInstances(new Config());
+        final int threadsPerMember = 4;
+        final int k = 1000;
+        final CountDownLatch latch = new CountDownLatch(instances.length * threadsPerMember);
+        for (final HazelcastInstance instance : instances) {
+            for (int i = 0; i < threadsPerMember; i++) {
+                new Thread() {
+                    public void run() {
+                        ICounter counter = instance.getCounter("testCounterOnManyMembers");
+                        for (int j = 0; j < k; j++) {
+                            counter.increment();
+                        }
+                        counter.getExact();
+                        latch.countDown();
+                    }
+                }.start();
+            }
+        }
+        assertTrue(latch.await(60, TimeUnit.SECONDS));
+        for (HazelcastInstance instance : instances) {
+            assertEquals(instances.length * threadsPerMember * k, instance.getCounter("testCounterOnManyMembers").getExact());
+        }
+        instances[0].getLifecycleService().shutdown();
+        assertEquals(instances.length * threadsPerMember * k, instances[1].getCounter("testCounterOnManyMembers").getExact());
+    }
+
+    @Test
+    public void testPendingUpdatesAreFlushedOnShutdown() {
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        final HazelcastInstance[] instances = factory.newInstances(new Config());
+        ICounter counter = instances[0].getCounter("testPendingUpdatesAreFlushedOnShutdown");
+        for (int i = 0; i < 100000; i++) {
+            counter.increment();
+        }
+        instances[0].getLifecycleService().shutdown();
+        assertEquals(100000, instances[1].getCounter("testPendingUpdatesAreFlushedOnShutdown").getExact());
+    }
+
+    @Test
+    public void testDestroy() {
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        final HazelcastInstance[] instances = factory.newInstances(new Config());
+        final String name = "testDestroy";
+        final ICounter counter0 = instances[0].getCounter(name);
+        final ICounter counter1 = instances[1].getCounter(name);
+        counter0.add(5);
+        counter1.add(7);
+        assertEquals(12, counter0.getExact());
+
+        counter0.destroy();
+        for (HazelcastInstance instance : instances) {
+            final ICounter counter = instance.getCounter(name);
+            assertNotSame(instance == instances[0] ? counter0 : counter1, counter);
+            assertEquals(0, counter.getExact());
+        }
+        instances[0].getCounter(name).add(3);
+        instances[1].getCounter(name).add(4);
+        for (HazelcastInstance instance : instances) {
+            assertEquals(7, instance.getCounter(name).getExact());
+        }
+    }
+
+    @Test
+    public void testFailedFlushIsRetried() {
+        HazelcastInstance instance = createHazelcastInstanceFactory(1).newHazelcastInstance(new Config());
+        final IAtomicLong[] shards = CounterService.getShards(instance, "testFailedFlushIsRetried");
+        final AtomicInteger failures = new AtomicInteger(1);
+        final IAtomicLong shard = shards[0];
+        shards[0] = (IAtomicLong) Proxy.newProxyInstance(IAtomicLong.class.getClassLoader(),
+                new Class[]{IAtomicLong.class}, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if (method.getName().equals("addAndGet") && failures.getAndDecrement() > 0) {
+                    throw new HazelcastException("failed");
+                }
+                return method.invoke(shard, args);
+            }
+        });
+        final ManualFlushExecutor executor = new ManualFlushExecutor();
+        final ShardedCounter counter = new ShardedCounter(shards, 0, executor);
+
+        counter.add(5);
+        assertEquals(1, executor.tasks.size());
+        executor.runTasks();
+        // the failed flush has been scheduled again with a delay
+        assertEquals(1, executor.delayedTasks.size());
+        assertEquals(0, shard.get());
+
+        executor.delayedTasks.poll().run();
+        assertEquals(5, shard.get());
+        assertEquals(5, counter.getExact());
+    }
+
+    private static class ManualFlushExecutor implements ShardedCounter.FlushExecutor {
+        final Queue<Runnable> tasks = new LinkedList<Runnable>();
+        final Queue<Runnable> delayedTasks = new LinkedList<Runnable>();
+
+        public void execute(Runnable command) {
+            tasks.offer(command);
+        }
+
+        public void schedule(Runnable command, long delayMillis) {
+            delayedTasks.offer(command);
+        }
+
+        void runTasks() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.concurrent.idgen;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IdGenerator;
+import com.hazelcast.test.HazelcastJUnit4ClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+@RunWith(HazelcastJUnit4ClassRunner.class)
+@Category(ParallelTest.class)
+public class IdGeneratorTest extends HazelcastTestSupport {
+
+    @Test
+    public void testInit() {
+        HazelcastInstance instance = createHazelcastInstanceFactory(1).newHazelcastInstance(new Config());
+        IdGenerator idGenerator = instance.getIdGenerator("testInit");
+        assertTrue(idGenerator.init(25000));
+        assertEquals(25001, idGenerator.newId());
+        assertFalse(idGenerator.init(50000));
+    }
+
+    @Test
+    public void testUniqueIdsAcrossBlocks() throws InterruptedException {
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        final HazelcastInstance[] instances = factory.newInstances(new Config());
+        final Set<Long> ids = Collections.newSetFromMap(new ConcurrentHashMap<Long, Boolean>());
+        final int threadCount = 4;
+        final int k = 3 * IdBlockAllocator.BLOCK_SIZE;
+        final CountDownLatch latch = new CountDownLatch(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            final IdGenerator idGenerator = instances[i % instances.length].getIdGenerator("testUniqueIdsAcrossBlocks");
+            new Thread() {
+                public void run() {
+                    for (int j = 0; j < k; j++) {
+                        ids.add(idGenerator.newId());
+                    }
+                    latch.countDown();
+                }
+            }.start();
+        }
+        assertTrue(latch.await(60, TimeUnit.SECONDS));
+        assertEquals(threadCount * k, ids.size());
+    }
+}
@@ -294,6 +294,132 @@ public class ExecutorServiceTest extends HazelcastTestSupport {
         }
     }
 
+    @Test
+    public void testSubmitAll() throws Exception {
+        final int k = simpleTestNodeCount;
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(k);
+        final HazelcastInstance[] instances = factory.newInstances(new Config());
+        warmUpPartitions(instances);
+        final IExecutorService service = instances[0].getExecutorService("testSubmitAll");
+        final int count = 1000;
+        final List<Callable<Object>> tasks = new ArrayList<Callable<Object>>(count);
+        for (int i = 0; i < count; i++) {
+            tasks.add(i % 2 == 0 ? new PartitionAwareMemberCheck(i) : new FailingTask());
+        }
+        final List<Future<Object>> futures = service.submitAll(tasks);
+        Assert.assertEquals(count, futures.size());
+        for (int i = 0; i < count; i++) {
+            if (i % 2 == 0) {
+                final Member owner = instances[0].getPartitionService().getPartition(i).getOwner();
+                Assert.assertEquals(owner, futures.get(i).get(10, TimeUnit.SECONDS));
+            } else {
+                try {
+                    futures.get(i).get(10, TimeUnit.SECONDS);
+                    fail();
+                } catch (ExecutionException e) {
+                    assertTrue(e.getCause() instanceof IllegalStateException);
+                }
+            }
+        }
+        long completed = 0;
+        for (HazelcastInstance instance : instances) {
+            completed += instance.getExecutorService("testSubmitAll").getLocalExecutorStats().getCompletedTaskCount();
+        }
+        Assert.assertEquals(count, completed);
+    }
+
+    @Test
+    public void testSubmitAllWithTaskThrowingError() throws Exception {
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        final HazelcastInstance[] instances = factory.newInstances(new Config());
+        final IExecutorService service = instances[0].getExecutorService("testSubmitAllWithTaskThrowingError");
+        final int count = 300;
+        final List<Callable<Object>> tasks = new ArrayList<Callable<Object>>(count);
+        for (int i = 0; i < count; i++) {
+            tasks.add(i % 3 == 0 ? new ErrorTask() : new PartitionAwareMemberCheck(i));
+        }
+        final List<Future<Object>> futures = service.submitAll(tasks);
+        for (int i = 0; i < count; i++) {
+            if (i % 3 == 0) {
+                try {
+                    futures.get(i).get(10, TimeUnit.SECONDS);
+                    fail();
+                } catch (ExecutionException e) {
+                    assertTrue(e.getCause() instanceof AssertionError);
+                }
+            } else {
+                assertNotNull(futures.get(i).get(10, TimeUnit.SECONDS));
+            }
+        }
+    }
+
+    @Test
+    public void testSubmitAllWhenMemberLeaves() throws Exception {
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(3);
+        final HazelcastInstance[] instances = factory.newInstances(new Config());
+        final IExecutorService service = instances[0].getExecutorService("testSubmitAllWhenMemberLeaves");
+        final int count = 2000;
+        final List<Callable<Member>> tasks = new ArrayList<Callable<Member>>(count);
+        for (int i = 0; i < count; i++) {
+            tasks.add(new SleepingMemberCheck(5));
+        }
+        final List<Future<Member>> futures = service.submitAll(tasks);
+        Thread.sleep(200);
+        instances[2].getLifecycleService().shutdown();
+
+        int completed = 0;
+        for (Future<Member> future : futures) {
+            try {
+                // batches not sent yet to the member that left are run by the others
+                final Member member = future.get(30, TimeUnit.SECONDS);
+                completed++;
+                assertNotNull(member);
+            } catch (MemberLeftException e) {
+                // only tasks the member had accepted are lost
+            } catch (ExecutionException e) {
+                // or rejected by the member while it shut down
+                final Throwable cause = e.getCause();
+                assertTrue(String.valueOf(cause), cause instanceof HazelcastInstanceNotActiveException
+                        || cause instanceof RejectedExecutionException);
+            }
+        }
+        assertTrue("completed " + completed,
+                completed >= count - BatchSubmission.MAX_BATCHES_IN_FLIGHT * BatchSubmission.BATCH_SIZE);
+    }
+
+    @Test
+    public void testCancelSubmitAllTask() throws Exception {
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(1);
+        final HazelcastInstance instance = factory.newHazelcastInstance(new Config());
+        final IExecutorService service = instance.getExecutorService("testCancelSubmitAllTask");
+        // more batches than the member takes at once, so the last one is not sent yet
+        final int count = 500;
+        final List<Callable<Member>> tasks = new ArrayList<Callable<Member>>(count);
+        for (int i = 0; i < count; i++) {
+            tasks.add(new SleepingMemberCheck(10));
+        }
+        final List<Future<Member>> futures = service.submitAll(tasks);
+        final Future<Member> last = futures.get(count - 1);
+        assertTrue(last.cancel(false));
+        assertTrue(last.isCancelled());
+        assertTrue(last.isDone());
+        assertFalse(last.cancel(false));
+        try {
+            last.get();
+            fail();
+        } catch (CancellationException expected) {
+        }
+        for (int i = 0; i < count - 1; i++) {
+            assertNotNull(futures.get(i).get(30, TimeUnit.SECONDS));
+        }
+        final LocalExecutorStats stats = service.getLocalExecutorStats();
+        for (int i = 0; i < 100 && stats.getCompletedTaskCount() < count - 1; i++) {
+            Thread.sleep(100);
+        }
+        // the cancelled task has not been sent
+        assertEquals(count - 1, service.getLocalExecutorStats().getCompletedTaskCount());
+    }
+
     @Test
     public void testSubmitToKeyOwnerCallable() throws Exception {
         final int k = simpleTestNodeCount;
@@ -818,5 +944,67 @@ public class ExecutorServiceTest extends HazelcastTestSupport {
         }
     }
 
-}
+    public static class PartitionAwareMemberCheck implements Callable<Object>, Serializable, HazelcastInstanceAware,
+            PartitionAware<Integer> {
+
+        private int key;
+        private transient Member localMember;
+
+        public PartitionAwareMemberCheck() {
+        }
+
+        public PartitionAwareMemberCheck(int key) {
+            this.key = key;
+        }
+
+        public Object call() throws Exception {
+            return localMember;
+        }
+
+        public Integer getPartitionKey() {
+            return key;
+        }
+
+        @Override
+        public void setHazelcastInstance(HazelcastInstance hazelcastInstance) {
+            localMember = hazelcastInstance.getCluster().getLocalMember();
+        }
+    }
+
+    public static class SleepingMemberCheck implements Callable<Member>, Serializable, HazelcastInstanceAware {
+
+        private long sleepMillis;
+        private transient Member localMember;
+
+        public SleepingMemberCheck() {
+        }
+
+        public SleepingMemberCheck(long sleepMillis) {
+            this.sleepMillis = sleepMillis;
+        }
+
+        public Member call() throws Exception {
+            Thread.sleep(sleepMillis);
+            return localMember;
+        }
 
+        @Override
+        public void setHazelcastInstance(HazelcastInstance hazelcastInstance) {
+            localMember = hazelcastInstance.getCluster().getLocalMember();
+        }
+    }
+
+    public static class ErrorTask implements Callable<Object>, Serializable {
+
+        public Object call() throws Exception {
+            throw new AssertionError("task failed");
+        }
+    }
+
+    public static class FailingTask implements Callable<Object>, Serializable {
+
+        public Object call() throws Exception {
+            throw new IllegalStateException();
+        }
+    }
+}
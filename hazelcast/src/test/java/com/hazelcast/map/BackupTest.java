@@ -502,4 +502,34 @@ public class BackupTest extends HazelcastTestSupport {
             ex.shutdown();
         }
     }
+
+    @Test
+    public void testBatchedBackups() throws InterruptedException {
+        final TestHazelcastInstanceFactory nodeFactory = createHazelcastInstanceFactory(3);
+        final Config config = new Config();
+        config.setProperty(GroupProperties.PROP_BACKUP_BATCH_ENABLED, "true");
+        config.setProperty(GroupProperties.PROP_BACKUP_BATCH_SYNC_ENABLED, "true");
+        config.getMapConfig(MAP_NAME).setBackupCount(1).setAsyncBackupCount(1);
+
+        final HazelcastInstance hz = nodeFactory.newHazelcastInstance(config);
+        final HazelcastInstance hz2 = nodeFactory.newHazelcastInstance(config);
+        final HazelcastInstance hz3 = nodeFactory.newHazelcastInstance(config);
+        final IMap<Object, Object> map = hz.getMap(MAP_NAME);
+        final int size = 10000;
+        for (int i = 0; i < size; i++) {
+            map.put(i, i);
+        }
+        for (int i = 0; i < size; i += 2) {
+            map.remove(i);
+        }
+
+        Thread.sleep(1000);
+        TestUtil.terminateInstance(hz);
+        TestUtil.terminateInstance(hz2);
+        final IMap<Object, Object> map3 = hz3.getMap(MAP_NAME);
+        assertEquals(size / 2, map3.size());
+        for (int i = 1; i < size; i += 2) {
+            assertEquals(i, map3.get(i));
+        }
+    }
 }
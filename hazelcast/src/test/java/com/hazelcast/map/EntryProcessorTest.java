@@ -608,4 +608,106 @@ public class EntryProcessorTest extends HazelcastTestSupport {
         assertEquals(2, (int) map.get(1));
     }
 
+    @Test
+    public void testReadOnlyEntryProcessor() throws InterruptedException {
+        TestHazelcastInstanceFactory nodeFactory = createHazelcastInstanceFactory(2);
+        Config cfg = new Config();
+        cfg.getMapConfig("default").setReadBackupData(true);
+        HazelcastInstance instance1 = nodeFactory.newHazelcastInstance(cfg);
+        HazelcastInstance instance2 = nodeFactory.newHazelcastInstance(cfg);
+        IMap<Integer, Integer> map = instance1.getMap("testReadOnlyEntryProcessor");
+        final AtomicInteger events = new AtomicInteger();
+        for (int i = 0; i < 10; i++) {
+            map.put(i, i);
+        }
+        map.addEntryListener(new EntryAdapter<Integer, Integer>() {
+            public void entryAdded(EntryEvent<Integer, Integer> event) {
+                events.incrementAndGet();
+            }
+
+            public void entryUpdated(EntryEvent<Integer, Integer> event) {
+                events.incrementAndGet();
+            }
+
+            public void entryRemoved(EntryEvent<Integer, Integer> event) {
+                events.incrementAndGet();
+            }
+        }, true);
+        IMap<Integer, Integer> map2 = instance2.getMap("testReadOnlyEntryProcessor");
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i * 2, map.executeOnKey(i, new DoublingReadOnlyEntryProcessor()));
+            assertEquals(i * 2, map2.executeOnKey(i, new DoublingReadOnlyEntryProcessor()));
+        }
+        Map<Integer, Object> results = map.executeOnEntries(new DoublingReadOnlyEntryProcessor());
+        assertEquals(10, results.size());
+        assertEquals(18, results.get(9));
+        try {
+            map.executeOnKey(1, new ReadOnlyValueSetterEntryProcessor());
+            fail("read-only entry processor should not change the entry");
+        } catch (UnsupportedOperationException expected) {
+        }
+        assertEquals(1, (int) map.get(1));
+        Thread.sleep(1000);
+        assertEquals(0, events.get());
+    }
+
+    private static class DoublingReadOnlyEntryProcessor extends AbstractEntryProcessor<Integer, Integer>
+            implements ReadOnly {
+
+        public Object process(Map.Entry<Integer, Integer> entry) {
+            return entry.getValue() * 2;
+        }
+    }
+
+    private static class ReadOnlyValueSetterEntryProcessor extends ValueSetterEntryProcessor implements ReadOnly {
+
+        ReadOnlyValueSetterEntryProcessor() {
+            super(5);
+        }
+    }
+
+    @Test
+    public void testOffloadableEntryProcessor() throws InterruptedException, ExecutionException {
+        TestHazelcastInstanceFactory nodeFactory = createHazelcastInstanceFactory(2);
+        HazelcastInstance instance1 = nodeFactory.newHazelcastInstance();
+        HazelcastInstance instance2 = nodeFactory.newHazelcastInstance();
+        IMap<Integer, Integer> map = instance1.getMap("testOffloadableEntryProcessor");
+        map.put(1, 0);
+        final CountDownLatch updated = new CountDownLatch(100);
+        map.addEntryListener(new EntryAdapter<Integer, Integer>() {
+            public void entryUpdated(EntryEvent<Integer, Integer> event) {
+                updated.countDown();
+            }
+        }, true);
+        Future[] futures = new Future[100];
+        for (int i = 0; i < futures.length; i++) {
+            IMap<Integer, Integer> m = (i % 2 == 0 ? instance1 : instance2).getMap("testOffloadableEntryProcessor");
+            futures[i] = m.submitToKey(1, new OffloadableIncrementorEntryProcessor());
+        }
+        for (Future future : futures) {
+            future.get();
+        }
+        assertEquals(futures.length, (int) map.get(1));
+        // every commit fires one update event, the offloading operations fire none
+        assertTrue(updated.await(10, TimeUnit.SECONDS));
+        instance1.getLifecycleService().shutdown();
+        assertEquals(futures.length, (int) instance2.<Integer, Integer>getMap("testOffloadableEntryProcessor").get(1));
+    }
+
+    private static class OffloadableIncrementorEntryProcessor extends AbstractEntryProcessor<Integer, Integer>
+            implements Offloadable {
+
+        public Object process(Map.Entry<Integer, Integer> entry) {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException ignored) {
+            }
+            entry.setValue(entry.getValue() + 1);
+            return entry.getValue();
+        }
+
+        public String getExecutorName() {
+            return OFFLOADABLE_EXECUTOR;
+        }
+    }
 }
@@ -712,4 +712,17 @@ public class EvictionTest extends HazelcastTestSupport {
         Thread.sleep(2000);
         assertEquals(1, count.get());
     }
+
+    @Test
+    public void testShorterTtlOnUpdateIsApplied() throws InterruptedException {
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(1);
+        HazelcastInstance instance = factory.newHazelcastInstance(new Config());
+        IMap<Object, Object> map = instance.getMap("testShorterTtlOnUpdateIsApplied");
+        map.put(1, 1, 100, TimeUnit.SECONDS);
+        map.put(1, 2, 1, TimeUnit.SECONDS);
+        map.put(2, 2, 100, TimeUnit.SECONDS);
+        Thread.sleep(3000);
+        assertFalse(map.containsKey(1));
+        assertTrue(map.containsKey(2));
+    }
 }
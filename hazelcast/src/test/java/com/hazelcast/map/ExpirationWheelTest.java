@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map;
+
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.test.HazelcastJUnit4ClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastJUnit4ClassRunner.class)
+@Category(ParallelTest.class)
+public class ExpirationWheelTest {
+
+    private static final long NOW = 1000000;
+
+    @Test
+    public void testKeyIsScheduledOnce() {
+        final ExpirationWheel wheel = new ExpirationWheel();
+        final Data key = new Data(0, new byte[]{1});
+        wheel.add(key, NOW + 5000, NOW);
+        // removed and put again with the same and with an earlier expiration
+        wheel.remove(key);
+        wheel.add(key, NOW + 5000, NOW);
+        wheel.add(key, NOW + 3000, NOW);
+        assertEquals(1, wheel.size());
+
+        final List<Data> dueKeys = new ArrayList<Data>();
+        wheel.advance(NOW + 3000, dueKeys);
+        assertEquals(1, dueKeys.size());
+        assertEquals(0, wheel.size());
+
+        dueKeys.clear();
+        wheel.advance(NOW + 10000, dueKeys);
+        assertTrue(dueKeys.isEmpty());
+    }
+
+    @Test
+    public void testRemovedKeyIsNotDue() {
+        final ExpirationWheel wheel = new ExpirationWheel();
+        final Data key = new Data(0, new byte[]{1});
+        final Data otherKey = new Data(0, new byte[]{2});
+        wheel.add(key, NOW + 2000, NOW);
+        wheel.add(otherKey, NOW + 200000, NOW);
+        wheel.remove(key);
+        assertEquals(1, wheel.size());
+
+        final List<Data> dueKeys = new ArrayList<Data>();
+        wheel.advance(NOW + 300000, dueKeys);
+        assertEquals(1, dueKeys.size());
+        assertEquals(otherKey, dueKeys.get(0));
+    }
+}
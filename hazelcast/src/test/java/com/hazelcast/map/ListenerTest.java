@@ -19,6 +19,7 @@ package com.hazelcast.map;
 import com.hazelcast.config.Config;
 import com.hazelcast.config.EntryListenerConfig;
 import com.hazelcast.core.*;
+import com.hazelcast.instance.GroupProperties;
 import com.hazelcast.test.HazelcastJUnit4ClassRunner;
 import com.hazelcast.test.HazelcastTestSupport;
 import com.hazelcast.test.TestHazelcastInstanceFactory;
@@ -31,6 +32,7 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 @RunWith(HazelcastJUnit4ClassRunner.class)
@@ -240,5 +242,78 @@ public class ListenerTest extends HazelcastTestSupport {
         };
     }
 
+    @Test
+    public void testBatchedEventsKeepOrder() throws InterruptedException {
+        final TestHazelcastInstanceFactory nodeFactory = createHazelcastInstanceFactory(2);
+        final Config cfg = new Config();
+        cfg.setProperty(GroupProperties.PROP_EVENT_BATCH_SIZE, "10");
+        cfg.setProperty(GroupProperties.PROP_EVENT_ACK_WINDOW, "50");
+        final HazelcastInstance h1 = nodeFactory.newHazelcastInstance(cfg);
+        final HazelcastInstance h2 = nodeFactory.newHazelcastInstance(cfg);
+        final int count = 1000;
+        final CountDownLatch latch = new CountDownLatch(2 * count);
+        final AtomicInteger outOfOrder = new AtomicInteger();
+        for (HazelcastInstance hz : new HazelcastInstance[]{h1, h2}) {
+            hz.<String, Integer>getMap(name).addEntryListener(new EntryAdapter<String, Integer>() {
+                int last = -1;
+
+                public void entryAdded(EntryEvent<String, Integer> event) {
+                    onEvent(event);
+                }
+
+                public void entryUpdated(EntryEvent<String, Integer> event) {
+                    onEvent(event);
+                }
+
+                private void onEvent(EntryEvent<String, Integer> event) {
+                    if (event.getValue() != last + 1) {
+                        outOfOrder.incrementAndGet();
+                    }
+                    last = event.getValue();
+                    latch.countDown();
+                }
+            }, true);
+        }
+        final IMap<String, Integer> map = h1.getMap(name);
+        for (int i = 0; i < count; i++) {
+            map.put("key", i);
+        }
+        assertTrue(latch.await(30, TimeUnit.SECONDS));
+        assertEquals(0, outOfOrder.get());
+    }
+
+    @Test
+    public void testSlowListenerDoesNotBlockOtherListeners() throws InterruptedException {
+        final TestHazelcastInstanceFactory nodeFactory = createHazelcastInstanceFactory(1);
+        final HazelcastInstance hz = nodeFactory.newHazelcastInstance(new Config());
+        final IMap<String, Integer> map = hz.getMap(name);
+        final CountDownLatch release = new CountDownLatch(1);
+        map.addEntryListener(new EntryAdapter<String, Integer>() {
+            public void entryAdded(EntryEvent<String, Integer> event) {
+                try {
+                    release.await(30, TimeUnit.SECONDS);
+                } catch (InterruptedException ignored) {
+                }
+            }
+        }, true);
+        final int count = 100;
+        final CountDownLatch latch = new CountDownLatch(count);
+        map.addEntryListener(new EntryAdapter<String, Integer>() {
+            public void entryAdded(EntryEvent<String, Integer> event) {
+                latch.countDown();
+            }
 
+            public void entryUpdated(EntryEvent<String, Integer> event) {
+                latch.countDown();
+            }
+        }, true);
+        try {
+            for (int i = 0; i < count; i++) {
+                map.put("key", i);
+            }
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+        }
+    }
 }
@@ -29,6 +29,9 @@ import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import org.junit.runner.RunWith;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Random;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
@@ -197,5 +200,64 @@ public class MapLockTest extends HazelcastTestSupport {
         assertTrue(latch.await(60, TimeUnit.SECONDS));
     }
 
+    @Test(timeout = 100000)
+    public void testLockAllInOppositeOrders() throws Exception {
+        final TestHazelcastInstanceFactory nodeFactory = createHazelcastInstanceFactory(2);
+        final Config config = new Config();
+        final HazelcastInstance instance1 = nodeFactory.newHazelcastInstance(config);
+        final HazelcastInstance instance2 = nodeFactory.newHazelcastInstance(config);
+        warmUpPartitions(instance2, instance1);
 
+        final String name = "testLockAllInOppositeOrders";
+        final List<Integer> keys = new ArrayList<Integer>();
+        for (int i = 0; i < 8; i++) {
+            keys.add(i);
+            instance1.getMap(name).put(i, 0);
+        }
+        final List<Integer> reversed = new ArrayList<Integer>(keys);
+        Collections.reverse(reversed);
+        final int rounds = 200;
+        final CountDownLatch latch = new CountDownLatch(4);
+        for (int t = 0; t < 4; t++) {
+            final IMap<Integer, Integer> map = (t % 2 == 0 ? instance1 : instance2).getMap(name);
+            final List<Integer> lockKeys = t < 2 ? keys : reversed;
+            new Thread(new Runnable() {
+                public void run() {
+                    for (int i = 0; i < rounds; i++) {
+                        map.lockAll(lockKeys);
+                        try {
+                            for (Integer key : lockKeys) {
+                                map.put(key, map.get(key) + 1);
+                            }
+                        } finally {
+                            map.unlockAll(lockKeys);
+                        }
+                    }
+                    latch.countDown();
+                }
+            }).start();
+        }
+        assertTrue(latch.await(60, TimeUnit.SECONDS));
+        final IMap<Integer, Integer> map = instance2.getMap(name);
+        for (Integer key : keys) {
+            Assert.assertEquals(4 * rounds, (int) map.get(key));
+            assertFalse(map.isLocked(key));
+        }
+
+        map.lockAll(keys);
+        for (Integer key : keys) {
+            assertTrue(map.isLocked(key));
+        }
+        final IMap<Integer, Integer> map1 = instance1.getMap(name);
+        assertFalse(map1.tryLock(keys.get(3)));
+        map.unlockAll(keys);
+        assertTrue(map1.tryLock(keys.get(3)));
+        try {
+            map.unlockAll(keys);
+            Assert.fail("unlockAll should fail if the locks are held by another thread");
+        } catch (IllegalMonitorStateException expected) {
+        }
+        map1.unlock(keys.get(3));
+    }
 }
+
@@ -18,6 +18,7 @@ package com.hazelcast.map;
 
 import com.hazelcast.config.Config;
 import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.instance.GroupProperties;
 import com.hazelcast.test.HazelcastJUnit4ClassRunner;
 import com.hazelcast.test.HazelcastTestSupport;
 import com.hazelcast.test.TestHazelcastInstanceFactory;
@@ -60,7 +61,59 @@ public class MigrationTest extends HazelcastTestSupport {
 
     }
 
+    @Test
+    public void testMapMigrationInChunks() throws InterruptedException {
+        TestHazelcastInstanceFactory nodeFactory = createHazelcastInstanceFactory(2);
+        Config cfg = new Config();
+        cfg.setProperty(GroupProperties.PROP_PARTITION_COUNT, "3");
+        cfg.setProperty(GroupProperties.PROP_PARTITION_MIGRATION_CHUNK_SIZE, "1");
+        cfg.getMapConfig("testMapMigrationInChunks").setBackupCount(1);
+        HazelcastInstance instance1 = nodeFactory.newHazelcastInstance(cfg);
+        int size = 1000;
+
+        Map<Integer, String> map = instance1.getMap("testMapMigrationInChunks");
+        for (int i = 0; i < size; i++) {
+            map.put(i, "value" + i);
+        }
+
+        HazelcastInstance instance2 = nodeFactory.newHazelcastInstance(cfg);
+        Thread.sleep(2000);
+        Map<Integer, String> map2 = instance2.getMap("testMapMigrationInChunks");
+        assertEquals(size, map2.size());
+        for (int i = 0; i < size; i++) {
+            assertEquals("value" + i, map2.get(i));
+        }
+
+        instance1.getLifecycleService().shutdown();
+        assertEquals(size, map2.size());
+        for (int i = 0; i < size; i++) {
+            assertEquals("value" + i, map2.get(i));
+        }
+    }
 
+    @Test
+    public void testParallelMapMigration() throws InterruptedException {
+        TestHazelcastInstanceFactory nodeFactory = createHazelcastInstanceFactory(4);
+        Config cfg = new Config();
+        cfg.setProperty(GroupProperties.PROP_PARTITION_MIGRATION_MAX_PARALLEL, "8");
+        cfg.setProperty(GroupProperties.PROP_PARTITION_MIGRATION_MAX_PER_MEMBER, "4");
+        cfg.setProperty(GroupProperties.PROP_PARTITION_MIGRATION_MAX_BANDWIDTH, "1024");
+        HazelcastInstance instance1 = nodeFactory.newHazelcastInstance(cfg);
+        int size = 1000;
 
+        Map<Integer, Integer> map = instance1.getMap("testParallelMapMigration");
+        for (int i = 0; i < size; i++) {
+            map.put(i, i);
+        }
 
+        nodeFactory.newHazelcastInstance(cfg);
+        nodeFactory.newHazelcastInstance(cfg);
+        HazelcastInstance instance4 = nodeFactory.newHazelcastInstance(cfg);
+        Thread.sleep(3000);
+        Map<Integer, Integer> map4 = instance4.getMap("testParallelMapMigration");
+        assertEquals(size, map4.size());
+        for (int i = 0; i < size; i++) {
+            assertEquals(i, (int) map4.get(i));
+        }
+    }
 }
@@ -350,7 +350,7 @@ public class MapStoreTest extends HazelcastTestSupport {
         for (int i = 0; i < 100; i++) {
             map.remove(i);
         }
-        assertEquals(TestEventBasedMapStore.STORE_EVENTS.STORE_ALL, testMapStore.waitForEvent(30));
+        // pending stores are coalesced with the removes, only deletes reach the store.
         assertEquals(TestEventBasedMapStore.STORE_EVENTS.DELETE_ALL, testMapStore.waitForEvent(30));
         assertEquals(0, testMapStore.getStore().size());
         assertEquals(0, map.size());
@@ -404,6 +404,49 @@ public class MapStoreTest extends HazelcastTestSupport {
         assertEquals("value2", testMapStore.getStore().get("key"));
     }
 
+    @Test
+    public void testWriteBehindBatchSizeAndCoalescing() throws Exception {
+        final Map<Object, Object> db = new ConcurrentHashMap<Object, Object>();
+        final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<Integer>());
+        MapStoreAdapter store = new MapStoreAdapter() {
+            public void store(Object key, Object value) {
+                batchSizes.add(1);
+                db.put(key, value);
+            }
+
+            public void storeAll(Map map) {
+                batchSizes.add(map.size());
+                db.putAll(map);
+            }
+        };
+        String mapName = "testWriteBehindBatchSizeAndCoalescing";
+        Config config = newConfig(mapName, store, 3);
+        config.getMapConfig(mapName).getMapStoreConfig().setWriteBatchSize(10);
+        TestHazelcastInstanceFactory nodeFactory = createHazelcastInstanceFactory(1);
+        HazelcastInstance h1 = nodeFactory.newHazelcastInstance(config);
+        IMap<Object, Object> map = h1.getMap(mapName);
+        for (int i = 0; i < 35; i++) {
+            map.put(i, "value" + i);
+        }
+        for (int i = 0; i < 100; i++) {
+            map.put(0, "update" + i);
+        }
+        assertEquals(35, map.getLocalMapStats().getDirtyEntryCount());
+        for (int i = 0; i < 100 && db.size() < 35; i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(35, db.size());
+        assertEquals("update99", db.get(0));
+        int storedEntries = 0;
+        for (Integer batchSize : batchSizes) {
+            assertTrue(batchSize <= 10);
+            storedEntries += batchSize;
+        }
+        assertEquals(35, storedEntries);
+        assertEquals(0, map.getLocalMapStats().getDirtyEntryCount());
+        assertTrue(map.getLocalMapStats().getStoreOperationCount() > 0);
+    }
+
     @Test
     public void testWriteBehindSameSecondSameKey() throws Exception {
         TestMapStore testMapStore = new TestMapStore(2, 0, 0); // In some cases 2 store operation may happened
@@ -1053,6 +1096,86 @@ public class MapStoreTest extends HazelcastTestSupport {
         assertEquals(mapSize, map.size());
     }
 
+    @Test
+    public void testInitialLoadWithBoundedParallelChunks() throws InterruptedException {
+        final int mapSize = 500;
+        final String mapName = "testInitialLoadWithBoundedParallelChunks";
+        TestHazelcastInstanceFactory nodeFactory = createHazelcastInstanceFactory(1);
+        Config cfg = new Config();
+        cfg.setProperty(GroupProperties.PROP_MAP_LOAD_CHUNK_SIZE, "3");
+        cfg.setProperty(GroupProperties.PROP_MAP_LOAD_MAX_PARALLEL_CHUNKS, "2");
+        final AtomicInteger concurrentLoads = new AtomicInteger();
+        final AtomicInteger maxConcurrentLoads = new AtomicInteger();
+        MapStoreConfig mapStoreConfig = new MapStoreConfig();
+        mapStoreConfig.setEnabled(true);
+        mapStoreConfig.setImplementation(new SimpleMapLoader(mapSize) {
+            @Override
+            public Map loadAll(Collection keys) {
+                final int current = concurrentLoads.incrementAndGet();
+                int max;
+                while (current > (max = maxConcurrentLoads.get()) && !maxConcurrentLoads.compareAndSet(max, current)) {
+                }
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException ignored) {
+                }
+                concurrentLoads.decrementAndGet();
+                return super.loadAll(keys);
+            }
+        });
+        cfg.getMapConfig(mapName).setMapStoreConfig(mapStoreConfig);
+        HazelcastInstance instance = nodeFactory.newHazelcastInstance(cfg);
+        IMap map = instance.getMap(mapName);
+        final CountDownLatch latch = new CountDownLatch(mapSize);
+        map.addEntryListener(new EntryAdapter() {
+            @Override
+            public void entryAdded(EntryEvent event) {
+                latch.countDown();
+            }
+        }, false);
+        // create all partition recordstores.
+        map.size();
+        assertTrue(latch.await(30, TimeUnit.SECONDS));
+        assertEquals(mapSize, map.size());
+        assertTrue(maxConcurrentLoads.get() <= 2);
+    }
+
+    @Test
+    public void testReadThroughBatchesMissedKeys() throws Exception {
+        final int keyCount = 20;
+        final String mapName = "testReadThroughBatchesMissedKeys";
+        TestHazelcastInstanceFactory nodeFactory = createHazelcastInstanceFactory(1);
+        Config cfg = new Config();
+        cfg.setProperty(GroupProperties.PROP_MAP_READ_THROUGH_BATCH_WINDOW_MILLIS, "200");
+        final AtomicInteger maxBatchSize = new AtomicInteger();
+        MapStoreConfig mapStoreConfig = new MapStoreConfig();
+        mapStoreConfig.setEnabled(true);
+        mapStoreConfig.setImplementation(new SimpleMapLoader(0) {
+            @Override
+            public Object load(Object key) {
+                return key;
+            }
+
+            @Override
+            public Map loadAll(Collection keys) {
+                maxBatchSize.set(Math.max(maxBatchSize.get(), keys.size()));
+                return super.loadAll(keys);
+            }
+        });
+        cfg.getMapConfig(mapName).setMapStoreConfig(mapStoreConfig);
+        HazelcastInstance instance = nodeFactory.newHazelcastInstance(cfg);
+        IMap map = instance.getMap(mapName);
+        List<Future> futures = new ArrayList<Future>();
+        for (int i = 0; i < keyCount; i++) {
+            futures.add(map.getAsync(i));
+        }
+        for (int i = 0; i < keyCount; i++) {
+            assertEquals(i, futures.get(i).get(30, TimeUnit.SECONDS));
+        }
+        assertTrue(maxBatchSize.get() > 1);
+        assertEquals(keyCount, map.size());
+    }
+
     @Test
     public void testIssue1142ExceptionWhenLoadAllReturnsNull() {
         Config config = new Config();
@@ -316,6 +316,72 @@ public class MultiMapTest extends HazelcastTestSupport {
 
     }
 
+    @Test
+    public void testRemoveValuesOfLargeListKey() {
+        Config config = new Config();
+        final String name = "defMM";
+        config.getMultiMapConfig(name).setValueCollectionType(MultiMapConfig.ValueCollectionType.LIST);
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        final HazelcastInstance[] instances = factory.newInstances(config);
+        final MultiMap<String, Integer> mm = instances[0].getMultiMap(name);
+        for (int i = 0; i < 15000; i++) {
+            mm.put("key", i % 5000);
+        }
+        for (int i = 0; i < 5000; i += 2) {
+            assertTrue(mm.remove("key", i));
+            assertTrue(mm.remove("key", i));
+        }
+        assertEquals(10000, mm.valueCount("key"));
+        // the first occurrences are removed, as from a LinkedList
+        final List<Integer> expected = new ArrayList<Integer>();
+        for (int i = 0; i < 15000; i++) {
+            if (i % 2 == 1 || i >= 10000) {
+                expected.add(i % 5000);
+            }
+        }
+        assertEquals(expected, new ArrayList<Integer>(mm.get("key")));
+        assertTrue(mm.containsEntry("key", 0));
+        assertTrue(mm.containsEntry("key", 1));
+        assertTrue(mm.remove("key", 0));
+        assertFalse(mm.containsEntry("key", 0));
+        assertFalse(mm.remove("key", 0));
+
+        instances[0].getLifecycleService().shutdown();
+        final MultiMap<String, Integer> mm2 = instances[1].getMultiMap(name);
+        assertEquals(9999, mm2.valueCount("key"));
+        assertFalse(mm2.containsEntry("key", 0));
+        assertTrue(mm2.containsEntry("key", 4999));
+    }
+
+    @Test
+    public void testRecordListRemovesFirstEqualRecord() {
+        final MultiMapRecordList list = new MultiMapRecordList();
+        list.add(new MultiMapRecord(1, "A"));
+        list.add(new MultiMapRecord(2, "B"));
+        list.add(new MultiMapRecord(4, "C"));
+        list.add(new MultiMapRecord(5, "A"));
+        list.listIterator(2).add(new MultiMapRecord(3, "A"));
+        assertEquals(Arrays.asList(1L, 2L, 3L, 4L, 5L), getRecordIds(list));
+
+        assertEquals(1L, list.removeEqual(new MultiMapRecord("A")).getRecordId());
+        assertEquals(3L, list.removeEqual(new MultiMapRecord("A")).getRecordId());
+        assertEquals(Arrays.asList(2L, 4L, 5L), getRecordIds(list));
+
+        list.listIterator(0).add(new MultiMapRecord(6, "A"));
+        assertEquals(6L, list.removeEqual(new MultiMapRecord("A")).getRecordId());
+        assertEquals(5L, list.removeEqual(new MultiMapRecord("A")).getRecordId());
+        assertNull(list.removeEqual(new MultiMapRecord("A")));
+        assertEquals(Arrays.asList(2L, 4L), getRecordIds(list));
+    }
+
+    private static List<Long> getRecordIds(MultiMapRecordList list) {
+        final List<Long> recordIds = new ArrayList<Long>();
+        for (MultiMapRecord record : list) {
+            recordIds.add(record.getRecordId());
+        }
+        return recordIds;
+    }
+
     private MultiMap getMultiMap(HazelcastInstance[] instances, String name){
         final Random rnd = new Random(System.currentTimeMillis());
         return instances[rnd.nextInt(instances.length)].getMultiMap(name);
@@ -421,6 +421,60 @@ public class BasicQueueTest extends HazelcastTestSupport {
         assertTrue(notCalled.get());
     }
 
+    @Test
+    public void testOrderKeptAcrossChunks() {
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        final HazelcastInstance[] instances = factory.newInstances(new Config());
+        final IQueue<Integer> q = instances[0].getQueue("q");
+        final List<Integer> expected = new LinkedList<Integer>();
+        for (int i = 0; i < 1000; i++) {
+            q.offer(i);
+            expected.add(i);
+        }
+        for (int i = 0; i < 300; i++) {
+            assertEquals(expected.remove(0), q.poll());
+        }
+        for (int i = 300; i < 1000; i += 7) {
+            assertTrue(q.remove(i));
+            expected.remove(Integer.valueOf(i));
+        }
+        final List<Integer> drained = new ArrayList<Integer>();
+        q.drainTo(drained, 100);
+        assertEquals(expected.subList(0, 100), drained);
+        expected.subList(0, 100).clear();
+        assertEquals(expected, new ArrayList<Integer>(instances[1].<Integer>getQueue("q")));
+        instances[0].getLifecycleService().shutdown();
+        assertEquals(expected, new ArrayList<Integer>(instances[1].<Integer>getQueue("q")));
+    }
+
+    @Test
+    public void testOfferAllAndPollBatch() throws InterruptedException {
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        final Config config = new Config();
+        config.getQueueConfig("q").setMaxSize(5);
+        final HazelcastInstance[] instances = factory.newInstances(config);
+        final IQueue<Integer> q = instances[0].getQueue("q");
+        assertEquals(0, q.pollBatch(10, 100, TimeUnit.MILLISECONDS).size());
+        assertEquals(5, q.offerAll(Arrays.asList(0, 1, 2, 3, 4, 5, 6), 0, TimeUnit.SECONDS));
+        assertEquals(0, q.offerAll(Arrays.asList(5, 6), 100, TimeUnit.MILLISECONDS));
+        assertEquals(Arrays.asList(0, 1, 2), q.pollBatch(3, 0, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(3, 4), instances[1].<Integer>getQueue("q").pollBatch(10, 0, TimeUnit.SECONDS));
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        new Thread() {
+            public void run() {
+                try {
+                    if (q.pollBatch(10, 10, TimeUnit.SECONDS).size() == 2) {
+                        latch.countDown();
+                    }
+                } catch (InterruptedException ignored) {
+                }
+            }
+        }.start();
+        assertEquals(2, q.offerAll(Arrays.asList(5, 6), 0, TimeUnit.SECONDS));
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+    }
+
     private IQueue getQueue(HazelcastInstance[] instances, String name) {
         final Random rnd = new Random(System.currentTimeMillis());
         return instances[rnd.nextInt(instances.length)].getQueue(name);
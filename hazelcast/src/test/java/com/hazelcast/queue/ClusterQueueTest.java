@@ -27,7 +27,11 @@ import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import org.junit.runner.RunWith;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -439,4 +443,69 @@ public class ClusterQueueTest extends HazelcastTestSupport {
         assertEquals(2, q2.size());
     }
 
+    @Test
+    public void testShardedQueue() throws Exception {
+        Config config = new Config();
+        config.getQueueConfig("sharded").setShardCount(8);
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        final HazelcastInstance[] instances = factory.newInstances(config);
+        final IQueue<String> q1 = instances[0].getQueue("sharded");
+        final IQueue<String> q2 = instances[1].getQueue("sharded");
+        final CountDownLatch added = new CountDownLatch(200);
+        q2.addItemListener(new ItemListener<String>() {
+            public void itemAdded(ItemEvent<String> item) {
+                assertEquals("sharded", item.getSource());
+                added.countDown();
+            }
+
+            public void itemRemoved(ItemEvent<String> item) {
+            }
+        }, true);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(q1.offer("q1-" + i));
+            assertTrue(q2.offer("q2-" + i));
+        }
+        assertEquals(200, q1.size());
+        assertTrue(q2.contains("q1-50"));
+        assertTrue(added.await(10, TimeUnit.SECONDS));
+
+        // items of a producer are kept in order within each shard
+        int shardedItemCount = 0;
+        final QueueService queueService = getNode(instances[0]).nodeEngine.getService(QueueService.SERVICE_NAME);
+        for (String shardName : queueService.getShardNames("sharded")) {
+            final Map<String, Integer> lastIndexes = new HashMap<String, Integer>();
+            for (String item : instances[0].<String>getQueue(shardName)) {
+                final String producer = item.substring(0, item.indexOf('-'));
+                final int index = Integer.parseInt(item.substring(item.indexOf('-') + 1));
+                final Integer lastIndex = lastIndexes.put(producer, index);
+                assertTrue(lastIndex == null || lastIndex < index);
+                shardedItemCount++;
+            }
+        }
+        assertEquals(200, shardedItemCount);
+
+        // all items can be taken from either member
+        final Set<String> taken = new HashSet<String>();
+        for (int i = 0; i < 100; i++) {
+            assertTrue(taken.add(q2.poll()));
+            assertTrue(taken.add(q1.poll(5, TimeUnit.SECONDS)));
+        }
+        assertEquals(200, taken.size());
+        assertNull(q1.poll());
+        assertEquals(0, q2.size());
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        new Thread() {
+            public void run() {
+                try {
+                    if ("item".equals(q2.take())) {
+                        latch.countDown();
+                    }
+                } catch (InterruptedException ignored) {
+                }
+            }
+        }.start();
+        q1.offer("item");
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+    }
 }
@@ -21,7 +21,9 @@ import com.hazelcast.config.QueueConfig;
 import com.hazelcast.config.QueueStoreConfig;
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.IQueue;
+import com.hazelcast.core.Member;
 import com.hazelcast.core.QueueStore;
+import com.hazelcast.nio.Address;
 import com.hazelcast.test.HazelcastTestSupport;
 import com.hazelcast.test.HazelcastJUnit4ClassRunner;
 import com.hazelcast.test.TestHazelcastInstanceFactory;
@@ -31,6 +33,7 @@ import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import org.junit.runner.RunWith;
 
+import java.io.File;
 import java.util.*;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
@@ -113,6 +116,147 @@ public class QueueStoreTest extends HazelcastTestSupport {
         }
     }
 
+    @Test
+    public void testFileQueueStoreFailover() throws Exception {
+        final File dir = File.createTempFile("queue-store", "");
+        assertTrue(dir.delete());
+        Config config = new Config();
+        QueueStoreConfig queueStoreConfig = new QueueStoreConfig();
+        queueStoreConfig.setFactoryImplementation(new FileQueueStoreFactory());
+        queueStoreConfig.setProperty("dir", dir.getAbsolutePath());
+        queueStoreConfig.setProperty("segment-size", "1024");
+        queueStoreConfig.setProperty("memory-limit", "10");
+        config.getQueueConfig("testFileQueueStore").setQueueStoreConfig(queueStoreConfig);
+
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        try {
+            HazelcastInstance instance1 = factory.newHazelcastInstance(config);
+            IQueue<Object> queue1 = instance1.getQueue("testFileQueueStore");
+            for (int i = 0; i < 200; i++) {
+                queue1.offer(i);
+            }
+            for (int i = 0; i < 50; i++) {
+                Assert.assertEquals(i, queue1.poll());
+            }
+
+            // the second member gets the items beyond the memory limit by migration or as a backup
+            HazelcastInstance instance2 = factory.newHazelcastInstance(config);
+            IQueue<Object> queue2 = instance2.getQueue("testFileQueueStore");
+            for (int i = 0; i < 100 && getItemCount(queue1) + getItemCount(queue2) < 300; i++) {
+                Thread.sleep(100);
+            }
+            Assert.assertEquals(300, getItemCount(queue1) + getItemCount(queue2));
+            for (int i = 200; i < 250; i++) {
+                queue2.offer(i);
+            }
+
+            Member owner = instance1.getPartitionService().getPartition("testFileQueueStore").getOwner();
+            HazelcastInstance survivor = instance2;
+            if (owner.localMember()) {
+                instance1.getLifecycleService().shutdown();
+            } else {
+                instance2.getLifecycleService().shutdown();
+                survivor = instance1;
+            }
+            IQueue<Object> queue = survivor.getQueue("testFileQueueStore");
+            Assert.assertEquals(200, queue.size());
+            for (int i = 50; i < 250; i++) {
+                Assert.assertEquals(i, queue.poll());
+            }
+            Assert.assertNull(queue.poll());
+        } finally {
+            factory.shutdownAll();
+            delete(dir);
+        }
+    }
+
+    @Test
+    public void testFileQueueStoreSurvivesRestart() throws Exception {
+        final File dir = File.createTempFile("queue-store", "");
+        assertTrue(dir.delete());
+        Config config = newFileQueueStoreConfig(dir);
+
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(1);
+        try {
+            HazelcastInstance instance = factory.newHazelcastInstance(config);
+            Address address = getNode(instance).getThisAddress();
+            offerAndPoll(instance.getQueue("testFileQueueStore"));
+            instance.getLifecycleService().shutdown();
+
+            // the store directory is named after the address, so the member has to come back on it
+            instance = factory.newHazelcastInstance(address, config);
+            Assert.assertEquals(address, getNode(instance).getThisAddress());
+            assertRecovered(instance.getQueue("testFileQueueStore"));
+        } finally {
+            factory.shutdownAll();
+            delete(dir);
+        }
+    }
+
+    @Test
+    public void testFileQueueStoreWithMemberDirSurvivesAddressChange() throws Exception {
+        final File dir = File.createTempFile("queue-store", "");
+        assertTrue(dir.delete());
+        Config config = newFileQueueStoreConfig(dir);
+        config.getQueueConfig("testFileQueueStore").getQueueStoreConfig().setProperty("member-dir", "member");
+
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        try {
+            HazelcastInstance instance = factory.newHazelcastInstance(config);
+            Address address = getNode(instance).getThisAddress();
+            offerAndPoll(instance.getQueue("testFileQueueStore"));
+            instance.getLifecycleService().shutdown();
+
+            instance = factory.newHazelcastInstance(config);
+            Assert.assertFalse(address.equals(getNode(instance).getThisAddress()));
+            assertRecovered(instance.getQueue("testFileQueueStore"));
+        } finally {
+            factory.shutdownAll();
+            delete(dir);
+        }
+    }
+
+    private static Config newFileQueueStoreConfig(File dir) {
+        Config config = new Config();
+        QueueStoreConfig queueStoreConfig = new QueueStoreConfig();
+        queueStoreConfig.setFactoryImplementation(new FileQueueStoreFactory());
+        queueStoreConfig.setProperty("dir", dir.getAbsolutePath());
+        queueStoreConfig.setProperty("segment-size", "1024");
+        config.getQueueConfig("testFileQueueStore").setQueueStoreConfig(queueStoreConfig);
+        return config;
+    }
+
+    private static void offerAndPoll(IQueue<Object> queue) {
+        for (int i = 0; i < 200; i++) {
+            queue.offer(i);
+        }
+        for (int i = 0; i < 50; i++) {
+            Assert.assertEquals(i, queue.poll());
+        }
+    }
+
+    private static void assertRecovered(IQueue<Object> queue) {
+        Assert.assertEquals(150, queue.size());
+        for (int i = 50; i < 200; i++) {
+            Assert.assertEquals(i, queue.poll());
+        }
+        Assert.assertNull(queue.poll());
+    }
+
+    private static long getItemCount(IQueue<Object> queue) {
+        return queue.getLocalQueueStats().getOwnedItemCount() + queue.getLocalQueueStats().getBackupItemCount();
+    }
+
+    private static void delete(File file) {
+        final File[] files = file.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
     public static class TestQueueStore implements QueueStore {
 
         final Map<Long, Integer> store = new LinkedHashMap<Long, Integer>();
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IQueue;
+import com.hazelcast.instance.TestUtil;
+import com.hazelcast.queue.PollOperation;
+import com.hazelcast.queue.QueueService;
+import org.junit.Ignore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+/**
+ * Parks {@link #WAITER_COUNT} queue polls without blocking a thread per poll, then
+ * measures how long it takes for them to time out and to be woken up by offers.
+ */
+@Ignore("not a JUnit test")
+public class WaitNotifyPerformanceTest {
+
+    static final int WAITER_COUNT = 100000;
+
+    static final long SHORT_TIMEOUT_MILLIS = 1000;
+
+    static final long LONG_TIMEOUT_MILLIS = 60000;
+
+    public static void main(String[] args) throws Exception {
+        final HazelcastInstance instance = Hazelcast.newHazelcastInstance(new Config());
+        final NodeEngine nodeEngine = TestUtil.getNode(instance).nodeEngine;
+
+        for (int queueCount : new int[]{1, 1000}) {
+            long start = System.currentTimeMillis();
+            List<Future> futures = park(nodeEngine, queueCount, SHORT_TIMEOUT_MILLIS);
+            final long parked = System.currentTimeMillis() - start;
+            for (Future future : futures) {
+                future.get();
+            }
+            System.err.println(queueCount + " queue(s): parked " + WAITER_COUNT + " polls in " + parked
+                    + " ms, all timed out after " + (System.currentTimeMillis() - start) + " ms");
+
+            futures = park(nodeEngine, queueCount, LONG_TIMEOUT_MILLIS);
+            start = System.currentTimeMillis();
+            for (int i = 0; i < WAITER_COUNT; i++) {
+                final IQueue<Integer> queue = instance.getQueue(queueName(i, queueCount));
+                queue.offer(i);
+            }
+            for (Future future : futures) {
+                if (future.get() == null) {
+                    throw new AssertionError("Poll timed out instead of being notified!");
+                }
+            }
+            System.err.println(queueCount + " queue(s): woke up " + WAITER_COUNT + " polls in "
+                    + (System.currentTimeMillis() - start) + " ms");
+        }
+
+        Hazelcast.shutdownAll();
+    }
+
+    private static List<Future> park(NodeEngine nodeEngine, int queueCount, long timeoutMillis) {
+        final List<Future> futures = new ArrayList<Future>(WAITER_COUNT);
+        for (int i = 0; i < WAITER_COUNT; i++) {
+            final String name = queueName(i, queueCount);
+            final int partitionId = nodeEngine.getPartitionService().getPartitionId(nodeEngine.toData(name));
+            final Invocation invocation = nodeEngine.getOperationService()
+                    .createInvocationBuilder(QueueService.SERVICE_NAME, new PollOperation(name, timeoutMillis), partitionId)
+                    .build();
+            futures.add(invocation.invoke());
+        }
+        return futures;
+    }
+
+    private static String queueName(int i, int queueCount) {
+        return "queue-" + (i % queueCount);
+    }
+}
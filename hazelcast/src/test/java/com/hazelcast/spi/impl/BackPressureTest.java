@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.HazelcastOverloadException;
+import com.hazelcast.core.IMap;
+import com.hazelcast.instance.GroupProperties;
+import com.hazelcast.map.MapService;
+import com.hazelcast.nio.Address;
+import com.hazelcast.spi.AbstractOperation;
+import com.hazelcast.spi.OperationService;
+import com.hazelcast.test.HazelcastJUnit4ClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(HazelcastJUnit4ClassRunner.class)
+@Category(ParallelTest.class)
+public class BackPressureTest extends HazelcastTestSupport {
+
+    @Test
+    public void testPartitionLimit() {
+        final BackPressureRegulator regulator = newRegulator(10, 2, 0, 0);
+        regulator.acquire(0);
+        regulator.acquire(0);
+        assertRejected(regulator, 0);
+        // other partitions have their own limit
+        regulator.acquire(1);
+        assertEquals(3, regulator.getInvocationCount());
+
+        regulator.release(0);
+        regulator.acquire(0);
+        assertEquals(1, regulator.getRejectedCount());
+    }
+
+    @Test
+    public void testMemberLimit() {
+        final BackPressureRegulator regulator = newRegulator(3, 2, 0, 0);
+        regulator.acquire(0);
+        regulator.acquire(1);
+        regulator.acquire(-1);
+        assertRejected(regulator, -1);
+        assertRejected(regulator, 2);
+        assertEquals(3, regulator.getInvocationCount());
+        assertEquals(2, regulator.getRejectedCount());
+
+        regulator.release(1);
+        // the rejected partition slot has been given back
+        regulator.acquire(2);
+        regulator.release(-1);
+        regulator.acquire(2);
+        assertRejected(regulator, 2);
+    }
+
+    @Test
+    public void testBackoffUntilSlotIsReleased() throws InterruptedException {
+        final BackPressureRegulator regulator = newRegulator(1, 1, 10000, 0);
+        regulator.acquire(0);
+        final CountDownLatch acquired = new CountDownLatch(1);
+        new Thread() {
+            public void run() {
+                regulator.acquire(0);
+                acquired.countDown();
+            }
+        }.start();
+        assertFalse(acquired.await(200, TimeUnit.MILLISECONDS));
+        regulator.release(0);
+        assertTrue(acquired.await(10, TimeUnit.SECONDS));
+        assertEquals(0, regulator.getRejectedCount());
+    }
+
+    @Test
+    public void testSyncWindow() {
+        final BackPressureRegulator regulator = newRegulator(10, 10, 0, 3);
+        for (int i = 0; i < 2; i++) {
+            assertFalse(regulator.isSyncForced(0));
+            assertFalse(regulator.isSyncForced(0));
+            assertTrue(regulator.isSyncForced(0));
+        }
+        assertFalse(regulator.isSyncForced(1));
+
+        final BackPressureRegulator disabled = newRegulator(10, 10, 0, 0);
+        for (int i = 0; i < 10; i++) {
+            assertFalse(disabled.isSyncForced(0));
+        }
+    }
+
+    @Test
+    public void testSlotIsReleasedWhenCallerTimesOut() throws Exception {
+        final TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(1);
+        final HazelcastInstance instance = factory.newHazelcastInstance(newConfig(1));
+        final OperationService operationService = getNode(instance).nodeEngine.getOperationService();
+        final IMap<Integer, Integer> map = instance.getMap("testSlotIsReleasedWhenCallerTimesOut");
+        // assigns the partitions
+        map.put(1, 1);
+
+        final Future future = operationService.createInvocationBuilder(MapService.SERVICE_NAME,
+                new NoResponseOperation(), 0).build().invoke();
+        assertEquals(1, operationService.getInvocationCount());
+        try {
+            future.get(100, TimeUnit.MILLISECONDS);
+            fail();
+        } catch (TimeoutException expected) {
+        }
+        assertEquals(0, operationService.getInvocationCount());
+
+        // the slot can be taken again
+        map.put(1, 1);
+        assertEquals(0, operationService.getRejectedInvocationCount());
+        factory.shutdownAll();
+    }
+
+    @Test
+    public void testSlotIsReleasedWhenTargetLeaves() throws Exception {
+        final TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        final HazelcastInstance instance1 = factory.newHazelcastInstance(newConfig(1));
+        final HazelcastInstance instance2 = factory.newHazelcastInstance(newConfig(1));
+        final OperationService operationService = getNode(instance1).nodeEngine.getOperationService();
+        final Address target = getNode(instance2).getThisAddress();
+
+        operationService.createInvocationBuilder(MapService.SERVICE_NAME, new NoResponseOperation(), target)
+                .build().invoke();
+        assertEquals(1, operationService.getInvocationCount());
+
+        instance2.getLifecycleService().shutdown();
+        for (int i = 0; i < 100 && operationService.getInvocationCount() > 0; i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(0, operationService.getInvocationCount());
+        factory.shutdownAll();
+    }
+
+    @Test
+    public void testRejectedWhenLimitIsHit() throws Exception {
+        final TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(1);
+        final HazelcastInstance instance = factory.newHazelcastInstance(newConfig(1));
+        final OperationService operationService = getNode(instance).nodeEngine.getOperationService();
+        final IMap<Integer, Integer> map = instance.getMap("testRejectedWhenLimitIsHit");
+        // assigns the partitions
+        map.put(1, 1);
+
+        operationService.createInvocationBuilder(MapService.SERVICE_NAME, new NoResponseOperation(), 0)
+                .build().invoke();
+        try {
+            // operations which may wait, like put on a locked key, are not limited
+            map.containsKey(1);
+            fail();
+        } catch (HazelcastOverloadException expected) {
+        }
+        assertEquals(1, operationService.getRejectedInvocationCount());
+        factory.shutdownAll();
+    }
+
+    @Test
+    public void testAsyncBackupsAreAcknowledgedWithinSyncWindow() {
+        final Config config = newConfig(10000);
+        config.setProperty(GroupProperties.PROP_BACKPRESSURE_SYNC_WINDOW, "1");
+        config.getMapConfig("default").setBackupCount(0).setAsyncBackupCount(1);
+        final TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        final HazelcastInstance instance1 = factory.newHazelcastInstance(config);
+        final HazelcastInstance instance2 = factory.newHazelcastInstance(config);
+
+        final String name = "testAsyncBackupsAreAcknowledgedWithinSyncWindow";
+        final IMap<Integer, Integer> map = instance1.getMap(name);
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        // every backup has been acknowledged before its put returned
+        assertEquals(100, instance1.getMap(name).getLocalMapStats().getBackupEntryCount()
+                + instance2.getMap(name).getLocalMapStats().getBackupEntryCount());
+        factory.shutdownAll();
+    }
+
+    private static Config newConfig(int maxInvocations) {
+        final Config config = new Config();
+        config.setProperty(GroupProperties.PROP_BACKPRESSURE_ENABLED, "true");
+        config.setProperty(GroupProperties.PROP_BACKPRESSURE_MAX_CONCURRENT_INVOCATIONS_PER_MEMBER,
+                String.valueOf(maxInvocations));
+        config.setProperty(GroupProperties.PROP_BACKPRESSURE_BACKOFF_TIMEOUT_MILLIS, "0");
+        return config;
+    }
+
+    private static BackPressureRegulator newRegulator(int maxPerMember, int maxPerPartition,
+                                                      long backoffTimeoutMillis, int syncWindow) {
+        final Config config = new Config();
+        config.setProperty(GroupProperties.PROP_BACKPRESSURE_MAX_CONCURRENT_INVOCATIONS_PER_MEMBER,
+                String.valueOf(maxPerMember));
+        config.setProperty(GroupProperties.PROP_BACKPRESSURE_MAX_CONCURRENT_INVOCATIONS_PER_PARTITION,
+                String.valueOf(maxPerPartition));
+        config.setProperty(GroupProperties.PROP_BACKPRESSURE_BACKOFF_TIMEOUT_MILLIS,
+                String.valueOf(backoffTimeoutMillis));
+        config.setProperty(GroupProperties.PROP_BACKPRESSURE_SYNC_WINDOW, String.valueOf(syncWindow));
+        return new BackPressureRegulator(new GroupProperties(config), 271);
+    }
+
+    private static void assertRejected(BackPressureRegulator regulator, int partitionId) {
+        try {
+            regulator.acquire(partitionId);
+            fail();
+        } catch (HazelcastOverloadException expected) {
+        }
+    }
+
+    // never sends a response, so its invocation keeps its slot until the caller gives up
+    static class NoResponseOperation extends AbstractOperation {
+
+        public void run() {
+        }
+
+        @Override
+        public boolean returnsResponse() {
+            return false;
+        }
+    }
+}
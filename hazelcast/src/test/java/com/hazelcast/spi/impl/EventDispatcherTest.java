@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl;
+
+import com.hazelcast.logging.Logger;
+import com.hazelcast.spi.impl.EventDispatcher.ListenerQueue;
+import com.hazelcast.test.HazelcastJUnit4ClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastJUnit4ClassRunner.class)
+@Category(ParallelTest.class)
+public class EventDispatcherTest {
+
+    @Test
+    public void testCapacityIsSharedByAllListeners() {
+        final ManualExecutor executor = new ManualExecutor();
+        final EventDispatcher dispatcher = new EventDispatcher(Logger.getLogger(EventDispatcherTest.class),
+                executor, 4, 10, Long.MAX_VALUE);
+        final ListenerQueue[] queues1 = dispatcher.createQueues("listener1");
+        final ListenerQueue[] queues2 = dispatcher.createQueues("listener2");
+        final AtomicInteger runCount = new AtomicInteger();
+        final Runnable event = new Runnable() {
+            public void run() {
+                runCount.incrementAndGet();
+            }
+        };
+
+        int accepted = 0;
+        for (int i = 0; i < 6; i++) {
+            accepted += dispatcher.dispatch(queues1, i, event, 0) ? 1 : 0;
+            accepted += dispatcher.dispatch(queues2, i, event, 0) ? 1 : 0;
+        }
+        assertEquals(10, accepted);
+        assertEquals(10, dispatcher.getQueuedEventCount());
+        assertEquals(2, dispatcher.getDroppedEventCount());
+        assertFalse(dispatcher.dispatch(queues1, 0, event, 10));
+
+        executor.runAll();
+        assertEquals(10, runCount.get());
+        assertEquals(0, dispatcher.getQueuedEventCount());
+        assertTrue(dispatcher.dispatch(queues1, 0, event, 0));
+
+        dispatcher.clear(queues1);
+        assertEquals(0, dispatcher.getQueuedEventCount());
+    }
+
+    private static class ManualExecutor implements Executor {
+        private final Queue<Runnable> tasks = new LinkedList<Runnable>();
+
+        public void execute(Runnable task) {
+            tasks.offer(task);
+        }
+
+        void runAll() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        }
+    }
+}
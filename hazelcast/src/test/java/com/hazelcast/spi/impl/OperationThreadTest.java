@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.instance.GroupProperties;
+import com.hazelcast.logging.Logger;
+import com.hazelcast.spi.OperationService;
+import com.hazelcast.test.HazelcastJUnit4ClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelTest;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastJUnit4ClassRunner.class)
+@Category(ParallelTest.class)
+public class OperationThreadTest extends HazelcastTestSupport {
+
+    private OperationThread thread;
+
+    @After
+    public void after() throws InterruptedException {
+        if (thread != null) {
+            thread.shutdown();
+            thread.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void testPriorityTasksRunFirst() throws Exception {
+        final List<String> order = new CopyOnWriteArrayList<String>();
+        final CountDownLatch release = startBlocked(32, order);
+        for (int i = 1; i <= 3; i++) {
+            thread.execute(new Task("U" + i, order));
+        }
+        for (int i = 1; i <= 3; i++) {
+            thread.executePriority(new Task("P" + i, order));
+        }
+        release.countDown();
+
+        assertOrder(order, "blocker", "P1", "P2", "P3", "U1", "U2", "U3");
+    }
+
+    @Test
+    public void testPriorityTasksDoNotStarveOthers() throws Exception {
+        final List<String> order = new CopyOnWriteArrayList<String>();
+        final CountDownLatch release = startBlocked(2, order);
+        for (int i = 1; i <= 3; i++) {
+            thread.execute(new Task("U" + i, order));
+        }
+        for (int i = 1; i <= 6; i++) {
+            thread.executePriority(new Task("P" + i, order));
+        }
+        release.countDown();
+
+        assertOrder(order, "blocker", "P1", "P2", "U1", "P3", "P4", "U2", "P5", "P6", "U3");
+    }
+
+    @Test
+    public void testQueueSizesAndExecutedCounts() throws Exception {
+        final List<String> order = new CopyOnWriteArrayList<String>();
+        final CountDownLatch release = startBlocked(32, order);
+        for (int i = 0; i < 3; i++) {
+            thread.execute(new Task("U" + i, order));
+        }
+        for (int i = 0; i < 5; i++) {
+            thread.executePriority(new Task("P" + i, order));
+        }
+        assertEquals(3, thread.getQueueSize());
+        assertEquals(5, thread.getPriorityQueueSize());
+        release.countDown();
+
+        for (int i = 0; i < 100 && thread.getExecutedCount() + thread.getExecutedPriorityCount() < 9; i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(4, thread.getExecutedCount());
+        assertEquals(5, thread.getExecutedPriorityCount());
+        assertEquals(0, thread.getQueueSize());
+        assertEquals(0, thread.getPriorityQueueSize());
+    }
+
+    @Test
+    public void testBackupsRunOnPriorityLane() throws InterruptedException {
+        final TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        final HazelcastInstance instance1 = factory.newHazelcastInstance(new Config());
+        final HazelcastInstance instance2 = factory.newHazelcastInstance(new Config());
+        final IMap<Integer, Integer> map = instance1.getMap("testBackupsRunOnPriorityLane");
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        final OperationService operationService1 = getNode(instance1).nodeEngine.getOperationService();
+        final OperationService operationService2 = getNode(instance2).nodeEngine.getOperationService();
+        for (int i = 0; i < 100 && operationService1.getExecutedPriorityOperationCount()
+                + operationService2.getExecutedPriorityOperationCount() == 0; i++) {
+            Thread.sleep(100);
+        }
+        assertTrue(operationService1.getExecutedPriorityOperationCount()
+                + operationService2.getExecutedPriorityOperationCount() > 0);
+        assertTrue(operationService1.getExecutedOperationCount()
+                + operationService2.getExecutedOperationCount() >= 100);
+        factory.shutdownAll();
+    }
+
+    // starts the thread and blocks it in a task until the returned latch is released
+    private CountDownLatch startBlocked(int priorityBatchSize, final List<String> order) throws InterruptedException {
+        final Config config = new Config();
+        config.setProperty(GroupProperties.PROP_OPERATION_THREAD_PRIORITY_BATCH_SIZE, String.valueOf(priorityBatchSize));
+        thread = new OperationThread(new ThreadGroup("test"), "test-operation-thread", 0, null,
+                new GroupProperties(config), Logger.getLogger(OperationThreadTest.class));
+        thread.start();
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        thread.execute(new Runnable() {
+            public void run() {
+                order.add("blocker");
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {
+                }
+            }
+        });
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        return release;
+    }
+
+    private static void assertOrder(List<String> order, String... expected) throws InterruptedException {
+        for (int i = 0; i < 100 && order.size() < expected.length; i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(Arrays.asList(expected), order);
+    }
+
+    private static class Task implements Runnable {
+        private final String name;
+        private final List<String> order;
+
+        Task(String name, List<String> order) {
+            this.name = name;
+            this.order = order;
+        }
+
+        public void run() {
+            order.add(name);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.MapService;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.spi.AbstractOperation;
+import com.hazelcast.spi.AbstractWaitNotifyKey;
+import com.hazelcast.spi.OperationService;
+import com.hazelcast.spi.WaitNotifyKey;
+import com.hazelcast.spi.WaitSupport;
+import com.hazelcast.test.HazelcastJUnit4ClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.util.Clock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(HazelcastJUnit4ClassRunner.class)
+@Category(ParallelTest.class)
+public class WaitNotifyServiceTest extends HazelcastTestSupport {
+
+    private TestHazelcastInstanceFactory factory;
+    private HazelcastInstance instance;
+    private OperationService operationService;
+
+    @Before
+    public void before() {
+        factory = createHazelcastInstanceFactory(2);
+        instance = factory.newHazelcastInstance(new Config());
+        operationService = getNode(instance).nodeEngine.getOperationService();
+        // assigns the partitions
+        instance.getMap("default").put(1, 1);
+    }
+
+    @After
+    public void after() {
+        factory.shutdownAll();
+    }
+
+    @Test
+    public void testWaitLongerThanOneWheelRound() throws Exception {
+        final long start = Clock.currentTimeMillis();
+        final Future future = operationService.createInvocationBuilder(MapService.SERVICE_NAME,
+                new WaitingOperation("testWaitLongerThanOneWheelRound", 6000, Integer.MAX_VALUE), 0)
+                .build().invoke();
+
+        assertEquals(WaitingOperation.EXPIRED, future.get(30, TimeUnit.SECONDS));
+        final long elapsed = Clock.currentTimeMillis() - start;
+        assertTrue("Expired after " + elapsed + " ms", elapsed >= 6000 && elapsed < 8000);
+    }
+
+    @Test
+    public void testWaitingOperationIsRetriedWhenCallTimesOut() throws Exception {
+        // only remote calls time out
+        final HazelcastInstance remote = factory.newHazelcastInstance(new Config());
+        final String name = "testWaitingOperationIsRetriedWhenCallTimesOut";
+        // waits without a timeout until it has been sent three times
+        final WaitingOperation op = new WaitingOperation(name, -1, 3);
+        final Future future = getNode(remote).nodeEngine.getOperationService()
+                .createInvocationBuilder(MapService.SERVICE_NAME, op, getNode(instance).getThisAddress())
+                .setCallTimeout(1000).build().invoke();
+
+        assertEquals(WaitingOperation.DONE, future.get(30, TimeUnit.SECONDS));
+        assertEquals(3, WaitingOperation.getRunCount(name));
+    }
+
+    @Test
+    public void testCancelWaitingOps() throws Exception {
+        final String name = "testCancelWaitingOps";
+        final List<Future> futures = new ArrayList<Future>();
+        for (int i = 0; i < 4; i++) {
+            final WaitingOperation op = new WaitingOperation(name, -1, Integer.MAX_VALUE);
+            futures.add(operationService.createInvocationBuilder(MapService.SERVICE_NAME, op, i).build().invoke());
+        }
+        // operations without a partition
+        for (int i = 0; i < 2; i++) {
+            final WaitingOperation op = new WaitingOperation(name, -1, Integer.MAX_VALUE);
+            futures.add(operationService.createInvocationBuilder(MapService.SERVICE_NAME, op,
+                    getNode(instance).getThisAddress()).build().invoke());
+        }
+        final String otherName = name + "-other";
+        final Future otherFuture = operationService.createInvocationBuilder(MapService.SERVICE_NAME,
+                new WaitingOperation(otherName, 60000, Integer.MAX_VALUE), 0).build().invoke();
+        for (int i = 0; i < 100 && WaitingOperation.getRunCount(name) + WaitingOperation.getRunCount(otherName) < 7; i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(6, WaitingOperation.getRunCount(name));
+        assertEquals(1, WaitingOperation.getRunCount(otherName));
+
+        final IllegalStateException cause = new IllegalStateException("cancelled");
+        getNode(instance).nodeEngine.waitNotifyService.cancelWaitingOps(MapService.SERVICE_NAME, name, cause);
+        for (Future future : futures) {
+            try {
+                future.get(30, TimeUnit.SECONDS);
+                fail();
+            } catch (ExecutionException expected) {
+                assertEquals(cause, expected.getCause());
+            }
+        }
+        assertFalse(otherFuture.isDone());
+    }
+
+    // waits on the key of its name until all operations of that name together ran the given number of times
+    public static class WaitingOperation extends AbstractOperation implements WaitSupport {
+
+        static final String EXPIRED = "expired";
+
+        static final String DONE = "done";
+
+        static final ConcurrentMap<String, AtomicInteger> RUN_COUNTS = new ConcurrentHashMap<String, AtomicInteger>();
+
+        private String name;
+        private long waitTimeoutMillis;
+        private int maxRunCount;
+        private Object response;
+
+        public WaitingOperation() {
+        }
+
+        WaitingOperation(String name, long waitTimeoutMillis, int maxRunCount) {
+            this.name = name;
+            this.waitTimeoutMillis = waitTimeoutMillis;
+            this.maxRunCount = maxRunCount;
+        }
+
+        static int getRunCount(String name) {
+            final AtomicInteger runCount = RUN_COUNTS.get(name);
+            return runCount != null ? runCount.get() : 0;
+        }
+
+        public void run() {
+            response = DONE;
+        }
+
+        @Override
+        public Object getResponse() {
+            return response;
+        }
+
+        public WaitNotifyKey getWaitKey() {
+            return new TestWaitKey(name);
+        }
+
+        public boolean shouldWait() {
+            AtomicInteger runCount = RUN_COUNTS.get(name);
+            if (runCount == null) {
+                final AtomicInteger current = RUN_COUNTS.putIfAbsent(name, runCount = new AtomicInteger());
+                runCount = current != null ? current : runCount;
+            }
+            return runCount.incrementAndGet() < maxRunCount;
+        }
+
+        public long getWaitTimeoutMillis() {
+            return waitTimeoutMillis;
+        }
+
+        public void onWaitExpire() {
+            getResponseHandler().sendResponse(EXPIRED);
+        }
+
+        @Override
+        protected void writeInternal(ObjectDataOutput out) throws IOException {
+            out.writeUTF(name);
+            out.writeLong(waitTimeoutMillis);
+            out.writeInt(maxRunCount);
+        }
+
+        @Override
+        protected void readInternal(ObjectDataInput in) throws IOException {
+            name = in.readUTF();
+            waitTimeoutMillis = in.readLong();
+            maxRunCount = in.readInt();
+        }
+    }
+
+    static class TestWaitKey extends AbstractWaitNotifyKey {
+
+        TestWaitKey(String name) {
+            super(MapService.SERVICE_NAME, name);
+        }
+    }
+}
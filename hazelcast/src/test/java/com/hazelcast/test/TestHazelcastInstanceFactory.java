@@ -72,6 +72,22 @@ public final class TestHazelcastInstanceFactory {
         return useClient ? newHazelcastClient() : HazelcastInstanceFactory.newHazelcastInstance(config);
     }
 
+    /**
+     * Starts an instance on the address of a member of this factory, e.g. to restart a member that
+     * has been shut down. Without the mock network a single member gets the same address anyway.
+     */
+    public HazelcastInstance newHazelcastInstance(Address address, Config config) {
+        if (mockNetwork) {
+            if (!Arrays.asList(addresses).contains(address)) {
+                throw new IllegalArgumentException(address + " is not an address of this factory!");
+            }
+            config = init(config);
+            NodeContext nodeContext = registry.createNodeContext(address);
+            return HazelcastInstanceFactory.newHazelcastInstance(config, null, nodeContext);
+        }
+        return newHazelcastInstance(config);
+    }
+
     public HazelcastInstance[] newInstances(Config config) {
         final HazelcastInstance[] instances = new HazelcastInstance[count];
         for (int i = 0; i < count; i++) {
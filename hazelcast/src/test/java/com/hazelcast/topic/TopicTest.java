@@ -28,6 +28,7 @@ import com.hazelcast.test.HazelcastJUnit4ClassRunner;
 import com.hazelcast.test.HazelcastTestSupport;
 import com.hazelcast.test.TestHazelcastInstanceFactory;
 import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.topic.proxy.ReliableTopicProxy;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
@@ -527,4 +528,57 @@ public class TopicTest extends HazelcastTestSupport {
         Assert.assertEquals(1000, stats.getPublishOperationCount());
         Assert.assertEquals(2000, stats.getReceiveOperationCount());
     }
+
+    @Test
+    public void testReliableTopic() throws Exception {
+        final String topicName = "reliable";
+        final Config config = new Config();
+        config.getTopicConfig(topicName).setReliable(true).setRingBufferCapacity(10000);
+        final TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        final HazelcastInstance h1 = factory.newHazelcastInstance(config);
+        final HazelcastInstance h2 = factory.newHazelcastInstance(config);
+        final int threads = 4;
+        final int count = 500;
+        final CountDownLatch latch = new CountDownLatch(2 * threads * count);
+        final AtomicInteger outOfOrder = new AtomicInteger();
+        for (HazelcastInstance hz : new HazelcastInstance[]{h1, h2}) {
+            hz.<String>getTopic(topicName).addMessageListener(new MessageListener<String>() {
+                final Map<String, Integer> lastValues = new HashMap<String, Integer>();
+
+                public void onMessage(Message<String> message) {
+                    final String[] msg = message.getMessageObject().split(":");
+                    final int value = Integer.parseInt(msg[1]);
+                    final Integer last = lastValues.put(msg[0], value);
+                    if (last != null && last + 1 != value) {
+                        outOfOrder.incrementAndGet();
+                    }
+                    latch.countDown();
+                }
+            });
+        }
+        final ExecutorService ex = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            final String publisher = String.valueOf(t);
+            final ITopic<String> topic = (t % 2 == 0 ? h1 : h2).getTopic(topicName);
+            ex.execute(new Runnable() {
+                public void run() {
+                    for (int i = 0; i < count; i++) {
+                        topic.publish(publisher + ":" + i);
+                    }
+                }
+            });
+        }
+        ex.shutdown();
+        assertTrue(latch.await(30, TimeUnit.SECONDS));
+        assertEquals(0, outOfOrder.get());
+
+        // all messages are retained and can be replayed
+        final CountDownLatch replayLatch = new CountDownLatch(threads * count);
+        ((ReliableTopicProxy<String>) h2.<String>getTopic(topicName)).addMessageListener(new MessageListener<String>() {
+            public void onMessage(Message<String> message) {
+                replayLatch.countDown();
+            }
+        }, 0);
+        assertTrue(replayLatch.await(30, TimeUnit.SECONDS));
+    }
 }
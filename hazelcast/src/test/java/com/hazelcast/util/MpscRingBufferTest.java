@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.util;
+
+import com.hazelcast.test.HazelcastJUnit4ClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastJUnit4ClassRunner.class)
+@Category(ParallelTest.class)
+public class MpscRingBufferTest {
+
+    @Test
+    public void testOfferPollAndCapacity() {
+        final MpscRingBuffer<Integer> ring = new MpscRingBuffer<Integer>(3);
+        assertEquals(4, ring.capacity());
+        assertTrue(ring.isEmpty());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i));
+        }
+        assertFalse(ring.offer(4));
+        assertEquals(4, ring.size());
+        assertEquals(0, (int) ring.poll());
+        assertTrue(ring.offer(4));
+
+        final Object[] batch = new Object[3];
+        assertEquals(3, ring.drainTo(batch));
+        assertEquals(1, batch[0]);
+        assertEquals(3, batch[2]);
+        assertEquals(4, (int) ring.poll());
+        assertNull(ring.poll());
+        assertTrue(ring.isEmpty());
+    }
+
+    @Test
+    public void testProducerOrderIsKept() throws InterruptedException {
+        final MpscRingBuffer<long[]> ring = new MpscRingBuffer<long[]>(64);
+        final int producers = 4;
+        final int count = 100000;
+        final CountDownLatch latch = new CountDownLatch(producers);
+        for (int p = 0; p < producers; p++) {
+            final int producer = p;
+            new Thread() {
+                public void run() {
+                    for (int i = 0; i < count; i++) {
+                        final long[] e = {producer, i};
+                        while (!ring.offer(e)) {
+                            Thread.yield();
+                        }
+                    }
+                    latch.countDown();
+                }
+            }.start();
+        }
+        final long[] next = new long[producers];
+        final Object[] batch = new Object[16];
+        int received = 0;
+        while (received < producers * count) {
+            final int n = ring.drainTo(batch);
+            for (int i = 0; i < n; i++) {
+                final long[] e = (long[]) batch[i];
+                assertEquals(next[(int) e[0]]++, e[1]);
+            }
+            received += n;
+        }
+        latch.await();
+        assertTrue(ring.isEmpty());
+    }
+}